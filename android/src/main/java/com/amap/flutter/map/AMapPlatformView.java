@@ -14,10 +14,12 @@ import com.amap.api.maps.AMapOptions;
 import com.amap.api.maps.TextureMapView;
 import com.amap.flutter.map.core.MapController;
 import com.amap.flutter.map.core.MapsInitializerController;
+import com.amap.flutter.map.overlays.geojson.GeoJsonController;
 import com.amap.flutter.map.overlays.marker.MarkersController;
 import com.amap.flutter.map.overlays.polygon.PolygonsController;
 import com.amap.flutter.map.overlays.polyline.PolylinesController;
 import com.amap.flutter.map.overlays.tileoverlay.TileOverlaysController;
+import com.amap.flutter.map.overlays.track.TrackPlaybackController;
 import com.amap.flutter.map.utils.LogUtil;
 
 import java.util.HashMap;
@@ -53,6 +55,8 @@ public class AMapPlatformView
     private PolylinesController polylinesController;
     private PolygonsController polygonsController;
     private TileOverlaysController tileOverlaysController;
+    private TrackPlaybackController trackPlaybackController;
+    private GeoJsonController geoJsonController;
     private TextureMapView mapView;
     private boolean disposed = false;
 
@@ -72,9 +76,16 @@ public class AMapPlatformView
             mapsInitializerController = new MapsInitializerController(methodChannel);
             mapController = new MapController(methodChannel, mapView);
             markersController = new MarkersController(methodChannel, amap);
+            markersController.setContext(context);
             polylinesController = new PolylinesController(methodChannel, amap);
+            polylinesController.setMarkersController(markersController);
+            mapController.setTapInterceptor(polylinesController);
             polygonsController = new PolygonsController(methodChannel, amap);
             tileOverlaysController = new TileOverlaysController(methodChannel, amap);
+            tileOverlaysController.setContext(context);
+            trackPlaybackController = new TrackPlaybackController(methodChannel, amap);
+            geoJsonController = new GeoJsonController(methodChannel, amap, context,
+                    polygonsController, polylinesController, markersController);
             initMyMethodCallHandlerMap();
             lifecycleProvider.getLifecycle().addObserver(this);
         } catch (Throwable e) {
@@ -124,6 +135,20 @@ public class AMapPlatformView
                 myMethodCallHandlerMap.put(methodId, tileOverlaysController);
             }
         }
+
+        methodIdArray = trackPlaybackController.getRegisterMethodIdArray();
+        if (null != methodIdArray) {
+            for (String methodId : methodIdArray) {
+                myMethodCallHandlerMap.put(methodId, trackPlaybackController);
+            }
+        }
+
+        methodIdArray = geoJsonController.getRegisterMethodIdArray();
+        if (null != methodIdArray) {
+            for (String methodId : methodIdArray) {
+                myMethodCallHandlerMap.put(methodId, geoJsonController);
+            }
+        }
     }
 
 
@@ -147,6 +172,14 @@ public class AMapPlatformView
         return tileOverlaysController;
     }
 
+    public TrackPlaybackController getTrackPlaybackController() {
+        return trackPlaybackController;
+    }
+
+    public GeoJsonController getGeoJsonController() {
+        return geoJsonController;
+    }
+
 
     @Override
     public void onMethodCall(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
@@ -268,6 +301,7 @@ public class AMapPlatformView
                 return;
             }
             methodChannel.setMethodCallHandler(null);
+            disposeControllers();
             destroyMapViewIfNecessary();
             disposed = true;
         } catch (Throwable e) {
@@ -275,6 +309,30 @@ public class AMapPlatformView
         }
     }
 
+    /**
+     * 停止逐帧回调与轨迹回放，后台线程返回的结果不再应用到已销毁的地图
+     */
+    private void disposeControllers() {
+        if (null != tileOverlaysController) {
+            tileOverlaysController.dispose();
+        }
+        if (null != trackPlaybackController) {
+            trackPlaybackController.dispose();
+        }
+        if (null != geoJsonController) {
+            geoJsonController.dispose();
+        }
+        if (null != polylinesController) {
+            polylinesController.dispose();
+        }
+        if (null != polygonsController) {
+            polygonsController.dispose();
+        }
+        if (null != markersController) {
+            markersController.dispose();
+        }
+    }
+
     private void destroyMapViewIfNecessary() {
         if (mapView == null) {
             return;
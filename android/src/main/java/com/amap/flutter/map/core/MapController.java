@@ -50,6 +50,18 @@ public class MapController
     private MethodChannel.Result mapReadyResult;
     private boolean mapLoaded = false;
     private boolean myLocationShowing = false;
+    private TapInterceptor tapInterceptor;
+
+    /**
+     * 地图点击先交给覆盖物做命中测试（如折线的点击容差），命中时不再发送 map#onTap
+     */
+    public interface TapInterceptor {
+        /**
+         * @param onMiss 没有命中时在主线程调用，由地图发送 map#onTap
+         * @return 是否接管本次点击，返回 false 时立即发送 map#onTap
+         */
+        boolean interceptTap(LatLng latLng, Runnable onMiss);
+    }
 
     public MapController(MethodChannel methodChannel, TextureMapView mapView) {
         this.methodChannel = methodChannel;
@@ -299,8 +311,24 @@ public class MapController
     }
 
 
+    public void setTapInterceptor(TapInterceptor tapInterceptor) {
+        this.tapInterceptor = tapInterceptor;
+    }
+
     @Override
-    public void onMapClick(LatLng latLng) {
+    public void onMapClick(final LatLng latLng) {
+        if (null != tapInterceptor && tapInterceptor.interceptTap(latLng, new Runnable() {
+            @Override
+            public void run() {
+                notifyMapTap(latLng);
+            }
+        })) {
+            return;
+        }
+        notifyMapTap(latLng);
+    }
+
+    private void notifyMapTap(LatLng latLng) {
         if (null != methodChannel) {
             final Map<String, Object> arguments = new HashMap<String, Object>(2);
             arguments.put("latLng", ConvertUtil.latLngToList(latLng));
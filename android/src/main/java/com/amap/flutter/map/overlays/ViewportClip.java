@@ -0,0 +1,188 @@
+package com.amap.flutter.map.overlays;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.Projection;
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.LatLngBounds;
+import com.amap.api.maps.model.VisibleRegion;
+import com.amap.flutter.map.utils.GeometryUtil;
+import com.amap.flutter.map.utils.ThreadUtil;
+import com.amap.flutter.map.utils.ViewportClipper;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 单个折线/多边形的视口裁剪状态
+ * <p>
+ * 保存裁剪前的完整几何，相机停止时在后台线程按"视口 + 边距"裁剪，结果切回主线程提交给 SDK。
+ * 视口仍在上次裁剪框内且几何没有变化时不重新裁剪。
+ */
+public class ViewportClip {
+    //默认边距，占视口宽高的比例
+    public static final float DEFAULT_MARGIN = 0.5f;
+    //放大后视口面积小于裁剪框的 1/16 时重新裁剪，减少提交给 SDK 的顶点
+    private static final double MAX_ZOOM_IN_RATIO = 16;
+
+    public interface Target {
+        /**
+         * @param sourceIndices 每个输出顶点对应的输入顶点下标（仅折线），与输入一一对应时为 null
+         * @param connectors    以该顶点为起点的线段是沿裁剪框边界的连接线段（仅折线），没有时为 null
+         */
+        void onClipped(List<LatLng> points, int[] sourceIndices, BitSet connectors);
+    }
+
+    private final boolean closed;
+    private boolean enabled = false;
+    private float margin = DEFAULT_MARGIN;
+    private List<LatLng> source;
+    private ViewportClipper clipper;
+    private int generation = 0;
+    private boolean dirty = false;
+    //上次裁剪使用的裁剪框
+    private double[] appliedRect;
+
+    /**
+     * @param closed 是否为多边形
+     */
+    public ViewportClip(boolean closed) {
+        this.closed = closed;
+    }
+
+    /**
+     * @return 开关状态是否发生变化
+     */
+    public boolean setOptions(boolean enabled, float margin) {
+        boolean changed = this.enabled != enabled;
+        this.enabled = enabled;
+        //先限制为非负再比较，否则每次传入负数都会被当作变化
+        margin = Math.max(0, margin);
+        if (this.margin != margin) {
+            this.margin = margin;
+            dirty = true;
+        }
+        if (changed) {
+            dirty = true;
+            generation++;
+            appliedRect = null;
+        }
+        return changed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 作废正在进行的裁剪，结果不再回调
+     */
+    public void cancel() {
+        generation++;
+    }
+
+    /**
+     * 保存一份快照，调用方之后修改列表不影响后台裁剪
+     */
+    public void setSource(List<LatLng> source) {
+        this.source = null != source ? new ArrayList<>(source) : null;
+        clipper = null;
+        dirty = true;
+        generation++;
+    }
+
+    public List<LatLng> getSource() {
+        return source;
+    }
+
+    /**
+     * @param viewport 当前视口（墨卡托坐标）[minX, minY, maxX, maxY]
+     */
+    public void request(double[] viewport, final Target target) {
+        if (!enabled || null == source || null == viewport) {
+            return;
+        }
+        if (!dirty && null != appliedRect && contains(appliedRect, viewport)
+                && area(viewport) * MAX_ZOOM_IN_RATIO > area(appliedRect)) {
+            return;
+        }
+        final double marginX = (viewport[2] - viewport[0]) * margin;
+        final double marginY = (viewport[3] - viewport[1]) * margin;
+        final double[] rect = new double[]{viewport[0] - marginX, viewport[1] - marginY,
+                viewport[2] + marginX, viewport[3] + marginY};
+        final int requestGeneration = generation;
+        final ViewportClipper cachedClipper = clipper;
+        final List<LatLng> points = source;
+        dirty = false;
+        appliedRect = rect;
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final ViewportClipper workClipper = null != cachedClipper ? cachedClipper : new ViewportClipper(points, closed);
+                final ViewportClipper.Result result = closed ? workClipper.clipPolygon(rect) : workClipper.clipPolyline(rect);
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!enabled || requestGeneration != generation) {
+                            return;
+                        }
+                        clipper = workClipper;
+                        target.onClipped(result.points, result.sourceIndices, result.connectors);
+                    }
+                });
+            }
+        }, new ThreadUtil.WorkerErrorHandler() {
+            @Override
+            public void onError(Throwable e) {
+                //裁剪失败时下次相机变化重新裁剪
+                if (requestGeneration == generation) {
+                    appliedRect = null;
+                    dirty = true;
+                }
+            }
+        });
+    }
+
+    private static double area(double[] rect) {
+        return (rect[2] - rect[0]) * (rect[3] - rect[1]);
+    }
+
+    private static boolean contains(double[] outer, double[] inner) {
+        return inner[0] >= outer[0] && inner[1] >= outer[1] && inner[2] <= outer[2] && inner[3] <= outer[3];
+    }
+
+    /**
+     * 当前视口的墨卡托范围，地图未就绪时返回 null
+     */
+    public static double[] viewportOf(AMap amap) {
+        if (null == amap) {
+            return null;
+        }
+        Projection projection = amap.getProjection();
+        VisibleRegion region = null != projection ? projection.getVisibleRegion() : null;
+        LatLngBounds bounds = null != region ? region.latLngBounds : null;
+        if (null == bounds || null == bounds.southwest || null == bounds.northeast) {
+            return null;
+        }
+        return viewportOf(bounds.southwest, bounds.northeast);
+    }
+
+    /**
+     * 可见范围的墨卡托矩形 [minX, minY, maxX, maxY]
+     */
+    public static double[] viewportOf(LatLng southwest, LatLng northeast) {
+        double minX = GeometryUtil.mercatorX(southwest.longitude);
+        double maxX = GeometryUtil.mercatorX(northeast.longitude);
+        if (minX > maxX) {
+            //跨越180度经线时不做横向裁剪
+            minX = 0;
+            maxX = 1;
+        }
+        return new double[]{
+                minX,
+                GeometryUtil.mercatorY(northeast.latitude),
+                maxX,
+                GeometryUtil.mercatorY(southwest.latitude)
+        };
+    }
+}
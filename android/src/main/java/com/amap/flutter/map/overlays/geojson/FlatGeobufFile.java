@@ -0,0 +1,433 @@
+package com.amap.flutter.map.overlays.geojson;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FlatGeobuf 文件（.fgb）的只读访问
+ * <p>
+ * 整个文件通过 MappedByteBuffer 映射，按需读取：用文件自带的 packed Hilbert R-tree 找到与范围相交的要素，
+ * 再按偏移量解码单个要素，内存占用与文件大小无关。Header 与 Feature 是 FlatBuffers 表，
+ * 这里只实现读取所需的最小子集。
+ * <p>
+ * 限制：单个映射不超过 2GB；坐标按经纬度（WGS84）处理；文件必须带空间索引（index_node_size &gt; 0）。
+ * 所有读取都使用绝对位置，可以在多个线程同时使用。
+ */
+class FlatGeobufFile {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int NODE_ITEM_SIZE = 40;
+
+    //GeometryType
+    private static final int POINT = 1;
+    private static final int LINE_STRING = 2;
+    private static final int POLYGON = 3;
+    private static final int MULTI_POINT = 4;
+    private static final int MULTI_LINE_STRING = 5;
+    private static final int MULTI_POLYGON = 6;
+    private static final int GEOMETRY_COLLECTION = 7;
+
+    //ColumnType
+    private static final int COLUMN_BYTE = 0;
+    private static final int COLUMN_UBYTE = 1;
+    private static final int COLUMN_BOOL = 2;
+    private static final int COLUMN_SHORT = 3;
+    private static final int COLUMN_USHORT = 4;
+    private static final int COLUMN_INT = 5;
+    private static final int COLUMN_UINT = 6;
+    private static final int COLUMN_LONG = 7;
+    private static final int COLUMN_ULONG = 8;
+    private static final int COLUMN_FLOAT = 9;
+    private static final int COLUMN_DOUBLE = 10;
+    private static final int COLUMN_STRING = 11;
+    private static final int COLUMN_JSON = 12;
+    private static final int COLUMN_DATETIME = 13;
+
+    private final MappedByteBuffer buffer;
+    private final int geometryType;
+    private final long featureCount;
+    private final int nodeSize;
+    private final String[] columnNames;
+    private final int[] columnTypes;
+    private final int indexOffset;
+    private final int featuresOffset;
+    private final long nodeCount;
+    //每层节点的 [起始序号, 结束序号)，levelBounds[0] 为叶子层，最后一层为根
+    private final long[][] levelBounds;
+
+    private FlatGeobufFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < 12 || buffer.get(0) != 'f' || buffer.get(1) != 'g' || buffer.get(2) != 'b') {
+            throw new IOException("Not a FlatGeobuf file");
+        }
+        final int headerSize = buffer.getInt(8);
+        final int header = 12 + buffer.getInt(12);
+        geometryType = ubyte(header, 2, 0);
+        featureCount = ulong(header, 8);
+        nodeSize = ushort(header, 9, 16);
+        final int columns = field(header, 7);
+        if (0 != columns) {
+            final int vector = columns + buffer.getInt(columns);
+            final int count = buffer.getInt(vector);
+            columnNames = new String[count];
+            columnTypes = new int[count];
+            for (int i = 0; i < count; i++) {
+                final int element = vector + 4 + i * 4;
+                final int column = element + buffer.getInt(element);
+                columnNames[i] = string(column, 0);
+                columnTypes[i] = ubyte(column, 1, 0);
+            }
+        } else {
+            columnNames = new String[0];
+            columnTypes = new int[0];
+        }
+        if (nodeSize < 2 || featureCount < 1) {
+            throw new IOException("FlatGeobuf file has no spatial index");
+        }
+        //packed Hilbert R-tree 各层节点个数，根节点存放在最前面
+        final List<Long> levelSizes = new ArrayList<>();
+        long n = featureCount;
+        long total = n;
+        levelSizes.add(n);
+        do {
+            n = (n + nodeSize - 1) / nodeSize;
+            total += n;
+            levelSizes.add(n);
+        } while (n != 1);
+        nodeCount = total;
+        levelBounds = new long[levelSizes.size()][];
+        long end = total;
+        for (int i = 0; i < levelSizes.size(); i++) {
+            levelBounds[i] = new long[]{end - levelSizes.get(i), end};
+            end -= levelSizes.get(i);
+        }
+        indexOffset = 12 + headerSize;
+        final long features = indexOffset + nodeCount * NODE_ITEM_SIZE;
+        if (features > buffer.capacity()) {
+            throw new IOException("Truncated FlatGeobuf index");
+        }
+        featuresOffset = (int) features;
+    }
+
+    /**
+     * 映射文件，会访问磁盘，应在后台线程调用
+     */
+    static FlatGeobufFile open(String path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("FlatGeobuf file larger than 2GB: " + path);
+            }
+            return new FlatGeobufFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            file.close();
+        }
+    }
+
+    long getFeatureCount() {
+        return featureCount;
+    }
+
+    /**
+     * 与范围相交的要素
+     *
+     * @param limit 找到 limit + 1 个时停止，调用方据此判断结果是否被截断
+     * @return 要素在要素区内的偏移量
+     */
+    List<Long> search(double minX, double minY, double maxX, double maxY, int limit) {
+        final List<Long> result = new ArrayList<>();
+        final long leafStart = nodeCount - featureCount;
+        //待访问的 [节点序号, 层]
+        final List<long[]> queue = new ArrayList<>();
+        queue.add(new long[]{0, levelBounds.length - 1});
+        while (!queue.isEmpty()) {
+            final long[] next = queue.remove(queue.size() - 1);
+            final long nodeIndex = next[0];
+            final int level = (int) next[1];
+            final boolean leaf = nodeIndex >= leafStart;
+            final long end = Math.min(nodeIndex + nodeSize, levelBounds[level][1]);
+            for (long pos = nodeIndex; pos < end; pos++) {
+                final int item = (int) (indexOffset + pos * NODE_ITEM_SIZE);
+                if (maxX < buffer.getDouble(item) || maxY < buffer.getDouble(item + 8)
+                        || minX > buffer.getDouble(item + 16) || minY > buffer.getDouble(item + 24)) {
+                    continue;
+                }
+                final long offset = buffer.getLong(item + 32);
+                if (leaf) {
+                    result.add(offset);
+                    if (result.size() > limit) {
+                        return result;
+                    }
+                } else {
+                    queue.add(new long[]{offset, level - 1});
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 解码一个要素
+     *
+     * @param offset        {@link #search} 返回的偏移量
+     * @param propertyNames 需要读取的属性，读取结果写入 properties
+     * @return 几何，类型不支持时返回 null
+     */
+    GeoJsonReader.Geometry readFeature(long offset, Set<String> propertyNames, Map<String, Object> properties) {
+        final int start = (int) (featuresOffset + offset) + 4;
+        final int feature = start + buffer.getInt(start);
+        if (!propertyNames.isEmpty()) {
+            readProperties(feature, propertyNames, properties);
+        }
+        final int geometry = field(feature, 0);
+        return 0 != geometry ? readGeometry(geometry + buffer.getInt(geometry), geometryType) : null;
+    }
+
+    private GeoJsonReader.Geometry readGeometry(int table, int type) {
+        if (0 == type) {
+            type = ubyte(table, 6, 0);
+        }
+        final GeoJsonReader.Geometry geometry = new GeoJsonReader.Geometry();
+        switch (type) {
+            case POINT: {
+                geometry.type = "Point";
+                final double[] xy = doubles(table, 1);
+                geometry.coordinates = xy.length >= 2 ? new double[]{xy[0], xy[1]} : null;
+                return null != geometry.coordinates ? geometry : null;
+            }
+            case MULTI_POINT:
+                geometry.type = "MultiPoint";
+                geometry.coordinates = new GeoJsonReader.Positions(doubles(table, 1));
+                return geometry;
+            case LINE_STRING:
+                geometry.type = "LineString";
+                geometry.coordinates = new GeoJsonReader.Positions(doubles(table, 1));
+                return geometry;
+            case MULTI_LINE_STRING:
+                geometry.type = "MultiLineString";
+                geometry.coordinates = splitByEnds(table);
+                return geometry;
+            case POLYGON:
+                geometry.type = "Polygon";
+                geometry.coordinates = splitByEnds(table);
+                return geometry;
+            case MULTI_POLYGON:
+            case GEOMETRY_COLLECTION: {
+                geometry.type = type == MULTI_POLYGON ? "MultiPolygon" : "GeometryCollection";
+                final List<Object> parts = new ArrayList<>();
+                geometry.geometries = new ArrayList<>();
+                final int vector = field(table, 7);
+                if (0 != vector) {
+                    final int partsVector = vector + buffer.getInt(vector);
+                    final int count = buffer.getInt(partsVector);
+                    for (int i = 0; i < count; i++) {
+                        final int element = partsVector + 4 + i * 4;
+                        //MultiPolygon 的成员类型固定为 Polygon
+                        final GeoJsonReader.Geometry part = readGeometry(element + buffer.getInt(element),
+                                type == MULTI_POLYGON ? POLYGON : 0);
+                        if (null != part) {
+                            parts.add(part.coordinates);
+                            geometry.geometries.add(part);
+                        }
+                    }
+                }
+                geometry.coordinates = parts;
+                return geometry;
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 按 ends 把 xy 切分为多段（环），没有 ends 时整体为一段；坐标转换为 [lat, lng]
+     */
+    private List<Object> splitByEnds(int table) {
+        final double[] xy = doubles(table, 1);
+        final int[] ends = uints(table, 0);
+        final List<Object> parts = new ArrayList<>(Math.max(1, ends.length));
+        if (ends.length == 0) {
+            parts.add(new GeoJsonReader.Positions(xy));
+            return parts;
+        }
+        int from = 0;
+        for (int end : ends) {
+            final double[] packed = new double[(end - from) * 2];
+            System.arraycopy(xy, from * 2, packed, 0, packed.length);
+            parts.add(new GeoJsonReader.Positions(packed));
+            from = end;
+        }
+        return parts;
+    }
+
+    /**
+     * xy 向量，按 [lat, lng] 顺序返回
+     */
+    private double[] doubles(int table, int field) {
+        final int vector = field(table, field);
+        if (0 == vector) {
+            return new double[0];
+        }
+        final int start = vector + buffer.getInt(vector);
+        final int count = buffer.getInt(start) / 2 * 2;
+        final double[] packed = new double[count];
+        for (int i = 0; i < count; i += 2) {
+            packed[i + 1] = buffer.getDouble(start + 4 + i * 8);
+            packed[i] = buffer.getDouble(start + 4 + (i + 1) * 8);
+        }
+        return packed;
+    }
+
+    private int[] uints(int table, int field) {
+        final int vector = field(table, field);
+        if (0 == vector) {
+            return new int[0];
+        }
+        final int start = vector + buffer.getInt(vector);
+        final int[] values = new int[buffer.getInt(start)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getInt(start + 4 + i * 4);
+        }
+        return values;
+    }
+
+    /**
+     * 属性按 [ushort 列序号, 值] 依次排列，值的编码由列类型决定
+     */
+    private void readProperties(int feature, Set<String> names, Map<String, Object> properties) {
+        final int vector = field(feature, 1);
+        if (0 == vector) {
+            return;
+        }
+        final int start = vector + buffer.getInt(vector);
+        final int end = start + 4 + buffer.getInt(start);
+        int pos = start + 4;
+        while (pos + 2 <= end) {
+            final int column = buffer.getShort(pos) & 0xffff;
+            pos += 2;
+            if (column >= columnTypes.length) {
+                return;
+            }
+            final boolean wanted = names.contains(columnNames[column]);
+            Object value = null;
+            switch (columnTypes[column]) {
+                case COLUMN_BYTE:
+                    value = (long) buffer.get(pos);
+                    pos += 1;
+                    break;
+                case COLUMN_UBYTE:
+                    value = (long) (buffer.get(pos) & 0xff);
+                    pos += 1;
+                    break;
+                case COLUMN_BOOL:
+                    value = buffer.get(pos) != 0;
+                    pos += 1;
+                    break;
+                case COLUMN_SHORT:
+                    value = (long) buffer.getShort(pos);
+                    pos += 2;
+                    break;
+                case COLUMN_USHORT:
+                    value = (long) (buffer.getShort(pos) & 0xffff);
+                    pos += 2;
+                    break;
+                case COLUMN_INT:
+                    value = (long) buffer.getInt(pos);
+                    pos += 4;
+                    break;
+                case COLUMN_UINT:
+                    value = buffer.getInt(pos) & 0xffffffffL;
+                    pos += 4;
+                    break;
+                case COLUMN_LONG:
+                case COLUMN_ULONG:
+                    value = buffer.getLong(pos);
+                    pos += 8;
+                    break;
+                case COLUMN_FLOAT:
+                    value = (double) buffer.getFloat(pos);
+                    pos += 4;
+                    break;
+                case COLUMN_DOUBLE:
+                    value = buffer.getDouble(pos);
+                    pos += 8;
+                    break;
+                default: {
+                    //String、Json、DateTime、Binary 都是 uint32 长度 + 内容
+                    final int length = buffer.getInt(pos);
+                    if (wanted && columnTypes[column] <= COLUMN_DATETIME
+                            && columnTypes[column] >= COLUMN_STRING) {
+                        value = decode(pos + 4, length);
+                    }
+                    pos += 4 + length;
+                    break;
+                }
+            }
+            if (wanted && null != value) {
+                properties.put(columnNames[column], value);
+            }
+        }
+    }
+
+    // ---- FlatBuffers 的最小读取实现 ----
+
+    /**
+     * 字段在文件中的位置，字段不存在时返回 0
+     */
+    private int field(int table, int index) {
+        final int vtable = table - buffer.getInt(table);
+        final int vtableSize = buffer.getShort(vtable) & 0xffff;
+        final int entry = 4 + index * 2;
+        if (entry >= vtableSize) {
+            return 0;
+        }
+        final int offset = buffer.getShort(vtable + entry) & 0xffff;
+        return 0 == offset ? 0 : table + offset;
+    }
+
+    private int ubyte(int table, int index, int defaultValue) {
+        final int position = field(table, index);
+        return 0 == position ? defaultValue : buffer.get(position) & 0xff;
+    }
+
+    private int ushort(int table, int index, int defaultValue) {
+        final int position = field(table, index);
+        return 0 == position ? defaultValue : buffer.getShort(position) & 0xffff;
+    }
+
+    private long ulong(int table, int index) {
+        final int position = field(table, index);
+        return 0 == position ? 0 : buffer.getLong(position);
+    }
+
+    private String string(int table, int index) {
+        final int position = field(table, index);
+        if (0 == position) {
+            return null;
+        }
+        final int start = position + buffer.getInt(position);
+        return decode(start + 4, buffer.getInt(start));
+    }
+
+    private String decode(int position, int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    List<String> getColumnNames() {
+        return Arrays.asList(columnNames);
+    }
+}
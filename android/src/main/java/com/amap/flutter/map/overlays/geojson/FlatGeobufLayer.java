@@ -0,0 +1,130 @@
+package com.amap.flutter.map.overlays.geojson;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.Projection;
+import com.amap.api.maps.model.LatLngBounds;
+import com.amap.api.maps.model.VisibleRegion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于 FlatGeobuf 文件的图层：只显示与当前视口相交的要素
+ * <p>
+ * 每次相机停止后在后台线程查询空间索引，与已显示的要素比较，只解码新进入视口的要素，
+ * 离开视口的要素对应的覆盖物被删除，因此内存与覆盖物数量只取决于视口内的要素数（最多 maxFeatures）。
+ */
+class FlatGeobufLayer {
+    //默认最多同时显示的要素数
+    static final int DEFAULT_MAX_FEATURES = 2000;
+
+    /**
+     * 一个要素生成的覆盖物 id
+     */
+    static class Overlays {
+        final List<Object> polygonIds = new ArrayList<>(1);
+        final List<Object> polylineIds = new ArrayList<>(1);
+        final List<Object> markerIds = new ArrayList<>(1);
+    }
+
+    /**
+     * 一次查询的结果，在主线程应用
+     */
+    static class Update {
+        final List<Long> removed = new ArrayList<>();
+        final Map<Long, Overlays> added = new HashMap<>();
+        final GeoJsonStyle.Batch batch = new GeoJsonStyle.Batch();
+        boolean truncated;
+    }
+
+    final String layerId;
+    final FlatGeobufFile file;
+    final int maxFeatures;
+    final float minZoom;
+    private final GeoJsonStyle style;
+    private final Set<String> propertyNames;
+    //已显示的要素（按文件内偏移量）
+    final Map<Long, Overlays> shown = new HashMap<>();
+    int generation = 0;
+
+    FlatGeobufLayer(String layerId, FlatGeobufFile file, GeoJsonStyle style, int maxFeatures, float minZoom) {
+        this.layerId = layerId;
+        this.file = file;
+        this.style = style;
+        this.propertyNames = style.getPropertyNames();
+        this.maxFeatures = maxFeatures;
+        this.minZoom = minZoom;
+    }
+
+    /**
+     * 在后台线程执行
+     *
+     * @param bounds    [minLng, minLat, maxLng, maxLat]
+     * @param displayed 查询开始时已显示的要素
+     */
+    Update query(double[] bounds, Set<Long> displayed) {
+        final Update update = new Update();
+        final List<Long> offsets = file.search(bounds[0], bounds[1], bounds[2], bounds[3], maxFeatures);
+        if (offsets.size() > maxFeatures) {
+            update.truncated = true;
+            offsets.subList(maxFeatures, offsets.size()).clear();
+        }
+        final Set<Long> visible = new HashSet<>(offsets);
+        for (Long offset : offsets) {
+            if (displayed.contains(offset)) {
+                continue;
+            }
+            final Map<String, Object> properties = new HashMap<>(propertyNames.size());
+            final GeoJsonReader.Geometry geometry = file.readFeature(offset, propertyNames, properties);
+            if (null == geometry) {
+                continue;
+            }
+            final GeoJsonStyle.Batch batch = update.batch;
+            final int polygons = batch.polygons.size();
+            final int polylines = batch.polylines.size();
+            final int markers = batch.markers.size();
+            style.collect(offset, offset, properties, geometry, batch);
+            final Overlays overlays = new Overlays();
+            collectIds(batch.polygons, polygons, overlays.polygonIds);
+            collectIds(batch.polylines, polylines, overlays.polylineIds);
+            collectIds(batch.markers, markers, overlays.markerIds);
+            update.added.put(offset, overlays);
+        }
+        for (Long offset : displayed) {
+            if (!visible.contains(offset)) {
+                update.removed.add(offset);
+            }
+        }
+        return update;
+    }
+
+    private static void collectIds(List<Object> options, int from, List<Object> ids) {
+        for (int i = from; i < options.size(); i++) {
+            ids.add(((Map<?, ?>) options.get(i)).get("id"));
+        }
+    }
+
+    /**
+     * 当前视口的经纬度范围 [minLng, minLat, maxLng, maxLat]，地图未就绪时返回 null
+     */
+    static double[] boundsOf(AMap amap) {
+        Projection projection = amap.getProjection();
+        VisibleRegion region = null != projection ? projection.getVisibleRegion() : null;
+        LatLngBounds bounds = null != region ? region.latLngBounds : null;
+        if (null == bounds || null == bounds.southwest || null == bounds.northeast) {
+            return null;
+        }
+        double minLng = bounds.southwest.longitude;
+        double maxLng = bounds.northeast.longitude;
+        if (minLng > maxLng) {
+            //跨越180度经线时不限制经度
+            minLng = -180;
+            maxLng = 180;
+        }
+        return new double[]{minLng, bounds.southwest.latitude, maxLng, bounds.northeast.latitude};
+    }
+}
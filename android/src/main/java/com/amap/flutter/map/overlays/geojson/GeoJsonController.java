@@ -0,0 +1,596 @@
+package com.amap.flutter.map.overlays.geojson;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.util.JsonReader;
+
+import androidx.annotation.NonNull;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.CameraPosition;
+import com.amap.flutter.map.MyMethodCallHandler;
+import com.amap.flutter.map.overlays.marker.MarkersController;
+import com.amap.flutter.map.overlays.polygon.PolygonsController;
+import com.amap.flutter.map.overlays.polyline.PolylinesController;
+import com.amap.flutter.map.utils.Const;
+import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.LogUtil;
+import com.amap.flutter.map.utils.ThreadUtil;
+import com.amap.flutter.map.utils.WkbReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * GeoJSON 与 WKB 导入
+ * <p>
+ * 在后台线程解析，按批切回主线程，通过各覆盖物 controller 的 addByList 创建覆盖物，
+ * 每批之后向 Dart 发送 geojson#onProgress。导入的覆盖物按图层记录（见 {@link GeoJsonLayer}），
+ * 可以通过 geojson#unload 删除，以同一 layerId 再次导入时先删除旧的图层。
+ * <p>
+ * FlatGeobuf 图层不一次性导入，而是在每次相机停止后按视口增删覆盖物，见 {@link FlatGeobufLayer}。
+ */
+public class GeoJsonController
+        implements MyMethodCallHandler,
+        AMap.OnCameraChangeListener {
+
+    private static final String CLASS_NAME = "GeoJsonController";
+    //每批提交到主线程的覆盖物个数
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final MethodChannel methodChannel;
+    private final AMap amap;
+    private final Context context;
+    private final PolygonsController polygonsController;
+    private final PolylinesController polylinesController;
+    private final MarkersController markersController;
+    private final Map<String, FlatGeobufLayer> flatGeobufLayers = new HashMap<>(2);
+    //geojson#load 与 geometries#loadWkb 导入的图层（包括正在导入的）
+    private final Map<String, GeoJsonLayer> loadedLayers = new HashMap<>(2);
+    //正在打开的 FlatGeobuf 图层及其请求序号，期间关闭或再次打开时旧请求作废
+    private final Map<String, Integer> openGenerations = new HashMap<>(2);
+    private int openGeneration = 0;
+    //地图已销毁，后台线程返回的批次直接丢弃
+    private boolean disposed = false;
+
+    public GeoJsonController(MethodChannel methodChannel,
+                             AMap amap,
+                             Context context,
+                             PolygonsController polygonsController,
+                             PolylinesController polylinesController,
+                             MarkersController markersController) {
+        this.methodChannel = methodChannel;
+        this.amap = amap;
+        this.context = context;
+        this.polygonsController = polygonsController;
+        this.polylinesController = polylinesController;
+        this.markersController = markersController;
+        amap.addOnCameraChangeListener(this);
+    }
+
+    /**
+     * 地图销毁时调用：关闭 FlatGeobuf 图层，正在导入的批次与查询结果不再应用
+     */
+    public void dispose() {
+        disposed = true;
+        for (GeoJsonLayer layer : loadedLayers.values()) {
+            layer.cancelled = true;
+        }
+        loadedLayers.clear();
+        openGenerations.clear();
+        for (FlatGeobufLayer layer : flatGeobufLayers.values()) {
+            layer.generation++;
+            layer.shown.clear();
+        }
+        flatGeobufLayers.clear();
+    }
+
+    @Override
+    public String[] getRegisterMethodIdArray() {
+        return Const.METHOD_ID_LIST_FOR_GEOJSON;
+    }
+
+    @Override
+    public void doMethodCall(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+        LogUtil.i(CLASS_NAME, "doMethodCall===>" + call.method);
+        switch (call.method) {
+            case Const.METHOD_GEOJSON_LOAD:
+                load(call, result);
+                break;
+            case Const.METHOD_GEOJSON_UNLOAD:
+                unload((String) call.argument("layerId"));
+                result.success(null);
+                break;
+            case Const.METHOD_GEOMETRIES_LOAD_WKB:
+                loadWkb(call, result);
+                break;
+            case Const.METHOD_FLATGEOBUF_OPEN:
+                openFlatGeobuf(call, result);
+                break;
+            case Const.METHOD_FLATGEOBUF_CLOSE:
+                final String layerId = call.argument("layerId");
+                openGenerations.remove(layerId);
+                closeFlatGeobuf(layerId);
+                result.success(null);
+                break;
+        }
+    }
+
+    /**
+     * @param call layerId: 图层 id（覆盖物 id 的前缀）, asset: Flutter 资源名 或 path: 文件路径,
+     *             batchSize: 每批创建的覆盖物个数, 其余参数见 {@link GeoJsonStyle}
+     * @param result {layerId, features, polygons, polylines, markers, duplicates}；解析失败时已经创建的覆盖物保留，
+     *               导入期间图层被卸载或重新导入时返回 null
+     */
+    private void load(MethodCall call, final MethodChannel.Result result) {
+        final String layerId = call.argument("layerId");
+        final String asset = call.argument("asset");
+        final String path = call.argument("path");
+        if (TextUtils.isEmpty(layerId) || (TextUtils.isEmpty(asset) && TextUtils.isEmpty(path))) {
+            result.error("INVALID_ARGUMENT", "geojson#load requires layerId and asset or path", null);
+            return;
+        }
+        final Object batchSizeData = call.argument("batchSize");
+        final int batchSize = null != batchSizeData ? Math.max(1, ConvertUtil.toInt(batchSizeData)) : DEFAULT_BATCH_SIZE;
+        final GeoJsonStyle style;
+        try {
+            style = new GeoJsonStyle(layerId, ConvertUtil.toMap(call.arguments));
+        } catch (Exception e) {
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+            return;
+        }
+        if (flatGeobufLayers.containsKey(layerId) || openGenerations.containsKey(layerId)) {
+            result.error("INVALID_ARGUMENT", "layerId " + layerId + " is used by a FlatGeobuf layer", null);
+            return;
+        }
+        //FlutterLoader 需要在主线程初始化
+        final String assetKey = !TextUtils.isEmpty(asset) ? ConvertUtil.getLookupKeyForAsset(context, asset) : null;
+        final GeoJsonLayer layer = beginLoad(layerId);
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final int[] counts = new int[5];
+                try {
+                    final InputStream in;
+                    final long totalBytes;
+                    if (null != assetKey) {
+                        in = context.getAssets().open(assetKey);
+                        totalBytes = in.available();
+                    } else {
+                        in = new FileInputStream(path);
+                        totalBytes = new File(path).length();
+                    }
+                    parse(layer, in, totalBytes, style, batchSize, counts);
+                } catch (final Exception e) {
+                    LogUtil.e(CLASS_NAME, "load", e);
+                    ThreadUtil.postOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (layer.cancelled) {
+                                result.success(null);
+                                return;
+                            }
+                            result.error("GEOJSON_LOAD_FAILED", e.getMessage(), null);
+                        }
+                    });
+                    return;
+                }
+                finishLoad(layer, counts, result);
+            }
+        }, ThreadUtil.replyError(result, "WORKER_ERROR"));
+    }
+
+    /**
+     * 删除同名的旧图层（包括正在导入的），登记新图层
+     */
+    private GeoJsonLayer beginLoad(String layerId) {
+        unload(layerId);
+        final GeoJsonLayer layer = new GeoJsonLayer(layerId);
+        loadedLayers.put(layerId, layer);
+        return layer;
+    }
+
+    private void finishLoad(final GeoJsonLayer layer, final int[] counts, final MethodChannel.Result result) {
+        ThreadUtil.postOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                result.success(layer.cancelled ? null : toResultMap(layer.layerId, counts));
+            }
+        });
+    }
+
+    /**
+     * 停止正在进行的导入并删除图层的覆盖物
+     */
+    private void unload(String layerId) {
+        final GeoJsonLayer layer = null != layerId ? loadedLayers.remove(layerId) : null;
+        if (null == layer) {
+            return;
+        }
+        layer.cancelled = true;
+        polygonsController.removeByIdList(layer.polygonIds);
+        polylinesController.removeByIdList(layer.polylineIds);
+        markersController.removeByIdList(layer.markerIds);
+    }
+
+    /**
+     * 批量导入 WKB 几何，Multi* 拆成多个覆盖物，样式与 geojson#load 相同
+     *
+     * @param call layerId, geometries: WKB 字节数组列表, ids: 可选，与 geometries 对应的 id,
+     *             properties: 可选，与 geometries 对应的属性（用于样式规则）, batchSize, 其余参数见 {@link GeoJsonStyle}
+     * @param result 同 geojson#load
+     */
+    private void loadWkb(MethodCall call, final MethodChannel.Result result) {
+        final String layerId = call.argument("layerId");
+        final List<?> geometries = call.argument("geometries");
+        if (TextUtils.isEmpty(layerId) || null == geometries) {
+            result.error("INVALID_ARGUMENT", "geometries#loadWkb requires layerId and geometries", null);
+            return;
+        }
+        final List<?> ids = call.argument("ids");
+        final List<?> properties = call.argument("properties");
+        final Object batchSizeData = call.argument("batchSize");
+        final int batchSize = null != batchSizeData ? Math.max(1, ConvertUtil.toInt(batchSizeData)) : DEFAULT_BATCH_SIZE;
+        final GeoJsonStyle style;
+        try {
+            style = new GeoJsonStyle(layerId, ConvertUtil.toMap(call.arguments));
+        } catch (Exception e) {
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+            return;
+        }
+        if (flatGeobufLayers.containsKey(layerId) || openGenerations.containsKey(layerId)) {
+            result.error("INVALID_ARGUMENT", "layerId " + layerId + " is used by a FlatGeobuf layer", null);
+            return;
+        }
+        final GeoJsonLayer layer = beginLoad(layerId);
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final int[] counts = new int[5];
+                GeoJsonStyle.Batch batch = new GeoJsonStyle.Batch();
+                for (int i = 0; i < geometries.size() && !layer.cancelled; i++) {
+                    final GeoJsonReader.Geometry geometry;
+                    try {
+                        geometry = GeoJsonReader.fromWkb(WkbReader.read((byte[]) geometries.get(i)));
+                    } catch (Exception e) {
+                        LogUtil.w(CLASS_NAME, "loadWkb==> skip geometry " + i + ": " + e.getMessage());
+                        continue;
+                    }
+                    counts[0]++;
+                    style.collect(null != ids && i < ids.size() ? ids.get(i) : null, i,
+                            toProperties(null != properties && i < properties.size() ? properties.get(i) : null),
+                            geometry, batch);
+                    if (batch.size() >= batchSize) {
+                        submit(layer, batch, i + 1, geometries.size(), counts);
+                        batch = new GeoJsonStyle.Batch();
+                    }
+                }
+                submit(layer, batch, geometries.size(), geometries.size(), counts);
+                finishLoad(layer, counts, result);
+            }
+        }, ThreadUtil.replyError(result, "WORKER_ERROR"));
+    }
+
+    /**
+     * 打开 FlatGeobuf 图层，文件映射在后台线程完成，之后立即按当前视口显示
+     *
+     * @param call layerId, path: .fgb 文件路径, maxFeatures: 最多同时显示的要素数,
+     *             minZoom: 低于该缩放级别时不显示, 其余参数见 {@link GeoJsonStyle}
+     * @param result {layerId, featureCount, columns: 属性列名}
+     */
+    private void openFlatGeobuf(MethodCall call, final MethodChannel.Result result) {
+        final String layerId = call.argument("layerId");
+        final String path = call.argument("path");
+        if (TextUtils.isEmpty(layerId) || TextUtils.isEmpty(path)) {
+            result.error("INVALID_ARGUMENT", "flatgeobuf#open requires layerId and path", null);
+            return;
+        }
+        if (loadedLayers.containsKey(layerId)) {
+            result.error("INVALID_ARGUMENT", "layerId " + layerId + " is used by a GeoJSON layer", null);
+            return;
+        }
+        final Object maxFeaturesData = call.argument("maxFeatures");
+        final Object minZoomData = call.argument("minZoom");
+        final int maxFeatures = null != maxFeaturesData
+                ? Math.max(1, ConvertUtil.toInt(maxFeaturesData)) : FlatGeobufLayer.DEFAULT_MAX_FEATURES;
+        final float minZoom = null != minZoomData ? ConvertUtil.toFloat(minZoomData) : 0;
+        final GeoJsonStyle style;
+        try {
+            style = new GeoJsonStyle(layerId, ConvertUtil.toMap(call.arguments));
+        } catch (Exception e) {
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+            return;
+        }
+        final int generation = ++openGeneration;
+        openGenerations.put(layerId, generation);
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                FlatGeobufFile file = null;
+                String error = null;
+                try {
+                    file = FlatGeobufFile.open(path);
+                } catch (Exception e) {
+                    error = e.getMessage();
+                    LogUtil.e(CLASS_NAME, "openFlatGeobuf", e);
+                }
+                final FlatGeobufFile flatGeobufFile = file;
+                final String message = error;
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Integer current = openGenerations.get(layerId);
+                        if (null == current || current != generation) {
+                            result.success(null);
+                            return;
+                        }
+                        openGenerations.remove(layerId);
+                        if (null == flatGeobufFile) {
+                            result.error("FLATGEOBUF_OPEN_FAILED", message, null);
+                            return;
+                        }
+                        closeFlatGeobuf(layerId);
+                        final FlatGeobufLayer layer = new FlatGeobufLayer(layerId, flatGeobufFile, style,
+                                maxFeatures, minZoom);
+                        flatGeobufLayers.put(layerId, layer);
+                        refreshFlatGeobuf(layer);
+                        final Map<String, Object> data = new HashMap<>(4);
+                        data.put("layerId", layerId);
+                        data.put("featureCount", flatGeobufFile.getFeatureCount());
+                        data.put("columns", flatGeobufFile.getColumnNames());
+                        result.success(data);
+                    }
+                });
+            }
+        }, new ThreadUtil.WorkerErrorHandler() {
+            @Override
+            public void onError(Throwable e) {
+                Integer current = openGenerations.get(layerId);
+                if (null != current && current == generation) {
+                    openGenerations.remove(layerId);
+                }
+                result.error("FLATGEOBUF_OPEN_FAILED", String.valueOf(e.getMessage()), null);
+            }
+        });
+    }
+
+    private void closeFlatGeobuf(String layerId) {
+        final FlatGeobufLayer layer = flatGeobufLayers.remove(layerId);
+        if (null == layer) {
+            return;
+        }
+        layer.generation++;
+        removeOverlays(layer, new ArrayList<>(layer.shown.keySet()));
+    }
+
+    /**
+     * 按当前视口在后台线程查询，完成后在主线程增删覆盖物；期间再次刷新时旧结果作废
+     */
+    private void refreshFlatGeobuf(final FlatGeobufLayer layer) {
+        final CameraPosition cameraPosition = amap.getCameraPosition();
+        final double[] bounds = FlatGeobufLayer.boundsOf(amap);
+        final int generation = ++layer.generation;
+        if (null == bounds || (null != cameraPosition && cameraPosition.zoom < layer.minZoom)) {
+            final int removed = layer.shown.size();
+            removeOverlays(layer, new ArrayList<>(layer.shown.keySet()));
+            notifyFlatGeobufUpdate(layer, 0, removed, false);
+            return;
+        }
+        final Set<Long> displayed = new HashSet<>(layer.shown.keySet());
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final FlatGeobufLayer.Update update = layer.query(bounds, displayed);
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != layer.generation || flatGeobufLayers.get(layer.layerId) != layer) {
+                            return;
+                        }
+                        removeOverlays(layer, update.removed);
+                        if (!update.batch.polygons.isEmpty()) {
+                            polygonsController.addByList(update.batch.polygons);
+                        }
+                        if (!update.batch.polylines.isEmpty()) {
+                            polylinesController.addByList(update.batch.polylines);
+                        }
+                        if (!update.batch.markers.isEmpty()) {
+                            markersController.addByList(update.batch.markers);
+                        }
+                        layer.shown.putAll(update.added);
+                        notifyFlatGeobufUpdate(layer, update.added.size(), update.removed.size(), update.truncated);
+                    }
+                });
+            }
+        });
+    }
+
+    private void removeOverlays(FlatGeobufLayer layer, List<Long> offsets) {
+        if (offsets.isEmpty()) {
+            return;
+        }
+        final List<Object> polygonIds = new ArrayList<>();
+        final List<Object> polylineIds = new ArrayList<>();
+        final List<Object> markerIds = new ArrayList<>();
+        for (Long offset : offsets) {
+            final FlatGeobufLayer.Overlays overlays = layer.shown.remove(offset);
+            if (null != overlays) {
+                polygonIds.addAll(overlays.polygonIds);
+                polylineIds.addAll(overlays.polylineIds);
+                markerIds.addAll(overlays.markerIds);
+            }
+        }
+        polygonsController.removeByIdList(polygonIds);
+        polylinesController.removeByIdList(polylineIds);
+        markersController.removeByIdList(markerIds);
+    }
+
+    private void notifyFlatGeobufUpdate(FlatGeobufLayer layer, int added, int removed, boolean truncated) {
+        final Map<String, Object> data = new HashMap<>(8);
+        data.put("layerId", layer.layerId);
+        data.put("count", layer.shown.size());
+        data.put("added", added);
+        data.put("removed", removed);
+        data.put("truncated", truncated);
+        methodChannel.invokeMethod("flatgeobuf#onUpdate", data);
+    }
+
+    @Override
+    public void onCameraChange(CameraPosition cameraPosition) {
+
+    }
+
+    @Override
+    public void onCameraChangeFinish(CameraPosition cameraPosition) {
+        for (FlatGeobufLayer layer : flatGeobufLayers.values()) {
+            refreshFlatGeobuf(layer);
+        }
+    }
+
+    private static Map<String, Object> toProperties(Object o) {
+        final Map<String, Object> properties = new HashMap<>();
+        if (o instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+                properties.put(ConvertUtil.toString(entry.getKey()), entry.getValue());
+            }
+        }
+        return properties;
+    }
+
+    private static Map<String, Object> toResultMap(String layerId, int[] counts) {
+        final Map<String, Object> data = new HashMap<>(8);
+        data.put("layerId", layerId);
+        data.put("features", counts[0]);
+        data.put("polygons", counts[1]);
+        data.put("polylines", counts[2]);
+        data.put("markers", counts[3]);
+        data.put("duplicates", counts[4]);
+        return data;
+    }
+
+    /**
+     * 在后台线程执行
+     *
+     * @param counts 输出 [Feature 数, 多边形数, 折线数, Marker 数, 重复 id 丢弃的覆盖物数]
+     */
+    private void parse(final GeoJsonLayer layer, InputStream in, final long totalBytes, final GeoJsonStyle style,
+                       final int batchSize, final int[] counts) throws IOException {
+        final CountingInputStream countingStream = new CountingInputStream(in);
+        final JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(countingStream, Charset.forName("UTF-8")), 64 * 1024));
+        try {
+            final GeoJsonStyle.Batch[] batch = {new GeoJsonStyle.Batch()};
+            new GeoJsonReader(reader, style.getPropertyNames()).read(new GeoJsonReader.Listener() {
+                @Override
+                public void onFeature(Object id, Map<String, Object> properties, GeoJsonReader.Geometry geometry) {
+                    if (layer.cancelled) {
+                        throw new CancellationException();
+                    }
+                    style.collect(id, counts[0]++, properties, geometry, batch[0]);
+                    if (batch[0].size() >= batchSize) {
+                        submit(layer, batch[0], countingStream.count, totalBytes, counts);
+                        batch[0] = new GeoJsonStyle.Batch();
+                    }
+                }
+            });
+            submit(layer, batch[0], countingStream.count, totalBytes, counts);
+        } catch (CancellationException e) {
+            //图层已卸载或重新导入，停止解析
+            LogUtil.i(CLASS_NAME, "parse==> cancelled " + layer.layerId);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 在解析线程执行，上一批在主线程应用完之前阻塞
+     */
+    private void submit(final GeoJsonLayer layer, final GeoJsonStyle.Batch batch, final long bytesRead,
+                        final long totalBytes, int[] counts) {
+        if (!layer.awaitApplied()) {
+            return;
+        }
+        final int duplicates = layer.dropDuplicates(batch);
+        if (duplicates > 0) {
+            LogUtil.w(CLASS_NAME, "submit==> drop " + duplicates + " overlays with duplicate ids in " + layer.layerId);
+        }
+        counts[1] += batch.polygons.size();
+        counts[2] += batch.polylines.size();
+        counts[3] += batch.markers.size();
+        counts[4] += duplicates;
+        final int features = counts[0];
+        final String layerId = layer.layerId;
+        ThreadUtil.postOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (disposed || layer.cancelled) {
+                        return;
+                    }
+                    layer.record(batch);
+                    if (!batch.polygons.isEmpty()) {
+                        polygonsController.addByList(batch.polygons);
+                    }
+                    if (!batch.polylines.isEmpty()) {
+                        polylinesController.addByList(batch.polylines);
+                    }
+                    if (!batch.markers.isEmpty()) {
+                        markersController.addByList(batch.markers);
+                    }
+                } finally {
+                    //应用完才允许解析线程提交下一批
+                    layer.applied();
+                }
+                final Map<String, Object> data = new HashMap<>(4);
+                data.put("layerId", layerId);
+                data.put("bytesRead", bytesRead);
+                data.put("totalBytes", totalBytes);
+                data.put("features", features);
+                methodChannel.invokeMethod("geojson#onProgress", data);
+            }
+        });
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        //只在解析线程读写
+        long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
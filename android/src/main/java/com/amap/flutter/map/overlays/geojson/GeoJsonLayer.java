@@ -0,0 +1,97 @@
+package com.amap.flutter.map.overlays.geojson;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * geojson#load / geometries#loadWkb 导入的图层
+ * <p>
+ * 记录已经创建的覆盖物 id，用于卸载或以同一 layerId 重新导入时删除旧的覆盖物。
+ * 解析线程每提交一批都要等上一批在主线程应用完，避免解析远快于创建覆盖物时主线程队列无限堆积。
+ */
+class GeoJsonLayer {
+    final String layerId;
+    //已创建的覆盖物 id，只在主线程读写
+    final List<Object> polygonIds = new ArrayList<>();
+    final List<Object> polylineIds = new ArrayList<>();
+    final List<Object> markerIds = new ArrayList<>();
+    //卸载、重新导入或地图销毁后为 true，解析线程尽快停止
+    volatile boolean cancelled = false;
+    //已经生成的覆盖物 id，只在解析线程读写，重复的 id 被丢弃
+    private final Set<Object> collectedIds = new HashSet<>();
+    //同一时间只有一批在等待主线程
+    private final Semaphore pending = new Semaphore(1);
+
+    GeoJsonLayer(String layerId) {
+        this.layerId = layerId;
+    }
+
+    /**
+     * 在解析线程执行，等待上一批应用完成
+     *
+     * @return false 表示图层已经取消
+     */
+    boolean awaitApplied() {
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+            return false;
+        }
+        if (cancelled) {
+            //不再提交，许可留给之后的调用
+            pending.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 在主线程执行，一批应用完成或被丢弃后调用
+     */
+    void applied() {
+        pending.release();
+    }
+
+    /**
+     * 在解析线程执行，去掉 id 与之前重复的覆盖物，避免覆盖同 id 的覆盖物后旧的无法删除
+     *
+     * @return 去掉的个数
+     */
+    int dropDuplicates(GeoJsonStyle.Batch batch) {
+        return dropDuplicates(batch.polygons) + dropDuplicates(batch.polylines) + dropDuplicates(batch.markers);
+    }
+
+    private int dropDuplicates(List<Object> options) {
+        int dropped = 0;
+        final Iterator<Object> iterator = options.iterator();
+        while (iterator.hasNext()) {
+            if (!collectedIds.add(((Map<?, ?>) iterator.next()).get("id"))) {
+                iterator.remove();
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * 在主线程执行，记录一批新建覆盖物的 id
+     */
+    void record(GeoJsonStyle.Batch batch) {
+        collectIds(batch.polygons, polygonIds);
+        collectIds(batch.polylines, polylineIds);
+        collectIds(batch.markers, markerIds);
+    }
+
+    private static void collectIds(List<Object> options, List<Object> ids) {
+        for (Object option : options) {
+            ids.add(((Map<?, ?>) option).get("id"));
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.amap.flutter.map.overlays.geojson;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.amap.flutter.map.utils.WkbReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * GeoJSON 流式解析
+ * <p>
+ * 基于 {@link JsonReader} 逐个 token 读取，每解析完一个 Feature 就交给 {@link Listener}，不构建整棵 DOM；
+ * properties 只保留调用方关心的字段，其余直接跳过。
+ * 坐标按 GeoJSON 的 [lng, lat] 读取，转换为 [lat, lng] 存放。
+ */
+class GeoJsonReader {
+
+    interface Listener {
+        /**
+         * @param id         Feature 的 id 成员，没有时为 null
+         * @param properties 只包含需要的字段
+         */
+        void onFeature(Object id, Map<String, Object> properties, Geometry geometry) throws IOException;
+    }
+
+    static class Geometry {
+        String type;
+        //Point: double[]{lat, lng}；一组点: Positions；更深的嵌套: List
+        Object coordinates;
+        //GeometryCollection
+        List<Geometry> geometries;
+    }
+
+    /**
+     * 连续的点，[lat0, lng0, lat1, lng1, ...]
+     */
+    static class Positions {
+        double[] packed;
+        int count;
+
+        Positions() {
+            packed = new double[16];
+            count = 0;
+        }
+
+        Positions(double[] packed) {
+            this.packed = packed;
+            this.count = packed.length / 2;
+        }
+
+        void add(double[] position) {
+            if (count * 2 + 2 > packed.length) {
+                packed = Arrays.copyOf(packed, packed.length * 2);
+            }
+            packed[count * 2] = position[0];
+            packed[count * 2 + 1] = position[1];
+            count++;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(packed, count * 2);
+        }
+    }
+
+    /**
+     * 把 WKB 几何转换为同样的结构，复用 {@link GeoJsonStyle} 的转换
+     */
+    static Geometry fromWkb(WkbReader.Geometry wkb) {
+        final Geometry geometry = new Geometry();
+        geometry.type = wkb.type;
+        if (null != wkb.parts) {
+            final List<Object> parts = new ArrayList<>(wkb.parts.size());
+            geometry.geometries = new ArrayList<>(wkb.parts.size());
+            for (WkbReader.Geometry part : wkb.parts) {
+                final Geometry child = fromWkb(part);
+                geometry.geometries.add(child);
+                parts.add(child.coordinates);
+            }
+            if ("MultiPoint".equals(wkb.type)) {
+                final Positions positions = new Positions();
+                for (Object point : parts) {
+                    if (point instanceof double[]) {
+                        positions.add((double[]) point);
+                    }
+                }
+                geometry.coordinates = positions;
+            } else {
+                geometry.coordinates = parts;
+            }
+        } else if (null != wkb.rings) {
+            final List<Object> rings = new ArrayList<>(wkb.rings.size());
+            for (double[] ring : wkb.rings) {
+                rings.add(new Positions(ring));
+            }
+            geometry.coordinates = rings;
+        } else if ("Point".equals(wkb.type)) {
+            geometry.coordinates = wkb.coordinates;
+        } else if (null != wkb.coordinates) {
+            geometry.coordinates = new Positions(wkb.coordinates);
+        }
+        return geometry;
+    }
+
+    private final JsonReader reader;
+    private final Set<String> propertyNames;
+
+    GeoJsonReader(JsonReader reader, Set<String> propertyNames) {
+        this.reader = reader;
+        this.propertyNames = propertyNames;
+    }
+
+    /**
+     * 支持 FeatureCollection、单个 Feature 或单个几何对象
+     */
+    void read(Listener listener) throws IOException {
+        Object id = null;
+        Map<String, Object> properties = null;
+        Geometry geometry = null;
+        Geometry bare = new Geometry();
+        boolean isBare = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "features":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readFeature(listener);
+                    }
+                    reader.endArray();
+                    break;
+                case "id":
+                    id = readPrimitive();
+                    break;
+                case "properties":
+                    properties = readProperties();
+                    break;
+                case "geometry":
+                    geometry = readGeometry();
+                    break;
+                case "type":
+                    bare.type = reader.nextString();
+                    break;
+                case "coordinates":
+                    bare.coordinates = readCoordinates();
+                    isBare = true;
+                    break;
+                case "geometries":
+                    bare.geometries = readGeometries();
+                    isBare = true;
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        if (null != geometry) {
+            listener.onFeature(id, null != properties ? properties : new HashMap<String, Object>(), geometry);
+        } else if (isBare) {
+            listener.onFeature(null, new HashMap<String, Object>(), bare);
+        }
+    }
+
+    private void readFeature(Listener listener) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        Object id = null;
+        Map<String, Object> properties = null;
+        Geometry geometry = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = readPrimitive();
+                    break;
+                case "properties":
+                    properties = readProperties();
+                    break;
+                case "geometry":
+                    geometry = readGeometry();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        if (null != geometry) {
+            listener.onFeature(id, null != properties ? properties : new HashMap<String, Object>(), geometry);
+        }
+    }
+
+    private Map<String, Object> readProperties() throws IOException {
+        final Map<String, Object> properties = new HashMap<>(propertyNames.size());
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return properties;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (propertyNames.contains(name)) {
+                properties.put(name, readPrimitive());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return properties;
+    }
+
+    /**
+     * 字符串、数字、布尔值，其他类型跳过并返回 null
+     */
+    private Object readPrimitive() throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                //保留原始写法，整数 id 不会变成 1.0
+                final String number = reader.nextString();
+                try {
+                    return Long.parseLong(number);
+                } catch (NumberFormatException e) {
+                    return Double.parseDouble(number);
+                }
+            case BOOLEAN:
+                return reader.nextBoolean();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private Geometry readGeometry() throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        final Geometry geometry = new Geometry();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type":
+                    geometry.type = reader.nextString();
+                    break;
+                case "coordinates":
+                    geometry.coordinates = readCoordinates();
+                    break;
+                case "geometries":
+                    geometry.geometries = readGeometries();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return null != geometry.type ? geometry : null;
+    }
+
+    private List<Geometry> readGeometries() throws IOException {
+        final List<Geometry> geometries = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            final Geometry geometry = readGeometry();
+            if (null != geometry) {
+                geometries.add(geometry);
+            }
+        }
+        reader.endArray();
+        return geometries;
+    }
+
+    /**
+     * 单个点返回 double[]{lat, lng}，点数组直接写入 Positions，更深的嵌套返回 List
+     */
+    private Object readCoordinates() throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        reader.beginArray();
+        if (reader.peek() == JsonToken.NUMBER) {
+            final double lng = reader.nextDouble();
+            final double lat = reader.nextDouble();
+            //忽略高程等额外维度
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endArray();
+            return new double[]{lat, lng};
+        }
+        Positions positions = null;
+        List<Object> children = null;
+        while (reader.hasNext()) {
+            final Object child = readCoordinates();
+            if (child instanceof double[]) {
+                if (null == positions) {
+                    positions = new Positions();
+                }
+                positions.add((double[]) child);
+            } else if (null != child) {
+                if (null == children) {
+                    children = new ArrayList<>();
+                }
+                children.add(child);
+            }
+        }
+        reader.endArray();
+        if (null != positions) {
+            return positions;
+        }
+        return null != children ? children : new ArrayList<>();
+    }
+}
@@ -0,0 +1,240 @@
+package com.amap.flutter.map.overlays.geojson;
+
+import com.amap.flutter.map.utils.ConvertUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 把 GeoJSON Feature 转换为各覆盖物的选项（与 Dart 侧 polygons#update 等方法传入的格式一致）
+ * <p>
+ * 参数格式:
+ * <pre>
+ * idProperty: 作为 id 的属性名，缺省时使用 Feature 的 id，都没有时使用序号
+ * polygon / polyline / marker: 各类覆盖物的默认选项
+ * rules: [{property, equals | in: [...], polygon?, polyline?, marker?}]，按顺序匹配，后匹配的覆盖先匹配的
+ * </pre>
+ * 覆盖物 id 为 "layerId:featureId"，Multi* 几何的第 k 个（k &gt; 0）部分追加 "#k"。
+ */
+class GeoJsonStyle {
+    private static final int KIND_POLYGON = 0;
+    private static final int KIND_POLYLINE = 1;
+    private static final int KIND_MARKER = 2;
+
+    static class Batch {
+        final List<Object> polygons = new ArrayList<>();
+        final List<Object> polylines = new ArrayList<>();
+        final List<Object> markers = new ArrayList<>();
+
+        int size() {
+            return polygons.size() + polylines.size() + markers.size();
+        }
+    }
+
+    private static class Rule {
+        final String property;
+        final Set<String> values;
+        final Map<?, ?> polygon;
+        final Map<?, ?> polyline;
+        final Map<?, ?> marker;
+
+        Rule(Map<?, ?> data) {
+            property = ConvertUtil.toString(data.get("property"));
+            values = new HashSet<>();
+            if (null != data.get("equals")) {
+                values.add(String.valueOf(data.get("equals")));
+            }
+            if (null != data.get("in")) {
+                for (Object value : ConvertUtil.toList(data.get("in"))) {
+                    values.add(String.valueOf(value));
+                }
+            }
+            polygon = toStyle(data.get("polygon"));
+            polyline = toStyle(data.get("polyline"));
+            marker = toStyle(data.get("marker"));
+        }
+
+        boolean matches(Map<String, Object> properties) {
+            final Object value = properties.get(property);
+            return null != value && values.contains(String.valueOf(value));
+        }
+    }
+
+    private final String layerId;
+    private final String idProperty;
+    private final Map<?, ?> polygon;
+    private final Map<?, ?> polyline;
+    private final Map<?, ?> marker;
+    private final List<Rule> rules = new ArrayList<>();
+
+    GeoJsonStyle(String layerId, Map<?, ?> data) {
+        this.layerId = layerId;
+        this.idProperty = null != data.get("idProperty") ? ConvertUtil.toString(data.get("idProperty")) : null;
+        this.polygon = toStyle(data.get("polygon"));
+        this.polyline = toStyle(data.get("polyline"));
+        this.marker = toStyle(data.get("marker"));
+        if (null != data.get("rules")) {
+            for (Object rule : ConvertUtil.toList(data.get("rules"))) {
+                rules.add(new Rule(ConvertUtil.toMap(rule)));
+            }
+        }
+    }
+
+    private static Map<?, ?> toStyle(Object o) {
+        return null != o ? ConvertUtil.toMap(o) : new HashMap<>();
+    }
+
+    /**
+     * 解析时需要保留的属性
+     */
+    Set<String> getPropertyNames() {
+        final Set<String> names = new HashSet<>();
+        if (null != idProperty) {
+            names.add(idProperty);
+        }
+        for (Rule rule : rules) {
+            names.add(rule.property);
+        }
+        return names;
+    }
+
+    /**
+     * 转换一个 Feature 并加入 batch
+     * <p>
+     * 同一个 style 可能被多个查询同时使用，所以不保存状态，序号由调用方提供
+     *
+     * @param fallbackIndex 没有 id 时使用的序号，如 Feature 在文件中的序号或偏移
+     * @return 生成的覆盖物个数，几何不支持或无效时为 0
+     */
+    int collect(Object featureId, long fallbackIndex, Map<String, Object> properties,
+                GeoJsonReader.Geometry geometry, Batch batch) {
+        Object id = null != idProperty ? properties.get(idProperty) : null;
+        if (null == id) {
+            id = null != featureId ? featureId : fallbackIndex;
+        }
+        final int[] part = {0};
+        collect(layerId + ":" + id, properties, geometry, batch, part);
+        return part[0];
+    }
+
+    private void collect(String baseId, Map<String, Object> properties, GeoJsonReader.Geometry geometry,
+                         Batch batch, int[] part) {
+        final Object coordinates = geometry.coordinates;
+        switch (geometry.type) {
+            case "Point":
+                if (coordinates instanceof double[]) {
+                    addMarker(baseId, properties, (double[]) coordinates, batch, part);
+                }
+                break;
+            case "MultiPoint":
+                if (coordinates instanceof GeoJsonReader.Positions) {
+                    final double[] packed = ((GeoJsonReader.Positions) coordinates).toArray();
+                    for (int i = 0; i + 1 < packed.length; i += 2) {
+                        addMarker(baseId, properties, new double[]{packed[i], packed[i + 1]}, batch, part);
+                    }
+                }
+                break;
+            case "LineString":
+                if (coordinates instanceof GeoJsonReader.Positions) {
+                    addPolyline(baseId, properties, (GeoJsonReader.Positions) coordinates, batch, part);
+                }
+                break;
+            case "MultiLineString":
+                if (coordinates instanceof List) {
+                    for (Object line : (List<?>) coordinates) {
+                        if (line instanceof GeoJsonReader.Positions) {
+                            addPolyline(baseId, properties, (GeoJsonReader.Positions) line, batch, part);
+                        }
+                    }
+                }
+                break;
+            case "Polygon":
+                if (coordinates instanceof List) {
+                    addPolygon(baseId, properties, (List<?>) coordinates, batch, part);
+                }
+                break;
+            case "MultiPolygon":
+                if (coordinates instanceof List) {
+                    for (Object rings : (List<?>) coordinates) {
+                        if (rings instanceof List) {
+                            addPolygon(baseId, properties, (List<?>) rings, batch, part);
+                        }
+                    }
+                }
+                break;
+            case "GeometryCollection":
+                if (null != geometry.geometries) {
+                    for (GeoJsonReader.Geometry child : geometry.geometries) {
+                        collect(baseId, properties, child, batch, part);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addMarker(String baseId, Map<String, Object> properties, double[] position,
+                           Batch batch, int[] part) {
+        final Map<String, Object> options = newOptions(marker, properties, KIND_MARKER, nextId(baseId, part));
+        options.put("position", Arrays.asList(position[0], position[1]));
+        batch.markers.add(options);
+    }
+
+    private void addPolyline(String baseId, Map<String, Object> properties, GeoJsonReader.Positions line,
+                             Batch batch, int[] part) {
+        if (line.count < 2) {
+            return;
+        }
+        final Map<String, Object> options = newOptions(polyline, properties, KIND_POLYLINE, nextId(baseId, part));
+        options.put("points", line.toArray());
+        batch.polylines.add(options);
+    }
+
+    private void addPolygon(String baseId, Map<String, Object> properties, List<?> rings,
+                            Batch batch, int[] part) {
+        if (rings.isEmpty() || !(rings.get(0) instanceof GeoJsonReader.Positions)
+                || ((GeoJsonReader.Positions) rings.get(0)).count < 3) {
+            return;
+        }
+        final Map<String, Object> options = newOptions(polygon, properties, KIND_POLYGON, nextId(baseId, part));
+        options.put("points", ((GeoJsonReader.Positions) rings.get(0)).toArray());
+        if (rings.size() > 1) {
+            final List<double[]> holes = new ArrayList<>(rings.size() - 1);
+            for (int i = 1; i < rings.size(); i++) {
+                if (rings.get(i) instanceof GeoJsonReader.Positions) {
+                    holes.add(((GeoJsonReader.Positions) rings.get(i)).toArray());
+                }
+            }
+            options.put("holes", holes);
+        }
+        batch.polygons.add(options);
+    }
+
+    private static String nextId(String baseId, int[] part) {
+        return part[0]++ == 0 ? baseId : baseId + "#" + (part[0] - 1);
+    }
+
+    private Map<String, Object> newOptions(Map<?, ?> base, Map<String, Object> properties, int kind, String id) {
+        final Map<String, Object> options = new HashMap<>();
+        putAll(options, base);
+        for (Rule rule : rules) {
+            if (rule.matches(properties)) {
+                putAll(options, kind == KIND_POLYGON ? rule.polygon : kind == KIND_POLYLINE ? rule.polyline : rule.marker);
+            }
+        }
+        options.put("id", id);
+        return options;
+    }
+
+    private static void putAll(Map<String, Object> options, Map<?, ?> style) {
+        for (Map.Entry<?, ?> entry : style.entrySet()) {
+            options.put(ConvertUtil.toString(entry.getKey()), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.amap.flutter.map.overlays.marker;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.graphics.drawable.GradientDrawable;
+import android.text.TextUtils;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.amap.api.maps.model.BitmapDescriptor;
+import com.amap.flutter.map.utils.ConvertUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 声明式的 InfoWindow 模板
+ * <p>
+ * 模板格式:
+ * <pre>
+ * {
+ *   backgroundColor: int, cornerRadius: dp, padding: dp, spacing: dp,
+ *   orientation: 'vertical' | 'horizontal', maxWidth: dp,
+ *   elements: [
+ *     {type: 'text', field: 'title', textSize: sp, textColor: int, bold: bool, maxLines: int},
+ *     {type: 'image', field: 'avatar', width: dp, height: dp}
+ *   ]
+ * }
+ * </pre>
+ * 数据来自 marker 的 infoWindowData，文本字段 title/snippet 没有提供数据时取 marker 自身的 title/snippet，
+ * 图片字段的数据在解析 marker 参数时已经转换为 {@link BitmapDescriptor}。
+ */
+class InfoWindowTemplate {
+    private static final int TYPE_TEXT = 0;
+    private static final int TYPE_IMAGE = 1;
+
+    private int backgroundColor = 0xFFFFFFFF;
+    private float cornerRadius = 6;
+    private float padding = 8;
+    private float spacing = 4;
+    private float maxWidth = 0;
+    private boolean vertical = true;
+    private final List<Element> elements = new ArrayList<>();
+
+    static InfoWindowTemplate fromMap(Object o) {
+        final Map<?, ?> data = ConvertUtil.toMap(o);
+        final InfoWindowTemplate template = new InfoWindowTemplate();
+        final Object backgroundColor = data.get("backgroundColor");
+        if (null != backgroundColor) {
+            template.backgroundColor = ConvertUtil.toInt(backgroundColor);
+        }
+        final Object cornerRadius = data.get("cornerRadius");
+        if (null != cornerRadius) {
+            template.cornerRadius = ConvertUtil.toFloat(cornerRadius);
+        }
+        final Object padding = data.get("padding");
+        if (null != padding) {
+            template.padding = ConvertUtil.toFloat(padding);
+        }
+        final Object spacing = data.get("spacing");
+        if (null != spacing) {
+            template.spacing = ConvertUtil.toFloat(spacing);
+        }
+        final Object maxWidth = data.get("maxWidth");
+        if (null != maxWidth) {
+            template.maxWidth = ConvertUtil.toFloat(maxWidth);
+        }
+        final Object orientation = data.get("orientation");
+        if (null != orientation) {
+            template.vertical = !"horizontal".equals(orientation);
+        }
+        final Object elements = data.get("elements");
+        if (null == elements) {
+            throw new IllegalArgumentException("InfoWindow template requires 'elements'");
+        }
+        for (Object rawElement : ConvertUtil.toList(elements)) {
+            template.elements.add(Element.fromMap(rawElement));
+        }
+        return template;
+    }
+
+    /**
+     * 创建模板对应的 View，子 View 的引用保存在 tag 中供后续绑定复用
+     */
+    View createView(Context context) {
+        final LinearLayout root = new LinearLayout(context);
+        root.setOrientation(vertical ? LinearLayout.VERTICAL : LinearLayout.HORIZONTAL);
+        root.setGravity(vertical ? Gravity.START : Gravity.CENTER_VERTICAL);
+        final int paddingPx = ConvertUtil.toPixels(padding);
+        root.setPadding(paddingPx, paddingPx, paddingPx, paddingPx);
+        final GradientDrawable background = new GradientDrawable();
+        background.setColor(backgroundColor);
+        background.setCornerRadius(ConvertUtil.toFloatPixels(cornerRadius));
+        root.setBackground(background);
+
+        final View[] children = new View[elements.size()];
+        final int spacingPx = ConvertUtil.toPixels(spacing);
+        for (int i = 0; i < elements.size(); i++) {
+            final Element element = elements.get(i);
+            final View child;
+            final LinearLayout.LayoutParams layoutParams;
+            if (element.type == TYPE_TEXT) {
+                final TextView textView = new TextView(context);
+                textView.setTextSize(element.textSize);
+                textView.setTextColor(element.textColor);
+                if (element.bold) {
+                    textView.setTypeface(Typeface.DEFAULT_BOLD);
+                }
+                if (element.maxLines > 0) {
+                    textView.setMaxLines(element.maxLines);
+                    textView.setEllipsize(TextUtils.TruncateAt.END);
+                }
+                if (maxWidth > 0) {
+                    textView.setMaxWidth(ConvertUtil.toPixels(maxWidth));
+                }
+                child = textView;
+                layoutParams = new LinearLayout.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            } else {
+                final ImageView imageView = new ImageView(context);
+                imageView.setScaleType(ImageView.ScaleType.CENTER_INSIDE);
+                child = imageView;
+                layoutParams = new LinearLayout.LayoutParams(ConvertUtil.toPixels(element.width), ConvertUtil.toPixels(element.height));
+            }
+            if (i > 0) {
+                if (vertical) {
+                    layoutParams.setMargins(0, spacingPx, 0, 0);
+                } else {
+                    layoutParams.setMargins(spacingPx, 0, 0, 0);
+                }
+            }
+            root.addView(child, layoutParams);
+            children[i] = child;
+        }
+        root.setTag(children);
+        return root;
+    }
+
+    /**
+     * 把 marker 数据绑定到复用的 View 上
+     */
+    void bind(View view, MarkerController markerController) {
+        final View[] children = (View[]) view.getTag();
+        final Map<String, Object> data = markerController.getInfoWindowData();
+        for (int i = 0; i < elements.size(); i++) {
+            final Element element = elements.get(i);
+            Object value = null != data ? data.get(element.field) : null;
+            if (null == value) {
+                if ("title".equals(element.field)) {
+                    value = markerController.getMarker().getTitle();
+                } else if ("snippet".equals(element.field)) {
+                    value = markerController.getMarker().getSnippet();
+                }
+            }
+            final View child = children[i];
+            if (element.type == TYPE_TEXT) {
+                final CharSequence text = value instanceof CharSequence ? (CharSequence) value
+                        : (null != value ? String.valueOf(value) : null);
+                ((TextView) child).setText(text);
+                child.setVisibility(TextUtils.isEmpty(text) ? View.GONE : View.VISIBLE);
+            } else {
+                if (value instanceof BitmapDescriptor) {
+                    ((ImageView) child).setImageBitmap(((BitmapDescriptor) value).getBitmap());
+                    child.setVisibility(View.VISIBLE);
+                } else {
+                    ((ImageView) child).setImageBitmap(null);
+                    child.setVisibility(View.GONE);
+                }
+            }
+        }
+    }
+
+    private static class Element {
+        int type;
+        String field;
+        float textSize = 14;
+        int textColor = 0xFF333333;
+        boolean bold = false;
+        int maxLines = 0;
+        float width = 32;
+        float height = 32;
+
+        static Element fromMap(Object o) {
+            final Map<?, ?> data = ConvertUtil.toMap(o);
+            final Element element = new Element();
+            final Object type = data.get("type");
+            element.type = "image".equals(type) ? TYPE_IMAGE : TYPE_TEXT;
+            final Object field = data.get("field");
+            if (null == field) {
+                throw new IllegalArgumentException("InfoWindow template element requires 'field'");
+            }
+            element.field = ConvertUtil.toString(field);
+            final Object textSize = data.get("textSize");
+            if (null != textSize) {
+                element.textSize = ConvertUtil.toFloat(textSize);
+            }
+            final Object textColor = data.get("textColor");
+            if (null != textColor) {
+                element.textColor = ConvertUtil.toInt(textColor);
+            }
+            final Object bold = data.get("bold");
+            if (null != bold) {
+                element.bold = ConvertUtil.toBoolean(bold);
+            }
+            final Object maxLines = data.get("maxLines");
+            if (null != maxLines) {
+                element.maxLines = ConvertUtil.toInt(maxLines);
+            }
+            final Object width = data.get("width");
+            if (null != width) {
+                element.width = ConvertUtil.toFloat(width);
+            }
+            final Object height = data.get("height");
+            if (null != height) {
+                element.height = ConvertUtil.toFloat(height);
+            }
+            return element;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.amap.api.maps.model.BitmapDescriptor;
 import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.Marker;
 
+import java.util.Map;
+
 /**
  * @author whm
  * @date 2020/11/6 6:18 PM
@@ -13,10 +15,30 @@ import com.amap.api.maps.model.Marker;
 class MarkerController implements MarkerOptionsSink {
     private final Marker marker;
     private final String markerId;
+    private float priority = Float.NaN;
+    //业务层设置的可见性
+    private boolean visible;
+    //是否被避让隐藏
+    private boolean decluttered = false;
+    private String group;
+    //所属分组是否可见
+    private boolean groupVisible = true;
+    private float zIndex;
+    private float zIndexOffset = 0;
+    private String infoWindowTemplate;
+    private Map<String, Object> infoWindowData;
+    //图标尺寸（像素）与锚点，用于避让计算，尺寸为0表示未知
+    private int iconWidth = 0;
+    private int iconHeight = 0;
+    private float anchorU = MarkerOptionsBuilder.DEFAULT_ANCHOR_U;
+    private float anchorV = MarkerOptionsBuilder.DEFAULT_ANCHOR_V;
+    private boolean removed = false;
 
     MarkerController(Marker marker) {
         this.marker = marker;
         markerId = marker.getId();
+        visible = marker.isVisible();
+        zIndex = marker.getZIndex();
     }
 
     public String getMarkerId() {
@@ -24,11 +46,16 @@ class MarkerController implements MarkerOptionsSink {
     }
 
     public void remove() {
+        removed = true;
         if (null != marker) {
             marker.remove();
         }
     }
 
+    public boolean isRemoved() {
+        return removed;
+    }
+
     public LatLng getPosition() {
         if (null != marker) {
             return marker.getPosition();
@@ -48,6 +75,8 @@ class MarkerController implements MarkerOptionsSink {
 
     @Override
     public void setAnchor(float u, float v) {
+        anchorU = u;
+        anchorV = v;
         marker.setAnchor(u, v);
     }
 
@@ -63,9 +92,38 @@ class MarkerController implements MarkerOptionsSink {
 
     @Override
     public void setIcon(BitmapDescriptor bitmapDescriptor) {
+        setIconSize(bitmapDescriptor);
         marker.setIcon(bitmapDescriptor);
     }
 
+    /**
+     * 创建时由 {@link MarkerOptionsBuilder} 传入图标与锚点
+     */
+    void initIconBox(BitmapDescriptor icon, float u, float v) {
+        setIconSize(icon);
+        anchorU = u;
+        anchorV = v;
+    }
+
+    private void setIconSize(BitmapDescriptor icon) {
+        iconWidth = null != icon ? icon.getWidth() : 0;
+        iconHeight = null != icon ? icon.getHeight() : 0;
+    }
+
+    /**
+     * 图标外框相对于锚点的像素偏移 [left, top, right, bottom]，写入 boxes[offset...offset+3]
+     *
+     * @param fallbackSize 图标尺寸未知时使用的边长（像素）
+     */
+    void getIconBox(float[] boxes, int offset, float fallbackSize) {
+        final float width = iconWidth > 0 ? iconWidth : fallbackSize;
+        final float height = iconHeight > 0 ? iconHeight : fallbackSize;
+        boxes[offset] = -anchorU * width;
+        boxes[offset + 1] = -anchorV * height;
+        boxes[offset + 2] = (1 - anchorU) * width;
+        boxes[offset + 3] = (1 - anchorV) * height;
+    }
+
     @Override
     public void setTitle(String title) {
         marker.setTitle(title);
@@ -83,12 +141,14 @@ class MarkerController implements MarkerOptionsSink {
 
     @Override
     public void setVisible(boolean visible) {
-        marker.setVisible(visible);
+        this.visible = visible;
+        updateVisible();
     }
 
     @Override
     public void setZIndex(float zIndex) {
-        marker.setZIndex(zIndex);
+        this.zIndex = zIndex;
+        marker.setZIndex(zIndex + zIndexOffset);
     }
 
     @Override
@@ -101,6 +161,91 @@ class MarkerController implements MarkerOptionsSink {
         marker.setClickable(clickable);
     }
 
+    @Override
+    public void setPriority(float priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * 避让优先级，未设置时使用 zIndex
+     */
+    public float getPriority() {
+        return Float.isNaN(priority) ? zIndex : priority;
+    }
+
+    @Override
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroupVisible(boolean groupVisible) {
+        if (this.groupVisible == groupVisible) {
+            return;
+        }
+        this.groupVisible = groupVisible;
+        updateVisible();
+    }
+
+    public void setZIndexOffset(float zIndexOffset) {
+        if (this.zIndexOffset == zIndexOffset) {
+            return;
+        }
+        this.zIndexOffset = zIndexOffset;
+        marker.setZIndex(zIndex + zIndexOffset);
+    }
+
+    /**
+     * 业务层设置的可见性与分组可见性的组合，不包含避让隐藏
+     */
+    public boolean isVisible() {
+        return visible && groupVisible;
+    }
+
+    public boolean isDecluttered() {
+        return decluttered;
+    }
+
+    public void setDecluttered(boolean decluttered) {
+        if (this.decluttered == decluttered) {
+            return;
+        }
+        this.decluttered = decluttered;
+        updateVisible();
+    }
+
+    private void updateVisible() {
+        boolean target = visible && groupVisible && !decluttered;
+        if (marker.isVisible() != target) {
+            marker.setVisible(target);
+        }
+    }
+
+    @Override
+    public void setInfoWindowTemplate(String templateId) {
+        this.infoWindowTemplate = templateId;
+    }
+
+    public String getInfoWindowTemplate() {
+        return infoWindowTemplate;
+    }
+
+    @Override
+    public void setInfoWindowData(Map<String, Object> data) {
+        this.infoWindowData = data;
+    }
+
+    public Map<String, Object> getInfoWindowData() {
+        return infoWindowData;
+    }
+
+    public boolean isInfoWindowShown() {
+        return marker.isInfoWindowShown();
+    }
+
     public void showInfoWindow() {
         marker.showInfoWindow();
     }
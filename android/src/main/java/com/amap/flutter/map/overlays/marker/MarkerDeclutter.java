@@ -0,0 +1,115 @@
+package com.amap.flutter.map.overlays.marker;
+
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Marker 避让计算
+ * <p>
+ * 按当前比例尺把每个 marker 的图标外框（由图标尺寸与锚点决定）投影到像素坐标，按优先级从高到低依次放置，
+ * 与已放置的外框相交的 marker 被隐藏。已放置的外框登记到屏幕像素网格中，每个外框只与它覆盖的网格
+ * （包括跨越的相邻网格）内的外框比较。
+ * 像素坐标以墨卡托坐标原点为基准，地图平移时结果不变，只有缩放或 marker 变化时才需要重新计算；
+ * 地图的旋转与倾斜不参与计算。本类只做纯计算，可以在后台线程调用。
+ */
+class MarkerDeclutter {
+
+    /**
+     * @param latitudes      marker 纬度
+     * @param longitudes     marker 经度
+     * @param priorities     marker 优先级，值越大越优先保留，相同时保留下标小的
+     * @param boxes          每个 marker 的图标外框相对于锚点的像素偏移，依次为 [left, top, right, bottom]
+     * @param count          参与计算的 marker 数量
+     * @param cellSizePixels 网格边长（屏幕像素），只影响查找效率，不影响结果
+     * @param pixelsPerUnit  当前比例尺下一个归一化墨卡托单位对应的像素数
+     * @return 每个 marker 是否需要隐藏
+     */
+    static boolean[] compute(double[] latitudes,
+                             double[] longitudes,
+                             final float[] priorities,
+                             float[] boxes,
+                             int count,
+                             double cellSizePixels,
+                             double pixelsPerUnit) {
+        final boolean[] hidden = new boolean[count];
+        if (count == 0 || cellSizePixels <= 0 || pixelsPerUnit <= 0) {
+            return hidden;
+        }
+        final Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // 归并排序是稳定的，优先级相同的保持原顺序
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Float.compare(priorities[b], priorities[a]);
+            }
+        });
+
+        // 像素坐标下的外框 [x0, y0, x1, y1]
+        final double[] placed = new double[count * 4];
+        // 网格 key -> 与该网格相交的已放置 marker，第 0 位为个数
+        final Map<Long, int[]> cells = new HashMap<>(count * 2);
+        for (int i : order) {
+            final double x = GeometryUtil.mercatorX(longitudes[i]) * pixelsPerUnit;
+            final double y = GeometryUtil.mercatorY(latitudes[i]) * pixelsPerUnit;
+            final double x0 = x + boxes[i * 4];
+            final double y0 = y + boxes[i * 4 + 1];
+            final double x1 = x + boxes[i * 4 + 2];
+            final double y1 = y + boxes[i * 4 + 3];
+            final long cellX0 = (long) Math.floor(x0 / cellSizePixels);
+            final long cellY0 = (long) Math.floor(y0 / cellSizePixels);
+            final long cellX1 = (long) Math.floor(x1 / cellSizePixels);
+            final long cellY1 = (long) Math.floor(y1 / cellSizePixels);
+            boolean collides = false;
+            for (long cx = cellX0; cx <= cellX1 && !collides; cx++) {
+                for (long cy = cellY0; cy <= cellY1 && !collides; cy++) {
+                    final int[] members = cells.get(key(cx, cy));
+                    if (null == members) {
+                        continue;
+                    }
+                    for (int m = 1; m <= members[0]; m++) {
+                        final int j = members[m];
+                        if (x0 < placed[j * 4 + 2] && placed[j * 4] < x1
+                                && y0 < placed[j * 4 + 3] && placed[j * 4 + 1] < y1) {
+                            collides = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (collides) {
+                hidden[i] = true;
+                continue;
+            }
+            placed[i * 4] = x0;
+            placed[i * 4 + 1] = y0;
+            placed[i * 4 + 2] = x1;
+            placed[i * 4 + 3] = y1;
+            for (long cx = cellX0; cx <= cellX1; cx++) {
+                for (long cy = cellY0; cy <= cellY1; cy++) {
+                    final long key = key(cx, cy);
+                    int[] members = cells.get(key);
+                    if (null == members) {
+                        members = new int[4];
+                        cells.put(key, members);
+                    } else if (members[0] + 1 == members.length) {
+                        members = Arrays.copyOf(members, members.length * 2);
+                        cells.put(key, members);
+                    }
+                    members[++members[0]] = i;
+                }
+            }
+        }
+        return hidden;
+    }
+
+    private static long key(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xffffffffL);
+    }
+}
@@ -0,0 +1,169 @@
+package com.amap.flutter.map.overlays.marker;
+
+import android.graphics.Point;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.Projection;
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.Marker;
+import com.amap.flutter.map.utils.ConvertUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Marker 拖动过程中的实时位置回调
+ * <p>
+ * SDK 的 onMarkerDrag 每个触摸事件都会回调一次，这里按帧合并，只发送最新位置，
+ * 同时按频率和最小像素位移限流。发送用的参数 Map 复用同一个实例，
+ * {@link MethodChannel#invokeMethod} 会同步完成编码，所以复用是安全的。
+ */
+class MarkerDragStream implements Choreographer.FrameCallback {
+    private static final float DEFAULT_HZ = 10;
+    private static final float DEFAULT_MIN_PIXEL_DELTA = 2;
+
+    private final MethodChannel methodChannel;
+    private final AMap amap;
+
+    private long minIntervalMillis = (long) (1000 / DEFAULT_HZ);
+    //最小位移（dp）
+    private float minPixelDelta = DEFAULT_MIN_PIXEL_DELTA;
+
+    private final Map<String, Object> payload = new HashMap<>(2);
+    private final List<Double> position = new ArrayList<>(2);
+
+    private Marker pendingMarker;
+    private String pendingDartId;
+    private boolean frameScheduled = false;
+    private long lastSentTime = 0;
+    private int lastSentX = Integer.MIN_VALUE;
+    private int lastSentY = Integer.MIN_VALUE;
+
+    MarkerDragStream(MethodChannel methodChannel, AMap amap) {
+        this.methodChannel = methodChannel;
+        this.amap = amap;
+        position.add(0.0);
+        position.add(0.0);
+    }
+
+    /**
+     * @param hz            每秒最多发送的次数，小于等于0表示不限频率（仍按帧合并）
+     * @param minPixelDelta 两次发送之间的最小屏幕位移（dp）
+     */
+    void setOptions(Object hz, Object minPixelDelta) {
+        if (null != hz) {
+            float value = ConvertUtil.toFloat(hz);
+            minIntervalMillis = value > 0 ? (long) (1000 / value) : 0;
+        }
+        if (null != minPixelDelta) {
+            this.minPixelDelta = Math.max(0, ConvertUtil.toFloat(minPixelDelta));
+        }
+    }
+
+    void onDragStart(String dartId, Marker marker) {
+        cancel();
+        lastSentTime = SystemClock.uptimeMillis();
+        updateLastScreenLocation(marker.getPosition());
+        send("marker#onDragStart", dartId, marker.getPosition());
+    }
+
+    void onDrag(String dartId, Marker marker) {
+        pendingDartId = dartId;
+        pendingMarker = marker;
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * 拖动结束时丢弃还没发送的位置，最终位置由 marker#onDragEnd 带回
+     */
+    void cancel() {
+        if (frameScheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            frameScheduled = false;
+        }
+        pendingMarker = null;
+        pendingDartId = null;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        if (null == pendingMarker) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (now - lastSentTime < minIntervalMillis) {
+            //还没到发送间隔，下一帧再检查，保证停手后最后的位置也能发出去
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+            return;
+        }
+        final Marker marker = pendingMarker;
+        final String dartId = pendingDartId;
+        pendingMarker = null;
+        pendingDartId = null;
+
+        LatLng latLng = marker.getPosition();
+        if (null == latLng || !movedEnough(latLng)) {
+            return;
+        }
+        lastSentTime = now;
+        send("marker#onDrag", dartId, latLng);
+    }
+
+    private boolean movedEnough(LatLng latLng) {
+        if (minPixelDelta <= 0) {
+            return true;
+        }
+        Point point = toScreenLocation(latLng);
+        if (null == point) {
+            return true;
+        }
+        float dx = point.x - lastSentX;
+        float dy = point.y - lastSentY;
+        float threshold = minPixelDelta * ConvertUtil.density;
+        if (dx * dx + dy * dy < threshold * threshold) {
+            return false;
+        }
+        lastSentX = point.x;
+        lastSentY = point.y;
+        return true;
+    }
+
+    private void updateLastScreenLocation(LatLng latLng) {
+        Point point = toScreenLocation(latLng);
+        if (null != point) {
+            lastSentX = point.x;
+            lastSentY = point.y;
+        }
+    }
+
+    private Point toScreenLocation(LatLng latLng) {
+        Projection projection = amap.getProjection();
+        if (null == projection || null == latLng) {
+            return null;
+        }
+        return projection.toScreenLocation(latLng);
+    }
+
+    private void send(String method, String dartId, LatLng latLng) {
+        if (null == latLng) {
+            return;
+        }
+        position.set(0, latLng.latitude);
+        position.set(1, latLng.longitude);
+        payload.put("markerId", dartId);
+        payload.put("position", position);
+        //每帧发送，不打日志：即使关闭了调试日志，拼接字符串的开销也在主线程上
+        methodChannel.invokeMethod(method, payload);
+    }
+}
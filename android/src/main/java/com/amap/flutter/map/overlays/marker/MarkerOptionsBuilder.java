@@ -4,6 +4,8 @@ import com.amap.api.maps.model.BitmapDescriptor;
 import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.MarkerOptions;
 
+import java.util.Map;
+
 /**
  * @author whm
  * @date 2020/11/6 6:17 PM
@@ -11,7 +13,18 @@ import com.amap.api.maps.model.MarkerOptions;
  * @since
  */
 class MarkerOptionsBuilder implements MarkerOptionsSink {
+    //SDK 默认锚点：底边中点
+    static final float DEFAULT_ANCHOR_U = 0.5f;
+    static final float DEFAULT_ANCHOR_V = 1f;
+
     final MarkerOptions markerOptions;
+    private BitmapDescriptor icon;
+    private float anchorU = DEFAULT_ANCHOR_U;
+    private float anchorV = DEFAULT_ANCHOR_V;
+    private float priority = Float.NaN;
+    private String group;
+    private String infoWindowTemplate;
+    private Map<String, Object> infoWindowData;
 
     MarkerOptionsBuilder() {
         this.markerOptions = new MarkerOptions();
@@ -28,9 +41,19 @@ class MarkerOptionsBuilder implements MarkerOptionsSink {
 
     @Override
     public void setAnchor(float u, float v) {
+        anchorU = u;
+        anchorV = v;
         markerOptions.anchor(u, v);
     }
 
+    public float getAnchorU() {
+        return anchorU;
+    }
+
+    public float getAnchorV() {
+        return anchorV;
+    }
+
 
     @Override
     public void setDraggable(boolean draggable) {
@@ -44,9 +67,14 @@ class MarkerOptionsBuilder implements MarkerOptionsSink {
 
     @Override
     public void setIcon(BitmapDescriptor bitmapDescriptor) {
+        icon = bitmapDescriptor;
         markerOptions.icon(bitmapDescriptor);
     }
 
+    public BitmapDescriptor getIcon() {
+        return icon;
+    }
+
     @Override
     public void setTitle(String title) {
         markerOptions.title(title);
@@ -86,4 +114,40 @@ class MarkerOptionsBuilder implements MarkerOptionsSink {
     @Override
     public void setClickable(boolean clickable) {
     }
+
+    @Override
+    public void setPriority(float priority) {
+        this.priority = priority;
+    }
+
+    public float getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    @Override
+    public void setInfoWindowTemplate(String templateId) {
+        this.infoWindowTemplate = templateId;
+    }
+
+    public String getInfoWindowTemplate() {
+        return infoWindowTemplate;
+    }
+
+    @Override
+    public void setInfoWindowData(Map<String, Object> data) {
+        this.infoWindowData = data;
+    }
+
+    public Map<String, Object> getInfoWindowData() {
+        return infoWindowData;
+    }
 }
@@ -3,6 +3,8 @@ package com.amap.flutter.map.overlays.marker;
 import com.amap.api.maps.model.BitmapDescriptor;
 import com.amap.api.maps.model.LatLng;
 
+import java.util.Map;
+
 /**
  * @author whm
  * @date 2020/11/6 6:12 PM
@@ -36,4 +38,16 @@ public interface MarkerOptionsSink {
 
     void setClickable(boolean clickable);
 
+    //避让优先级
+    void setPriority(float priority);
+
+    //所属分组
+    void setGroup(String group);
+
+    //InfoWindow 模板 id
+    void setInfoWindowTemplate(String templateId);
+
+    //InfoWindow 模板绑定的数据
+    void setInfoWindowData(Map<String, Object> data);
+
 }
@@ -2,8 +2,11 @@ package com.amap.flutter.map.overlays.marker;
 
 import android.text.TextUtils;
 
+import com.amap.api.maps.model.LatLng;
 import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.WkbReader;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -46,8 +49,12 @@ public class MarkerUtil {
         if (infoWindow != null) {
             interpretInfoWindowOptions(sink, (Map<String, Object>) infoWindow);
         }
+        final Object wkb = data.get("wkb");
         final Object position = data.get("position");
-        if (position != null) {
+        if (wkb != null) {
+            final double[] point = WkbReader.readPoint((byte[]) wkb);
+            sink.setPosition(new LatLng(point[0], point[1]));
+        } else if (position != null) {
             sink.setPosition(ConvertUtil.toLatLng(position));
         }
         final Object rotation = data.get("rotation");
@@ -74,6 +81,26 @@ public class MarkerUtil {
             sink.setClickable(ConvertUtil.toBoolean(clickable));
         }
 
+        final Object priority = data.get("priority");
+        if (null != priority) {
+            sink.setPriority(ConvertUtil.toFloat(priority));
+        }
+
+        final Object group = data.get("group");
+        if (null != group) {
+            sink.setGroup(ConvertUtil.toString(group));
+        }
+
+        final Object infoWindowTemplate = data.get("infoWindowTemplate");
+        if (null != infoWindowTemplate) {
+            sink.setInfoWindowTemplate(ConvertUtil.toString(infoWindowTemplate));
+        }
+
+        final Object infoWindowData = data.get("infoWindowData");
+        if (null != infoWindowData) {
+            sink.setInfoWindowData(interpretInfoWindowData(ConvertUtil.toMap(infoWindowData)));
+        }
+
         final String markerId = (String) data.get("id");
         if (markerId == null) {
             throw new IllegalArgumentException("markerId was null");
@@ -82,6 +109,22 @@ public class MarkerUtil {
         }
     }
 
+    /**
+     * 图片字段按 icon 的格式传入（如 ["fromAsset", ...]），在这里提前转换为 BitmapDescriptor，
+     * 弹出 InfoWindow 时不再做解码
+     */
+    private static Map<String, Object> interpretInfoWindowData(Map<?, ?> data) {
+        final Map<String, Object> result = new HashMap<>(data.size());
+        for (Map.Entry<?, ?> entry : data.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof List) {
+                value = ConvertUtil.toBitmapDescriptor(value);
+            }
+            result.put(ConvertUtil.toString(entry.getKey()), value);
+        }
+        return result;
+    }
+
     private static void interpretInfoWindowOptions(
             MarkerOptionsSink sink, Map<String, Object> infoWindow) {
         String title = (String) infoWindow.get("title");
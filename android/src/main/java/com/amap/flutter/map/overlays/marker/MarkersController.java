@@ -1,10 +1,12 @@
 package com.amap.flutter.map.overlays.marker;
 
+import android.content.Context;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 
 import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.CameraPosition;
 import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.Marker;
 import com.amap.api.maps.model.MarkerOptions;
@@ -15,11 +17,17 @@ import com.amap.flutter.map.MyMethodCallHandler;
 import com.amap.flutter.map.overlays.AbstractOverlayController;
 import com.amap.flutter.map.utils.Const;
 import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.GeometryUtil;
 import com.amap.flutter.map.utils.LogUtil;
+import com.amap.flutter.map.utils.ThreadUtil;
+import com.amap.flutter.map.utils.VectorIconUtil;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
@@ -36,17 +44,63 @@ public class MarkersController
         AMap.OnMapClickListener,
         AMap.OnMarkerClickListener,
         AMap.OnMarkerDragListener,
-        AMap.OnPOIClickListener {
+        AMap.OnPOIClickListener,
+        AMap.OnCameraChangeListener {
     private static final String CLASS_NAME = "MarkersController";
+    //避让网格默认边长（dp），也是图标尺寸未知时的外框边长
+    private static final float DEFAULT_DECLUTTER_CELL_SIZE = 48;
     private String selectedMarkerDartId;
     private Marker selectedMarker; // 当前选中的标记点
 
+    private boolean declutterEnabled = false;
+    private float declutterCellSize = DEFAULT_DECLUTTER_CELL_SIZE;
+    //marker 集合或位置发生变化，需要重新计算避让
+    private boolean declutterDirty = false;
+    private float declutterZoom = -1;
+    //关闭避让或地图销毁时递增，进行中的计算结果不再应用
+    private int declutterGeneration = 0;
+    private boolean declutterRunning = false;
+    private boolean declutterPending = false;
+
+    private final MarkerDragStream dragStream;
+    private final TemplateInfoWindowAdapter infoWindowAdapter;
+    //注册第一个模板时才替换 SDK 默认的 InfoWindow
+    private boolean infoWindowAdapterAttached = false;
+
+    //分组索引: group -> (dartId -> MarkerController)
+    private final Map<String, Map<String, MarkerController>> markerGroups = new HashMap<>(8);
+    //被隐藏的分组
+    private final Set<String> hiddenGroups = new HashSet<>();
+    //分组 zIndex 偏移
+    private final Map<String, Float> groupZIndexOffsets = new HashMap<>();
+    //等待矢量图标栅格化的 marker: dartId -> 最近一次设置的图标，栅格化完成时仍是最新图标才替换
+    private final Map<String, Object> pendingIcons = new HashMap<>();
+
     public MarkersController(MethodChannel methodChannel, AMap amap) {
         super(methodChannel, amap);
+        dragStream = new MarkerDragStream(methodChannel, amap);
+        infoWindowAdapter = new TemplateInfoWindowAdapter(idMapByOverlyId, controllerMapByDartId);
         amap.addOnMarkerClickListener(this);
         amap.addOnMarkerDragListener(this);
         amap.addOnMapClickListener(this);
         amap.addOnPOIClickListener(this);
+        amap.addOnCameraChangeListener(this);
+    }
+
+    /**
+     * 地图销毁时调用：停止避让计算，等待栅格化的矢量图标不再替换
+     */
+    public void dispose() {
+        declutterEnabled = false;
+        declutterGeneration++;
+        pendingIcons.clear();
+    }
+
+    /**
+     * 设置创建 InfoWindow 模板 View 使用的 Context
+     */
+    public void setContext(Context context) {
+        infoWindowAdapter.setContext(context);
     }
 
     @Override
@@ -71,42 +125,152 @@ public class MarkersController
                 selectMarkerWithId(markerId);
                 result.success(null);
                 break;
+            case Const.METHOD_MARKER_SET_DECLUTTER:
+                setDeclutter(call);
+                result.success(null);
+                break;
+            case Const.METHOD_MARKER_SET_DRAG_OPTIONS:
+                dragStream.setOptions(call.argument("hz"), call.argument("minPixelDelta"));
+                result.success(null);
+                break;
+            case Const.METHOD_MARKER_GROUPS_SET_VISIBLE:
+                setGroupsVisible((List<Object>) call.argument("groups"), call.argument("visible"));
+                result.success(null);
+                break;
+            case Const.METHOD_MARKER_GROUPS_REMOVE:
+                result.success(removeGroups((List<Object>) call.argument("groups")));
+                break;
+            case Const.METHOD_MARKER_GROUPS_SET_Z_INDEX_OFFSET:
+                setGroupsZIndexOffset((List<Object>) call.argument("groups"), call.argument("offset"));
+                result.success(null);
+                break;
+            case Const.METHOD_MARKER_REGISTER_INFO_WINDOW_TEMPLATE:
+                registerInfoWindowTemplate((String) call.argument("id"), call.argument("template"));
+                result.success(null);
+                break;
+            case Const.METHOD_MARKER_UNREGISTER_INFO_WINDOW_TEMPLATE:
+                infoWindowAdapter.unregisterTemplate((String) call.argument("id"));
+                result.success(null);
+                break;
         }
     }
 
 
     /**
      * 执行主动方法更新marker
+     * <p>
+     * 还没有栅格化的矢量图标不阻塞本次及之后的更新：其余属性立即应用，图标先保留旧图标（新建的 marker 使用透明占位），
+     * 后台栅格化完成后再替换，全部替换后才回复 result
      *
      * @param methodCall
      * @param result
      */
-    public void invokeMarkerOptions(MethodCall methodCall, MethodChannel.Result result) {
+    public void invokeMarkerOptions(MethodCall methodCall, final MethodChannel.Result result) {
         if (null == methodCall) {
             return;
         }
-        Object markersToAdd = methodCall.argument("markersToAdd");
-        addByList((List<Object>) markersToAdd);
-        Object markersToChange = methodCall.argument("markersToChange");
-        updateByList((List<Object>) markersToChange);
-        Object markerIdsToRemove = methodCall.argument("markerIdsToRemove");
-        removeByIdList((List<Object>) markerIdsToRemove);
-        result.success(null);
+        final Map<String, Object> deferredIcons = new HashMap<>();
+        final List<Object> markersToAdd = deferVectorIcons((List<Object>) methodCall.argument("markersToAdd"), deferredIcons);
+        final List<Object> markersToChange = deferVectorIcons((List<Object>) methodCall.argument("markersToChange"), deferredIcons);
+        if (null != markersToAdd) {
+            for (Object markerToAdd : markersToAdd) {
+                add(markerToAdd, deferredIcons.containsKey(ConvertUtil.getKeyValueFromMapObject(markerToAdd, "id")));
+            }
+        }
+        updateByList(markersToChange);
+        removeByIdList((List<Object>) methodCall.argument("markerIdsToRemove"));
+        requestDeclutter();
+        if (deferredIcons.isEmpty()) {
+            result.success(null);
+            return;
+        }
+
+        for (Map.Entry<String, Object> entry : deferredIcons.entrySet()) {
+            if (controllerMapByDartId.containsKey(entry.getKey())) {
+                pendingIcons.put(entry.getKey(), entry.getValue());
+            }
+        }
+        VectorIconUtil.prepare(new ArrayList<>(deferredIcons.values()), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    applyDeferredIcons(deferredIcons);
+                    result.success(null);
+                } catch (Exception e) {
+                    result.error("INVALID_ARGUMENT", e.getMessage(), null);
+                }
+            }
+        });
+    }
+
+    /**
+     * 把未栅格化的矢量图标从 marker 参数中取出放入 deferredIcons，返回去掉这些图标后的参数列表
+     */
+    private List<Object> deferVectorIcons(List<Object> markers, Map<String, Object> deferredIcons) {
+        if (null == markers) {
+            return null;
+        }
+        final List<Object> result = new ArrayList<>(markers.size());
+        for (Object marker : markers) {
+            final Map<?, ?> data = ConvertUtil.toMap(marker);
+            final Object id = data.get("id");
+            final Object icon = data.get("icon");
+            if (null != icon) {
+                //本次设置了图标，之前等待中的图标作废
+                pendingIcons.remove(id);
+            }
+            if (id instanceof String && VectorIconUtil.isVectorIcon(icon) && !VectorIconUtil.isCached(icon)) {
+                final Map<Object, Object> withoutIcon = new HashMap<Object, Object>(data);
+                withoutIcon.remove("icon");
+                deferredIcons.put((String) id, icon);
+                result.add(withoutIcon);
+            } else {
+                result.add(marker);
+            }
+        }
+        return result;
+    }
+
+    private void applyDeferredIcons(Map<String, Object> deferredIcons) {
+        boolean changed = false;
+        for (Map.Entry<String, Object> entry : deferredIcons.entrySet()) {
+            final String dartId = entry.getKey();
+            //期间被删除、或被之后的更新换了图标时跳过
+            if (pendingIcons.get(dartId) != entry.getValue()) {
+                continue;
+            }
+            pendingIcons.remove(dartId);
+            final MarkerController markerController = controllerMapByDartId.get(dartId);
+            if (null != markerController) {
+                markerController.setIcon(ConvertUtil.toBitmapDescriptor(entry.getValue()));
+                changed = true;
+            }
+        }
+        if (changed) {
+            markDeclutterDirty();
+            requestDeclutter();
+        }
     }
 
     public void addByList(List<Object> markersToAdd) {
         if (markersToAdd != null) {
             for (Object markerToAdd : markersToAdd) {
-                add(markerToAdd);
+                add(markerToAdd, false);
             }
         }
     }
 
-    private void add(Object markerObj) {
+    /**
+     * @param iconDeferred 图标等待栅格化，先使用透明占位图标
+     */
+    private void add(Object markerObj, boolean iconDeferred) {
         if (null != amap) {
             MarkerOptionsBuilder builder = new MarkerOptionsBuilder();
             String dartMarkerId = MarkerUtil.interpretMarkerOptions(markerObj, builder);
             if (!TextUtils.isEmpty(dartMarkerId)) {
+                if (iconDeferred) {
+                    builder.setIcon(VectorIconUtil.placeholder());
+                }
                 MarkerOptions markerOptions = builder.build();
                 final Marker marker = amap.addMarker(markerOptions);
                 Object clickable = ConvertUtil.getKeyValueFromMapObject(markerObj, "clickable");
@@ -114,8 +278,15 @@ public class MarkersController
                     marker.setClickable(ConvertUtil.toBoolean(clickable));
                 }
                 MarkerController markerController = new MarkerController(marker);
+                markerController.setPriority(builder.getPriority());
+                markerController.initIconBox(builder.getIcon(), builder.getAnchorU(), builder.getAnchorV());
+                markerController.setGroup(builder.getGroup());
+                markerController.setInfoWindowTemplate(builder.getInfoWindowTemplate());
+                markerController.setInfoWindowData(builder.getInfoWindowData());
                 controllerMapByDartId.put(dartMarkerId, markerController);
                 idMapByOverlyId.put(marker.getId(), dartMarkerId);
+                addToGroup(dartMarkerId, markerController);
+                markDeclutterDirty();
             }
         }
 
@@ -134,13 +305,41 @@ public class MarkersController
         if (null != dartMarkerId) {
             MarkerController markerController = controllerMapByDartId.get(dartMarkerId);
             if (null != markerController) {
+                String oldGroup = markerController.getGroup();
                 MarkerUtil.interpretMarkerOptions(markerToChange, markerController);
+                if (!TextUtils.equals(oldGroup, markerController.getGroup())) {
+                    removeFromGroup(oldGroup, (String) dartMarkerId);
+                    addToGroup((String) dartMarkerId, markerController);
+                }
+                if (null != markerController.getInfoWindowTemplate() && markerController.isInfoWindowShown()) {
+                    //重新弹出以绑定最新的数据
+                    markerController.showInfoWindow();
+                }
+                markDeclutterDirty();
             }
         }
     }
 
+    /**
+     * 供其他覆盖物在原生侧驱动标记移动（如折线揭示动画的跟随标记），每帧调用，不触发避让计算
+     *
+     * @param rotation 旋转角度，NaN 表示不修改
+     * @return 标记是否存在
+     */
+    public boolean moveMarker(String dartMarkerId, LatLng position, float rotation) {
+        MarkerController markerController = controllerMapByDartId.get(dartMarkerId);
+        if (null == markerController) {
+            return false;
+        }
+        markerController.setPosition(position);
+        if (!Float.isNaN(rotation)) {
+            markerController.setRotation(rotation);
+        }
+        return true;
+    }
+
 
-    private void removeByIdList(List<Object> markerIdsToRemove) {
+    public void removeByIdList(List<Object> markerIdsToRemove) {
         if (markerIdsToRemove == null) {
             return;
         }
@@ -150,12 +349,158 @@ public class MarkersController
             }
             String markerId = (String) rawMarkerId;
             final MarkerController markerController = controllerMapByDartId.remove(markerId);
+            pendingIcons.remove(markerId);
             if (markerController != null) {
 
                 idMapByOverlyId.remove(markerController.getMarkerId());
+                removeFromGroup(markerController.getGroup(), markerId);
                 markerController.remove();
+                markDeclutterDirty();
+            }
+        }
+    }
+
+    private void addToGroup(String dartId, MarkerController markerController) {
+        String group = markerController.getGroup();
+        if (null == group) {
+            markerController.setGroupVisible(true);
+            markerController.setZIndexOffset(0);
+            return;
+        }
+        Map<String, MarkerController> members = markerGroups.get(group);
+        if (null == members) {
+            members = new HashMap<>();
+            markerGroups.put(group, members);
+        }
+        members.put(dartId, markerController);
+        markerController.setGroupVisible(!hiddenGroups.contains(group));
+        Float offset = groupZIndexOffsets.get(group);
+        markerController.setZIndexOffset(null != offset ? offset : 0);
+    }
+
+    private void removeFromGroup(String group, String dartId) {
+        if (null == group) {
+            return;
+        }
+        Map<String, MarkerController> members = markerGroups.get(group);
+        if (null != members) {
+            members.remove(dartId);
+            if (members.isEmpty()) {
+                markerGroups.remove(group);
+            }
+        }
+    }
+
+    /**
+     * 批量显示/隐藏分组，对之后加入该分组的 marker 同样生效
+     */
+    private void setGroupsVisible(List<Object> groups, Object visibleObj) {
+        if (null == groups || null == visibleObj) {
+            return;
+        }
+        final boolean visible = ConvertUtil.toBoolean(visibleObj);
+        for (Object rawGroup : groups) {
+            String group = (String) rawGroup;
+            if (null == group) {
+                continue;
+            }
+            if (visible) {
+                hiddenGroups.remove(group);
+            } else {
+                hiddenGroups.add(group);
             }
+            Map<String, MarkerController> members = markerGroups.get(group);
+            if (null == members) {
+                continue;
+            }
+            for (MarkerController markerController : members.values()) {
+                markerController.setGroupVisible(visible);
+            }
+            LogUtil.i(CLASS_NAME, "setGroupsVisible==> group=" + group + ", count=" + members.size() + ", visible=" + visible);
         }
+        markDeclutterDirty();
+        requestDeclutter();
+    }
+
+    /**
+     * 批量删除分组内的全部 marker
+     *
+     * @return 被删除的 marker id，Dart 侧据此同步自己持有的 marker 集合
+     */
+    private List<String> removeGroups(List<Object> groups) {
+        final List<String> removedIds = new ArrayList<>();
+        if (null == groups) {
+            return removedIds;
+        }
+        for (Object rawGroup : groups) {
+            String group = (String) rawGroup;
+            if (null == group) {
+                continue;
+            }
+            hiddenGroups.remove(group);
+            groupZIndexOffsets.remove(group);
+            Map<String, MarkerController> members = markerGroups.remove(group);
+            if (null == members) {
+                continue;
+            }
+            for (Map.Entry<String, MarkerController> entry : members.entrySet()) {
+                MarkerController markerController = entry.getValue();
+                controllerMapByDartId.remove(entry.getKey());
+                pendingIcons.remove(entry.getKey());
+                idMapByOverlyId.remove(markerController.getMarkerId());
+                if (selectedMarker == markerController.getMarker()) {
+                    selectedMarker = null;
+                }
+                if (entry.getKey().equals(selectedMarkerDartId)) {
+                    selectedMarkerDartId = null;
+                }
+                markerController.remove();
+                removedIds.add(entry.getKey());
+            }
+            LogUtil.i(CLASS_NAME, "removeGroups==> group=" + group + ", count=" + members.size());
+        }
+        markDeclutterDirty();
+        requestDeclutter();
+        return removedIds;
+    }
+
+    /**
+     * 给分组内的 marker 统一叠加 zIndex 偏移，marker 自身的 zIndex 保持不变
+     */
+    private void setGroupsZIndexOffset(List<Object> groups, Object offsetObj) {
+        if (null == groups || null == offsetObj) {
+            return;
+        }
+        final float offset = ConvertUtil.toFloat(offsetObj);
+        for (Object rawGroup : groups) {
+            String group = (String) rawGroup;
+            if (null == group) {
+                continue;
+            }
+            groupZIndexOffsets.put(group, offset);
+            Map<String, MarkerController> members = markerGroups.get(group);
+            if (null == members) {
+                continue;
+            }
+            for (MarkerController markerController : members.values()) {
+                markerController.setZIndexOffset(offset);
+            }
+        }
+    }
+
+    /**
+     * 注册 InfoWindow 模板，同一个 id 重复注册时覆盖旧模板
+     */
+    private void registerInfoWindowTemplate(String id, Object template) {
+        if (TextUtils.isEmpty(id) || null == template) {
+            return;
+        }
+        infoWindowAdapter.registerTemplate(id, InfoWindowTemplate.fromMap(template));
+        if (!infoWindowAdapterAttached && null != amap) {
+            amap.setInfoWindowAdapter(infoWindowAdapter);
+            infoWindowAdapterAttached = true;
+        }
+        LogUtil.i(CLASS_NAME, "registerInfoWindowTemplate==> id=" + id);
     }
 
     private void showMarkerInfoWindow(String dartMarkId) {
@@ -277,16 +622,25 @@ public class MarkersController
 
     @Override
     public void onMarkerDragStart(Marker marker) {
-
+        String dartId = idMapByOverlyId.get(marker.getId());
+        if (null == dartId) {
+            return;
+        }
+        dragStream.onDragStart(dartId, marker);
     }
 
     @Override
     public void onMarkerDrag(Marker marker) {
-
+        String dartId = idMapByOverlyId.get(marker.getId());
+        if (null == dartId) {
+            return;
+        }
+        dragStream.onDrag(dartId, marker);
     }
 
     @Override
     public void onMarkerDragEnd(Marker marker) {
+        dragStream.cancel();
         String markerId = marker.getId();
         String dartId = idMapByOverlyId.get(markerId);
         LatLng latLng = marker.getPosition();
@@ -297,6 +651,8 @@ public class MarkersController
         data.put("markerId", dartId);
         data.put("position", ConvertUtil.latLngToList(latLng));
         methodChannel.invokeMethod("marker#onDragEnd", data);
+        markDeclutterDirty();
+        requestDeclutter();
 
         LogUtil.i(CLASS_NAME, "onMarkerDragEnd==>" + data);
     }
@@ -306,4 +662,133 @@ public class MarkersController
         hideMarkerInfoWindow(selectedMarkerDartId, null != poi ? poi.getCoordinate() : null);
     }
 
+    @Override
+    public void onCameraChange(CameraPosition cameraPosition) {
+
+    }
+
+    @Override
+    public void onCameraChangeFinish(CameraPosition cameraPosition) {
+        requestDeclutter();
+    }
+
+    /**
+     * 开启/关闭 marker 避让
+     *
+     * @param call enabled: 是否开启, cellSize: 碰撞网格边长（dp）
+     */
+    private void setDeclutter(MethodCall call) {
+        Object enabled = call.argument("enabled");
+        Object cellSize = call.argument("cellSize");
+        if (null != cellSize && ConvertUtil.toFloat(cellSize) > 0) {
+            declutterCellSize = ConvertUtil.toFloat(cellSize);
+        }
+        declutterEnabled = null != enabled && ConvertUtil.toBoolean(enabled);
+        declutterGeneration++;
+        markDeclutterDirty();
+        if (declutterEnabled) {
+            requestDeclutter();
+        } else {
+            for (MarkerController controller : controllerMapByDartId.values()) {
+                controller.setDecluttered(false);
+            }
+        }
+    }
+
+    /**
+     * 只标记需要重新计算；进行中的计算结果仍然会应用，应用后再按最新的 marker 重新计算，
+     * 避免频繁更新时结果一直被丢弃
+     */
+    private void markDeclutterDirty() {
+        declutterDirty = true;
+    }
+
+    /**
+     * 在主线程采集 marker 快照（位置、优先级与图标外框），后台线程按当前比例尺做外框碰撞，结果切回主线程一次性应用。
+     * 只平移地图时结果不变，直接跳过计算。
+     */
+    private void requestDeclutter() {
+        if (!declutterEnabled || null == amap) {
+            return;
+        }
+        final CameraPosition cameraPosition = amap.getCameraPosition();
+        if (null == cameraPosition || null == cameraPosition.target) {
+            return;
+        }
+        if (!declutterDirty && Math.abs(cameraPosition.zoom - declutterZoom) < 0.01f) {
+            return;
+        }
+        if (declutterRunning) {
+            declutterPending = true;
+            return;
+        }
+
+        final int size = controllerMapByDartId.size();
+        final MarkerController[] snapshot = new MarkerController[size];
+        final double[] latitudes = new double[size];
+        final double[] longitudes = new double[size];
+        final float[] priorities = new float[size];
+        final float[] boxes = new float[size * 4];
+        final float cellSizePixels = declutterCellSize * ConvertUtil.density;
+        int count = 0;
+        for (MarkerController controller : controllerMapByDartId.values()) {
+            LatLng position = controller.getPosition();
+            if (!controller.isVisible() || null == position) {
+                continue;
+            }
+            snapshot[count] = controller;
+            latitudes[count] = position.latitude;
+            longitudes[count] = position.longitude;
+            priorities[count] = controller.getPriority();
+            controller.getIconBox(boxes, count * 4, cellSizePixels);
+            count++;
+        }
+
+        final int total = count;
+        final int generation = declutterGeneration;
+        final double pixelsPerUnit = GeometryUtil.pixelsPerMercatorUnit(amap.getScalePerPixel(), cameraPosition.target.latitude);
+        declutterDirty = false;
+        declutterZoom = cameraPosition.zoom;
+        declutterRunning = true;
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final boolean[] hidden = MarkerDeclutter.compute(latitudes, longitudes, priorities, boxes, total,
+                        cellSizePixels, pixelsPerUnit);
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyDeclutter(generation, snapshot, hidden);
+                    }
+                });
+            }
+        }, new ThreadUtil.WorkerErrorHandler() {
+            @Override
+            public void onError(Throwable e) {
+                //计算失败时复位状态，等下一次相机变化重新计算
+                declutterRunning = false;
+                declutterPending = false;
+                declutterDirty = true;
+            }
+        });
+    }
+
+    private void applyDeclutter(int generation, MarkerController[] snapshot, boolean[] hidden) {
+        declutterRunning = false;
+        if (declutterEnabled && generation == declutterGeneration) {
+            for (int i = 0; i < hidden.length; i++) {
+                //计算期间删除的 marker 跳过，新增的 marker 等下一次计算
+                if (!snapshot[i].isRemoved()) {
+                    snapshot[i].setDecluttered(hidden[i]);
+                }
+            }
+            LogUtil.i(CLASS_NAME, "applyDeclutter==> count=" + hidden.length);
+        }
+        //结果作废（避让关闭或重新设置过）时不应用，但仍要处理期间到来的请求
+        if (declutterPending || declutterDirty) {
+            declutterPending = false;
+            requestDeclutter();
+        }
+    }
+
 }
@@ -0,0 +1,119 @@
+package com.amap.flutter.map.overlays.marker;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.Marker;
+import com.amap.flutter.map.utils.LogUtil;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于模板的 InfoWindowAdapter
+ * <p>
+ * 每个模板维护一个小的 View 池，优先复用没有挂在窗口上的 View，池满时复用最久未使用的 View，
+ * 弹出 InfoWindow 时只做数据绑定，不需要重新创建 View。
+ * 没有指定模板（或模板已注销）的 marker 返回 null，由 SDK 使用默认样式。
+ */
+class TemplateInfoWindowAdapter implements AMap.InfoWindowAdapter {
+    private static final String CLASS_NAME = "TemplateInfoWindowAdapter";
+    //每个模板最多缓存的 View 数量
+    private static final int MAX_POOL_SIZE = 3;
+
+    private final Map<String, InfoWindowTemplate> templates = new HashMap<>(4);
+    private final Map<String, List<View>> viewPools = new HashMap<>(4);
+    private final Map<String, String> idMapByOverlyId;
+    private final Map<String, MarkerController> controllerMapByDartId;
+    private WeakReference<Context> contextRef;
+
+    TemplateInfoWindowAdapter(Map<String, String> idMapByOverlyId, Map<String, MarkerController> controllerMapByDartId) {
+        this.idMapByOverlyId = idMapByOverlyId;
+        this.controllerMapByDartId = controllerMapByDartId;
+    }
+
+    void setContext(Context context) {
+        contextRef = new WeakReference<>(context);
+    }
+
+    void registerTemplate(String id, InfoWindowTemplate template) {
+        templates.put(id, template);
+        //模板变化后旧的 View 结构不再可用
+        viewPools.remove(id);
+    }
+
+    void unregisterTemplate(String id) {
+        templates.remove(id);
+        viewPools.remove(id);
+    }
+
+    @Override
+    public View getInfoWindow(Marker marker) {
+        if (null == marker) {
+            return null;
+        }
+        final String dartId = idMapByOverlyId.get(marker.getId());
+        final MarkerController markerController = null != dartId ? controllerMapByDartId.get(dartId) : null;
+        if (null == markerController || null == markerController.getInfoWindowTemplate()) {
+            return null;
+        }
+        final String templateId = markerController.getInfoWindowTemplate();
+        final InfoWindowTemplate template = templates.get(templateId);
+        if (null == template) {
+            return null;
+        }
+        final View view = obtainView(templateId, template);
+        if (null == view) {
+            return null;
+        }
+        template.bind(view, markerController);
+        return view;
+    }
+
+    @Override
+    public View getInfoContents(Marker marker) {
+        return null;
+    }
+
+    /**
+     * 池按使用顺序排列，末尾是最近使用的 View
+     */
+    private View obtainView(String templateId, InfoWindowTemplate template) {
+        List<View> pool = viewPools.get(templateId);
+        if (null == pool) {
+            pool = new ArrayList<>(MAX_POOL_SIZE);
+            viewPools.put(templateId, pool);
+        }
+        View view = null;
+        for (int i = 0; i < pool.size(); i++) {
+            if (null == pool.get(i).getParent()) {
+                view = pool.remove(i);
+                break;
+            }
+        }
+        if (null == view && pool.size() >= MAX_POOL_SIZE) {
+            view = pool.remove(0);
+            ViewParent parent = view.getParent();
+            if (parent instanceof ViewGroup) {
+                ((ViewGroup) parent).removeView(view);
+            }
+        }
+        if (null == view) {
+            final Context context = null != contextRef ? contextRef.get() : null;
+            if (null == context) {
+                LogUtil.w(CLASS_NAME, "obtainView==> context is null");
+                return null;
+            }
+            view = template.createView(context);
+            LogUtil.i(CLASS_NAME, "obtainView==> create view for template " + templateId);
+        }
+        pool.add(view);
+        return view;
+    }
+}
@@ -0,0 +1,54 @@
+package com.amap.flutter.map.overlays.polygon;
+
+import com.amap.api.maps.model.Polygon;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 一组合并后的多边形，缩放级别低于 maxZoom 时显示合并结果并隐藏成员，否则反之
+ */
+class DissolvedGroup {
+    final String key;
+    final Set<String> memberIds;
+    final float maxZoom;
+    private final List<Polygon> merged;
+    private Boolean showMerged;
+
+    DissolvedGroup(String key, Set<String> memberIds, float maxZoom, List<Polygon> merged) {
+        this.key = key;
+        this.memberIds = memberIds;
+        this.maxZoom = maxZoom;
+        this.merged = merged;
+    }
+
+    int getMergedCount() {
+        return merged.size();
+    }
+
+    /**
+     * @return 显示状态是否发生变化
+     */
+    boolean update(float zoom) {
+        final boolean show = zoom < maxZoom;
+        if (null != showMerged && showMerged == show) {
+            return false;
+        }
+        showMerged = show;
+        for (Polygon polygon : merged) {
+            polygon.setVisible(show);
+        }
+        return true;
+    }
+
+    boolean isShowingMerged() {
+        return null != showMerged && showMerged;
+    }
+
+    void remove() {
+        for (Polygon polygon : merged) {
+            polygon.remove();
+        }
+        merged.clear();
+    }
+}
@@ -0,0 +1,210 @@
+package com.amap.flutter.map.overlays.polygon;
+
+import com.amap.api.maps.model.LatLng;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 多边形的点包含查询（地理围栏）
+ * <p>
+ * 多边形的外包矩形用 STR（Sort-Tile-Recursive）方式批量装入 R 树，先按外包矩形筛选候选，
+ * 再对候选多边形做射线法判断，落在洞内的点不算包含。
+ * 坐标直接使用经纬度做平面计算，围栏尺度下误差可以忽略。本类构造后只读，可以在后台线程构造和查询。
+ */
+class GeofenceIndex {
+    //R 树节点容量
+    private static final int NODE_CAPACITY = 16;
+
+    static class Shape {
+        final String id;
+        //外轮廓与洞，每个环为 [lng0, lat0, lng1, lat1, ...]
+        final double[] outer;
+        final double[][] holes;
+        final double minX, minY, maxX, maxY;
+
+        Shape(String id, List<LatLng> outer, List<List<LatLng>> holes) {
+            this.id = id;
+            this.outer = toRing(outer);
+            this.holes = new double[null != holes ? holes.size() : 0][];
+            for (int i = 0; i < this.holes.length; i++) {
+                this.holes[i] = toRing(holes.get(i));
+            }
+            double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+            double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < this.outer.length; i += 2) {
+                x0 = Math.min(x0, this.outer[i]);
+                x1 = Math.max(x1, this.outer[i]);
+                y0 = Math.min(y0, this.outer[i + 1]);
+                y1 = Math.max(y1, this.outer[i + 1]);
+            }
+            minX = x0;
+            minY = y0;
+            maxX = x1;
+            maxY = y1;
+        }
+
+        boolean contains(double x, double y) {
+            if (x < minX || x > maxX || y < minY || y > maxY || !ringContains(outer, x, y)) {
+                return false;
+            }
+            for (double[] hole : holes) {
+                if (ringContains(hole, x, y)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static double[] toRing(List<LatLng> points) {
+            final double[] ring = new double[null != points ? points.size() * 2 : 0];
+            for (int i = 0; i < ring.length / 2; i++) {
+                LatLng latLng = points.get(i);
+                ring[i * 2] = latLng.longitude;
+                ring[i * 2 + 1] = latLng.latitude;
+            }
+            return ring;
+        }
+    }
+
+    /**
+     * 射线法，环不需要首尾闭合
+     */
+    static boolean ringContains(double[] ring, double x, double y) {
+        final int count = ring.length / 2;
+        if (count < 3) {
+            return false;
+        }
+        boolean inside = false;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            final double xi = ring[i * 2], yi = ring[i * 2 + 1];
+            final double xj = ring[j * 2], yj = ring[j * 2 + 1];
+            if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private final Shape[] shapes;
+    //各层节点的外包矩形 [minX, minY, maxX, maxY]，levels[0] 为叶子层，每个叶子节点对应 shapes 中连续的一段
+    private final List<double[]> levels = new ArrayList<>();
+
+    GeofenceIndex(List<Shape> input) {
+        shapes = input.toArray(new Shape[0]);
+        if (shapes.length == 0) {
+            return;
+        }
+        //STR：按 x 中心排序后切成竖条，每条内按 y 中心排序
+        final int leafCount = (shapes.length + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        final int sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+        final int sliceSize = sliceCount * NODE_CAPACITY;
+        Arrays.sort(shapes, new Comparator<Shape>() {
+            @Override
+            public int compare(Shape a, Shape b) {
+                return Double.compare(a.minX + a.maxX, b.minX + b.maxX);
+            }
+        });
+        for (int start = 0; start < shapes.length; start += sliceSize) {
+            Arrays.sort(shapes, start, Math.min(shapes.length, start + sliceSize), new Comparator<Shape>() {
+                @Override
+                public int compare(Shape a, Shape b) {
+                    return Double.compare(a.minY + a.maxY, b.minY + b.maxY);
+                }
+            });
+        }
+        double[] level = new double[leafCount * 4];
+        for (int node = 0; node < leafCount; node++) {
+            initBounds(level, node);
+            for (int i = node * NODE_CAPACITY; i < Math.min(shapes.length, (node + 1) * NODE_CAPACITY); i++) {
+                expand(level, node, shapes[i].minX, shapes[i].minY, shapes[i].maxX, shapes[i].maxY);
+            }
+        }
+        levels.add(level);
+        //逐层向上合并，子节点已经按空间顺序排列，直接按顺序分组
+        while (level.length > 4) {
+            final int childCount = level.length / 4;
+            final int parentCount = (childCount + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            final double[] parent = new double[parentCount * 4];
+            for (int node = 0; node < parentCount; node++) {
+                initBounds(parent, node);
+                for (int c = node * NODE_CAPACITY; c < Math.min(childCount, (node + 1) * NODE_CAPACITY); c++) {
+                    expand(parent, node, level[c * 4], level[c * 4 + 1], level[c * 4 + 2], level[c * 4 + 3]);
+                }
+            }
+            levels.add(parent);
+            level = parent;
+        }
+    }
+
+    private static void initBounds(double[] bounds, int node) {
+        bounds[node * 4] = Double.POSITIVE_INFINITY;
+        bounds[node * 4 + 1] = Double.POSITIVE_INFINITY;
+        bounds[node * 4 + 2] = Double.NEGATIVE_INFINITY;
+        bounds[node * 4 + 3] = Double.NEGATIVE_INFINITY;
+    }
+
+    private static void expand(double[] bounds, int node, double minX, double minY, double maxX, double maxY) {
+        bounds[node * 4] = Math.min(bounds[node * 4], minX);
+        bounds[node * 4 + 1] = Math.min(bounds[node * 4 + 1], minY);
+        bounds[node * 4 + 2] = Math.max(bounds[node * 4 + 2], maxX);
+        bounds[node * 4 + 3] = Math.max(bounds[node * 4 + 3], maxY);
+    }
+
+    int size() {
+        return shapes.length;
+    }
+
+    /**
+     * @param shapeIndex 索引内部的多边形序号（与构造时的顺序不同），见 {@link #accumulate}
+     */
+    String idAt(int shapeIndex) {
+        return shapes[shapeIndex].id;
+    }
+
+    /**
+     * 包含该点的所有多边形 id，没有时返回空列表
+     */
+    List<String> query(double latitude, double longitude) {
+        final List<String> result = new ArrayList<>(2);
+        if (levels.isEmpty()) {
+            return result;
+        }
+        search(levels.size() - 1, 0, longitude, latitude, result, null, 0);
+        return result;
+    }
+
+    /**
+     * 把 weight 累加到包含该点的每个多边形上，totals 按索引内部序号存放，长度为 {@link #size()}
+     */
+    void accumulate(double latitude, double longitude, double weight, double[] totals) {
+        if (!levels.isEmpty()) {
+            search(levels.size() - 1, 0, longitude, latitude, null, totals, weight);
+        }
+    }
+
+    private void search(int depth, int node, double x, double y, List<String> result, double[] totals, double weight) {
+        final double[] bounds = levels.get(depth);
+        if (x < bounds[node * 4] || y < bounds[node * 4 + 1] || x > bounds[node * 4 + 2] || y > bounds[node * 4 + 3]) {
+            return;
+        }
+        if (depth == 0) {
+            for (int i = node * NODE_CAPACITY; i < Math.min(shapes.length, (node + 1) * NODE_CAPACITY); i++) {
+                if (shapes[i].contains(x, y)) {
+                    if (null != result) {
+                        result.add(shapes[i].id);
+                    } else {
+                        totals[i] += weight;
+                    }
+                }
+            }
+            return;
+        }
+        final int childCount = levels.get(depth - 1).length / 4;
+        for (int c = node * NODE_CAPACITY; c < Math.min(childCount, (node + 1) * NODE_CAPACITY); c++) {
+            search(depth - 1, c, x, y, result, totals, weight);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.amap.flutter.map.overlays.polygon;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 点落入多边形的聚合统计（计数或按权重求和）
+ * <p>
+ * 点数组按区间二分拆成子任务，每个叶子任务持有自己的累加数组，合并时逐项相加，
+ * 计算过程中不需要加锁。结果按 {@link GeofenceIndex} 内部的多边形序号存放。
+ */
+class PointAggregation extends RecursiveTask<double[]> {
+    //叶子任务处理的最大点数
+    private static final int THRESHOLD = 4096;
+
+    private final GeofenceIndex index;
+    //[lat0, lng0, lat1, lng1, ...]
+    private final double[] coordinates;
+    //与点一一对应的权重，为 null 时按计数统计
+    private final double[] weights;
+    private final int from;
+    private final int to;
+
+    PointAggregation(GeofenceIndex index, double[] coordinates, double[] weights) {
+        this(index, coordinates, weights, 0, coordinates.length / 2);
+    }
+
+    private PointAggregation(GeofenceIndex index, double[] coordinates, double[] weights, int from, int to) {
+        this.index = index;
+        this.coordinates = coordinates;
+        this.weights = weights;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected double[] compute() {
+        if (to - from <= THRESHOLD) {
+            final double[] totals = new double[index.size()];
+            for (int i = from; i < to; i++) {
+                final double weight = null == weights ? 1 : (i < weights.length ? weights[i] : 0);
+                index.accumulate(coordinates[i * 2], coordinates[i * 2 + 1], weight, totals);
+            }
+            return totals;
+        }
+        final int mid = (from + to) >>> 1;
+        final PointAggregation left = new PointAggregation(index, coordinates, weights, from, mid);
+        final PointAggregation right = new PointAggregation(index, coordinates, weights, mid, to);
+        left.fork();
+        final double[] totals = right.compute();
+        final double[] leftTotals = left.join();
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] += leftTotals[i];
+        }
+        return totals;
+    }
+}
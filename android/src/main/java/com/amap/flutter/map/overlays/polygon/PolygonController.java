@@ -1,9 +1,14 @@
 package com.amap.flutter.map.overlays.polygon;
 
 import com.amap.api.maps.model.AMapPara;
+import com.amap.api.maps.model.BaseHoleOptions;
 import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.Polygon;
+import com.amap.api.maps.model.PolygonHoleOptions;
+import com.amap.flutter.map.overlays.ViewportClip;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -12,14 +17,25 @@ import java.util.List;
  * @mail hongming.whm@alibaba-inc.com
  * @since
  */
-class PolygonController implements PolygonOptionsSink {
+class PolygonController implements PolygonOptionsSink, ViewportClip.Target {
 
     private final Polygon polygon;
     private final String id;
+    //完整的外轮廓，开启裁剪时 polygon 上显示的是裁剪结果
+    private List<LatLng> points;
+    private final ViewportClip clip = new ViewportClip(true);
+    private List<List<LatLng>> holes;
+    //最近一次设置的颜色，批量设色时跳过没有变化的多边形
+    private Integer fillColor;
+    private Integer strokeColor;
+    //Dart 侧设置的可见性；被合并（dissolve）替换时实际隐藏
+    private boolean visible;
+    private boolean dissolved = false;
 
     PolygonController(Polygon polygon) {
         this.polygon = polygon;
         this.id = polygon.getId();
+        this.visible = polygon.isVisible();
     }
 
     public String getId() {
@@ -30,9 +46,32 @@ class PolygonController implements PolygonOptionsSink {
         polygon.remove();
     }
 
+    /**
+     * 地图销毁时调用，后台裁剪的结果不再应用
+     */
+    void dispose() {
+        clip.cancel();
+    }
+
     @Override
     public void setPoints(List<LatLng> points) {
-        polygon.setPoints(points);
+        this.points = points;
+        if (clip.isEnabled()) {
+            clip.setSource(points);
+        } else {
+            polygon.setPoints(points);
+        }
+    }
+
+    public List<LatLng> getPoints() {
+        return points;
+    }
+
+    /**
+     * 创建时已经通过 builder 提交给 SDK 的外轮廓，只保存不提交
+     */
+    void restorePoints(List<LatLng> points) {
+        this.points = points;
     }
 
     @Override
@@ -42,21 +81,109 @@ class PolygonController implements PolygonOptionsSink {
 
     @Override
     public void setStrokeColor(int color) {
+        if (null != strokeColor && strokeColor == color) {
+            return;
+        }
+        strokeColor = color;
         polygon.setStrokeColor(color);
     }
 
     @Override
     public void setFillColor(int color) {
+        if (null != fillColor && fillColor == color) {
+            return;
+        }
+        fillColor = color;
         polygon.setFillColor(color);
     }
 
     @Override
     public void setVisible(boolean visible) {
-        polygon.setVisible(visible);
+        this.visible = visible;
+        polygon.setVisible(visible && !dissolved);
+    }
+
+    void setDissolved(boolean dissolved) {
+        if (this.dissolved == dissolved) {
+            return;
+        }
+        this.dissolved = dissolved;
+        polygon.setVisible(visible && !dissolved);
+    }
+
+    int getFillColor() {
+        return polygon.getFillColor();
+    }
+
+    int getStrokeColor() {
+        return polygon.getStrokeColor();
+    }
+
+    float getStrokeWidth() {
+        return polygon.getStrokeWidth();
+    }
+
+    float getZIndex() {
+        return polygon.getZIndex();
     }
 
     @Override
     public void setLineJoinType(AMapPara.LineJoinType joinType) {
         //不支持动态修改
     }
+
+    @Override
+    public void setClipOptions(boolean enabled, float margin) {
+        if (!clip.setOptions(enabled, margin)) {
+            return;
+        }
+        if (enabled) {
+            clip.setSource(points);
+        } else if (null != points) {
+            polygon.setPoints(points);
+        }
+    }
+
+    boolean isClipEnabled() {
+        return clip.isEnabled();
+    }
+
+    /**
+     * 按当前视口裁剪，视口没有超出上次的裁剪范围时不做任何事
+     */
+    void requestClip(double[] viewport) {
+        clip.request(viewport, this);
+    }
+
+    @Override
+    public void setHoles(List<List<LatLng>> holes) {
+        this.holes = holes;
+        polygon.setHoleOptions(toHoleOptions(holes));
+    }
+
+    /**
+     * 创建时通过 builder 写入的洞，只保存不提交
+     */
+    void restoreHoles(List<List<LatLng>> holes) {
+        this.holes = holes;
+    }
+
+    public List<List<LatLng>> getHoles() {
+        return holes;
+    }
+
+    static List<BaseHoleOptions> toHoleOptions(List<List<LatLng>> holes) {
+        final List<BaseHoleOptions> holeOptions = new ArrayList<>(null != holes ? holes.size() : 0);
+        if (null != holes) {
+            for (List<LatLng> hole : holes) {
+                holeOptions.add(new PolygonHoleOptions().addAll(hole));
+            }
+        }
+        return holeOptions;
+    }
+
+    @Override
+    public void onClipped(List<LatLng> clippedPoints, int[] sourceIndices, BitSet connectors) {
+        polygon.setPoints(clippedPoints);
+    }
 }
@@ -0,0 +1,353 @@
+package com.amap.flutter.map.overlays.polygon;
+
+import com.amap.api.maps.model.LatLng;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 相邻多边形的合并（dissolve）
+ * <p>
+ * 顶点先按 snap 量化到网格，外轮廓统一为逆时针、洞统一为顺时针。
+ * 合并前先打断边：落在其他边上（距离不超过一个网格）的顶点把该边拆成几段，
+ * 这样一侧是一条长边、另一侧是几条短边的 T 形接点也能对齐。
+ * 之后两个多边形的公共边在各自环上方向相反，成对抵消；剩下的边按"面在左侧"的规则首尾相接成环，
+ * 面积为正的环是外轮廓，为负的是洞。
+ * <p>
+ * 只处理边界相接的多边形（如蜂窝、网格、行政区划），互相重叠的输入不会被正确合并。
+ * 本类只做计算，可以在后台线程使用。
+ */
+class PolygonDissolve {
+    //量化精度下限，保证量化后的坐标可以打包进 long
+    static final double MIN_SNAP = 1e-7;
+    static final double DEFAULT_SNAP = 1e-7;
+
+    static class Ring {
+        final List<LatLng> outer;
+        final List<List<LatLng>> holes = new ArrayList<>();
+
+        Ring(List<LatLng> outer) {
+            this.outer = outer;
+        }
+    }
+
+    private final double snap;
+    //量化坐标 -> 顶点序号
+    private final Map<Long, Integer> vertexIds = new HashMap<>();
+    private final List<long[]> vertices = new ArrayList<>();
+    //统一方向后的环（顶点序号），打断边之后再生成有向边
+    private final List<int[]> rings = new ArrayList<>();
+    //有向边 (from << 32 | to) -> 未抵消的条数
+    private final Map<Long, Integer> edges = new HashMap<>();
+
+    PolygonDissolve(double snap) {
+        this.snap = Math.max(MIN_SNAP, snap);
+    }
+
+    void add(List<LatLng> outer, List<List<LatLng>> holes) {
+        addRing(outer, true);
+        if (null != holes) {
+            for (List<LatLng> hole : holes) {
+                addRing(hole, false);
+            }
+        }
+    }
+
+    private void addRing(List<LatLng> points, boolean outer) {
+        if (null == points || points.size() < 3) {
+            return;
+        }
+        final List<Integer> ring = new ArrayList<>(points.size());
+        for (LatLng point : points) {
+            final int id = vertexOf(point);
+            //量化后重复的点与首尾闭合点
+            if (ring.isEmpty() || ring.get(ring.size() - 1) != id) {
+                ring.add(id);
+            }
+        }
+        if (ring.size() > 1 && ring.get(0).equals(ring.get(ring.size() - 1))) {
+            ring.remove(ring.size() - 1);
+        }
+        if (ring.size() < 3) {
+            return;
+        }
+        final boolean reverse = (signedArea(ring) > 0) != outer;
+        final int count = ring.size();
+        final int[] oriented = new int[count];
+        for (int i = 0; i < count; i++) {
+            oriented[i] = ring.get(reverse ? count - 1 - i : i);
+        }
+        rings.add(oriented);
+    }
+
+    /**
+     * 把每条边在落在它上面的其他顶点处拆开，再加入有向边表
+     */
+    private void nodeEdges() {
+        //顶点按 x 排序，查询一条边时只看 x 范围内的顶点
+        final Integer[] byX = new Integer[vertices.size()];
+        for (int i = 0; i < byX.length; i++) {
+            byX[i] = i;
+        }
+        Arrays.sort(byX, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(vertices.get(a)[0], vertices.get(b)[0]);
+            }
+        });
+        final long[] xs = new long[byX.length];
+        for (int i = 0; i < byX.length; i++) {
+            xs[i] = vertices.get(byX[i])[0];
+        }
+        final List<double[]> splits = new ArrayList<>();
+        for (int[] ring : rings) {
+            for (int i = 0; i < ring.length; i++) {
+                final int a = ring[i];
+                final int b = ring[(i + 1) % ring.length];
+                final long[] p = vertices.get(a);
+                final long[] q = vertices.get(b);
+                final double dx = q[0] - p[0];
+                final double dy = q[1] - p[1];
+                final double lengthSquared = dx * dx + dy * dy;
+                final long minY = Math.min(p[1], q[1]) - 1;
+                final long maxY = Math.max(p[1], q[1]) + 1;
+                splits.clear();
+                for (int k = lowerBound(xs, Math.min(p[0], q[0]) - 1); k < xs.length && xs[k] <= Math.max(p[0], q[0]) + 1; k++) {
+                    final int id = byX[k];
+                    final long[] v = vertices.get(id);
+                    if (id == a || id == b || v[1] < minY || v[1] > maxY) {
+                        continue;
+                    }
+                    final double t = ((v[0] - p[0]) * dx + (v[1] - p[1]) * dy) / lengthSquared;
+                    final double cross = (v[0] - p[0]) * dy - (v[1] - p[1]) * dx;
+                    //到边的距离不超过一个网格
+                    if (t > 0 && t < 1 && cross * cross <= lengthSquared) {
+                        splits.add(new double[]{t, id});
+                    }
+                }
+                if (splits.isEmpty()) {
+                    addEdge(a, b);
+                    continue;
+                }
+                Collections.sort(splits, new Comparator<double[]>() {
+                    @Override
+                    public int compare(double[] u, double[] w) {
+                        return Double.compare(u[0], w[0]);
+                    }
+                });
+                int from = a;
+                for (double[] split : splits) {
+                    final int to = (int) split[1];
+                    addEdge(from, to);
+                    from = to;
+                }
+                addEdge(from, b);
+            }
+        }
+        rings.clear();
+    }
+
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void addEdge(int a, int b) {
+        final long reverseKey = edgeKey(b, a);
+        final Integer reverseCount = edges.get(reverseKey);
+        if (null != reverseCount) {
+            if (reverseCount > 1) {
+                edges.put(reverseKey, reverseCount - 1);
+            } else {
+                edges.remove(reverseKey);
+            }
+            return;
+        }
+        final long key = edgeKey(a, b);
+        final Integer count = edges.get(key);
+        edges.put(key, null == count ? 1 : count + 1);
+    }
+
+    private int vertexOf(LatLng point) {
+        final long qx = Math.round(point.longitude / snap);
+        final long qy = Math.round(point.latitude / snap);
+        final long key = ((qy + 1000000000L) << 32) | (qx + 2000000000L);
+        Integer id = vertexIds.get(key);
+        if (null == id) {
+            id = vertices.size();
+            vertexIds.put(key, id);
+            vertices.add(new long[]{qx, qy});
+        }
+        return id;
+    }
+
+    private static long edgeKey(int a, int b) {
+        return ((long) a << 32) | (b & 0xffffffffL);
+    }
+
+    private double signedArea(List<Integer> ring) {
+        double area = 0;
+        for (int i = 0, j = ring.size() - 1; i < ring.size(); j = i++) {
+            final long[] p = vertices.get(ring.get(j));
+            final long[] q = vertices.get(ring.get(i));
+            area += (double) p[0] * q[1] - (double) q[0] * p[1];
+        }
+        return area / 2;
+    }
+
+    /**
+     * 把未抵消的边连接成环并把洞分配给外轮廓
+     */
+    List<Ring> build() {
+        nodeEdges();
+        //每个顶点的出边
+        final Map<Integer, List<Integer>> outgoing = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : edges.entrySet()) {
+            final int from = (int) (entry.getKey() >>> 32);
+            final int to = (int) (long) entry.getKey();
+            List<Integer> targets = outgoing.get(from);
+            if (null == targets) {
+                targets = new ArrayList<>(2);
+                outgoing.put(from, targets);
+            }
+            for (int i = 0; i < entry.getValue(); i++) {
+                targets.add(to);
+            }
+        }
+        final List<List<Integer>> outers = new ArrayList<>();
+        final List<List<Integer>> holes = new ArrayList<>();
+        for (Integer start : new ArrayList<>(outgoing.keySet())) {
+            List<Integer> targets;
+            while (null != (targets = outgoing.get(start)) && !targets.isEmpty()) {
+                final List<Integer> ring = traceRing(start, outgoing);
+                simplify(ring);
+                if (ring.size() < 3) {
+                    continue;
+                }
+                final double area = signedArea(ring);
+                if (area > 0) {
+                    outers.add(ring);
+                } else if (area < 0) {
+                    holes.add(ring);
+                }
+            }
+        }
+        final List<Ring> result = new ArrayList<>(outers.size());
+        final List<double[]> outerRings = new ArrayList<>(outers.size());
+        final double[] areas = new double[outers.size()];
+        for (int i = 0; i < outers.size(); i++) {
+            result.add(new Ring(toLatLngs(outers.get(i))));
+            outerRings.add(toPacked(outers.get(i)));
+            areas[i] = signedArea(outers.get(i));
+        }
+        for (List<Integer> hole : holes) {
+            //洞属于包含它的最小外轮廓
+            final long[] probe = vertices.get(hole.get(0));
+            int owner = -1;
+            for (int i = 0; i < outerRings.size(); i++) {
+                if (GeofenceIndex.ringContains(outerRings.get(i), probe[0], probe[1])
+                        && (owner < 0 || areas[i] < areas[owner])) {
+                    owner = i;
+                }
+            }
+            if (owner >= 0) {
+                result.get(owner).holes.add(toLatLngs(hole));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从 start 出发沿剩余的边走回起点；在有多条出边的顶点上，从来向的反方向顺时针找第一条边，
+     * 使面始终在左侧
+     */
+    private List<Integer> traceRing(int start, Map<Integer, List<Integer>> outgoing) {
+        final List<Integer> ring = new ArrayList<>();
+        int previous = -1;
+        int current = start;
+        do {
+            ring.add(current);
+            final List<Integer> targets = outgoing.get(current);
+            if (null == targets || targets.isEmpty()) {
+                //输入不闭合，丢弃这段
+                ring.clear();
+                return ring;
+            }
+            int choice = 0;
+            if (targets.size() > 1 && previous >= 0) {
+                final long[] v = vertices.get(current);
+                final long[] u = vertices.get(previous);
+                final double back = Math.atan2(u[1] - v[1], u[0] - v[0]);
+                double best = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < targets.size(); i++) {
+                    final long[] w = vertices.get(targets.get(i));
+                    double turn = back - Math.atan2(w[1] - v[1], w[0] - v[0]);
+                    while (turn <= 0) {
+                        turn += 2 * Math.PI;
+                    }
+                    if (turn < best) {
+                        best = turn;
+                        choice = i;
+                    }
+                }
+            }
+            previous = current;
+            current = targets.remove(choice);
+        } while (current != start);
+        return ring;
+    }
+
+    /**
+     * 去掉共线的中间点，合并后原来的公共顶点大多落在直线上
+     */
+    private void simplify(List<Integer> ring) {
+        boolean changed = true;
+        while (changed && ring.size() >= 3) {
+            changed = false;
+            for (int i = 0; i < ring.size() && ring.size() >= 3; i++) {
+                final long[] a = vertices.get(ring.get((i + ring.size() - 1) % ring.size()));
+                final long[] b = vertices.get(ring.get(i));
+                final long[] c = vertices.get(ring.get((i + 1) % ring.size()));
+                final double cross = (double) (b[0] - a[0]) * (c[1] - a[1]) - (double) (b[1] - a[1]) * (c[0] - a[0]);
+                if (cross == 0) {
+                    ring.remove(i);
+                    i--;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private List<LatLng> toLatLngs(List<Integer> ring) {
+        final List<LatLng> points = new ArrayList<>(ring.size());
+        for (Integer id : ring) {
+            final long[] v = vertices.get(id);
+            points.add(new LatLng(v[1] * snap, v[0] * snap));
+        }
+        return points;
+    }
+
+    private double[] toPacked(List<Integer> ring) {
+        final double[] packed = new double[ring.size() * 2];
+        for (int i = 0; i < ring.size(); i++) {
+            final long[] v = vertices.get(ring.get(i));
+            packed[i * 2] = v[0];
+            packed[i * 2 + 1] = v[1];
+        }
+        return packed;
+    }
+}
@@ -3,6 +3,7 @@ package com.amap.flutter.map.overlays.polygon;
 import com.amap.api.maps.model.AMapPara;
 import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.PolygonOptions;
+import com.amap.flutter.map.overlays.ViewportClip;
 
 import java.util.List;
 
@@ -14,6 +15,10 @@ import java.util.List;
  */
 class PolygonOptionsBuilder implements PolygonOptionsSink {
     final PolygonOptions polygonOptions;
+    private List<LatLng> points;
+    private boolean clipEnabled = false;
+    private float clipMargin = ViewportClip.DEFAULT_MARGIN;
+    private List<List<LatLng>> holes;
 
     PolygonOptionsBuilder() {
         polygonOptions = new PolygonOptions();
@@ -28,9 +33,14 @@ class PolygonOptionsBuilder implements PolygonOptionsSink {
 
     @Override
     public void setPoints(List<LatLng> points) {
+        this.points = points;
         polygonOptions.setPoints(points);
     }
 
+    public List<LatLng> getPoints() {
+        return points;
+    }
+
     @Override
     public void setStrokeWidth(float strokeWidth) {
         polygonOptions.strokeWidth(strokeWidth);
@@ -55,4 +65,28 @@ class PolygonOptionsBuilder implements PolygonOptionsSink {
     public void setLineJoinType(AMapPara.LineJoinType joinType) {
         polygonOptions.lineJoinType(joinType);
     }
+
+    @Override
+    public void setClipOptions(boolean enabled, float margin) {
+        this.clipEnabled = enabled;
+        this.clipMargin = margin;
+    }
+
+    public boolean isClipEnabled() {
+        return clipEnabled;
+    }
+
+    public float getClipMargin() {
+        return clipMargin;
+    }
+
+    @Override
+    public void setHoles(List<List<LatLng>> holes) {
+        this.holes = holes;
+        polygonOptions.setHoleOptions(PolygonController.toHoleOptions(holes));
+    }
+
+    public List<List<LatLng>> getHoles() {
+        return holes;
+    }
 }
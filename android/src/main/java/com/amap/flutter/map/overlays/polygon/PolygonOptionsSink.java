@@ -29,4 +29,10 @@ interface PolygonOptionsSink {
 
     //边框连接类型
     void setLineJoinType(AMapPara.LineJoinType joinType);
+
+    //视口裁剪，margin 为视口外保留的边距（占视口宽高的比例）
+    void setClipOptions(boolean enabled, float margin);
+
+    //洞，每个元素为一个环
+    void setHoles(List<List<LatLng>> holes);
 }
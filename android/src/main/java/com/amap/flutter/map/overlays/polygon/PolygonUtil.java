@@ -1,8 +1,13 @@
 package com.amap.flutter.map.overlays.polygon;
 
 import com.amap.api.maps.model.AMapPara;
+import com.amap.api.maps.model.LatLng;
+import com.amap.flutter.map.overlays.ViewportClip;
 import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.WkbReader;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -15,11 +20,48 @@ class PolygonUtil {
 
     static String interpretOptions(Object o, PolygonOptionsSink sink) {
         final Map<?, ?> data = ConvertUtil.toMap(o);
+        //需要先于 points 解析，裁剪模式下 points 只保存为源数据
+        final Object clip = data.get("clip");
+        if (clip != null) {
+            final Map<?, ?> clipData = ConvertUtil.toMap(clip);
+            final Object enabled = clipData.get("enabled");
+            final Object margin = clipData.get("margin");
+            sink.setClipOptions(null == enabled || ConvertUtil.toBoolean(enabled),
+                    null != margin ? ConvertUtil.toFloat(margin) : ViewportClip.DEFAULT_MARGIN);
+        }
+
+        //优先级 wkb > encodedPoints > points，wkb 中的内环作为洞
+        final Object wkb = data.get("wkb");
+        final Object encodedPoints = data.get("encodedPoints");
         final Object points = data.get("points");
-        if (points != null) {
+        if (wkb != null) {
+            final List<double[]> rings = WkbReader.readPolygon((byte[]) wkb);
+            sink.setPoints(ConvertUtil.toPoints(rings.get(0)));
+            if (data.get("holes") == null) {
+                final List<List<LatLng>> holes = new ArrayList<>(rings.size() - 1);
+                for (int i = 1; i < rings.size(); i++) {
+                    holes.add(ConvertUtil.toPoints(rings.get(i)));
+                }
+                sink.setHoles(holes);
+            }
+        } else if (encodedPoints != null) {
+            sink.setPoints(ConvertUtil.toEncodedPoints(encodedPoints, data.get("encodedPrecision")));
+        } else if (points != null) {
             sink.setPoints(ConvertUtil.toPoints(points));
         }
 
+        final Object holes = data.get("holes");
+        if (holes != null) {
+            final List<?> holeList = ConvertUtil.toList(holes);
+            final List<List<LatLng>> rings = new ArrayList<>(holeList.size());
+            for (Object hole : holeList) {
+                rings.add(hole instanceof String || hole instanceof byte[]
+                        ? ConvertUtil.toEncodedPoints(hole, data.get("encodedPrecision"))
+                        : ConvertUtil.toPoints(hole));
+            }
+            sink.setHoles(rings);
+        }
+
         final Object width = data.get("strokeWidth");
         if (width != null) {
             sink.setStrokeWidth(ConvertUtil.toFloatPixels(width));
@@ -5,15 +5,25 @@ import android.text.TextUtils;
 import androidx.annotation.NonNull;
 
 import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.CameraPosition;
+import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.Polygon;
 import com.amap.api.maps.model.PolygonOptions;
 import com.amap.flutter.map.MyMethodCallHandler;
 import com.amap.flutter.map.overlays.AbstractOverlayController;
+import com.amap.flutter.map.overlays.ViewportClip;
+import com.amap.flutter.map.utils.ColorRamp;
 import com.amap.flutter.map.utils.Const;
 import com.amap.flutter.map.utils.ConvertUtil;
 import com.amap.flutter.map.utils.LogUtil;
+import com.amap.flutter.map.utils.ThreadUtil;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
@@ -26,12 +36,37 @@ import io.flutter.plugin.common.MethodChannel;
  */
 public class PolygonsController
         extends AbstractOverlayController<PolygonController>
-        implements MyMethodCallHandler {
+        implements MyMethodCallHandler,
+        AMap.OnCameraChangeListener {
 
     private static final String CLASS_NAME = "PolygonsController";
 
+    //地理围栏索引，多边形增删改后失效，下次查询时在后台线程重建
+    private GeofenceIndex geofenceIndex;
+    private int geofenceGeneration = 0;
+    //合并结果，key 为 Dart 侧给出的分组 key
+    private final Map<String, DissolvedGroup> dissolvedGroups = new HashMap<>(4);
+    //正在计算的分组及其请求序号，期间再次合并或取消时旧结果作废
+    private final Map<String, Integer> dissolveGenerations = new HashMap<>(4);
+    //正在计算的分组的成员，成员变化或移除时对应的计算作废
+    private final Map<String, List<String>> dissolvingMembers = new HashMap<>(4);
+    private int dissolveGeneration = 0;
+
     public PolygonsController(MethodChannel methodChannel, AMap amap) {
         super(methodChannel, amap);
+        amap.addOnCameraChangeListener(this);
+    }
+
+    /**
+     * 地图销毁时调用：正在计算的围栏索引、合并与裁剪结果全部作废
+     */
+    public void dispose() {
+        geofenceGeneration++;
+        dissolveGenerations.clear();
+        dissolvingMembers.clear();
+        for (PolygonController controller : controllerMapByDartId.values()) {
+            controller.dispose();
+        }
     }
 
     @Override
@@ -42,6 +77,23 @@ public class PolygonsController
             case Const.METHOD_POLYGON_UPDATE:
                 invokePolylineOptions(call, result);
                 break;
+            case Const.METHOD_POLYGON_CONTAINS_POINTS:
+                containsPoints(call, result);
+                break;
+            case Const.METHOD_POLYGON_SET_FILL_COLORS:
+                setColors(call, true);
+                result.success(null);
+                break;
+            case Const.METHOD_POLYGON_SET_STROKE_COLORS:
+                setColors(call, false);
+                result.success(null);
+                break;
+            case Const.METHOD_POLYGON_AGGREGATE_POINTS:
+                aggregatePoints(call, result);
+                break;
+            case Const.METHOD_POLYGON_DISSOLVE:
+                dissolve(call, result);
+                break;
         }
     }
 
@@ -58,12 +110,18 @@ public class PolygonsController
         if (null == methodCall) {
             return;
         }
-        Object listToAdd = methodCall.argument("polygonsToAdd");
-        addByList((List<Object>) listToAdd);
-        Object listToChange = methodCall.argument("polygonsToChange");
-        updateByList((List<Object>) listToChange);
-        Object listIdToRemove = methodCall.argument("polygonIdsToRemove");
-        removeByIdList((List<Object>) listIdToRemove);
+        try {
+            Object listToAdd = methodCall.argument("polygonsToAdd");
+            addByList((List<Object>) listToAdd);
+            Object listToChange = methodCall.argument("polygonsToChange");
+            updateByList((List<Object>) listToChange);
+            Object listIdToRemove = methodCall.argument("polygonIdsToRemove");
+            removeByIdList((List<Object>) listIdToRemove);
+        } catch (IllegalArgumentException e) {
+            //压缩坐标无法解码等
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+            return;
+        }
         result.success(null);
     }
 
@@ -81,10 +139,24 @@ public class PolygonsController
             String dartId = PolygonUtil.interpretOptions(polylineObj, builder);
             if (!TextUtils.isEmpty(dartId)) {
                 PolygonOptions options = builder.build();
+                if (builder.isClipEnabled()) {
+                    //裁剪模式下先不传顶点，裁剪完成后再设置
+                    options.setPoints(new ArrayList<LatLng>());
+                }
                 final Polygon polygon = amap.addPolygon(options);
                 PolygonController polygonController = new PolygonController(polygon);
+                polygonController.restoreHoles(builder.getHoles());
+                if (builder.isClipEnabled()) {
+                    polygonController.setClipOptions(true, builder.getClipMargin());
+                    polygonController.setPoints(builder.getPoints());
+                    polygonController.requestClip(ViewportClip.viewportOf(amap));
+                } else {
+                    //未裁剪时 controller 中没有保存外轮廓，地理围栏需要用到
+                    polygonController.restorePoints(builder.getPoints());
+                }
                 controllerMapByDartId.put(dartId, polygonController);
                 idMapByOverlyId.put(polygon.getId(), dartId);
+                invalidateGeofence();
             }
         }
 
@@ -104,11 +176,16 @@ public class PolygonsController
             PolygonController controller = controllerMapByDartId.get(dartId);
             if (null != controller) {
                 PolygonUtil.interpretOptions(toUpdate, controller);
+                invalidateGeofence();
+                removeDissolvedGroupsOf((String) dartId);
+                if (controller.isClipEnabled()) {
+                    controller.requestClip(ViewportClip.viewportOf(amap));
+                }
             }
         }
     }
 
-    private void removeByIdList(List<Object> toRemoveIdList) {
+    public void removeByIdList(List<Object> toRemoveIdList) {
         if (toRemoveIdList == null) {
             return;
         }
@@ -122,7 +199,430 @@ public class PolygonsController
 
                 idMapByOverlyId.remove(controller.getId());
                 controller.remove();
+                invalidateGeofence();
+                removeDissolvedGroupsOf(dartId);
+            }
+        }
+    }
+
+    /**
+     * 批量设置颜色，只修改颜色不解析其他选项
+     *
+     * @param call ids: 多边形 id 列表，以及以下任意一种颜色来源（与 ids 一一对应）：
+     *             colors: 颜色（Int32List）；
+     *             values + ramp: 数值按 {@link ColorRamp} 插值；
+     *             values + palette + breaks: 数值按分界值分级取色
+     */
+    private void setColors(MethodCall call, boolean fill) {
+        final List<?> ids = call.argument("ids");
+        if (null == ids) {
+            return;
+        }
+        final int[] colors = resolveColors(call);
+        if (null == colors) {
+            LogUtil.w(CLASS_NAME, "setColors==> no colors, values/ramp or values/palette given");
+            return;
+        }
+        applyColors(ids, colors, fill);
+    }
+
+    private void applyColors(List<?> ids, int[] colors, boolean fill) {
+        final int count = Math.min(ids.size(), colors.length);
+        for (int i = 0; i < count; i++) {
+            PolygonController controller = controllerMapByDartId.get(ids.get(i));
+            if (null == controller) {
+                continue;
+            }
+            if (fill) {
+                controller.setFillColor(colors[i]);
+            } else {
+                controller.setStrokeColor(colors[i]);
+            }
+        }
+    }
+
+    private static int[] resolveColors(MethodCall call) {
+        final Object colors = call.argument("colors");
+        if (null != colors) {
+            return ConvertUtil.toIntArray(colors);
+        }
+        final Object values = call.argument("values");
+        if (null == values) {
+            return null;
+        }
+        final Object ramp = call.argument("ramp");
+        if (null != ramp) {
+            return ColorRamp.fromMap(ramp).colorsFor(ConvertUtil.toDoubleArray(values), null);
+        }
+        final Object palette = call.argument("palette");
+        if (null != palette) {
+            final Object breaks = call.argument("breaks");
+            return ColorRamp.classify(ConvertUtil.toDoubleArray(values),
+                    null != breaks ? ConvertUtil.toDoubleArray(breaks) : new double[0],
+                    ConvertUtil.toIntArray(palette));
+        }
+        return null;
+    }
+
+    private void invalidateGeofence() {
+        geofenceIndex = null;
+        geofenceGeneration++;
+    }
+
+    /**
+     * 批量判断点落在哪些多边形内，在后台线程计算
+     *
+     * @param call points: [lat0, lng0, lat1, lng1, ...]（Float64List）或 [[lat, lng], ...]
+     * @param result 与输入顺序一致，每个点对应包含它的多边形 id 列表
+     */
+    private void containsPoints(MethodCall call, final MethodChannel.Result result) {
+        final Object points = call.argument("points");
+        if (null == points) {
+            result.success(new ArrayList<List<String>>());
+            return;
+        }
+        final double[] coordinates = toPackedCoordinates(points);
+        final GeofenceIndex cachedIndex = geofenceIndex;
+        //没有索引时在主线程拍快照，后台线程建立索引
+        final List<GeofenceIndex.Shape> shapes = null == cachedIndex ? snapshotShapes() : null;
+        final int generation = geofenceGeneration;
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final GeofenceIndex index = null != cachedIndex ? cachedIndex : new GeofenceIndex(shapes);
+                final List<List<String>> matches = new ArrayList<>(coordinates.length / 2);
+                for (int i = 0; i + 1 < coordinates.length; i += 2) {
+                    matches.add(index.query(coordinates[i], coordinates[i + 1]));
+                }
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == geofenceGeneration) {
+                            geofenceIndex = index;
+                        }
+                        result.success(matches);
+                    }
+                });
+            }
+        }, ThreadUtil.replyError(result, "WORKER_ERROR"));
+    }
+
+    /**
+     * 统计落入每个多边形的点数或权重和，在后台线程用 fork/join 拆分计算
+     *
+     * @param call points: [lat0, lng0, lat1, lng1, ...]（Float64List）或 [[lat, lng], ...],
+     *             weights: 可选，与点一一对应的权重（Float64List），给出时求和，否则计数,
+     *             ramp: 可选，{@link ColorRamp} 参数，给出时直接按统计结果设置填充色
+     * @param result {ids: 多边形 id 列表, values: 对应的统计值（Float64List）}，不含任何点的多边形值为 0
+     */
+    private void aggregatePoints(MethodCall call, final MethodChannel.Result result) {
+        final Object points = call.argument("points");
+        final Object weightsData = call.argument("weights");
+        final Object rampData = call.argument("ramp");
+        final double[] coordinates = null != points ? toPackedCoordinates(points) : new double[0];
+        final double[] weights = null != weightsData ? ConvertUtil.toDoubleArray(weightsData) : null;
+        final ColorRamp ramp;
+        try {
+            ramp = null != rampData ? ColorRamp.fromMap(rampData) : null;
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+            return;
+        }
+        final GeofenceIndex cachedIndex = geofenceIndex;
+        final List<GeofenceIndex.Shape> shapes = null == cachedIndex ? snapshotShapes() : null;
+        final int generation = geofenceGeneration;
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final GeofenceIndex index = null != cachedIndex ? cachedIndex : new GeofenceIndex(shapes);
+                final double[] totals = ThreadUtil.getComputePool()
+                        .invoke(new PointAggregation(index, coordinates, weights));
+                final List<String> ids = new ArrayList<>(index.size());
+                for (int i = 0; i < index.size(); i++) {
+                    ids.add(index.idAt(i));
+                }
+                final int[] colors = null != ramp ? ramp.colorsFor(totals, null) : null;
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == geofenceGeneration) {
+                            geofenceIndex = index;
+                        }
+                        if (null != colors) {
+                            applyColors(ids, colors, true);
+                        }
+                        final Map<String, Object> data = new HashMap<>(2);
+                        data.put("ids", ids);
+                        data.put("values", totals);
+                        result.success(data);
+                    }
+                });
+            }
+        }, ThreadUtil.replyError(result, "WORKER_ERROR"));
+    }
+
+    /**
+     * 把每组相邻的多边形合并成少量外轮廓，缩放级别低于 maxZoom 时用合并结果替换组内成员，合并在后台线程计算
+     *
+     * @param call groups: [{key, ids: [多边形 id], fillColor?, strokeColor?, strokeWidth?, zIndex?}]，
+     *             样式缺省时取第一个成员的样式，同 key 再次合并时替换旧结果,
+     *             maxZoom: 显示合并结果的缩放级别上限（不含），缺省时始终显示合并结果,
+     *             snap: 顶点量化精度（度），缺省 1e-7,
+     *             removeKeys: 要取消合并的分组 key，成员恢复显示
+     * @param result {key: 合并后的多边形个数}
+     */
+    private void dissolve(MethodCall call, final MethodChannel.Result result) {
+        final List<?> removeKeys = call.argument("removeKeys");
+        if (null != removeKeys) {
+            for (Object key : removeKeys) {
+                dissolveGenerations.remove(key);
+                dissolvingMembers.remove(key);
+                removeDissolvedGroup((String) key);
+            }
+        }
+        final List<?> groups = call.argument("groups");
+        if (null == groups || groups.isEmpty()) {
+            result.success(new HashMap<String, Integer>());
+            return;
+        }
+        final Object maxZoomData = call.argument("maxZoom");
+        final Object snapData = call.argument("snap");
+        final float maxZoom = null != maxZoomData ? ConvertUtil.toFloat(maxZoomData) : Float.POSITIVE_INFINITY;
+        final double snap = null != snapData ? ConvertUtil.toDouble(snapData) : PolygonDissolve.DEFAULT_SNAP;
+        //在主线程拍下成员的轮廓与样式
+        final List<String> keys = new ArrayList<>(groups.size());
+        final List<List<String>> memberIds = new ArrayList<>(groups.size());
+        final List<List<PolygonController>> members = new ArrayList<>(groups.size());
+        final List<PolygonOptions> styles = new ArrayList<>(groups.size());
+        final Map<String, Integer> generations = new HashMap<>(groups.size());
+        for (Object group : groups) {
+            final Map<?, ?> data = ConvertUtil.toMap(group);
+            final String key = (String) data.get("key");
+            final List<?> ids = null != data.get("ids") ? ConvertUtil.toList(data.get("ids")) : null;
+            if (TextUtils.isEmpty(key) || null == ids) {
+                continue;
             }
+            final List<String> groupIds = new ArrayList<>(ids.size());
+            final List<PolygonController> groupMembers = new ArrayList<>(ids.size());
+            for (Object id : ids) {
+                PolygonController controller = controllerMapByDartId.get(id);
+                if (null != controller && null != controller.getPoints()) {
+                    groupIds.add((String) id);
+                    groupMembers.add(controller);
+                }
+            }
+            if (groupMembers.isEmpty()) {
+                continue;
+            }
+            keys.add(key);
+            memberIds.add(groupIds);
+            members.add(groupMembers);
+            styles.add(toMergedStyle(data, groupMembers.get(0)));
+            final int generation = ++dissolveGeneration;
+            dissolveGenerations.put(key, generation);
+            dissolvingMembers.put(key, groupIds);
+            generations.put(key, generation);
+        }
+        final List<List<List<LatLng>>> outers = new ArrayList<>(members.size());
+        final List<List<List<List<LatLng>>>> holes = new ArrayList<>(members.size());
+        for (List<PolygonController> groupMembers : members) {
+            final List<List<LatLng>> groupOuters = new ArrayList<>(groupMembers.size());
+            final List<List<List<LatLng>>> groupHoles = new ArrayList<>(groupMembers.size());
+            for (PolygonController controller : groupMembers) {
+                groupOuters.add(controller.getPoints());
+                groupHoles.add(controller.getHoles());
+            }
+            outers.add(groupOuters);
+            holes.add(groupHoles);
+        }
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final List<List<PolygonDissolve.Ring>> merged = new ArrayList<>(keys.size());
+                for (int g = 0; g < keys.size(); g++) {
+                    final PolygonDissolve dissolve = new PolygonDissolve(snap);
+                    for (int i = 0; i < outers.get(g).size(); i++) {
+                        dissolve.add(outers.get(g).get(i), holes.get(g).get(i));
+                    }
+                    merged.add(dissolve.build());
+                }
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        final Map<String, Integer> counts = new HashMap<>(keys.size());
+                        for (int g = 0; g < keys.size(); g++) {
+                            final String key = keys.get(g);
+                            final Integer current = dissolveGenerations.get(key);
+                            if (null == current || !current.equals(generations.get(key))) {
+                                continue;
+                            }
+                            dissolveGenerations.remove(key);
+                            dissolvingMembers.remove(key);
+                            removeDissolvedGroup(key);
+                            final DissolvedGroup group = addDissolvedGroup(key, memberIds.get(g), maxZoom,
+                                    styles.get(g), merged.get(g));
+                            if (null != group) {
+                                counts.put(key, group.getMergedCount());
+                            }
+                        }
+                        result.success(counts);
+                    }
+                });
+            }
+        }, new ThreadUtil.WorkerErrorHandler() {
+            @Override
+            public void onError(Throwable e) {
+                //本次请求的分组不再处于计算中，之后可以重新合并
+                for (String key : keys) {
+                    final Integer current = dissolveGenerations.get(key);
+                    if (null != current && current.equals(generations.get(key))) {
+                        dissolveGenerations.remove(key);
+                        dissolvingMembers.remove(key);
+                    }
+                }
+                result.error("WORKER_ERROR", String.valueOf(e.getMessage()), null);
+            }
+        });
+    }
+
+    private static PolygonOptions toMergedStyle(Map<?, ?> data, PolygonController first) {
+        final Object fillColor = data.get("fillColor");
+        final Object strokeColor = data.get("strokeColor");
+        final Object strokeWidth = data.get("strokeWidth");
+        final Object zIndex = data.get("zIndex");
+        return new PolygonOptions()
+                .fillColor(null != fillColor ? ConvertUtil.toInt(fillColor) : first.getFillColor())
+                .strokeColor(null != strokeColor ? ConvertUtil.toInt(strokeColor) : first.getStrokeColor())
+                .strokeWidth(null != strokeWidth ? ConvertUtil.toFloatPixels(strokeWidth) : first.getStrokeWidth())
+                .zIndex(null != zIndex ? ConvertUtil.toFloat(zIndex) : first.getZIndex());
+    }
+
+    private DissolvedGroup addDissolvedGroup(String key, List<String> memberIds, float maxZoom,
+                                             PolygonOptions style, List<PolygonDissolve.Ring> rings) {
+        for (String id : memberIds) {
+            //计算期间成员被删除，合并结果已经过期
+            if (!controllerMapByDartId.containsKey(id)) {
+                LogUtil.w(CLASS_NAME, "dissolve==> members changed, drop group " + key);
+                return null;
+            }
+        }
+        final List<Polygon> polygons = new ArrayList<>(rings.size());
+        for (PolygonDissolve.Ring ring : rings) {
+            final PolygonOptions options = new PolygonOptions()
+                    .fillColor(style.getFillColor())
+                    .strokeColor(style.getStrokeColor())
+                    .strokeWidth(style.getStrokeWidth())
+                    .zIndex(style.getZIndex())
+                    .visible(false);
+            options.setPoints(ring.outer);
+            options.setHoleOptions(PolygonController.toHoleOptions(ring.holes));
+            polygons.add(amap.addPolygon(options));
+        }
+        final DissolvedGroup group = new DissolvedGroup(key, new HashSet<>(memberIds), maxZoom, polygons);
+        dissolvedGroups.put(key, group);
+        final CameraPosition cameraPosition = amap.getCameraPosition();
+        updateDissolvedGroup(group, null != cameraPosition ? cameraPosition.zoom : 0);
+        return group;
+    }
+
+    private void updateDissolvedGroup(DissolvedGroup group, float zoom) {
+        if (!group.update(zoom)) {
+            return;
+        }
+        for (String id : group.memberIds) {
+            PolygonController controller = controllerMapByDartId.get(id);
+            if (null != controller) {
+                controller.setDissolved(group.isShowingMerged());
+            }
+        }
+    }
+
+    private void removeDissolvedGroup(String key) {
+        final DissolvedGroup group = dissolvedGroups.remove(key);
+        if (null == group) {
+            return;
+        }
+        group.remove();
+        for (String id : group.memberIds) {
+            PolygonController controller = controllerMapByDartId.get(id);
+            if (null != controller) {
+                controller.setDissolved(false);
+            }
+        }
+    }
+
+    /**
+     * 成员被修改或删除后，包含它的合并结果不再准确，直接取消合并
+     */
+    private void removeDissolvedGroupsOf(String dartId) {
+        if (!dissolvingMembers.isEmpty()) {
+            //计算中的分组用的是旧的成员轮廓，结果作废
+            final Iterator<Map.Entry<String, List<String>>> iterator = dissolvingMembers.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, List<String>> entry = iterator.next();
+                if (entry.getValue().contains(dartId)) {
+                    dissolveGenerations.remove(entry.getKey());
+                    iterator.remove();
+                }
+            }
+        }
+        if (dissolvedGroups.isEmpty()) {
+            return;
+        }
+        final List<String> stale = new ArrayList<>(1);
+        for (DissolvedGroup group : dissolvedGroups.values()) {
+            if (group.memberIds.contains(dartId)) {
+                stale.add(group.key);
+            }
+        }
+        for (String key : stale) {
+            removeDissolvedGroup(key);
+        }
+    }
+
+    private List<GeofenceIndex.Shape> snapshotShapes() {
+        final List<GeofenceIndex.Shape> shapes = new ArrayList<>(controllerMapByDartId.size());
+        for (Map.Entry<String, PolygonController> entry : controllerMapByDartId.entrySet()) {
+            List<LatLng> outer = entry.getValue().getPoints();
+            if (null != outer && outer.size() >= 3) {
+                shapes.add(new GeofenceIndex.Shape(entry.getKey(), outer, entry.getValue().getHoles()));
+            }
+        }
+        return shapes;
+    }
+
+    private static double[] toPackedCoordinates(Object o) {
+        if (o instanceof List && !((List<?>) o).isEmpty() && ((List<?>) o).get(0) instanceof List) {
+            final List<LatLng> points = ConvertUtil.toPoints(o);
+            final double[] coordinates = new double[points.size() * 2];
+            for (int i = 0; i < points.size(); i++) {
+                coordinates[i * 2] = points.get(i).latitude;
+                coordinates[i * 2 + 1] = points.get(i).longitude;
+            }
+            return coordinates;
+        }
+        return ConvertUtil.toDoubleArray(o);
+    }
+
+    @Override
+    public void onCameraChange(CameraPosition cameraPosition) {
+
+    }
+
+    @Override
+    public void onCameraChangeFinish(CameraPosition cameraPosition) {
+        double[] viewport = null;
+        for (PolygonController controller : controllerMapByDartId.values()) {
+            if (!controller.isClipEnabled()) {
+                continue;
+            }
+            if (null == viewport) {
+                viewport = ViewportClip.viewportOf(amap);
+            }
+            controller.requestClip(viewport);
+        }
+        for (DissolvedGroup group : dissolvedGroups.values()) {
+            updateDissolvedGroup(group, cameraPosition.zoom);
         }
     }
 }
@@ -0,0 +1,210 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.Polyline;
+import com.amap.api.maps.model.PolylineOptions;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 样式相同的一组折线，合并为一个 SDK Polyline 绘制
+ * <p>
+ * 各条折线首尾相接拼成一条，相邻折线之间的连接线段通过 colorValues 设为全透明实现断开。
+ * 每条线段记录所属折线的 dartId，点击时按最近线段换算回原来的折线。
+ */
+class PolylineBatch {
+    private static final int TRANSPARENT = 0x00000000;
+
+    final String key;
+    //样式模板，取第一条加入的折线
+    private final PolylineOptionsBuilder template;
+    private Polyline polyline;
+    private final Map<String, List<LatLng>> members = new LinkedHashMap<>();
+    private int vertexCount = 0;
+    private boolean dirty = false;
+
+    //每条线段所属成员的序号，连接线段为 -1
+    private int[] segmentOwners;
+    //成员的 dartId 及其在合并顶点中的起止下标 [start, end]
+    private String[] memberIds;
+    private int[] memberStarts;
+    private int[] memberEnds;
+    private BitSet gaps;
+    private List<LatLng> mergedPoints;
+    //点击时才建立
+    private PolylineSegmentIndex segmentIndex;
+
+    PolylineBatch(String key, PolylineOptionsBuilder template) {
+        this.key = key;
+        this.template = template;
+    }
+
+    /**
+     * 加入成员，已存在时原地替换顶点，保持在合并顶点中的位置
+     */
+    void put(String dartId, List<LatLng> points) {
+        final List<LatLng> memberPoints = null != points ? points : new ArrayList<LatLng>();
+        final List<LatLng> previous = members.put(dartId, memberPoints);
+        vertexCount += memberPoints.size() - (null != previous ? previous.size() : 0);
+        dirty = true;
+    }
+
+    void remove(String dartId) {
+        final List<LatLng> previous = members.remove(dartId);
+        if (null != previous) {
+            vertexCount -= previous.size();
+            dirty = true;
+        }
+    }
+
+    int getVertexCount() {
+        return vertexCount;
+    }
+
+    boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * SDK 中的 Polyline id，尚未创建时为 null
+     */
+    String getPolylineId() {
+        return null != polyline ? polyline.getId() : null;
+    }
+
+    /**
+     * 重新拼接顶点并提交给 SDK，没有成员时移除原生对象
+     */
+    void rebuild(AMap amap) {
+        dirty = false;
+        segmentIndex = null;
+        if (members.isEmpty()) {
+            destroy();
+            return;
+        }
+        int total = 0;
+        for (List<LatLng> points : members.values()) {
+            total += points.size();
+        }
+        final List<LatLng> merged = new ArrayList<>(total);
+        final int[] colors = new int[Math.max(1, total)];
+        final int[] owners = new int[Math.max(0, total - 1)];
+        final BitSet gapSet = new BitSet(total);
+        final int color = template.getColor();
+        memberIds = new String[members.size()];
+        memberStarts = new int[members.size()];
+        memberEnds = new int[members.size()];
+        int member = 0;
+        for (Map.Entry<String, List<LatLng>> entry : members.entrySet()) {
+            final List<LatLng> points = entry.getValue();
+            if (points.size() < 2) {
+                continue;
+            }
+            if (!merged.isEmpty()) {
+                //上一条折线的终点到本条起点为连接线段
+                colors[merged.size() - 1] = TRANSPARENT;
+                owners[merged.size() - 1] = -1;
+                gapSet.set(merged.size() - 1);
+            }
+            final int start = merged.size();
+            merged.addAll(points);
+            for (int i = start; i < merged.size(); i++) {
+                colors[i] = color;
+                if (i < merged.size() - 1) {
+                    owners[i] = member;
+                }
+            }
+            memberIds[member] = entry.getKey();
+            memberStarts[member] = start;
+            memberEnds[member] = merged.size() - 1;
+            member++;
+        }
+        mergedPoints = merged;
+        segmentOwners = owners;
+        gaps = gapSet;
+        final List<Integer> colorValues = PolylineController.boxStyle(colors, null, merged.size());
+        if (null == polyline) {
+            PolylineOptions options = template.build();
+            options.setPoints(merged);
+            options.colorValues(colorValues);
+            polyline = amap.addPolyline(options);
+        } else {
+            //顶点与 colorValues 一次提交
+            PolylineOptions options = polyline.getOptions();
+            options.setPoints(merged);
+            options.colorValues(colorValues);
+            polyline.setOptions(options);
+        }
+    }
+
+    /**
+     * 按点击位置找到所属的折线
+     *
+     * @param maxDistance 最大距离（米），点在连接线段或成员之间的空白处时返回 null
+     * @return 找不到时返回 null
+     */
+    String resolve(LatLng latLng, double maxDistance) {
+        Hit hit = hitTest(latLng, maxDistance);
+        return null != hit ? hit.dartId : null;
+    }
+
+    /**
+     * 查询离给定点最近的成员折线，线段下标和沿线距离换算为成员自身的值
+     *
+     * @param maxDistance 最大距离（米），小于等于0表示不限制
+     */
+    Hit hitTest(LatLng latLng, double maxDistance) {
+        if (null == latLng || null == mergedPoints || mergedPoints.size() < 2) {
+            return null;
+        }
+        if (null == segmentIndex) {
+            segmentIndex = new PolylineSegmentIndex(mergedPoints, gaps);
+        }
+        PolylineSegmentIndex.Result nearest = segmentIndex.nearest(latLng.latitude, latLng.longitude, maxDistance);
+        if (null == nearest || segmentOwners[nearest.segmentIndex] < 0) {
+            return null;
+        }
+        final int member = segmentOwners[nearest.segmentIndex];
+        final double startDistance = segmentIndex.distanceAt(memberStarts[member]);
+        nearest.segmentIndex -= memberStarts[member];
+        nearest.distanceAlong -= startDistance;
+        final Hit hit = new Hit();
+        hit.dartId = memberIds[member];
+        hit.result = nearest;
+        hit.length = segmentIndex.distanceAt(memberEnds[member]) - startDistance;
+        return hit;
+    }
+
+    float getZIndex() {
+        return null != polyline ? polyline.getZIndex() : 0;
+    }
+
+    float getWidth() {
+        return null != polyline ? polyline.getWidth() : 0;
+    }
+
+    void destroy() {
+        if (null != polyline) {
+            polyline.remove();
+            polyline = null;
+        }
+        mergedPoints = null;
+        segmentOwners = null;
+    }
+
+    static class Hit {
+        String dartId;
+        PolylineSegmentIndex.Result result;
+        //成员折线的长度（米）
+        double length;
+    }
+}
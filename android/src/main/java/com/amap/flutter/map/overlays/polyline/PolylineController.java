@@ -4,7 +4,13 @@ import com.amap.api.maps.model.BitmapDescriptor;
 import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.Polyline;
 import com.amap.api.maps.model.PolylineOptions;
+import com.amap.flutter.map.overlays.ViewportClip;
+import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.ThreadUtil;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -13,10 +19,70 @@ import java.util.List;
  * @mail hongming.whm@alibaba-inc.com
  * @since
  */
-class PolylineController implements PolylineOptionsSink {
+class PolylineController implements PolylineOptionsSink, ViewportClip.Target {
+    //默认简化容差（dp）
+    static final float DEFAULT_LOD_TOLERANCE = 1;
+    private static final int TRANSPARENT = 0x00000000;
+
     final Polyline polyline;
     final String polylineId;
 
+    //完整的源数据，简化模式下 polyline 上显示的是其中一部分顶点
+    private ArrayList<LatLng> points;
+    //追加的顶点还没有同步给 SDK
+    private boolean appendPending = false;
+    //滑动窗口保留的最大顶点数，0 表示不限制
+    private int maxPoints = 0;
+    private boolean lodEnabled = false;
+    private float lodTolerance = DEFAULT_LOD_TOLERANCE;
+    //每个顶点的重要度，后台计算完成前为 null
+    private double[] lodSignificance;
+    //追加顶点前已经算好的前缀重要度，重新计算时只处理尾部，null 表示需要完整计算
+    private double[] lodBase;
+    //源数据变化后需要重新计算重要度
+    private boolean lodDirty = false;
+    private int lodGeneration = 0;
+    private double appliedLodThreshold = -1;
+    //视口裁剪，输入为简化后的顶点
+    private final ViewportClip clip = new ViewportClip(false);
+    //最近一次确定的显示顶点（简化后、裁剪前）
+    private List<LatLng> levelPoints;
+    //levelPoints 中每个顶点在源数据中的下标，null 表示一一对应
+    private int[] levelIndices;
+    //逐顶点颜色/纹理下标（按源数据下标），超出数组的顶点沿用最后一个值
+    private int[] vertexColors;
+    private int[] vertexTextureIndices;
+    //当前提交给 SDK 的顶点在源数据中的下标，null 表示一一对应
+    private int[] displayedIndices;
+    //当前提交给 SDK 的顶点数，-1 表示尚未经过 pushPoints
+    private int displayedCount = -1;
+    //当前显示顶点中沿裁剪框边界的连接线段（以该顶点为起点），绘制为透明
+    private BitSet displayedConnectors;
+    //使用纹理时 colorValues 不生效，连接线段无法隐藏
+    private boolean textured = false;
+    //没有逐顶点颜色、为隐藏连接线段生成了 colorValues，颜色变化时需要重新生成
+    private boolean connectorColors = false;
+    //逐顶点样式的版本号，以及最近一次提交给 SDK 时的样式输入，都没变时只提交顶点
+    private int styleVersion = 0;
+    private int appliedStyleVersion = -1;
+    private int[] appliedIndices;
+    private int appliedCount = -1;
+    private BitSet appliedConnectors;
+    //揭示动画期间由动画接管显示的顶点，简化/裁剪结果只保存不提交
+    private boolean revealing = false;
+    //沿线图标，未开启时为 null
+    private PolylineDecoration decoration;
+    //最近点查询用的线段索引，源数据变化后失效
+    private PolylineSegmentIndex segmentIndex;
+    private int segmentIndexGeneration = 0;
+    private List<SegmentIndexCallback> segmentIndexWaiters;
+
+    interface SegmentIndexCallback {
+        void onSegmentIndexReady(PolylineSegmentIndex index);
+
+        void onSegmentIndexFailed(Throwable e);
+    }
+
     PolylineController(Polyline polyline) {
         this.polyline = polyline;
         this.polylineId = polyline.getId();
@@ -30,11 +96,149 @@ class PolylineController implements PolylineOptionsSink {
         if (null != polyline) {
             polyline.remove();
         }
+        if (null != decoration) {
+            decoration.remove();
+        }
+    }
+
+    /**
+     * 地图销毁时调用，后台裁剪的结果不再应用
+     */
+    void dispose() {
+        clip.cancel();
     }
 
     @Override
     public void setPoints(List<LatLng> points) {
-        polyline.setPoints(points);
+        this.points = null != points ? new ArrayList<>(points) : null;
+        appendPending = false;
+        invalidateSegmentIndex();
+        if (lodEnabled) {
+            invalidateLod();
+        } else {
+            publish(points, null);
+        }
+    }
+
+    public List<LatLng> getPoints() {
+        return points;
+    }
+
+    /**
+     * 追加顶点到缓冲区，实际提交给 SDK 由 {@link #flushAppend()} 按帧合并完成
+     *
+     * @param maxPoints 大于0时只保留最新的 maxPoints 个顶点，null 表示沿用之前的设置
+     */
+    void appendPoints(List<LatLng> newPoints, Integer maxPoints) {
+        if (null != maxPoints) {
+            this.maxPoints = Math.max(0, maxPoints);
+        }
+        ensurePoints();
+        points.ensureCapacity(points.size() + newPoints.size());
+        points.addAll(newPoints);
+        appendPending = true;
+    }
+
+    /**
+     * 没有通过 setPoints 保存源数据时（普通折线），从 SDK 取回一份
+     */
+    private ArrayList<LatLng> ensurePoints() {
+        if (null == points) {
+            List<LatLng> current = polyline.getPoints();
+            points = null != current ? new ArrayList<>(current) : new ArrayList<LatLng>();
+        }
+        return points;
+    }
+
+    /**
+     * 获取线段索引，还没有建立时在后台线程建立，完成后在主线程回调。
+     * 建立期间源数据发生变化时，本次结果仍然回调给等待方，但不缓存。
+     */
+    void obtainSegmentIndex(SegmentIndexCallback callback) {
+        if (null != segmentIndex) {
+            callback.onSegmentIndexReady(segmentIndex);
+            return;
+        }
+        if (null != segmentIndexWaiters) {
+            segmentIndexWaiters.add(callback);
+            return;
+        }
+        segmentIndexWaiters = new ArrayList<>(2);
+        segmentIndexWaiters.add(callback);
+        final List<LatLng> snapshot = new ArrayList<>(ensurePoints());
+        final int generation = segmentIndexGeneration;
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final PolylineSegmentIndex index = new PolylineSegmentIndex(snapshot);
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == segmentIndexGeneration) {
+                            segmentIndex = index;
+                        }
+                        List<SegmentIndexCallback> waiters = segmentIndexWaiters;
+                        segmentIndexWaiters = null;
+                        for (SegmentIndexCallback waiter : waiters) {
+                            waiter.onSegmentIndexReady(index);
+                        }
+                    }
+                });
+            }
+        }, new ThreadUtil.WorkerErrorHandler() {
+            @Override
+            public void onError(Throwable e) {
+                //建立失败时通知所有等待方，下次查询重新建立
+                List<SegmentIndexCallback> waiters = segmentIndexWaiters;
+                segmentIndexWaiters = null;
+                for (SegmentIndexCallback waiter : waiters) {
+                    waiter.onSegmentIndexFailed(e);
+                }
+            }
+        });
+    }
+
+    private void invalidateSegmentIndex() {
+        segmentIndex = null;
+        segmentIndexGeneration++;
+        //图标位置同样依赖源数据
+        if (null != decoration) {
+            decoration.invalidate();
+        }
+    }
+
+    boolean isAppendPending() {
+        return appendPending;
+    }
+
+    /**
+     * 裁剪滑动窗口并把缓冲区同步给 SDK，简化模式下改为标记需要重新计算简化结果
+     */
+    void flushAppend() {
+        if (!appendPending) {
+            return;
+        }
+        appendPending = false;
+        int removed = 0;
+        if (maxPoints > 0 && points.size() > maxPoints) {
+            removed = points.size() - maxPoints;
+            points.subList(0, removed).clear();
+            vertexColors = dropHead(vertexColors, removed);
+            vertexTextureIndices = dropHead(vertexTextureIndices, removed);
+        }
+        invalidateSegmentIndex();
+        if (lodEnabled) {
+            //已有结果（或还没用上的前缀）作为下一次计算的前缀，只有尾部需要重新计算
+            final double[] base = null != lodSignificance ? lodSignificance : lodBase;
+            invalidateLod();
+            lodBase = PolylineLod.dropHead(base, removed);
+        } else {
+            publish(points, null);
+        }
+    }
+
+    double[] getLodBase() {
+        return lodBase;
     }
 
     @Override
@@ -45,6 +249,10 @@ class PolylineController implements PolylineOptionsSink {
     @Override
     public void setColor(int color) {
         polyline.setColor(color);
+        if (connectorColors) {
+            styleVersion++;
+            applyVertexStyle();
+        }
     }
 
     @Override
@@ -54,11 +262,13 @@ class PolylineController implements PolylineOptionsSink {
 
     @Override
     public void setCustomTexture(BitmapDescriptor customTexture) {
+        textured |= null != customTexture;
         polyline.setCustomTexture(customTexture);
     }
 
     @Override
     public void setCustomTextureList(List<BitmapDescriptor> customTextureList) {
+        textured |= null != customTextureList && !customTextureList.isEmpty();
         polyline.setCustomTextureList(customTextureList);
     }
 
@@ -124,4 +334,341 @@ class PolylineController implements PolylineOptionsSink {
     public void setZIndex(float zIndex) {
         polyline.setZIndex(zIndex);
     }
+
+    @Override
+    public void setLodOptions(boolean enabled, float tolerance) {
+        if (enabled == lodEnabled && tolerance == lodTolerance) {
+            return;
+        }
+        boolean wasEnabled = lodEnabled;
+        lodEnabled = enabled;
+        lodTolerance = tolerance;
+        //阈值随容差变化，下一次 applyLod 重新选取顶点
+        appliedLodThreshold = -1;
+        if (enabled && !wasEnabled) {
+            invalidateLod();
+        } else if (!enabled && wasEnabled) {
+            lodGeneration++;
+            lodDirty = false;
+            lodSignificance = null;
+            lodBase = null;
+            if (null != points) {
+                publish(points, null);
+            }
+        }
+    }
+
+    public boolean isLodEnabled() {
+        return lodEnabled;
+    }
+
+    public boolean isLodDirty() {
+        return lodDirty;
+    }
+
+    private void invalidateLod() {
+        lodBase = null;
+        lodDirty = true;
+        lodGeneration++;
+        lodSignificance = null;
+        appliedLodThreshold = -1;
+    }
+
+    /**
+     * 标记开始一次重要度计算，返回本次计算的版本号
+     */
+    int beginLodComputation() {
+        lodDirty = false;
+        return lodGeneration;
+    }
+
+    /**
+     * 后台计算完成，版本号不一致说明计算期间源数据已经变化，丢弃结果
+     */
+    boolean setLodSignificance(int generation, double[] significance) {
+        if (!lodEnabled || generation != lodGeneration) {
+            return false;
+        }
+        lodSignificance = significance;
+        lodBase = null;
+        return true;
+    }
+
+    /**
+     * 按当前比例尺切换到对应的简化级别
+     *
+     * @param pixelsPerUnit 一个归一化墨卡托单位对应的像素数
+     */
+    void applyLod(double pixelsPerUnit) {
+        if (!lodEnabled || null == lodSignificance || null == points || pixelsPerUnit <= 0) {
+            return;
+        }
+        double threshold = lodTolerance * ConvertUtil.density / pixelsPerUnit;
+        if (threshold == appliedLodThreshold) {
+            return;
+        }
+        appliedLodThreshold = threshold;
+        final int[] indices = PolylineLod.selectIndices(lodSignificance, threshold);
+        publish(PolylineLod.pick(points, indices), indices);
+    }
+
+    @Override
+    public void setClipOptions(boolean enabled, float margin) {
+        if (!clip.setOptions(enabled, margin)) {
+            return;
+        }
+        if (enabled) {
+            clip.setSource(levelPoints);
+        } else if (null != levelPoints) {
+            pushPoints(levelPoints, levelIndices, null);
+        }
+    }
+
+    boolean isClipEnabled() {
+        return clip.isEnabled();
+    }
+
+    /**
+     * 按当前视口裁剪，视口没有超出上次的裁剪范围时不做任何事
+     */
+    void requestClip(double[] viewport) {
+        clip.request(viewport, this);
+    }
+
+    @Override
+    public void onClipped(List<LatLng> clippedPoints, int[] sourceIndices, BitSet connectors) {
+        //裁剪下标指向 levelPoints，再经 levelIndices 换算为源数据下标
+        int[] indices = sourceIndices;
+        if (null != sourceIndices && null != levelIndices) {
+            indices = new int[sourceIndices.length];
+            for (int i = 0; i < sourceIndices.length; i++) {
+                indices[i] = levelIndices[sourceIndices[i]];
+            }
+        } else if (null == sourceIndices) {
+            indices = levelIndices;
+        }
+        pushPoints(clippedPoints, indices, connectors);
+    }
+
+    /**
+     * 提交简化后的顶点，开启裁剪时交给裁剪流程
+     *
+     * @param indices level 中每个顶点在源数据中的下标，null 表示一一对应
+     */
+    private void publish(List<LatLng> level, int[] indices) {
+        levelPoints = level;
+        levelIndices = indices;
+        if (clip.isEnabled()) {
+            clip.setSource(level);
+        } else {
+            pushPoints(level, indices, null);
+        }
+    }
+
+    private void pushPoints(List<LatLng> displayed, int[] indices, BitSet connectors) {
+        if (revealing) {
+            return;
+        }
+        showPoints(displayed, indices, connectors);
+    }
+
+    private void showPoints(List<LatLng> displayed, int[] indices, BitSet connectors) {
+        displayedIndices = indices;
+        displayedCount = displayed.size();
+        displayedConnectors = connectors;
+        if (!isVertexStyleChanged()) {
+            polyline.setPoints(displayed);
+            return;
+        }
+        //顶点与逐顶点样式合并为一次 setOptions，避免几何数据提交两次
+        PolylineOptions options = polyline.getOptions();
+        options.setPoints(displayed);
+        fillVertexStyle(options);
+        polyline.setOptions(options);
+    }
+
+    /**
+     * 点击是否可能落在连接线段上（SDK 选中的位置不一定在源数据上）
+     */
+    boolean hasConnectors() {
+        return null != displayedConnectors;
+    }
+
+    /**
+     * 完整源数据的快照，用于揭示动画
+     */
+    List<LatLng> snapshotPoints() {
+        return new ArrayList<>(ensurePoints());
+    }
+
+    void beginReveal() {
+        revealing = true;
+    }
+
+    /**
+     * 显示动画当前的前缀部分，前缀与源数据下标一致，逐顶点样式不需要映射
+     */
+    void showReveal(List<LatLng> partial) {
+        showPoints(partial, null, null);
+    }
+
+    /**
+     * 动画结束或取消，恢复显示当前的简化结果
+     */
+    void endReveal() {
+        if (!revealing) {
+            return;
+        }
+        revealing = false;
+        if (null != levelPoints) {
+            publish(levelPoints, levelIndices);
+        } else if (null != points) {
+            publish(points, null);
+        }
+    }
+
+    @Override
+    public void setVertexColors(int[] colors) {
+        if (Arrays.equals(colors, vertexColors)) {
+            return;
+        }
+        vertexColors = colors;
+        styleVersion++;
+        applyVertexStyle();
+    }
+
+    @Override
+    public void setVertexTextureIndices(int[] textureIndices) {
+        if (Arrays.equals(textureIndices, vertexTextureIndices)) {
+            return;
+        }
+        vertexTextureIndices = textureIndices;
+        styleVersion++;
+        applyVertexStyle();
+    }
+
+    @Override
+    public void setDecoration(boolean enabled, Object icon, float spacing, boolean rotate) {
+        if (!enabled) {
+            if (null != decoration) {
+                decoration.remove();
+                decoration = null;
+            }
+            return;
+        }
+        if (null == decoration) {
+            decoration = new PolylineDecoration();
+        }
+        decoration.setOptions(icon, spacing, rotate);
+    }
+
+    PolylineDecoration getDecoration() {
+        return decoration;
+    }
+
+    @Override
+    public void setBatched(boolean batched) {
+        //切换合并模式需要重新创建折线，由 PolylinesController.update 在解析选项前处理
+    }
+
+    /**
+     * 保存创建折线时已经写入 PolylineOptions 的逐顶点样式，之后简化/裁剪时重新映射
+     */
+    void restoreVertexStyle(int[] colors, int[] textureIndices, boolean textured) {
+        vertexColors = colors;
+        vertexTextureIndices = textureIndices;
+        this.textured = textured;
+        styleVersion++;
+    }
+
+    /**
+     * 按当前显示的顶点重新生成 colorValues / customTextureIndex
+     */
+    private void applyVertexStyle() {
+        if (!isVertexStyleChanged()) {
+            return;
+        }
+        PolylineOptions options = polyline.getOptions();
+        fillVertexStyle(options);
+        polyline.setOptions(options);
+    }
+
+    private boolean hasVertexStyle() {
+        return null != vertexColors || null != vertexTextureIndices
+                || (null != displayedConnectors && !textured) || connectorColors;
+    }
+
+    /**
+     * 样式数组、显示顶点的下标映射、顶点数、连接线段都没有变化时，SDK 中的逐顶点样式仍然有效
+     */
+    private boolean isVertexStyleChanged() {
+        return hasVertexStyle() && (appliedStyleVersion != styleVersion || appliedIndices != displayedIndices
+                || appliedCount != displayedCount || appliedConnectors != displayedConnectors);
+    }
+
+    /**
+     * 按当前显示的顶点生成 colorValues / customTextureIndex 写入 options
+     */
+    private void fillVertexStyle(PolylineOptions options) {
+        final boolean hideConnectors = null != displayedConnectors && !textured;
+        int count = displayedCount;
+        if (count < 0) {
+            List<LatLng> current = polyline.getPoints();
+            count = null != current ? current.size() : 0;
+        }
+        if (null != vertexColors || hideConnectors || connectorColors) {
+            //没有逐顶点颜色时按线的颜色生成，一旦生成就一直保留，避免切回单色时重建折线
+            connectorColors = null == vertexColors;
+            final int[] colors = null != vertexColors ? vertexColors : new int[]{polyline.getColor()};
+            final List<Integer> colorValues = boxStyle(colors, displayedIndices, count);
+            if (hideConnectors && !colorValues.isEmpty()) {
+                for (int k = displayedConnectors.nextSetBit(0); k >= 0 && k < count; k = displayedConnectors.nextSetBit(k + 1)) {
+                    colorValues.set(k, TRANSPARENT);
+                }
+            }
+            options.colorValues(colorValues);
+        }
+        if (null != vertexTextureIndices) {
+            options.setCustomTextureIndex(boxStyle(vertexTextureIndices, displayedIndices, count));
+        }
+        appliedStyleVersion = styleVersion;
+        appliedIndices = displayedIndices;
+        appliedCount = displayedCount;
+        appliedConnectors = displayedConnectors;
+    }
+
+    /**
+     * 展开为 SDK 需要的 List&lt;Integer&gt;，连续相同的值复用同一个 Integer 对象
+     *
+     * @param indices 每个显示顶点在源数据中的下标，null 表示一一对应
+     */
+    static List<Integer> boxStyle(int[] style, int[] indices, int count) {
+        final List<Integer> result = new ArrayList<>(count);
+        if (style.length == 0) {
+            return result;
+        }
+        Integer boxed = null;
+        for (int k = 0; k < count; k++) {
+            int source = null != indices ? indices[k] : k;
+            int value = style[Math.min(source, style.length - 1)];
+            if (null == boxed || boxed != value) {
+                boxed = value;
+            }
+            result.add(boxed);
+        }
+        return result;
+    }
+
+    private static int[] dropHead(int[] style, int removed) {
+        if (null == style) {
+            return null;
+        }
+        if (style.length <= removed) {
+            //全部被移出窗口时保留最后一个值，新顶点继续沿用
+            return style.length == 0 ? style : new int[]{style[style.length - 1]};
+        }
+        final int[] result = new int[style.length - removed];
+        System.arraycopy(style, removed, result, 0, result.length);
+        return result;
+    }
 }
@@ -0,0 +1,293 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.BitmapDescriptor;
+import com.amap.api.maps.model.BitmapDescriptorFactory;
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.Marker;
+import com.amap.api.maps.model.MarkerOptions;
+import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 沿折线按固定屏幕间距摆放的图标（方向箭头等）
+ * <p>
+ * 摆放位置按缩放分桶在后台线程计算，相机停止时只把视口内的位置分配给复用的平贴 Marker，
+ * 多余的 Marker 隐藏而不移除。
+ */
+class PolylineDecoration {
+    //默认间距（dp）
+    static final float DEFAULT_SPACING = 80;
+    //同时显示的图标上限
+    private static final int MAX_VISIBLE = 500;
+    //视口外额外保留的范围，占视口宽高的比例
+    private static final double VIEWPORT_MARGIN = 0.25;
+    //默认箭头大小（dp）
+    private static final int DEFAULT_ARROW_SIZE = 14;
+    private static BitmapDescriptor defaultArrow;
+
+    //图标的原始描述（Dart BitmapDescriptor），按内容比较，相同时不重新生成图标
+    private Object iconSpec;
+    private BitmapDescriptor icon;
+    private float spacing = DEFAULT_SPACING;
+    private boolean rotate = true;
+
+    //摆放结果 [x, y, heading, ...]，x/y 为墨卡托坐标，heading 为正北顺时针角度
+    private double[] placements;
+    private int generation = 0;
+    private boolean dirty = true;
+    private final List<Marker> pool = new ArrayList<>();
+    private int shownCount = 0;
+
+    /**
+     * @param iconSpec 图标描述，为 null 时使用默认箭头
+     */
+    void setOptions(Object iconSpec, float spacing, boolean rotate) {
+        if (!sameSpec(iconSpec, this.iconSpec)) {
+            this.iconSpec = iconSpec;
+            icon = null != iconSpec ? ConvertUtil.toBitmapDescriptor(iconSpec) : null;
+            for (Marker marker : pool) {
+                marker.setIcon(null != icon ? icon : defaultArrow());
+            }
+        }
+        spacing = spacing > 0 ? spacing : DEFAULT_SPACING;
+        if (spacing != this.spacing) {
+            invalidate();
+        }
+        this.spacing = spacing;
+        this.rotate = rotate;
+    }
+
+    /**
+     * 图标描述由 List/Map/字节数组组成，每次更新都是新对象，需要按内容比较
+     */
+    private static boolean sameSpec(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (null == a || null == b) {
+            return false;
+        }
+        if (a instanceof byte[] && b instanceof byte[]) {
+            return Arrays.equals((byte[]) a, (byte[]) b);
+        }
+        if (a instanceof List && b instanceof List) {
+            final List<?> listA = (List<?>) a;
+            final List<?> listB = (List<?>) b;
+            if (listA.size() != listB.size()) {
+                return false;
+            }
+            for (int i = 0; i < listA.size(); i++) {
+                if (!sameSpec(listA.get(i), listB.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof Map && b instanceof Map) {
+            final Map<?, ?> mapA = (Map<?, ?>) a;
+            final Map<?, ?> mapB = (Map<?, ?>) b;
+            if (mapA.size() != mapB.size()) {
+                return false;
+            }
+            final Iterator<? extends Map.Entry<?, ?>> iterator = mapA.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<?, ?> entry = iterator.next();
+                if (!mapB.containsKey(entry.getKey()) || !sameSpec(entry.getValue(), mapB.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return a.equals(b);
+    }
+
+    /**
+     * 折线顶点变化后需要重新计算
+     */
+    void invalidate() {
+        dirty = true;
+        generation++;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    int beginCompute() {
+        dirty = false;
+        return generation;
+    }
+
+    /**
+     * @param pixelsPerUnit 一个墨卡托单位对应的像素数（按缩放分桶）
+     * @return 间距对应的墨卡托单位
+     */
+    double spacingUnits(double pixelsPerUnit) {
+        return pixelsPerUnit > 0 ? spacing * ConvertUtil.density / pixelsPerUnit : 0;
+    }
+
+    boolean setPlacements(int generation, double[] placements) {
+        if (generation != this.generation) {
+            return false;
+        }
+        this.placements = placements;
+        return true;
+    }
+
+    /**
+     * 沿折线每隔 spacingUnits 放一个图标，第一个图标放在半个间距处。只做纯计算，在后台线程调用
+     */
+    static double[] place(List<LatLng> points, double spacingUnits) {
+        if (points.size() < 2 || spacingUnits <= 0) {
+            return new double[0];
+        }
+        double[] result = new double[48];
+        int size = 0;
+        double next = spacingUnits / 2;
+        double walked = 0;
+        LatLng first = points.get(0);
+        double ax = GeometryUtil.mercatorX(first.longitude);
+        double ay = GeometryUtil.mercatorY(first.latitude);
+        for (int i = 1; i < points.size(); i++) {
+            LatLng latLng = points.get(i);
+            final double bx = GeometryUtil.mercatorX(latLng.longitude);
+            final double by = GeometryUtil.mercatorY(latLng.latitude);
+            final double dx = bx - ax;
+            final double dy = by - ay;
+            final double length = Math.sqrt(dx * dx + dy * dy);
+            if (length > 0) {
+                //墨卡托 y 轴向南
+                final double heading = (Math.toDegrees(Math.atan2(dx, -dy)) + 360) % 360;
+                while (next <= walked + length) {
+                    final double t = (next - walked) / length;
+                    if (size + 3 > result.length) {
+                        double[] grown = new double[result.length * 2];
+                        System.arraycopy(result, 0, grown, 0, size);
+                        result = grown;
+                    }
+                    result[size++] = ax + dx * t;
+                    result[size++] = ay + dy * t;
+                    result[size++] = heading;
+                    next += spacingUnits;
+                }
+                walked += length;
+            }
+            ax = bx;
+            ay = by;
+        }
+        final double[] trimmed = new double[size];
+        System.arraycopy(result, 0, trimmed, 0, size);
+        return trimmed;
+    }
+
+    /**
+     * 把视口内的摆放位置分配给复用的 Marker
+     *
+     * @param viewport 当前视口（墨卡托坐标）[minX, minY, maxX, maxY]，为 null 时显示全部（受上限约束）
+     */
+    void show(AMap amap, double[] viewport, float zIndex, boolean visible) {
+        if (null == placements || !visible) {
+            hideFrom(0);
+            return;
+        }
+        double minX = Double.NEGATIVE_INFINITY, minY = Double.NEGATIVE_INFINITY;
+        double maxX = Double.POSITIVE_INFINITY, maxY = Double.POSITIVE_INFINITY;
+        if (null != viewport) {
+            final double marginX = (viewport[2] - viewport[0]) * VIEWPORT_MARGIN;
+            final double marginY = (viewport[3] - viewport[1]) * VIEWPORT_MARGIN;
+            minX = viewport[0] - marginX;
+            minY = viewport[1] - marginY;
+            maxX = viewport[2] + marginX;
+            maxY = viewport[3] + marginY;
+        }
+        final BitmapDescriptor markerIcon = null != icon ? icon : defaultArrow();
+        int used = 0;
+        for (int i = 0; i + 2 < placements.length && used < MAX_VISIBLE; i += 3) {
+            final double x = placements[i];
+            final double y = placements[i + 1];
+            if (x < minX || x > maxX || y < minY || y > maxY) {
+                continue;
+            }
+            final LatLng position = new LatLng(GeometryUtil.latitude(y), GeometryUtil.longitude(x));
+            //Marker 的旋转角度为逆时针
+            final float angle = rotate ? (float) ((360 - placements[i + 2]) % 360) : 0;
+            if (used < pool.size()) {
+                Marker marker = pool.get(used);
+                marker.setPosition(position);
+                marker.setRotateAngle(angle);
+                marker.setZIndex(zIndex);
+                if (used >= shownCount) {
+                    marker.setVisible(true);
+                }
+            } else {
+                MarkerOptions options = new MarkerOptions()
+                        .position(position)
+                        .icon(markerIcon)
+                        .anchor(0.5f, 0.5f)
+                        .setFlat(true)
+                        .rotateAngle(angle)
+                        .zIndex(zIndex)
+                        .infoWindowEnable(false);
+                Marker marker = amap.addMarker(options);
+                marker.setClickable(false);
+                pool.add(marker);
+            }
+            used++;
+        }
+        hideFrom(used);
+        shownCount = used;
+    }
+
+    private void hideFrom(int start) {
+        for (int i = start; i < shownCount && i < pool.size(); i++) {
+            pool.get(i).setVisible(false);
+        }
+        shownCount = Math.min(shownCount, start);
+    }
+
+    void remove() {
+        for (Marker marker : pool) {
+            marker.remove();
+        }
+        pool.clear();
+        shownCount = 0;
+        placements = null;
+        generation++;
+    }
+
+    /**
+     * 默认的白色箭头，尖端朝上（正北）
+     */
+    private static BitmapDescriptor defaultArrow() {
+        if (null == defaultArrow) {
+            final int size = Math.max(1, Math.round(DEFAULT_ARROW_SIZE * ConvertUtil.density));
+            Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColor(0xffffffff);
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(size / 6f);
+            paint.setStrokeCap(Paint.Cap.ROUND);
+            paint.setStrokeJoin(Paint.Join.ROUND);
+            Path path = new Path();
+            path.moveTo(size * 0.2f, size * 0.7f);
+            path.lineTo(size * 0.5f, size * 0.3f);
+            path.lineTo(size * 0.8f, size * 0.7f);
+            canvas.drawPath(path, paint);
+            defaultArrow = BitmapDescriptorFactory.fromBitmap(bitmap);
+        }
+        return defaultArrow;
+    }
+}
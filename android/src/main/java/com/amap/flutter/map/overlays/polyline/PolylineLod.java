@@ -0,0 +1,173 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 折线的多级简化（Douglas-Peucker）
+ * <p>
+ * 一次性计算每个顶点的"重要度"：按 Douglas-Peucker 递归拆分时该顶点被保留所需的最大容差，
+ * 子区间的重要度不超过父区间，因此任意容差下按 重要度 > 容差 过滤得到的结果，
+ * 与直接用该容差做 Douglas-Peucker 简化一致。各级简化不需要单独保存。
+ * 距离在归一化墨卡托坐标下计算，本类只做纯计算，可以在后台线程调用。
+ * 轨迹回放的历史折线也使用这里的重要度。
+ */
+public class PolylineLod {
+
+    /**
+     * @return 每个顶点的重要度（墨卡托单位），首尾顶点为 {@link Double#POSITIVE_INFINITY}
+     */
+    public static double[] computeSignificance(List<LatLng> points) {
+        final int count = points.size();
+        final double[] significance = new double[count];
+        if (count == 0) {
+            return significance;
+        }
+        final double[] xs = new double[count];
+        final double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            LatLng latLng = points.get(i);
+            xs[i] = GeometryUtil.mercatorX(latLng.longitude);
+            ys[i] = GeometryUtil.mercatorY(latLng.latitude);
+        }
+        significance[0] = Double.POSITIVE_INFINITY;
+        significance[count - 1] = Double.POSITIVE_INFINITY;
+
+        //显式栈代替递归，避免长轨迹栈溢出：每个区间占用 [start, end, 父区间重要度] 三项
+        int[] ranges = new int[64];
+        double[] limits = new double[32];
+        ranges[0] = 0;
+        ranges[1] = count - 1;
+        limits[0] = Double.POSITIVE_INFINITY;
+        int top = 1;
+        while (top > 0) {
+            top--;
+            final int start = ranges[top * 2];
+            final int end = ranges[top * 2 + 1];
+            final double limit = limits[top];
+            if (end - start < 2) {
+                continue;
+            }
+            int farthest = -1;
+            double maxDistance = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = segmentDistanceSquared(xs[i], ys[i], xs[start], ys[start], xs[end], ys[end]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            final double value = Math.min(limit, Math.sqrt(maxDistance));
+            significance[farthest] = value;
+            if (top + 2 > limits.length) {
+                int[] newRanges = new int[ranges.length * 2];
+                System.arraycopy(ranges, 0, newRanges, 0, top * 2);
+                ranges = newRanges;
+                double[] newLimits = new double[limits.length * 2];
+                System.arraycopy(limits, 0, newLimits, 0, top);
+                limits = newLimits;
+            }
+            ranges[top * 2] = start;
+            ranges[top * 2 + 1] = farthest;
+            limits[top] = value;
+            top++;
+            ranges[top * 2] = farthest;
+            ranges[top * 2 + 1] = end;
+            limits[top] = value;
+            top++;
+        }
+        return significance;
+    }
+
+    /**
+     * 追加顶点后只对尾部做 Douglas-Peucker：前缀沿用已有的重要度，
+     * 尾部从前缀的最后一个顶点开始单独拆分。接缝顶点取它到相邻两点连线的距离，
+     * 避免每次追加都留下一个始终保留的顶点。
+     *
+     * @param base 前缀 points[0, base.length) 的重要度
+     */
+    static double[] appendSignificance(double[] base, List<LatLng> points) {
+        final int from = base.length - 1;
+        if (from < 1 || base.length > points.size()) {
+            return computeSignificance(points);
+        }
+        final double[] tail = computeSignificance(points.subList(from, points.size()));
+        final double[] significance = new double[points.size()];
+        System.arraycopy(base, 0, significance, 0, from);
+        System.arraycopy(tail, 0, significance, from, tail.length);
+        significance[0] = Double.POSITIVE_INFINITY;
+        if (from + 1 < points.size()) {
+            final LatLng previous = points.get(from - 1);
+            final LatLng joint = points.get(from);
+            final LatLng next = points.get(from + 1);
+            significance[from] = Math.sqrt(segmentDistanceSquared(
+                    GeometryUtil.mercatorX(joint.longitude), GeometryUtil.mercatorY(joint.latitude),
+                    GeometryUtil.mercatorX(previous.longitude), GeometryUtil.mercatorY(previous.latitude),
+                    GeometryUtil.mercatorX(next.longitude), GeometryUtil.mercatorY(next.latitude)));
+        }
+        return significance;
+    }
+
+    /**
+     * 滑动窗口移除头部顶点后同步移除对应的重要度，新的首个顶点始终保留
+     *
+     * @return 剩余部分，全部被移除或没有前缀时返回 null
+     */
+    static double[] dropHead(double[] significance, int removed) {
+        if (null == significance || significance.length - removed < 2) {
+            return null;
+        }
+        final double[] result = new double[significance.length - removed];
+        System.arraycopy(significance, removed, result, 0, result.length);
+        result[0] = Double.POSITIVE_INFINITY;
+        return result;
+    }
+
+    /**
+     * 按容差挑出需要显示的顶点下标，用于把逐顶点样式映射到简化结果上
+     */
+    static int[] selectIndices(double[] significance, double threshold) {
+        int kept = 0;
+        for (double value : significance) {
+            if (value > threshold) {
+                kept++;
+            }
+        }
+        final int[] indices = new int[kept];
+        int k = 0;
+        for (int i = 0; i < significance.length; i++) {
+            if (significance[i] > threshold) {
+                indices[k++] = i;
+            }
+        }
+        return indices;
+    }
+
+    static List<LatLng> pick(List<LatLng> points, int[] indices) {
+        final List<LatLng> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(points.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * 点到线段距离的平方
+     */
+    public static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+        }
+        double cx = ax + t * dx - px;
+        double cy = ay + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+}
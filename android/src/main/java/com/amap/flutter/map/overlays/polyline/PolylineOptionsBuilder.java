@@ -3,6 +3,7 @@ package com.amap.flutter.map.overlays.polyline;
 import com.amap.api.maps.model.BitmapDescriptor;
 import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.PolylineOptions;
+import com.amap.flutter.map.overlays.ViewportClip;
 
 import java.util.List;
 
@@ -14,6 +15,32 @@ import java.util.List;
  */
 class PolylineOptionsBuilder implements PolylineOptionsSink {
     final PolylineOptions polylineOptions;
+    private List<LatLng> points;
+    private boolean lodEnabled = false;
+    private float lodTolerance = PolylineController.DEFAULT_LOD_TOLERANCE;
+    private boolean clipEnabled = false;
+    private float clipMargin = ViewportClip.DEFAULT_MARGIN;
+    private int[] vertexColors;
+    private int[] vertexTextureIndices;
+    private boolean batched = false;
+    //用于合并判断的样式，纹理/颜色列表等逐顶点样式不参与合并
+    private float width = 10;
+    private int color = 0xff000000;
+    private float zIndex = 0;
+    private boolean visible = true;
+    private boolean geodesic = false;
+    private float alpha = 1;
+    private boolean dashLine = false;
+    private int dashLineType = 0;
+    private PolylineOptions.LineCapType lineCapType;
+    private PolylineOptions.LineJoinType lineJoinType;
+    private boolean perVertexStyle = false;
+    //使用纹理绘制时 colorValues 不生效
+    private boolean textured = false;
+    private boolean decorationEnabled = false;
+    private Object decorationIcon;
+    private float decorationSpacing = PolylineDecoration.DEFAULT_SPACING;
+    private boolean decorationRotate = true;
 
     PolylineOptionsBuilder() {
         polylineOptions = new PolylineOptions();
@@ -21,84 +48,208 @@ class PolylineOptionsBuilder implements PolylineOptionsSink {
 
     @Override
     public void setPoints(List<LatLng> points) {
+        this.points = points;
         polylineOptions.setPoints(points);
     }
 
+    public List<LatLng> getPoints() {
+        return points;
+    }
+
     @Override
     public void setWidth(float width) {
+        this.width = width;
         polylineOptions.width(width);
     }
 
     @Override
     public void setColor(int color) {
+        this.color = color;
         polylineOptions.color(color);
     }
 
     @Override
     public void setVisible(boolean visible) {
+        this.visible = visible;
         polylineOptions.visible(visible);
     }
 
     @Override
     public void setCustomTexture(BitmapDescriptor customTexture) {
+        this.perVertexStyle = true;
+        this.textured = true;
         polylineOptions.setCustomTexture(customTexture);
     }
 
     @Override
     public void setCustomTextureList(List<BitmapDescriptor> customTextureList) {
+        this.perVertexStyle = true;
+        this.textured = true;
         polylineOptions.setCustomTextureList(customTextureList);
     }
 
     @Override
     public void setColorList(List<Integer> colorList) {
+        this.perVertexStyle = true;
         polylineOptions.colorValues(colorList);
     }
 
     @Override
     public void setCustomIndexList(List<Integer> customIndexList) {
+        this.perVertexStyle = true;
         polylineOptions.setCustomTextureIndex(customIndexList);
     }
 
     @Override
     public void setGeodesic(boolean geodesic) {
+        this.geodesic = geodesic;
         polylineOptions.geodesic(geodesic);
     }
 
     @Override
     public void setGradient(boolean gradient) {
+        this.perVertexStyle |= gradient;
         polylineOptions.useGradient(gradient);
     }
 
     @Override
     public void setAlpha(float alpha) {
+        this.alpha = alpha;
         polylineOptions.transparency(alpha);
     }
 
     @Override
     public void setDashLineType(int type) {
+        this.dashLineType = type;
         polylineOptions.setDottedLineType(type);
     }
 
     @Override
     public void setDashLine(boolean dashLine) {
+        this.dashLine = dashLine;
         polylineOptions.setDottedLine(dashLine);
     }
 
     @Override
     public void setLineCapType(PolylineOptions.LineCapType lineCapType) {
+        this.lineCapType = lineCapType;
         polylineOptions.lineCapType(lineCapType);
     }
 
     @Override
     public void setLineJoinType(PolylineOptions.LineJoinType joinType) {
+        this.lineJoinType = joinType;
         polylineOptions.lineJoinType(joinType);
     }
 
     @Override
     public void setZIndex(float zIndex) {
+        this.zIndex = zIndex;
         polylineOptions.zIndex(zIndex);
     }
 
+    @Override
+    public void setLodOptions(boolean enabled, float tolerance) {
+        this.lodEnabled = enabled;
+        this.lodTolerance = tolerance;
+    }
+
+    public boolean isTextured() {
+        return textured;
+    }
+
+    public boolean isLodEnabled() {
+        return lodEnabled;
+    }
+
+    public float getLodTolerance() {
+        return lodTolerance;
+    }
+
+    @Override
+    public void setClipOptions(boolean enabled, float margin) {
+        this.clipEnabled = enabled;
+        this.clipMargin = margin;
+    }
+
+    public boolean isClipEnabled() {
+        return clipEnabled;
+    }
+
+    public float getClipMargin() {
+        return clipMargin;
+    }
+
+    @Override
+    public void setVertexColors(int[] colors) {
+        this.vertexColors = colors;
+        this.perVertexStyle = true;
+        polylineOptions.colorValues(PolylineController.boxStyle(colors, null, vertexCount()));
+    }
+
+    public int[] getVertexColors() {
+        return vertexColors;
+    }
+
+    @Override
+    public void setVertexTextureIndices(int[] textureIndices) {
+        this.vertexTextureIndices = textureIndices;
+        this.perVertexStyle = true;
+        polylineOptions.setCustomTextureIndex(PolylineController.boxStyle(textureIndices, null, vertexCount()));
+    }
+
+    public int[] getVertexTextureIndices() {
+        return vertexTextureIndices;
+    }
+
+    @Override
+    public void setBatched(boolean batched) {
+        this.batched = batched;
+    }
+
+    @Override
+    public void setDecoration(boolean enabled, Object icon, float spacing, boolean rotate) {
+        this.decorationEnabled = enabled;
+        this.decorationIcon = icon;
+        this.decorationSpacing = spacing;
+        this.decorationRotate = rotate;
+    }
+
+    public boolean isDecorationEnabled() {
+        return decorationEnabled;
+    }
+
+    public Object getDecorationIcon() {
+        return decorationIcon;
+    }
+
+    public float getDecorationSpacing() {
+        return decorationSpacing;
+    }
+
+    public boolean isDecorationRotate() {
+        return decorationRotate;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    /**
+     * 样式相同的折线得到相同的 key，不能合并时返回 null
+     */
+    public String getBatchKey() {
+        if (!batched || perVertexStyle || lodEnabled || clipEnabled || decorationEnabled || !visible) {
+            return null;
+        }
+        return width + "|" + color + "|" + zIndex + "|" + geodesic + "|" + alpha + "|"
+                + (dashLine ? dashLineType : -1) + "|" + lineCapType + "|" + lineJoinType;
+    }
+
+    private int vertexCount() {
+        return null != points ? points.size() : 0;
+    }
+
     public PolylineOptions build() {
         return polylineOptions;
     }
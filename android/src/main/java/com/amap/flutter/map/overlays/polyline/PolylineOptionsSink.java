@@ -61,4 +61,22 @@ public interface PolylineOptionsSink {
     //层级 zIndex
     void setZIndex(float zIndex);
 
+    //按缩放级别简化，tolerance 为屏幕容差（dp）
+    void setLodOptions(boolean enabled, float tolerance);
+
+    //视口裁剪，margin 为视口外保留的边距（占视口宽高的比例）
+    void setClipOptions(boolean enabled, float margin);
+
+    //逐顶点颜色（按顶点下标，简化/裁剪后自动映射）
+    void setVertexColors(int[] colors);
+
+    //逐顶点纹理下标，指向 customTextureList
+    void setVertexTextureIndices(int[] textureIndices);
+
+    //与样式相同的折线合并为一个原生对象（只在创建时生效）
+    void setBatched(boolean batched);
+
+    //沿线图标，icon 为图标描述，为 null 时使用默认箭头，spacing 为屏幕间距（dp）
+    void setDecoration(boolean enabled, Object icon, float spacing, boolean rotate);
+
 }
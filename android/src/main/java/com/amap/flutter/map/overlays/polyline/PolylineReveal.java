@@ -0,0 +1,155 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AccelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 折线逐步绘制（揭示）动画的状态
+ * <p>
+ * 动画开始时保存一份完整顶点的快照，按距离（米）而不是顶点数推进，顶点疏密不均时速度保持一致。
+ * 每帧只在显示列表的末尾增删顶点，头部的插值点每帧替换一次。
+ * 没有经过新的原始顶点、且线头在屏幕上移动不到 {@link #MIN_HEAD_STEP_PIXELS} 时不提交给 SDK。
+ */
+class PolylineReveal {
+    //线头至少移动的屏幕距离（像素），低于该值的帧不重新提交顶点
+    private static final double MIN_HEAD_STEP_PIXELS = 1;
+
+    final PolylineController controller;
+    final String polylineId;
+    final String followerMarkerId;
+    final boolean followerRotate;
+
+    private final List<LatLng> points;
+    //每个顶点到起点的累计距离（米）
+    private final double[] cumulative;
+    private final long durationNanos;
+    private final Interpolator interpolator;
+    //第一帧的时间，动画从第一帧开始计时
+    private long startNanos = -1;
+
+    //当前显示的顶点，前 fullCount 个是原始顶点，之后可能跟一个插值点
+    private final ArrayList<LatLng> visible;
+    private int fullCount = 0;
+    private LatLng head;
+    //当前所在线段的方向（度，正北为0顺时针）
+    private float heading;
+    //最近一次提交给 SDK 的线头（墨卡托坐标）
+    private double shownHeadX = Double.NaN;
+    private double shownHeadY = Double.NaN;
+
+    PolylineReveal(PolylineController controller, String polylineId, List<LatLng> points, long durationMillis,
+                   String easing, String followerMarkerId, boolean followerRotate) {
+        this.controller = controller;
+        this.polylineId = polylineId;
+        this.points = points;
+        this.durationNanos = Math.max(0, durationMillis) * 1000000L;
+        this.interpolator = toInterpolator(easing);
+        this.followerMarkerId = followerMarkerId;
+        this.followerRotate = followerRotate;
+        this.visible = new ArrayList<>(points.size());
+        cumulative = new double[points.size()];
+        for (int i = 1; i < points.size(); i++) {
+            LatLng previous = points.get(i - 1);
+            LatLng current = points.get(i);
+            cumulative[i] = cumulative[i - 1] + GeometryUtil.distance(previous.latitude, previous.longitude,
+                    current.latitude, current.longitude);
+        }
+    }
+
+    /**
+     * 推进到指定帧
+     *
+     * @param pixelsPerUnit 一个墨卡托单位对应的像素数，小于等于0时每帧都提交
+     * @return 动画是否已经结束
+     */
+    boolean step(long frameTimeNanos, double pixelsPerUnit) {
+        if (startNanos < 0) {
+            startNanos = frameTimeNanos;
+        }
+        final float progress = durationNanos > 0
+                ? Math.min(1f, (frameTimeNanos - startNanos) / (float) durationNanos) : 1f;
+        final int count = points.size();
+        if (count < 2) {
+            return true;
+        }
+        final double total = cumulative[count - 1];
+        final double target = Math.max(0, Math.min(total, interpolator.getInterpolation(progress) * total));
+
+        //target 所在的线段 [segment, segment + 1]
+        int segment = Arrays.binarySearch(cumulative, target);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        segment = Math.max(0, Math.min(count - 2, segment));
+        final LatLng start = points.get(segment);
+        final LatLng end = points.get(segment + 1);
+        final double length = cumulative[segment + 1] - cumulative[segment];
+        final double fraction = length > 0 ? (target - cumulative[segment]) / length : 1;
+        final double ax = GeometryUtil.mercatorX(start.longitude);
+        final double ay = GeometryUtil.mercatorY(start.latitude);
+        final double dx = GeometryUtil.mercatorX(end.longitude) - ax;
+        final double dy = GeometryUtil.mercatorY(end.latitude) - ay;
+        final double headX = ax + dx * Math.min(1, fraction);
+        final double headY = ay + dy * Math.min(1, fraction);
+        head = fraction >= 1 ? end : new LatLng(GeometryUtil.latitude(headY), GeometryUtil.longitude(headX));
+        //墨卡托 y 轴向南
+        heading = (float) ((Math.toDegrees(Math.atan2(dx, -dy)) + 360) % 360);
+
+        final int newFullCount = segment + 1;
+        final boolean done = progress >= 1f;
+        if (!done && newFullCount == fullCount && pixelsPerUnit > 0 && !Double.isNaN(shownHeadX)
+                && Math.hypot(headX - shownHeadX, headY - shownHeadY) * pixelsPerUnit < MIN_HEAD_STEP_PIXELS) {
+            return false;
+        }
+        shownHeadX = headX;
+        shownHeadY = headY;
+
+        //去掉上一帧的插值点，再把原始顶点补齐（或回退）到 segment
+        if (visible.size() > fullCount) {
+            visible.remove(visible.size() - 1);
+        }
+        if (newFullCount < fullCount) {
+            visible.subList(newFullCount, fullCount).clear();
+        } else {
+            visible.addAll(points.subList(fullCount, newFullCount));
+        }
+        fullCount = newFullCount;
+        visible.add(head);
+        controller.showReveal(visible);
+        return done;
+    }
+
+    LatLng getHead() {
+        return head;
+    }
+
+    float getHeading() {
+        return heading;
+    }
+
+    private static Interpolator toInterpolator(String easing) {
+        if (null == easing) {
+            return new LinearInterpolator();
+        }
+        switch (easing) {
+            case "easeIn":
+                return new AccelerateInterpolator();
+            case "easeOut":
+                return new DecelerateInterpolator();
+            case "easeInOut":
+                return new AccelerateDecelerateInterpolator();
+            default:
+                return new LinearInterpolator();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 折线线段的均匀网格索引，用于最近点查询（路线吸附、点击命中等）
+ * <p>
+ * 网格建立在归一化墨卡托坐标上，每条线段登记到其包围盒覆盖的所有网格中（CSR 紧凑存储）。
+ * 查询时从点所在网格按圈向外搜索，当前最近距离不大于已搜索范围时停止。
+ * 墨卡托投影局部等比，最近关系在局部范围内与实际距离一致，返回的距离换算为米。
+ * 本类构造后只读，可以在后台线程构造、在主线程查询。
+ */
+class PolylineSegmentIndex {
+    //网格数量上限
+    private static final int MAX_CELLS = 1 << 18;
+
+    private final List<LatLng> points;
+    private final double[] xs;
+    private final double[] ys;
+    //每个顶点到起点的累计距离（米）
+    private final double[] cumulative;
+    private final int segmentCount;
+
+    private double minX;
+    private double minY;
+    private double cellSize;
+    private int columns;
+    private int rows;
+    private int[] cellStart;
+    private int[] cellSegments;
+
+    PolylineSegmentIndex(List<LatLng> points) {
+        this(points, null);
+    }
+
+    /**
+     * @param gaps 不参与查询的线段（合并折线之间的连接线），可以为 null
+     */
+    PolylineSegmentIndex(List<LatLng> points, BitSet gaps) {
+        this.points = points;
+        final int count = points.size();
+        xs = new double[count];
+        ys = new double[count];
+        cumulative = new double[count];
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            LatLng latLng = points.get(i);
+            xs[i] = GeometryUtil.mercatorX(latLng.longitude);
+            ys[i] = GeometryUtil.mercatorY(latLng.latitude);
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+            if (i > 0) {
+                LatLng previous = points.get(i - 1);
+                cumulative[i] = cumulative[i - 1] + GeometryUtil.distance(previous.latitude, previous.longitude,
+                        latLng.latitude, latLng.longitude);
+            }
+        }
+        segmentCount = Math.max(0, count - 1);
+        if (segmentCount == 0) {
+            return;
+        }
+        final double width = Math.max(maxX - minX, 1e-12);
+        final double height = Math.max(maxY - minY, 1e-12);
+        final int targetCells = Math.max(1, Math.min(MAX_CELLS, segmentCount));
+        cellSize = Math.max(Math.sqrt(width * height / targetCells), Math.max(width, height) / MAX_CELLS);
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        while ((long) columns * rows > MAX_CELLS) {
+            cellSize *= 2;
+            columns = Math.max(1, (int) Math.ceil(width / cellSize));
+            rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        }
+
+        //第一遍把每个网格的线段数记在 cellStart[cell + 1]，前缀和后即为各网格的起始位置，第二遍填充
+        cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < segmentCount; i++) {
+            if (null == gaps || !gaps.get(i)) {
+                forEachCell(i, null);
+            }
+        }
+        for (int c = 1; c < cellStart.length; c++) {
+            cellStart[c] += cellStart[c - 1];
+        }
+        cellSegments = new int[cellStart[cellStart.length - 1]];
+        final int[] cursor = new int[columns * rows];
+        System.arraycopy(cellStart, 0, cursor, 0, cursor.length);
+        for (int i = 0; i < segmentCount; i++) {
+            if (null == gaps || !gaps.get(i)) {
+                forEachCell(i, cursor);
+            }
+        }
+    }
+
+    private void forEachCell(int segment, int[] cursor) {
+        int c0 = column(Math.min(xs[segment], xs[segment + 1]));
+        int c1 = column(Math.max(xs[segment], xs[segment + 1]));
+        int r0 = row(Math.min(ys[segment], ys[segment + 1]));
+        int r1 = row(Math.max(ys[segment], ys[segment + 1]));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                if (null == cursor) {
+                    cellStart[cell + 1]++;
+                } else {
+                    cellSegments[cursor[cell]++] = segment;
+                }
+            }
+        }
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) ((x - minX) / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellSize)));
+    }
+
+    int getSegmentCount() {
+        return segmentCount;
+    }
+
+    List<LatLng> getPoints() {
+        return points;
+    }
+
+    /**
+     * 查询最近的线段
+     *
+     * @param maxDistance 最大距离（米），小于等于0表示不限制
+     * @return 超出最大距离或折线为空时返回 null
+     */
+    Result nearest(double latitude, double longitude, double maxDistance) {
+        if (segmentCount == 0) {
+            return null;
+        }
+        final double px = GeometryUtil.mercatorX(longitude);
+        final double py = GeometryUtil.mercatorY(latitude);
+        //1 个墨卡托单位对应的米数
+        final double metersPerUnit = GeometryUtil.EARTH_CIRCUMFERENCE * Math.cos(Math.toRadians(latitude));
+        final double maxUnits = maxDistance > 0 && metersPerUnit > 0 ? maxDistance / metersPerUnit : Double.POSITIVE_INFINITY;
+
+        //点在网格外时，先计算到网格的距离
+        final double outsideX = Math.max(0, Math.max(minX - px, px - (minX + columns * cellSize)));
+        final double outsideY = Math.max(0, Math.max(minY - py, py - (minY + rows * cellSize)));
+        final double outside = Math.sqrt(outsideX * outsideX + outsideY * outsideY);
+        if (outside > maxUnits) {
+            return null;
+        }
+        final int pc = column(px);
+        final int pr = row(py);
+        int bestSegment = -1;
+        double bestDistanceSquared = Double.POSITIVE_INFINITY;
+        final int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = pr - ring; r <= pr + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                final boolean edgeRow = r == pr - ring || r == pr + ring;
+                final int step = edgeRow ? 1 : Math.max(1, ring * 2);
+                for (int c = pc - ring; c <= pc + ring; c += step) {
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    final int cell = r * columns + c;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        final int segment = cellSegments[k];
+                        double distance = PolylineLod.segmentDistanceSquared(px, py,
+                                xs[segment], ys[segment], xs[segment + 1], ys[segment + 1]);
+                        if (distance < bestDistanceSquared) {
+                            bestDistanceSquared = distance;
+                            bestSegment = segment;
+                        }
+                    }
+                }
+            }
+            //下一圈网格与点的距离至少为 ring * cellSize
+            final double searched = Math.max(outside, ring * cellSize);
+            if (bestSegment >= 0 && Math.sqrt(bestDistanceSquared) <= searched) {
+                break;
+            }
+            if (searched > maxUnits) {
+                break;
+            }
+        }
+        if (bestSegment < 0 || Math.sqrt(bestDistanceSquared) > maxUnits) {
+            return null;
+        }
+        return project(bestSegment, px, py, Math.sqrt(bestDistanceSquared) * metersPerUnit);
+    }
+
+    private Result project(int segment, double px, double py, double crossTrack) {
+        final double ax = xs[segment], ay = ys[segment];
+        final double dx = xs[segment + 1] - ax;
+        final double dy = ys[segment + 1] - ay;
+        final double lengthSquared = dx * dx + dy * dy;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        }
+        final LatLng start = points.get(segment);
+        final LatLng position = t == 0 ? start : (t == 1 ? points.get(segment + 1)
+                : new LatLng(GeometryUtil.latitude(ay + t * dy), GeometryUtil.longitude(ax + t * dx)));
+        final Result result = new Result();
+        result.position = position;
+        result.segmentIndex = segment;
+        result.fraction = t;
+        result.distanceAlong = cumulative[segment] + GeometryUtil.distance(start.latitude, start.longitude,
+                position.latitude, position.longitude);
+        result.crossTrack = crossTrack;
+        return result;
+    }
+
+    /**
+     * 从起点到第 vertex 个顶点的距离（米）
+     */
+    double distanceAt(int vertex) {
+        return cumulative[vertex];
+    }
+
+    /**
+     * 折线总长度（米）
+     */
+    double getLength() {
+        return cumulative.length == 0 ? 0 : cumulative[cumulative.length - 1];
+    }
+
+    static class Result {
+        LatLng position;
+        int segmentIndex;
+        //在线段上的位置比例 [0, 1]
+        double fraction;
+        //从起点沿折线到最近点的距离（米）
+        double distanceAlong;
+        //到折线的垂直距离（米）
+        double crossTrack;
+
+        Map<String, Object> toMap(double totalLength) {
+            final Map<String, Object> map = new HashMap<>(8);
+            map.put("position", ConvertUtil.latLngToList(position));
+            map.put("segmentIndex", segmentIndex);
+            map.put("distanceAlong", distanceAlong);
+            map.put("distanceRemaining", Math.max(0, totalLength - distanceAlong));
+            map.put("crossTrack", crossTrack);
+            return map;
+        }
+    }
+}
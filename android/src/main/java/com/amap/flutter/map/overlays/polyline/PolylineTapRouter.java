@@ -0,0 +1,94 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import com.amap.api.maps.model.LatLng;
+
+/**
+ * 折线点击的分发
+ * <p>
+ * 容差为0且 SDK 选中的折线可信时同步发送点击事件，否则交给原生命中测试。
+ * 同一次触摸先收到 SDK 的折线点击、再收到地图点击时，地图点击被消费，不再发送 map#onTap。
+ */
+class PolylineTapRouter {
+
+    interface Target {
+        /**
+         * @return SDK 选中的折线是否需要命中测试确认（如裁剪后点中透明的连接线段）
+         */
+        boolean needsHitTest(String dartId);
+
+        void notifyTap(String dartId, LatLng tap);
+
+        /**
+         * @param sdkDartId SDK 选中的折线，点击地图时为 null
+         * @param onMiss    没有命中任何折线时调用，可以为 null
+         */
+        void hitTest(LatLng tap, String sdkDartId, Runnable onMiss);
+    }
+
+    private final Target target;
+    //点击容差（dp），大于0时由原生命中测试决定点中的折线
+    private float tolerance = 0;
+    //每次按下递增，避免同一次点击重复命中
+    private int touchSequence = 0;
+    private int handledTouchSequence = -1;
+
+    PolylineTapRouter(Target target) {
+        this.target = target;
+    }
+
+    /**
+     * @return 容差是否发生变化
+     */
+    boolean setTolerance(float tolerance) {
+        if (tolerance == this.tolerance) {
+            return false;
+        }
+        this.tolerance = tolerance;
+        return true;
+    }
+
+    float getTolerance() {
+        return tolerance;
+    }
+
+    void onTouchDown() {
+        touchSequence++;
+    }
+
+    /**
+     * @param dartId SDK 选中的折线，合并折线无法换算回具体折线时为 null
+     * @param tap    点击位置，无法换算时为 null
+     */
+    void onPolylineClick(String dartId, LatLng tap) {
+        if (null == tap || (tolerance <= 0 && (null == dartId || !target.needsHitTest(dartId)))) {
+            if (null != dartId) {
+                handledTouchSequence = touchSequence;
+                target.notifyTap(dartId, tap);
+            }
+            return;
+        }
+        handledTouchSequence = touchSequence;
+        target.hitTest(tap, dartId, null);
+    }
+
+    /**
+     * SDK 没有点中折线，但在容差范围内时同样算作点击折线
+     *
+     * @return 是否消费本次地图点击
+     */
+    boolean interceptMapTap(LatLng latLng, Runnable onMiss) {
+        if (null == latLng) {
+            return false;
+        }
+        if (handledTouchSequence == touchSequence) {
+            //本次触摸已经由 onPolylineClick 处理，复位后不影响之后没有按下事件的点击
+            handledTouchSequence = -1;
+            return true;
+        }
+        if (tolerance <= 0) {
+            return false;
+        }
+        target.hitTest(latLng, null, onMiss);
+        return true;
+    }
+}
@@ -4,7 +4,10 @@ import android.text.TextUtils;
 import android.util.Log;
 
 import com.amap.api.maps.model.PolylineOptions;
+import com.amap.flutter.map.overlays.ViewportClip;
+import com.amap.flutter.map.utils.ColorRamp;
 import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.WkbReader;
 
 import java.util.List;
 import java.util.Map;
@@ -24,8 +27,39 @@ class PolylineUtil {
     static String interpretOptions(Object o, PolylineOptionsSink sink) {
         final Map<?, ?> data = ConvertUtil.toMap(o);
 
+        //lod/clip 需要先于 points 解析，这两种模式下 points 只保存为源数据
+        final Object lod = data.get("lod");
+        if (lod != null) {
+            final Map<?, ?> lodData = ConvertUtil.toMap(lod);
+            final Object enabled = lodData.get("enabled");
+            final Object tolerance = lodData.get("tolerance");
+            sink.setLodOptions(null == enabled || ConvertUtil.toBoolean(enabled),
+                    null != tolerance ? ConvertUtil.toFloat(tolerance) : PolylineController.DEFAULT_LOD_TOLERANCE);
+        }
+
+        final Object clip = data.get("clip");
+        if (clip != null) {
+            final Map<?, ?> clipData = ConvertUtil.toMap(clip);
+            final Object enabled = clipData.get("enabled");
+            final Object margin = clipData.get("margin");
+            sink.setClipOptions(null == enabled || ConvertUtil.toBoolean(enabled),
+                    null != margin ? ConvertUtil.toFloat(margin) : ViewportClip.DEFAULT_MARGIN);
+        }
+
+        final Object batched = data.get("batched");
+        if (batched != null) {
+            sink.setBatched(ConvertUtil.toBoolean(batched));
+        }
+
+        //优先级 wkb > encodedPoints > points
+        final Object wkb = data.get("wkb");
+        final Object encodedPoints = data.get("encodedPoints");
         final Object points = data.get("points");
-        if (points != null) {
+        if (wkb != null) {
+            sink.setPoints(ConvertUtil.toPoints(WkbReader.readLine((byte[]) wkb)));
+        } else if (encodedPoints != null) {
+            sink.setPoints(ConvertUtil.toEncodedPoints(encodedPoints, data.get("encodedPrecision")));
+        } else if (points != null) {
             sink.setPoints(ConvertUtil.toPoints(points));
         }
 
@@ -99,6 +133,39 @@ class PolylineUtil {
             sink.setColorList((List<Integer>) ConvertUtil.toList(colorList));
         }
 
+        //逐顶点样式需要在 points 之后解析；colorSpans 与 colorRamp 同时传入时以 colorRamp 为准
+        final Object colorSpans = data.get("colorSpans");
+        if (colorSpans != null) {
+            sink.setVertexColors(expandSpans(colorSpans));
+        }
+
+        final Object colorRamp = data.get("colorRamp");
+        if (colorRamp != null) {
+            final Map<?, ?> rampData = ConvertUtil.toMap(colorRamp);
+            final Object values = rampData.get("values");
+            if (values != null) {
+                sink.setVertexColors(ColorRamp.fromMap(rampData).colorsFor(ConvertUtil.toDoubleArray(values), null));
+            }
+        }
+
+        final Object decoration = data.get("decoration");
+        if (decoration != null) {
+            final Map<?, ?> decorationData = ConvertUtil.toMap(decoration);
+            final Object enabled = decorationData.get("enabled");
+            final Object icon = decorationData.get("icon");
+            final Object spacing = decorationData.get("spacing");
+            final Object rotate = decorationData.get("rotate");
+            sink.setDecoration(null == enabled || ConvertUtil.toBoolean(enabled),
+                    icon,
+                    null != spacing ? ConvertUtil.toFloat(spacing) : PolylineDecoration.DEFAULT_SPACING,
+                    null == rotate || ConvertUtil.toBoolean(rotate));
+        }
+
+        final Object textureSpans = data.get("textureSpans");
+        if (textureSpans != null) {
+            sink.setVertexTextureIndices(expandSpans(textureSpans));
+        }
+
         // 解析 zIndex，用于控制轨迹线在 TileOverlay 之上显示
         final Object zIndex = data.get("zIndex");
         if (zIndex != null) {
@@ -111,4 +178,58 @@ class PolylineUtil {
         }
         return dartId;
     }
+
+    /**
+     * 展开游程编码的样式区间
+     * <p>
+     * 格式为 [[start, end, value], ...] 或按三元组平铺的 Int32List，区间覆盖顶点 [start, end)。
+     * 区间之间的空隙沿用前一个区间的值，第一个区间之前的顶点使用第一个区间的值。
+     */
+    static int[] expandSpans(Object o) {
+        final int[] triples = toTriples(o);
+        final int spanCount = triples.length / 3;
+        if (spanCount == 0) {
+            return new int[0];
+        }
+        int length = 0;
+        for (int i = 0; i < spanCount; i++) {
+            length = Math.max(length, triples[i * 3 + 1]);
+        }
+        final int[] result = new int[length];
+        int filled = 0;
+        int previous = triples[2];
+        for (int i = 0; i < spanCount; i++) {
+            final int start = Math.max(0, Math.min(triples[i * 3], length));
+            final int end = Math.max(start, triples[i * 3 + 1]);
+            final int value = triples[i * 3 + 2];
+            //补齐空隙
+            for (int k = filled; k < start; k++) {
+                result[k] = previous;
+            }
+            for (int k = start; k < end; k++) {
+                result[k] = value;
+            }
+            filled = Math.max(filled, end);
+            previous = value;
+        }
+        return result;
+    }
+
+    private static int[] toTriples(Object o) {
+        if (o instanceof int[]) {
+            return (int[]) o;
+        }
+        final List<?> list = ConvertUtil.toList(o);
+        if (list.isEmpty() || !(list.get(0) instanceof List)) {
+            return ConvertUtil.toIntArray(list);
+        }
+        final int[] triples = new int[list.size() * 3];
+        for (int i = 0; i < list.size(); i++) {
+            final List<?> span = ConvertUtil.toList(list.get(i));
+            triples[i * 3] = ConvertUtil.toInt(span.get(0));
+            triples[i * 3 + 1] = ConvertUtil.toInt(span.get(1));
+            triples[i * 3 + 2] = ConvertUtil.toInt(span.get(2));
+        }
+        return triples;
+    }
 }
@@ -1,21 +1,37 @@
 package com.amap.flutter.map.overlays.polyline;
 
+import android.graphics.Point;
+import android.location.Location;
 import android.text.TextUtils;
+import android.view.Choreographer;
+import android.view.MotionEvent;
 
 import androidx.annotation.NonNull;
 
 import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.CameraPosition;
+import com.amap.api.maps.model.LatLng;
 import com.amap.api.maps.model.Polyline;
 import com.amap.api.maps.model.PolylineOptions;
 import com.amap.flutter.map.MyMethodCallHandler;
+import com.amap.flutter.map.core.MapController;
 import com.amap.flutter.map.overlays.AbstractOverlayController;
+import com.amap.flutter.map.overlays.ViewportClip;
+import com.amap.flutter.map.overlays.marker.MarkersController;
 import com.amap.flutter.map.utils.Const;
 import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.GeometryUtil;
 import com.amap.flutter.map.utils.LogUtil;
+import com.amap.flutter.map.utils.ThreadUtil;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
@@ -29,13 +45,109 @@ import io.flutter.plugin.common.MethodChannel;
 public class PolylinesController
         extends AbstractOverlayController<PolylineController>
         implements MyMethodCallHandler,
-        AMap.OnPolylineClickListener {
+        AMap.OnPolylineClickListener,
+        AMap.OnCameraChangeListener,
+        AMap.OnMyLocationChangeListener,
+        AMap.OnMapTouchListener,
+        MapController.TapInterceptor,
+        Choreographer.FrameCallback {
 
     private static final String CLASS_NAME = "PolylinesController";
+    //polyline#snap 默认的最大吸附距离（米）
+    private static final double DEFAULT_SNAP_DISTANCE = 50;
+    //polyline#animateReveal 默认时长（毫秒）
+    private static final int DEFAULT_REVEAL_DURATION = 1000;
+    //校验 SDK 选中的点击位置时（裁剪连接线段、合并组内的间隔），在线宽之外额外允许的距离（dp）
+    private static final float LINE_TAP_SLOP = 4;
+    //每个合并折线的最大顶点数，超出时另起一组，成员变化只重建所在的一组
+    private static final int MAX_BATCH_POINTS = 4096;
+
+    //当前简化级别对应的缩放分桶
+    private int lodZoomBucket = Integer.MIN_VALUE;
+    //沿线图标间距使用的比例尺，每个缩放分桶只取一次，同一分桶内间距不随缩放变化
+    private int decorationZoomBucket = Integer.MIN_VALUE;
+    private double decorationPixelsPerUnit = 0;
+
+    //有追加顶点等待提交的折线
+    private final Set<PolylineController> pendingAppends = new LinkedHashSet<>();
+    private boolean frameScheduled = false;
+    //地图已销毁，后台线程返回的结果直接丢弃
+    private boolean disposed = false;
+
+    //定位点自动吸附的目标折线，null 表示关闭
+    private String locationSnapPolylineId;
+    private double locationSnapDistance = DEFAULT_SNAP_DISTANCE;
+
+    //正在播放的揭示动画: dartId -> 动画
+    private final Map<String, PolylineReveal> reveals = new HashMap<>(4);
+    //揭示动画的跟随标记由 MarkersController 管理
+    private MarkersController markersController;
+
+    //合并绘制: 样式 key -> 合并组
+    private final Map<String, List<PolylineBatch>> batchesByKey = new HashMap<>(8);
+    private final Map<String, PolylineBatch> batchByDartId = new HashMap<>();
+    private final Map<String, PolylineBatch> batchByOverlayId = new HashMap<>(8);
+    //成员变化后等待下一帧重新拼接的合并组
+    private final Set<PolylineBatch> dirtyBatches = new LinkedHashSet<>();
+    //最近一次触摸的屏幕位置，用于把合并折线的点击换算回具体折线
+    private Point lastTouchPoint;
+    private final PolylineTapRouter tapRouter = new PolylineTapRouter(new PolylineTapRouter.Target() {
+        @Override
+        public boolean needsHitTest(String dartId) {
+            //裁剪后的折线可能点中透明的连接线段；合并折线已经在 resolveBatchClick 中确认过
+            final PolylineController polylineController = controllerMapByDartId.get(dartId);
+            return null != polylineController && polylineController.hasConnectors();
+        }
+
+        @Override
+        public void notifyTap(String dartId, LatLng tap) {
+            PolylinesController.this.notifyTap(dartId, tap, null, 0);
+        }
+
+        @Override
+        public void hitTest(LatLng tap, String sdkDartId, Runnable onMiss) {
+            PolylinesController.this.hitTest(tap, sdkDartId, onMiss);
+        }
+    });
+    //容差变化时递增，等待线段索引的命中测试按新容差重新进行
+    private int tapGeneration = 0;
+    private static final PolylineController.SegmentIndexCallback WARM_UP = new PolylineController.SegmentIndexCallback() {
+        @Override
+        public void onSegmentIndexReady(PolylineSegmentIndex index) {
+        }
+
+        @Override
+        public void onSegmentIndexFailed(Throwable e) {
+        }
+    };
 
     public PolylinesController(MethodChannel methodChannel, AMap amap) {
         super(methodChannel, amap);
         amap.addOnPolylineClickListener(this);
+        amap.addOnCameraChangeListener(this);
+        amap.addOnMyLocationChangeListener(this);
+        amap.addOnMapTouchListener(this);
+    }
+
+    /**
+     * 地图销毁时调用：停止揭示动画与逐帧提交，后台计算的结果不再应用
+     */
+    public void dispose() {
+        disposed = true;
+        if (frameScheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            frameScheduled = false;
+        }
+        reveals.clear();
+        pendingAppends.clear();
+        dirtyBatches.clear();
+        for (PolylineController polylineController : controllerMapByDartId.values()) {
+            polylineController.dispose();
+        }
+    }
+
+    public void setMarkersController(MarkersController markersController) {
+        this.markersController = markersController;
     }
 
     @Override
@@ -51,6 +163,28 @@ public class PolylinesController
             case Const.METHOD_POLYLINE_UPDATE:
                 invokePolylineOptions(call, result);
                 break;
+            case Const.METHOD_POLYLINE_APPEND_POINTS:
+                appendPoints(call, result);
+                break;
+            case Const.METHOD_POLYLINE_NEAREST_POINT:
+                nearestPoint(call, result, 0);
+                break;
+            case Const.METHOD_POLYLINE_SNAP:
+                Object maxDistance = call.argument("maxDistance");
+                nearestPoint(call, result, null != maxDistance ? ConvertUtil.toDouble(maxDistance) : DEFAULT_SNAP_DISTANCE);
+                break;
+            case Const.METHOD_POLYLINE_SET_LOCATION_SNAP:
+                setLocationSnap(call);
+                result.success(null);
+                break;
+            case Const.METHOD_POLYLINE_ANIMATE_REVEAL:
+                animateReveal(call, result);
+                break;
+            case Const.METHOD_POLYLINE_SET_TAP_TOLERANCE:
+                Object tolerance = call.argument("tolerance");
+                setTapTolerance(null != tolerance ? Math.max(0, ConvertUtil.toFloat(tolerance)) : 0);
+                result.success(null);
+                break;
         }
     }
 
@@ -58,14 +192,184 @@ public class PolylinesController
     public void onPolylineClick(Polyline polyline) {
         String dartId = idMapByOverlyId.get(polyline.getId());
         if (null == dartId) {
+            dartId = resolveBatchClick(polyline);
+        }
+        LatLng tap = null;
+        if (null != lastTouchPoint && null != amap.getProjection()) {
+            tap = amap.getProjection().fromScreenLocation(lastTouchPoint);
+        }
+        tapRouter.onPolylineClick(dartId, tap);
+    }
+
+    /**
+     * SDK 没有点中折线，但在容差范围内时同样算作点击折线，此时不再发送 map#onTap
+     */
+    @Override
+    public boolean interceptTap(LatLng latLng, Runnable onMiss) {
+        return tapRouter.interceptMapTap(latLng, onMiss);
+    }
+
+    private void setTapTolerance(float tolerance) {
+        final boolean enabled = tapRouter.getTolerance() <= 0 && tolerance > 0;
+        if (!tapRouter.setTolerance(tolerance)) {
             return;
         }
-        final Map<String, Object> data = new HashMap<>(1);
+        tapGeneration++;
+        if (enabled) {
+            //提前建立线段索引，之后的点击不必等待后台线程
+            for (PolylineController polylineController : controllerMapByDartId.values()) {
+                polylineController.obtainSegmentIndex(WARM_UP);
+            }
+        }
+    }
+
+    /**
+     * 原生命中测试
+     * <p>
+     * 容差大于0时查询所有可见折线，按 zIndex 从高到低、距离从近到远选出一条；都不在容差内时使用 SDK 选中的折线。
+     * 容差为0时只用于确认 SDK 选中的、带裁剪连接线段的折线。线段索引可能需要在后台建立，全部返回后才发送事件。
+     *
+     * @param sdkDartId SDK 选中的折线，点击地图时为 null
+     * @param onMiss    没有命中任何折线时调用，可以为 null
+     */
+    private void hitTest(LatLng tap, String sdkDartId, Runnable onMiss) {
+        final PolylineController sdkController = null != sdkDartId ? controllerMapByDartId.get(sdkDartId) : null;
+        //裁剪后的折线可能点中透明的连接线段，SDK 的结果不能直接作为兜底
+        final boolean sdkUncertain = null != sdkController && sdkController.hasConnectors();
+        final TapCandidates candidates = new TapCandidates(tap, sdkDartId, sdkUncertain ? null : sdkDartId, onMiss);
+        final float tapTolerance = tapRouter.getTolerance();
+        if (tapTolerance > 0) {
+            final double maxDistance = tapTolerance * ConvertUtil.density * amap.getScalePerPixel();
+            for (Map.Entry<String, PolylineController> entry : controllerMapByDartId.entrySet()) {
+                if (entry.getValue().polyline.isVisible()) {
+                    candidates.query(entry.getKey(), entry.getValue(), maxDistance);
+                }
+            }
+            for (List<PolylineBatch> batches : batchesByKey.values()) {
+                for (PolylineBatch batch : batches) {
+                    candidates.offer(batch.getZIndex(), batch.hitTest(tap, maxDistance));
+                }
+            }
+        } else if (null != sdkDartId) {
+            PolylineBatch batch = batchByDartId.get(sdkDartId);
+            if (null != sdkController) {
+                //连接线段不在源数据上，只接受落在线宽范围内的点击
+                candidates.query(sdkDartId, sdkController, sdkUncertain ? lineTapDistance(sdkController.polyline.getWidth()) : 0);
+            } else if (null != batch) {
+                candidates.offer(batch.getZIndex(), batch.hitTest(tap, lineTapDistance(batch.getWidth())));
+            }
+        }
+        candidates.seal();
+    }
+
+    /**
+     * 点击位置到折线的最大距离（米）：线宽的一半加上 {@link #LINE_TAP_SLOP}，不小于点击容差
+     */
+    private double lineTapDistance(float widthPixels) {
+        final float pixels = Math.max(widthPixels / 2 + LINE_TAP_SLOP * ConvertUtil.density, tapRouter.getTolerance() * ConvertUtil.density);
+        return pixels * amap.getScalePerPixel();
+    }
+
+    private void notifyTap(String dartId, LatLng tap, PolylineSegmentIndex.Result hit, double length) {
+        final Map<String, Object> data = null != hit ? hit.toMap(length) : new HashMap<String, Object>(2);
         data.put("polylineId", dartId);
+        if (null != tap) {
+            data.put("tapPosition", ConvertUtil.latLngToList(tap));
+        }
         methodChannel.invokeMethod("polyline#onTap", data);
         LogUtil.i(CLASS_NAME, "onPolylineClick==>" + data);
     }
 
+    /**
+     * 一次点击的候选折线，等待所有线段索引返回后发送事件
+     */
+    private class TapCandidates {
+        private final LatLng tap;
+        private final String clickedDartId;
+        private final String sdkDartId;
+        private final Runnable onMiss;
+        private final int generation = tapGeneration;
+        private int pending = 0;
+        private boolean sealed = false;
+        private String bestDartId;
+        private float bestZIndex;
+        private PolylineSegmentIndex.Result best;
+        private double bestLength;
+
+        /**
+         * @param clickedDartId SDK 选中的折线
+         * @param sdkDartId     没有折线在容差内时使用的折线，选中结果不可信时为 null
+         */
+        TapCandidates(LatLng tap, String clickedDartId, String sdkDartId, Runnable onMiss) {
+            this.tap = tap;
+            this.clickedDartId = clickedDartId;
+            this.sdkDartId = sdkDartId;
+            this.onMiss = onMiss;
+        }
+
+        void query(final String dartId, final PolylineController polylineController, final double maxDistance) {
+            pending++;
+            polylineController.obtainSegmentIndex(new PolylineController.SegmentIndexCallback() {
+                @Override
+                public void onSegmentIndexReady(PolylineSegmentIndex index) {
+                    pending--;
+                    PolylineSegmentIndex.Result nearest = index.nearest(tap.latitude, tap.longitude, maxDistance);
+                    if (null != nearest) {
+                        offer(dartId, polylineController.polyline.getZIndex(), nearest, index.getLength());
+                    }
+                    finishIfDone();
+                }
+
+                @Override
+                public void onSegmentIndexFailed(Throwable e) {
+                    pending--;
+                    finishIfDone();
+                }
+            });
+        }
+
+        void offer(float zIndex, PolylineBatch.Hit hit) {
+            if (null != hit) {
+                offer(hit.dartId, zIndex, hit.result, hit.length);
+            }
+        }
+
+        private void offer(String dartId, float zIndex, PolylineSegmentIndex.Result result, double length) {
+            if (null == best || zIndex > bestZIndex || (zIndex == bestZIndex && result.crossTrack < best.crossTrack)) {
+                bestDartId = dartId;
+                bestZIndex = zIndex;
+                best = result;
+                bestLength = length;
+            }
+        }
+
+        void seal() {
+            sealed = true;
+            finishIfDone();
+        }
+
+        private void finishIfDone() {
+            if (!sealed || pending > 0) {
+                return;
+            }
+            //只发送一次
+            sealed = false;
+            if (disposed) {
+                return;
+            }
+            if (generation != tapGeneration) {
+                //等待索引期间容差变了，候选和距离都按旧容差算的
+                hitTest(tap, clickedDartId, onMiss);
+            } else if (null != best) {
+                notifyTap(bestDartId, tap, best, bestLength);
+            } else if (null != sdkDartId) {
+                notifyTap(sdkDartId, tap, null, 0);
+            } else if (null != onMiss) {
+                onMiss.run();
+            }
+        }
+    }
+
     /**
      * @param methodCall
      * @param result
@@ -74,12 +378,18 @@ public class PolylinesController
         if (null == methodCall) {
             return;
         }
-        Object listToAdd = methodCall.argument("polylinesToAdd");
-        addByList((List<Object>) listToAdd);
-        Object listToChange = methodCall.argument("polylinesToChange");
-        updateByList((List<Object>) listToChange);
-        Object polylineIdsToRemove = methodCall.argument("polylineIdsToRemove");
-        removeByIdList((List<Object>) polylineIdsToRemove);
+        try {
+            Object listToAdd = methodCall.argument("polylinesToAdd");
+            addByList((List<Object>) listToAdd);
+            Object listToChange = methodCall.argument("polylinesToChange");
+            updateByList((List<Object>) listToChange);
+            Object polylineIdsToRemove = methodCall.argument("polylineIdsToRemove");
+            removeByIdList((List<Object>) polylineIdsToRemove);
+        } catch (IllegalArgumentException e) {
+            //压缩坐标无法解码等
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+            return;
+        }
         result.success(null);
     }
 
@@ -95,12 +405,37 @@ public class PolylinesController
         if (null != amap) {
             PolylineOptionsBuilder builder = new PolylineOptionsBuilder();
             String dartId = PolylineUtil.interpretOptions(polylineObj, builder);
-            if (!TextUtils.isEmpty(dartId)) {
+            addPolyline(dartId, builder);
+        }
+    }
+
+    private void addPolyline(String dartId, PolylineOptionsBuilder builder) {
+        if (null != amap) {
+            if (!TextUtils.isEmpty(dartId) && null != builder.getBatchKey()) {
+                addToBatch(dartId, builder);
+            } else if (!TextUtils.isEmpty(dartId)) {
                 PolylineOptions polylineOptions = builder.build();
+                final boolean deferPoints = builder.isLodEnabled() || builder.isClipEnabled();
+                if (deferPoints) {
+                    //简化/裁剪模式下先不传顶点，计算完成后再设置
+                    polylineOptions.setPoints(new ArrayList<LatLng>());
+                }
                 final Polyline polyline = amap.addPolyline(polylineOptions);
                 PolylineController polylineController = new PolylineController(polyline);
+                polylineController.restoreVertexStyle(builder.getVertexColors(), builder.getVertexTextureIndices(),
+                        builder.isTextured());
+                if (builder.isDecorationEnabled()) {
+                    polylineController.setDecoration(true, builder.getDecorationIcon(),
+                            builder.getDecorationSpacing(), builder.isDecorationRotate());
+                }
+                if (deferPoints) {
+                    polylineController.setLodOptions(builder.isLodEnabled(), builder.getLodTolerance());
+                    polylineController.setClipOptions(builder.isClipEnabled(), builder.getClipMargin());
+                    polylineController.setPoints(builder.getPoints());
+                }
                 controllerMapByDartId.put(dartId, polylineController);
                 idMapByOverlyId.put(polyline.getId(), dartId);
+                refresh(polylineController);
             }
         }
 
@@ -116,16 +451,45 @@ public class PolylinesController
 
     private void update(Object polylineToChange) {
         Object polylineId = ConvertUtil.getKeyValueFromMapObject(polylineToChange, "id");
-        if (null != polylineId) {
-            PolylineController polylineController = controllerMapByDartId.get(polylineId);
-            if (null != polylineController) {
-                PolylineUtil.interpretOptions(polylineToChange, polylineController);
-            }
+        if (null == polylineId) {
+            return;
+        }
+        final String dartId = (String) polylineId;
+        final PolylineBatch batch = batchByDartId.get(dartId);
+        final PolylineController polylineController = controllerMapByDartId.get(dartId);
+        if (null == batch && null == polylineController) {
+            return;
+        }
+        final Object batched = ConvertUtil.getKeyValueFromMapObject(polylineToChange, "batched");
+        if (null == batch && (null == batched || !ConvertUtil.toBoolean(batched))) {
+            PolylineUtil.interpretOptions(polylineToChange, polylineController);
+            refresh(polylineController);
+            return;
+        }
+        //合并相关的更新按完整选项重新解析，决定留在原组、换组，还是在单独折线与合并组之间切换
+        final PolylineOptionsBuilder builder = new PolylineOptionsBuilder();
+        PolylineUtil.interpretOptions(polylineToChange, builder);
+        final String batchKey = builder.getBatchKey();
+        if (null != batch && batch.key.equals(batchKey)) {
+            //样式不变时原地替换顶点，只重建所在的一组
+            batch.put(dartId, builder.getPoints());
+            dirtyBatches.add(batch);
+            scheduleFrame();
+        } else if (null != batch) {
+            removeFromBatch(dartId);
+            addPolyline(dartId, builder);
+        } else if (null != batchKey) {
+            removeByIdList(Collections.<Object>singletonList(dartId));
+            addPolyline(dartId, builder);
+        } else {
+            //要求合并但样式不支持（逐顶点样式、简化、裁剪等），保持单独的折线
+            PolylineUtil.interpretOptions(polylineToChange, polylineController);
+            refresh(polylineController);
         }
     }
 
 
-    private void removeByIdList(List<Object> polylineIdsToRemove) {
+    public void removeByIdList(List<Object> polylineIdsToRemove) {
         if (polylineIdsToRemove == null) {
             return;
         }
@@ -134,13 +498,440 @@ public class PolylinesController
                 continue;
             }
             String markerId = (String) rawPolylineId;
+            if (removeFromBatch(markerId)) {
+                continue;
+            }
             final PolylineController polylineController = controllerMapByDartId.remove(markerId);
             if (polylineController != null) {
+                pendingAppends.remove(polylineController);
+                reveals.remove(markerId);
                 idMapByOverlyId.remove(polylineController.getPolylineId());
                 polylineController.remove();
             }
         }
     }
 
+    /**
+     * 向折线末尾追加顶点，同一帧内的多次追加合并为一次 setPoints
+     *
+     * @param call id: 折线 id, points 或 encodedPoints(+encodedPrecision): 追加的顶点, maxPoints: 滑动窗口大小（可选）
+     */
+    private void appendPoints(MethodCall call, MethodChannel.Result result) {
+        String dartId = call.argument("id");
+        Object points = call.argument("points");
+        Object encodedPoints = call.argument("encodedPoints");
+        PolylineController polylineController = null != dartId ? controllerMapByDartId.get(dartId) : null;
+        if (null == polylineController) {
+            LogUtil.w(CLASS_NAME, "appendPoints==> polyline not found, id=" + dartId);
+            result.error("INVALID_ARGUMENT", "polyline not found: " + dartId, null);
+            return;
+        }
+        if (null == points && null == encodedPoints) {
+            result.error("INVALID_ARGUMENT", "polyline#appendPoints requires points or encodedPoints", null);
+            return;
+        }
+        Object maxPoints = call.argument("maxPoints");
+        final List<LatLng> newPoints;
+        try {
+            newPoints = null != encodedPoints
+                    ? ConvertUtil.toEncodedPoints(encodedPoints, call.argument("encodedPrecision"))
+                    : ConvertUtil.toPoints(points);
+        } catch (IllegalArgumentException e) {
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+            return;
+        }
+        polylineController.appendPoints(newPoints, null != maxPoints ? ConvertUtil.toInt(maxPoints) : null);
+        pendingAppends.add(polylineController);
+        scheduleFrame();
+        result.success(null);
+    }
+
+    /**
+     * 在帧时钟上逐步绘制已有的折线，结束时发送一次 polyline#onRevealEnd
+     *
+     * @param call id: 折线 id, duration: 时长（毫秒）, easing: linear/easeIn/easeOut/easeInOut,
+     *             followerMarkerId: 跟随线头移动的标记 id（可选）, followerRotate: 标记是否随线段方向旋转
+     */
+    private void animateReveal(MethodCall call, MethodChannel.Result result) {
+        String dartId = call.argument("id");
+        PolylineController polylineController = null != dartId ? controllerMapByDartId.get(dartId) : null;
+        if (null == polylineController) {
+            LogUtil.w(CLASS_NAME, "animateReveal==> polyline not found, id=" + dartId);
+            result.error("INVALID_ARGUMENT", "polyline not found: " + dartId, null);
+            return;
+        }
+        PolylineReveal previous = reveals.remove(dartId);
+        if (null != previous) {
+            finishReveal(previous, false);
+        }
+        Object duration = call.argument("duration");
+        Object followerRotate = call.argument("followerRotate");
+        PolylineReveal reveal = new PolylineReveal(polylineController, dartId, polylineController.snapshotPoints(),
+                null != duration ? ConvertUtil.toInt(duration) : DEFAULT_REVEAL_DURATION,
+                (String) call.argument("easing"),
+                (String) call.argument("followerMarkerId"),
+                null != followerRotate && ConvertUtil.toBoolean(followerRotate));
+        polylineController.beginReveal();
+        reveals.put(dartId, reveal);
+        scheduleFrame();
+        result.success(null);
+    }
+
+    private void finishReveal(PolylineReveal reveal, boolean finished) {
+        reveal.controller.endReveal();
+        refresh(reveal.controller);
+        final Map<String, Object> data = new HashMap<>(2);
+        data.put("polylineId", reveal.polylineId);
+        data.put("finished", finished);
+        methodChannel.invokeMethod("polyline#onRevealEnd", data);
+        LogUtil.i(CLASS_NAME, "onRevealEnd==>" + data);
+    }
+
+    private void addToBatch(String dartId, PolylineOptionsBuilder builder) {
+        final String key = builder.getBatchKey();
+        List<PolylineBatch> batches = batchesByKey.get(key);
+        if (null == batches) {
+            batches = new ArrayList<>(1);
+            batchesByKey.put(key, batches);
+        }
+        final int count = null != builder.getPoints() ? builder.getPoints().size() : 0;
+        PolylineBatch batch = null;
+        for (PolylineBatch candidate : batches) {
+            if (candidate.getVertexCount() + count <= MAX_BATCH_POINTS) {
+                batch = candidate;
+                break;
+            }
+        }
+        if (null == batch) {
+            batch = new PolylineBatch(key, builder);
+            batches.add(batch);
+        }
+        batch.put(dartId, builder.getPoints());
+        batchByDartId.put(dartId, batch);
+        dirtyBatches.add(batch);
+        scheduleFrame();
+    }
+
+    private boolean removeFromBatch(String dartId) {
+        final PolylineBatch batch = batchByDartId.remove(dartId);
+        if (null == batch) {
+            return false;
+        }
+        batch.remove(dartId);
+        dirtyBatches.add(batch);
+        scheduleFrame();
+        return true;
+    }
+
+    /**
+     * 同一帧内的成员变化合并为一次拼接
+     */
+    private void flushBatches() {
+        for (PolylineBatch batch : dirtyBatches) {
+            final String oldOverlayId = batch.getPolylineId();
+            batch.rebuild(amap);
+            if (null != oldOverlayId) {
+                batchByOverlayId.remove(oldOverlayId);
+            }
+            if (batch.isEmpty()) {
+                final List<PolylineBatch> batches = batchesByKey.get(batch.key);
+                if (null != batches) {
+                    batches.remove(batch);
+                    if (batches.isEmpty()) {
+                        batchesByKey.remove(batch.key);
+                    }
+                }
+            } else if (null != batch.getPolylineId()) {
+                batchByOverlayId.put(batch.getPolylineId(), batch);
+            }
+        }
+        dirtyBatches.clear();
+    }
+
+    private String resolveBatchClick(Polyline polyline) {
+        final PolylineBatch batch = batchByOverlayId.get(polyline.getId());
+        if (null == batch || null == lastTouchPoint || null == amap.getProjection()) {
+            return null;
+        }
+        return batch.resolve(amap.getProjection().fromScreenLocation(lastTouchPoint), lineTapDistance(batch.getWidth()));
+    }
+
+    @Override
+    public void onTouch(MotionEvent motionEvent) {
+        if (null != motionEvent && motionEvent.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            lastTouchPoint = new Point((int) motionEvent.getX(), (int) motionEvent.getY());
+            tapRouter.onTouchDown();
+        }
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled && !disposed) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * 查询折线上离给定点最近的位置
+     *
+     * @param call        id: 折线 id, point: [lat, lng]
+     * @param maxDistance 最大距离（米），超出时返回 null，小于等于0表示不限制
+     */
+    private void nearestPoint(MethodCall call, final MethodChannel.Result result, final double maxDistance) {
+        String dartId = call.argument("id");
+        Object point = call.argument("point");
+        PolylineController polylineController = null != dartId ? controllerMapByDartId.get(dartId) : null;
+        if (null == polylineController || null == point) {
+            result.success(null);
+            return;
+        }
+        final LatLng latLng = ConvertUtil.toLatLng(point);
+        polylineController.obtainSegmentIndex(new PolylineController.SegmentIndexCallback() {
+            @Override
+            public void onSegmentIndexReady(PolylineSegmentIndex index) {
+                PolylineSegmentIndex.Result nearest = index.nearest(latLng.latitude, latLng.longitude, maxDistance);
+                result.success(null != nearest ? nearest.toMap(index.getLength()) : null);
+            }
+
+            @Override
+            public void onSegmentIndexFailed(Throwable e) {
+                result.error("WORKER_ERROR", String.valueOf(e.getMessage()), null);
+            }
+        });
+    }
+
+    /**
+     * 开启/关闭定位点自动吸附
+     *
+     * @param call id: 折线 id（为空表示关闭）, maxDistance: 最大吸附距离（米）
+     */
+    private void setLocationSnap(MethodCall call) {
+        locationSnapPolylineId = call.argument("id");
+        Object maxDistance = call.argument("maxDistance");
+        locationSnapDistance = null != maxDistance ? ConvertUtil.toDouble(maxDistance) : DEFAULT_SNAP_DISTANCE;
+    }
+
+    @Override
+    public void onMyLocationChange(Location location) {
+        if (null == locationSnapPolylineId || null == location) {
+            return;
+        }
+        final String dartId = locationSnapPolylineId;
+        PolylineController polylineController = controllerMapByDartId.get(dartId);
+        if (null == polylineController) {
+            return;
+        }
+        final LatLng latLng = new LatLng(location.getLatitude(), location.getLongitude());
+        polylineController.obtainSegmentIndex(new PolylineController.SegmentIndexCallback() {
+            @Override
+            public void onSegmentIndexReady(PolylineSegmentIndex index) {
+                PolylineSegmentIndex.Result nearest = index.nearest(latLng.latitude, latLng.longitude, locationSnapDistance);
+                final Map<String, Object> data = new HashMap<>(4);
+                data.put("polylineId", dartId);
+                data.put("location", ConvertUtil.latLngToList(latLng));
+                data.put("snap", null != nearest ? nearest.toMap(index.getLength()) : null);
+                methodChannel.invokeMethod("polyline#onLocationSnap", data);
+                LogUtil.i(CLASS_NAME, "onLocationSnap==>" + data);
+            }
+
+            @Override
+            public void onSegmentIndexFailed(Throwable e) {
+                LogUtil.e(CLASS_NAME, "onLocationSnap", e);
+            }
+        });
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        for (PolylineController polylineController : pendingAppends) {
+            polylineController.flushAppend();
+            refresh(polylineController);
+        }
+        pendingAppends.clear();
+        flushBatches();
 
+        if (reveals.isEmpty()) {
+            return;
+        }
+        List<PolylineReveal> finished = null;
+        final double pixelsPerUnit = lodPixelsPerUnit();
+        Iterator<PolylineReveal> iterator = reveals.values().iterator();
+        while (iterator.hasNext()) {
+            PolylineReveal reveal = iterator.next();
+            boolean done = reveal.step(frameTimeNanos, pixelsPerUnit);
+            if (null != reveal.followerMarkerId && null != markersController && null != reveal.getHead()) {
+                markersController.moveMarker(reveal.followerMarkerId, reveal.getHead(),
+                        reveal.followerRotate ? (360 - reveal.getHeading()) % 360 : Float.NaN);
+            }
+            if (done) {
+                iterator.remove();
+                if (null == finished) {
+                    finished = new ArrayList<>(2);
+                }
+                finished.add(reveal);
+            }
+        }
+        if (null != finished) {
+            for (PolylineReveal reveal : finished) {
+                finishReveal(reveal, true);
+            }
+        }
+        if (!reveals.isEmpty()) {
+            scheduleFrame();
+        }
+    }
+
+    @Override
+    public void onCameraChange(CameraPosition cameraPosition) {
+
+    }
+
+    @Override
+    public void onCameraChangeFinish(CameraPosition cameraPosition) {
+        if (null == cameraPosition) {
+            return;
+        }
+        int bucket = lodZoomBucket(cameraPosition.zoom);
+        final double[] viewport = ViewportClip.viewportOf(amap);
+        final boolean bucketChanged = bucket != lodZoomBucket;
+        lodZoomBucket = bucket;
+        final double pixelsPerUnit = bucketChanged ? lodPixelsPerUnit() : 0;
+        for (PolylineController polylineController : controllerMapByDartId.values()) {
+            if (bucketChanged) {
+                polylineController.applyLod(pixelsPerUnit);
+            }
+            if (polylineController.isClipEnabled()) {
+                polylineController.requestClip(viewport);
+            }
+            PolylineDecoration decoration = polylineController.getDecoration();
+            if (null != decoration) {
+                if (bucketChanged) {
+                    decoration.invalidate();
+                }
+                updateDecoration(polylineController, viewport);
+            }
+        }
+    }
+
+    /**
+     * 几何或选项变化后重新计算简化与裁剪
+     */
+    private void refresh(PolylineController polylineController) {
+        if (polylineController.isLodDirty()) {
+            requestLod(polylineController);
+        } else {
+            //重要度不依赖容差，容差变化时直接按新阈值重新选取顶点
+            polylineController.applyLod(lodPixelsPerUnit());
+        }
+        if (polylineController.isClipEnabled()) {
+            polylineController.requestClip(ViewportClip.viewportOf(amap));
+        }
+        if (null != polylineController.getDecoration()) {
+            updateDecoration(polylineController, ViewportClip.viewportOf(amap));
+        }
+    }
+
+    /**
+     * 源数据或缩放分桶变化后在后台线程重新摆放沿线图标，否则只按视口重新分配 Marker
+     */
+    private void updateDecoration(final PolylineController polylineController, double[] viewport) {
+        final PolylineDecoration decoration = polylineController.getDecoration();
+        if (!decoration.isDirty()) {
+            decoration.show(amap, viewport, polylineController.polyline.getZIndex(), polylineController.polyline.isVisible());
+            return;
+        }
+        final double spacingUnits = decoration.spacingUnits(decorationPixelsPerUnit());
+        if (spacingUnits <= 0) {
+            return;
+        }
+        final List<LatLng> points = polylineController.snapshotPoints();
+        final int generation = decoration.beginCompute();
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final double[] placements = PolylineDecoration.place(points, spacingUnits);
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!disposed && polylineController.getDecoration() == decoration
+                                && decoration.setPlacements(generation, placements)) {
+                            decoration.show(amap, ViewportClip.viewportOf(amap),
+                                    polylineController.polyline.getZIndex(), polylineController.polyline.isVisible());
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 源数据变化后在后台线程重新计算顶点重要度，完成后按当前缩放级别切换顶点
+     */
+    private void requestLod(final PolylineController polylineController) {
+        if (!polylineController.isLodEnabled() || !polylineController.isLodDirty()) {
+            return;
+        }
+        if (null == polylineController.getPoints()) {
+            return;
+        }
+        //源数据会被追加修改，后台线程使用快照
+        final List<LatLng> points = new ArrayList<>(polylineController.getPoints());
+        //只有追加时保留已有前缀的重要度，后台线程只处理新增的尾部
+        final double[] base = polylineController.getLodBase();
+        final int generation = polylineController.beginLodComputation();
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                final double[] significance = null != base
+                        ? PolylineLod.appendSignificance(base, points)
+                        : PolylineLod.computeSignificance(points);
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!disposed && polylineController.setLodSignificance(generation, significance)) {
+                            polylineController.applyLod(lodPixelsPerUnit());
+                            if (polylineController.isClipEnabled()) {
+                                polylineController.requestClip(ViewportClip.viewportOf(amap));
+                            }
+                            LogUtil.i(CLASS_NAME, "requestLod==> points=" + points.size());
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 同一个分桶内使用相同的容差，避免每次相机停止都重新设置顶点。
+     * 分桶取当前级别向上取整，保证简化结果不会粗于容差。
+     */
+    private static int lodZoomBucket(float zoom) {
+        return (int) Math.floor(zoom) + 1;
+    }
+
+    private double decorationPixelsPerUnit() {
+        final CameraPosition cameraPosition = null != amap ? amap.getCameraPosition() : null;
+        if (null == cameraPosition) {
+            return 0;
+        }
+        final int bucket = lodZoomBucket(cameraPosition.zoom);
+        if (bucket != decorationZoomBucket || decorationPixelsPerUnit <= 0) {
+            decorationPixelsPerUnit = lodPixelsPerUnit();
+            decorationZoomBucket = bucket;
+        }
+        return decorationPixelsPerUnit;
+    }
+
+    private double lodPixelsPerUnit() {
+        if (null == amap) {
+            return 0;
+        }
+        CameraPosition cameraPosition = amap.getCameraPosition();
+        if (null == cameraPosition || null == cameraPosition.target) {
+            return 0;
+        }
+        double pixelsPerUnit = GeometryUtil.pixelsPerMercatorUnit(amap.getScalePerPixel(), cameraPosition.target.latitude);
+        return pixelsPerUnit * Math.pow(2, lodZoomBucket(cameraPosition.zoom) - cameraPosition.zoom);
+    }
 }
@@ -0,0 +1,110 @@
+package com.amap.flutter.map.overlays.tileoverlay;
+
+import com.amap.api.maps.model.Tile;
+import com.amap.api.maps.model.TileProvider;
+import com.amap.flutter.map.utils.LogUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * URL tile provider backed by {@link TileDiskCache}
+ * P0 Optimization: tiles are fetched by the plugin so the disk budget can be enforced;
+ * the SDK's own disk cache is turned off for these overlays to avoid storing tiles twice
+ */
+class DiskCachedTileProvider implements TileProvider {
+    private static final String CLASS_NAME = "DiskCachedTileProvider";
+    private static final int TIMEOUT_MS = 10000;
+
+    private final String template;
+    private final int tileWidth;
+    private final int tileHeight;
+    private final TileDiskCache diskCache;
+
+    /**
+     * @param cacheRoot   parent directory of the per-template cache directories
+     * @param maxSizeInMb this overlay's disk budget; overlays sharing a template use the largest one
+     */
+    DiskCachedTileProvider(File cacheRoot, String template, int tileWidth, int tileHeight, int maxSizeInMb) {
+        this.template = template;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.diskCache = TileDiskCache.open(cacheRoot, template, this, maxSizeInMb);
+    }
+
+    void setMaxSize(int sizeInMb) {
+        diskCache.setMaxSize(this, sizeInMb);
+    }
+
+    /**
+     * Called when the overlay is removed, so its budget no longer counts
+     */
+    void release() {
+        diskCache.release(this);
+    }
+
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        final String key = zoom + "/" + x + "/" + y;
+        byte[] data = diskCache.get(key);
+        if (data == null) {
+            final String url = template
+                    .replace("{x}", String.valueOf(x))
+                    .replace("{y}", String.valueOf(y))
+                    .replace("{z}", String.valueOf(zoom));
+            try {
+                data = download(url);
+            } catch (IOException e) {
+                LogUtil.e(CLASS_NAME, "getTile " + key, e);
+                return NO_TILE;
+            }
+            if (data == null) {
+                return NO_TILE;
+            }
+            diskCache.put(key, data);
+        }
+        return new Tile(tileWidth, tileHeight, data);
+    }
+
+    @Override
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * @return tile bytes, null when the server has no tile
+     */
+    private static byte[] download(String url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MS);
+        connection.setReadTimeout(TIMEOUT_MS);
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+            final InputStream in = connection.getInputStream();
+            try {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return out.size() > 0 ? out.toByteArray() : null;
+            } finally {
+                in.close();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.amap.flutter.map.overlays.tileoverlay;
+
+import com.amap.flutter.map.utils.ConvertUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact style spec for vector tiles
+ * <pre>
+ * {
+ *   "background": 0xFFF5F5F5,
+ *   "layers": [
+ *     {"layer": "water", "type": "fill", "color": 0xFFA0C8F0, "outlineColor": 0xFF6090C0, "width": 1},
+ *     {"layer": "road", "type": "line", "color": 0xFFFFFFFF, "width": 2, "minZoom": 12,
+ *      "filter": {"key": "class", "in": ["primary", "secondary"]}},
+ *     {"layer": "poi", "type": "circle", "color": 0xFFE04040, "radius": 3}
+ *   ]
+ * }
+ * </pre>
+ * Rules are painted in order, so later rules draw on top. Widths and radii are in tile pixels.
+ */
+class MvtStyle {
+    static final int TYPE_FILL = 0;
+    static final int TYPE_LINE = 1;
+    static final int TYPE_CIRCLE = 2;
+
+    static class Rule {
+        String layer;
+        int type = TYPE_FILL;
+        int color = 0xFF000000;
+        // 0 means no outline for fills
+        int outlineColor = 0;
+        float width = 1f;
+        float radius = 3f;
+        float minZoom = 0f;
+        float maxZoom = Float.MAX_VALUE;
+        String filterKey;
+        List<?> filterValues;
+
+        boolean isVisibleAt(int zoom) {
+            return zoom >= minZoom && zoom <= maxZoom;
+        }
+
+        /**
+         * Geometry type check plus the optional property filter
+         */
+        boolean matches(MvtTile.Layer layer, MvtTile.Feature feature) {
+            switch (type) {
+                case TYPE_FILL:
+                    if (feature.type != MvtTile.GEOM_POLYGON) {
+                        return false;
+                    }
+                    break;
+                case TYPE_LINE:
+                    // Polygons are stroked along their rings
+                    if (feature.type != MvtTile.GEOM_LINESTRING && feature.type != MvtTile.GEOM_POLYGON) {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (feature.type != MvtTile.GEOM_POINT) {
+                        return false;
+                    }
+                    break;
+            }
+            if (null == filterKey) {
+                return true;
+            }
+            final Object value = layer.get(feature, filterKey);
+            if (null == value) {
+                return false;
+            }
+            for (Object expected : filterValues) {
+                if (valueEquals(expected, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    int background = 0;
+    final List<Rule> rules = new ArrayList<>();
+    final Set<String> layerNames = new HashSet<>();
+
+    static MvtStyle fromMap(Object o) {
+        final MvtStyle style = new MvtStyle();
+        if (null == o) {
+            return style;
+        }
+        final Map<?, ?> data = ConvertUtil.toMap(o);
+        final Object background = data.get("background");
+        if (background != null) {
+            style.background = ConvertUtil.toInt(background);
+        }
+        final Object layers = data.get("layers");
+        if (layers != null) {
+            for (Object item : ConvertUtil.toList(layers)) {
+                final Rule rule = toRule(ConvertUtil.toMap(item));
+                if (null != rule) {
+                    style.rules.add(rule);
+                    style.layerNames.add(rule.layer);
+                }
+            }
+        }
+        return style;
+    }
+
+    private static Rule toRule(Map<?, ?> data) {
+        final Object layer = data.get("layer");
+        if (!(layer instanceof String)) {
+            return null;
+        }
+        final Rule rule = new Rule();
+        rule.layer = (String) layer;
+        final Object type = data.get("type");
+        if ("line".equals(type)) {
+            rule.type = TYPE_LINE;
+        } else if ("circle".equals(type)) {
+            rule.type = TYPE_CIRCLE;
+        }
+        final Object color = data.get("color");
+        if (color != null) {
+            rule.color = ConvertUtil.toInt(color);
+        }
+        final Object outlineColor = data.get("outlineColor");
+        if (outlineColor != null) {
+            rule.outlineColor = ConvertUtil.toInt(outlineColor);
+        }
+        final Object width = data.get("width");
+        if (width != null) {
+            rule.width = ConvertUtil.toFloat(width);
+        }
+        final Object radius = data.get("radius");
+        if (radius != null) {
+            rule.radius = ConvertUtil.toFloat(radius);
+        }
+        final Object minZoom = data.get("minZoom");
+        if (minZoom != null) {
+            rule.minZoom = ConvertUtil.toFloat(minZoom);
+        }
+        final Object maxZoom = data.get("maxZoom");
+        if (maxZoom != null) {
+            rule.maxZoom = ConvertUtil.toFloat(maxZoom);
+        }
+        final Object filter = data.get("filter");
+        if (filter != null) {
+            final Map<?, ?> filterData = ConvertUtil.toMap(filter);
+            final Object key = filterData.get("key");
+            final Object in = filterData.get("in");
+            if (key instanceof String) {
+                rule.filterKey = (String) key;
+                rule.filterValues = null != in ? ConvertUtil.toList(in)
+                        : Collections.singletonList(filterData.get("equals"));
+            }
+        }
+        return rule;
+    }
+
+    /**
+     * Tile values decode as Long/Double/String/Boolean while Dart sends Integer/Double,
+     * so numbers are compared by value
+     */
+    private static boolean valueEquals(Object expected, Object actual) {
+        if (expected instanceof Number && actual instanceof Number) {
+            return ((Number) expected).doubleValue() == ((Number) actual).doubleValue();
+        }
+        return null != expected && expected.equals(actual);
+    }
+}
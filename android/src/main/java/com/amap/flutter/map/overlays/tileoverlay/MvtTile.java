@@ -0,0 +1,309 @@
+package com.amap.flutter.map.overlays.tileoverlay;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal Mapbox Vector Tile (protobuf) decoder
+ * <p>
+ * Reads the wire format directly instead of pulling in a protobuf runtime.
+ * Only layers referenced by the style are decoded; the layer name is looked up
+ * before its features are touched, so unused layers cost a single field scan.
+ * Geometry stays as the raw command stream and is turned into a Path at render time.
+ */
+class MvtTile {
+    static final int GEOM_UNKNOWN = 0;
+    static final int GEOM_POINT = 1;
+    static final int GEOM_LINESTRING = 2;
+    static final int GEOM_POLYGON = 3;
+
+    static final int CMD_MOVE_TO = 1;
+    static final int CMD_LINE_TO = 2;
+    static final int CMD_CLOSE_PATH = 7;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    static class Layer {
+        String name;
+        int extent = 4096;
+        final List<String> keys = new ArrayList<>();
+        final List<Object> values = new ArrayList<>();
+        final List<Feature> features = new ArrayList<>();
+
+        /**
+         * Resolve a property of a feature through the layer's key/value tables
+         */
+        Object get(Feature feature, String key) {
+            final int[] tags = feature.tags;
+            for (int i = 0; i + 1 < tags.length; i += 2) {
+                if (tags[i] < keys.size() && key.equals(keys.get(tags[i]))) {
+                    return tags[i + 1] < values.size() ? values.get(tags[i + 1]) : null;
+                }
+            }
+            return null;
+        }
+    }
+
+    static class Feature {
+        long id;
+        int type = GEOM_UNKNOWN;
+        int[] tags = new int[0];
+        int[] geometry = new int[0];
+    }
+
+    final Map<String, Layer> layers = new HashMap<>();
+
+    /**
+     * @param wanted layer names to decode, null decodes every layer
+     */
+    static MvtTile decode(byte[] data, Set<String> wanted) {
+        final MvtTile tile = new MvtTile();
+        final Reader reader = new Reader(data, 0, data.length);
+        while (reader.hasNext()) {
+            final int tag = reader.readVarint32();
+            if ((tag >>> 3) == 3 && (tag & 7) == WIRE_LENGTH) {
+                final Reader slice = reader.readMessage();
+                final String name = peekLayerName(slice.copy());
+                if (null != name && (null == wanted || wanted.contains(name))) {
+                    tile.layers.put(name, readLayer(slice));
+                }
+            } else {
+                reader.skip(tag & 7);
+            }
+        }
+        return tile;
+    }
+
+    private static String peekLayerName(Reader reader) {
+        while (reader.hasNext()) {
+            final int tag = reader.readVarint32();
+            if ((tag >>> 3) == 1 && (tag & 7) == WIRE_LENGTH) {
+                return reader.readString();
+            }
+            reader.skip(tag & 7);
+        }
+        return null;
+    }
+
+    private static Layer readLayer(Reader reader) {
+        final Layer layer = new Layer();
+        while (reader.hasNext()) {
+            final int tag = reader.readVarint32();
+            switch (tag >>> 3) {
+                case 1:
+                    layer.name = reader.readString();
+                    break;
+                case 2:
+                    layer.features.add(readFeature(reader.readMessage()));
+                    break;
+                case 3:
+                    layer.keys.add(reader.readString());
+                    break;
+                case 4:
+                    layer.values.add(readValue(reader.readMessage()));
+                    break;
+                case 5:
+                    layer.extent = reader.readVarint32();
+                    break;
+                default:
+                    reader.skip(tag & 7);
+                    break;
+            }
+        }
+        return layer;
+    }
+
+    private static Feature readFeature(Reader reader) {
+        final Feature feature = new Feature();
+        while (reader.hasNext()) {
+            final int tag = reader.readVarint32();
+            switch (tag >>> 3) {
+                case 1:
+                    feature.id = reader.readVarint64();
+                    break;
+                case 2:
+                    feature.tags = reader.readPackedVarints(tag & 7);
+                    break;
+                case 3:
+                    feature.type = reader.readVarint32();
+                    break;
+                case 4:
+                    feature.geometry = reader.readPackedVarints(tag & 7);
+                    break;
+                default:
+                    reader.skip(tag & 7);
+                    break;
+            }
+        }
+        return feature;
+    }
+
+    private static Object readValue(Reader reader) {
+        Object value = null;
+        while (reader.hasNext()) {
+            final int tag = reader.readVarint32();
+            switch (tag >>> 3) {
+                case 1:
+                    value = reader.readString();
+                    break;
+                case 2:
+                    value = (double) Float.intBitsToFloat(reader.readFixed32());
+                    break;
+                case 3:
+                    value = Double.longBitsToDouble(reader.readFixed64());
+                    break;
+                case 4:
+                case 5:
+                    value = reader.readVarint64();
+                    break;
+                case 6:
+                    final long raw = reader.readVarint64();
+                    value = (raw >>> 1) ^ -(raw & 1);
+                    break;
+                case 7:
+                    value = reader.readVarint64() != 0;
+                    break;
+                default:
+                    reader.skip(tag & 7);
+                    break;
+            }
+        }
+        return value;
+    }
+
+    static int zigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Cursor over a byte range of the tile buffer
+     */
+    private static class Reader {
+        private final byte[] data;
+        private int position;
+        private final int end;
+
+        Reader(byte[] data, int position, int end) {
+            this.data = data;
+            this.position = position;
+            this.end = end;
+        }
+
+        Reader copy() {
+            return new Reader(data, position, end);
+        }
+
+        boolean hasNext() {
+            return position < end;
+        }
+
+        long readVarint64() {
+            long result = 0;
+            int shift = 0;
+            while (shift < 64) {
+                checkBounds(1);
+                final byte b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+            }
+            throw new IllegalArgumentException("malformed varint");
+        }
+
+        int readVarint32() {
+            return (int) readVarint64();
+        }
+
+        int readFixed32() {
+            checkBounds(4);
+            final int value = (data[position] & 0xFF)
+                    | (data[position + 1] & 0xFF) << 8
+                    | (data[position + 2] & 0xFF) << 16
+                    | (data[position + 3] & 0xFF) << 24;
+            position += 4;
+            return value;
+        }
+
+        long readFixed64() {
+            final long low = readFixed32() & 0xFFFFFFFFL;
+            final long high = readFixed32() & 0xFFFFFFFFL;
+            return low | high << 32;
+        }
+
+        Reader readMessage() {
+            final int length = readVarint32();
+            checkBounds(length);
+            final Reader message = new Reader(data, position, position + length);
+            position += length;
+            return message;
+        }
+
+        String readString() {
+            final int length = readVarint32();
+            checkBounds(length);
+            final String value = new String(data, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * Packed repeated uint32; an unpacked single value is accepted as well
+         */
+        int[] readPackedVarints(int wireType) {
+            if (wireType == WIRE_VARINT) {
+                return new int[]{readVarint32()};
+            }
+            final Reader packed = readMessage();
+            int[] values = new int[Math.max(4, (packed.end - packed.position) / 2)];
+            int count = 0;
+            while (packed.hasNext()) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = packed.readVarint32();
+            }
+            return Arrays.copyOf(values, count);
+        }
+
+        void skip(int wireType) {
+            switch (wireType) {
+                case WIRE_VARINT:
+                    readVarint64();
+                    break;
+                case WIRE_FIXED64:
+                    checkBounds(8);
+                    position += 8;
+                    break;
+                case WIRE_LENGTH:
+                    final int length = readVarint32();
+                    checkBounds(length);
+                    position += length;
+                    break;
+                case WIRE_FIXED32:
+                    checkBounds(4);
+                    position += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unsupported wire type " + wireType);
+            }
+        }
+
+        private void checkBounds(int length) {
+            if (length < 0 || position + length > end) {
+                throw new IllegalArgumentException("truncated vector tile");
+            }
+        }
+    }
+}
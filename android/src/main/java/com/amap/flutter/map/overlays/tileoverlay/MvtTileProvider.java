@@ -0,0 +1,388 @@
+package com.amap.flutter.map.overlays.tileoverlay;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.LruCache;
+
+import com.amap.api.maps.model.Tile;
+import com.amap.api.maps.model.TileProvider;
+import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.LogUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * TileProvider that rasterizes Mapbox Vector Tiles on the device
+ * <p>
+ * Source template supports {z}/{x}/{y} (and {-y} for TMS layouts) with
+ * "asset://" (Flutter assets), "file://" or plain paths, and http(s) URLs.
+ * - Decoding and drawing run on the shared tile executor, bounded by maxConcurrentRequests
+ * - Rendered tiles are cached as encoded PNG, so the SDK hits skip decode and draw entirely
+ * - Decoded source tiles are cached separately; zooms above maxSourceZoom reuse
+ *   the parent tile and render the matching quadrant scaled up (overzoom)
+ */
+class MvtTileProvider implements TileProvider {
+    private static final String CLASS_NAME = "MvtTileProvider";
+    private static final String ASSET_PREFIX = "asset://";
+    private static final String FILE_PREFIX = "file://";
+    private static final int DECODED_CACHE_SIZE = 16;
+    private static final int CONNECT_TIMEOUT_MS = 10000;
+    // Cached marker for tiles that rendered nothing
+    private static final byte[] EMPTY = new byte[0];
+
+    private final WeakReference<Context> contextRef;
+    private final String template;
+    private final int tileWidth;
+    private final int tileHeight;
+    private volatile int maxSourceZoom;
+    private volatile MvtStyle style;
+    // Encoded output tiles keyed by z/x/y, null when memory cache is disabled
+    private final LruCache<String, byte[]> tileCache;
+    // Decoded source tiles, shared by overzoomed children
+    private final LruCache<String, MvtTile> sourceCache = new LruCache<>(DECODED_CACHE_SIZE);
+
+    MvtTileProvider(Context context, String template, int tileWidth, int tileHeight,
+                    MvtStyle style, int maxSourceZoom, int memoryCacheSize) {
+        this.contextRef = new WeakReference<>(context);
+        this.template = template;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.style = style;
+        this.maxSourceZoom = maxSourceZoom;
+        this.tileCache = memoryCacheSize > 0 ? new LruCache<String, byte[]>(memoryCacheSize) : null;
+    }
+
+    /**
+     * Swap the style; cached tiles are dropped, the caller clears the SDK tile cache
+     */
+    void setStyle(MvtStyle style) {
+        this.style = style;
+        if (tileCache != null) {
+            tileCache.evictAll();
+        }
+        // Source tiles only hold the layers the old style asked for
+        sourceCache.evictAll();
+    }
+
+    /**
+     * Change the highest zoom with source tiles; rendered tiles are dropped, the caller clears
+     * the SDK tile cache. Decoded source tiles stay valid since they are keyed by their own zoom
+     */
+    void setMaxSourceZoom(int maxSourceZoom) {
+        if (this.maxSourceZoom == maxSourceZoom) {
+            return;
+        }
+        this.maxSourceZoom = maxSourceZoom;
+        if (tileCache != null) {
+            tileCache.evictAll();
+        }
+    }
+
+    @Override
+    public Tile getTile(final int x, final int y, final int zoom) {
+        final String key = zoom + "/" + x + "/" + y;
+        if (tileCache != null) {
+            final byte[] cached = tileCache.get(key);
+            if (cached != null) {
+                return toTile(cached);
+            }
+        }
+        final MvtStyle current = style;
+        final int currentMaxSourceZoom = maxSourceZoom;
+        final Callable<byte[]> task = new Callable<byte[]>() {
+            @Override
+            public byte[] call() {
+                return render(x, y, zoom, currentMaxSourceZoom, current);
+            }
+        };
+        byte[] data;
+        try {
+            final ExecutorService executor = TileOverlayOptionsBuilder.getTileExecutor();
+            if (executor != null && !executor.isShutdown()) {
+                data = executor.submit(task).get();
+            } else {
+                data = task.call();
+            }
+        } catch (RejectedExecutionException e) {
+            data = render(x, y, zoom, currentMaxSourceZoom, current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return NO_TILE;
+        } catch (ExecutionException e) {
+            LogUtil.e(CLASS_NAME, "getTile", e.getCause());
+            return NO_TILE;
+        } catch (Exception e) {
+            LogUtil.e(CLASS_NAME, "getTile", e);
+            return NO_TILE;
+        }
+        // Skip caching if the style or source zoom changed while rendering
+        if (tileCache != null && current == style && currentMaxSourceZoom == maxSourceZoom) {
+            tileCache.put(key, data);
+        }
+        return toTile(data);
+    }
+
+    @Override
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    private Tile toTile(byte[] data) {
+        return data.length == 0 ? NO_TILE : new Tile(tileWidth, tileHeight, data);
+    }
+
+    /**
+     * Runs on the tile executor
+     */
+    private byte[] render(int x, int y, int zoom, int maxSourceZoom, MvtStyle style) {
+        final int sourceZoom = Math.min(zoom, maxSourceZoom);
+        final int shift = zoom - sourceZoom;
+        final int sourceX = x >> shift;
+        final int sourceY = y >> shift;
+        final MvtTile tile = loadSource(sourceZoom, sourceX, sourceY, style);
+        if (null == tile) {
+            return EMPTY;
+        }
+        final int scale = 1 << shift;
+        final float offsetX = (x - (sourceX << shift)) * (float) tileWidth;
+        final float offsetY = (y - (sourceY << shift)) * (float) tileHeight;
+
+        final Bitmap bitmap = Bitmap.createBitmap(tileWidth, tileHeight, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        boolean drawn = false;
+        if (style.background != 0) {
+            canvas.drawColor(style.background);
+            drawn = true;
+        }
+        for (MvtStyle.Rule rule : style.rules) {
+            if (!rule.isVisibleAt(zoom)) {
+                continue;
+            }
+            final MvtTile.Layer layer = tile.layers.get(rule.layer);
+            if (null == layer || layer.features.isEmpty()) {
+                continue;
+            }
+            final float factorX = tileWidth * scale / (float) layer.extent;
+            final float factorY = tileHeight * scale / (float) layer.extent;
+            if (rule.type == MvtStyle.TYPE_CIRCLE) {
+                paint.setStyle(Paint.Style.FILL);
+                paint.setColor(rule.color);
+                for (MvtTile.Feature feature : layer.features) {
+                    if (rule.matches(layer, feature)) {
+                        drawn |= drawPoints(canvas, paint, feature.geometry, rule.radius,
+                                factorX, factorY, offsetX, offsetY);
+                    }
+                }
+                continue;
+            }
+            // One path per rule keeps it to a single draw call per paint
+            final Path path = new Path();
+            boolean any = false;
+            for (MvtTile.Feature feature : layer.features) {
+                if (rule.matches(layer, feature)) {
+                    any |= appendPath(path, feature.geometry, factorX, factorY, offsetX, offsetY);
+                }
+            }
+            if (!any) {
+                continue;
+            }
+            if (rule.type == MvtStyle.TYPE_FILL) {
+                paint.setStyle(Paint.Style.FILL);
+                paint.setColor(rule.color);
+                canvas.drawPath(path, paint);
+                if (rule.outlineColor != 0) {
+                    paint.setStyle(Paint.Style.STROKE);
+                    paint.setColor(rule.outlineColor);
+                    paint.setStrokeWidth(rule.width);
+                    canvas.drawPath(path, paint);
+                }
+            } else {
+                paint.setStyle(Paint.Style.STROKE);
+                paint.setColor(rule.color);
+                paint.setStrokeWidth(rule.width);
+                canvas.drawPath(path, paint);
+            }
+            drawn = true;
+        }
+        if (!drawn) {
+            bitmap.recycle();
+            return EMPTY;
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        bitmap.recycle();
+        return out.toByteArray();
+    }
+
+    /**
+     * Replay MoveTo/LineTo/ClosePath commands into the path
+     *
+     * @return whether any vertex was added
+     */
+    private static boolean appendPath(Path path, int[] geometry, float factorX, float factorY,
+                                      float offsetX, float offsetY) {
+        int cursorX = 0;
+        int cursorY = 0;
+        boolean any = false;
+        int i = 0;
+        while (i < geometry.length) {
+            final int command = geometry[i++];
+            final int id = command & 7;
+            final int count = command >>> 3;
+            if (id == MvtTile.CMD_CLOSE_PATH) {
+                path.close();
+                continue;
+            }
+            if (id != MvtTile.CMD_MOVE_TO && id != MvtTile.CMD_LINE_TO) {
+                break;
+            }
+            for (int k = 0; k < count && i + 1 < geometry.length; k++) {
+                cursorX += MvtTile.zigZag(geometry[i++]);
+                cursorY += MvtTile.zigZag(geometry[i++]);
+                final float px = cursorX * factorX - offsetX;
+                final float py = cursorY * factorY - offsetY;
+                if (id == MvtTile.CMD_MOVE_TO) {
+                    path.moveTo(px, py);
+                } else {
+                    path.lineTo(px, py);
+                }
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    private boolean drawPoints(Canvas canvas, Paint paint, int[] geometry, float radius,
+                               float factorX, float factorY, float offsetX, float offsetY) {
+        int cursorX = 0;
+        int cursorY = 0;
+        boolean any = false;
+        int i = 0;
+        while (i < geometry.length) {
+            final int command = geometry[i++];
+            if ((command & 7) != MvtTile.CMD_MOVE_TO) {
+                break;
+            }
+            final int count = command >>> 3;
+            for (int k = 0; k < count && i + 1 < geometry.length; k++) {
+                cursorX += MvtTile.zigZag(geometry[i++]);
+                cursorY += MvtTile.zigZag(geometry[i++]);
+                final float px = cursorX * factorX - offsetX;
+                final float py = cursorY * factorY - offsetY;
+                // Points outside the tile (buffer area) still draw if the circle reaches in
+                if (px + radius >= 0 && px - radius <= tileWidth && py + radius >= 0 && py - radius <= tileHeight) {
+                    canvas.drawCircle(px, py, radius, paint);
+                    any = true;
+                }
+            }
+        }
+        return any;
+    }
+
+    private MvtTile loadSource(int zoom, int x, int y, MvtStyle style) {
+        final String key = zoom + "/" + x + "/" + y;
+        MvtTile tile = sourceCache.get(key);
+        if (tile != null) {
+            return tile;
+        }
+        try {
+            final byte[] data = readSource(zoom, x, y);
+            if (null == data) {
+                return null;
+            }
+            tile = MvtTile.decode(data, style.layerNames);
+        } catch (IOException | IllegalArgumentException e) {
+            LogUtil.e(CLASS_NAME, "loadSource " + key, e);
+            return null;
+        }
+        if (style == this.style) {
+            sourceCache.put(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * @return raw (gunzipped) tile bytes, null when the tile does not exist
+     */
+    private byte[] readSource(int zoom, int x, int y) throws IOException {
+        final String location = template
+                .replace("{z}", String.valueOf(zoom))
+                .replace("{x}", String.valueOf(x))
+                .replace("{y}", String.valueOf(y))
+                .replace("{-y}", String.valueOf((1 << zoom) - 1 - y));
+        InputStream in;
+        if (location.startsWith(ASSET_PREFIX)) {
+            final Context context = contextRef.get();
+            if (null == context) {
+                return null;
+            }
+            final String assetKey = ConvertUtil.getLookupKeyForAsset(context, location.substring(ASSET_PREFIX.length()));
+            try {
+                in = context.getAssets().open(assetKey);
+            } catch (IOException e) {
+                // Missing tiles are normal for sparse tile sets
+                return null;
+            }
+        } else if (location.startsWith("http://") || location.startsWith("https://")) {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(location).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(CONNECT_TIMEOUT_MS);
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                connection.disconnect();
+                return null;
+            }
+            in = connection.getInputStream();
+        } else {
+            final File file = new File(location.startsWith(FILE_PREFIX)
+                    ? location.substring(FILE_PREFIX.length()) : location);
+            if (!file.isFile()) {
+                return null;
+            }
+            in = new FileInputStream(file);
+        }
+        try {
+            final byte[] data = readFully(in);
+            // Tiles exported from mbtiles are usually gzipped
+            if (data.length > 2 && (data[0] & 0xFF) == 0x1F && (data[1] & 0xFF) == 0x8B) {
+                return readFully(new GZIPInputStream(new ByteArrayInputStream(data)));
+            }
+            return data;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
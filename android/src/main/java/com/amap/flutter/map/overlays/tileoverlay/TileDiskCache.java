@@ -0,0 +1,465 @@
+package com.amap.flutter.map.overlays.tileoverlay;
+
+import com.amap.flutter.map.utils.LogUtil;
+import com.amap.flutter.map.utils.ThreadUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * Plugin-owned LRU disk cache for tile bytes
+ * P0 Optimization: enforce diskCacheSize instead of letting the SDK grow tile_cache unbounded
+ * <p>
+ * - One namespace directory per URL template (hash of the template), shared by overlays using it
+ * - Access journal: append-only "W key size" / "R key" / "D key" lines, replayed into an
+ *   access-ordered index and compacted when it grows past twice the live entry count
+ * - Size accounting with LRU eviction down to the budget, the largest one among the overlays using it
+ * - Index is warm-loaded on a worker thread; lookups wait for it only until it is ready
+ */
+class TileDiskCache {
+    private static final String CLASS_NAME = "TileDiskCache";
+    private static final String JOURNAL = "journal";
+    private static final String JOURNAL_TMP = "journal.tmp";
+    private static final String TILE_SUFFIX = ".tile";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int MIN_COMPACT_LINES = 2000;
+    // Access lines are only ordering hints, flush them in batches
+    private static final int READ_FLUSH_INTERVAL = 32;
+
+    // One instance per namespace directory
+    private static final Map<String, TileDiskCache> instances = new HashMap<>();
+    private static final Executor WORKER = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            ThreadUtil.runOnWorker(command);
+        }
+    };
+
+    private final File directory;
+    private volatile long maxBytes;
+    // Budget of each live owner (tile provider); the largest one applies
+    private final Map<Object, Long> budgets = new HashMap<>();
+    private long size = 0;
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private Writer journal;
+    private int journalLines = 0;
+    private int pendingReads = 0;
+
+    /**
+     * Open (or reuse) the cache for a URL template; the index loads in the background
+     *
+     * @param root        parent directory, e.g. context cache dir / tile_cache
+     * @param owner       overlay-side owner of the budget, released with {@link #release(Object)}
+     * @param maxSizeInMb size budget in MB
+     */
+    static TileDiskCache open(File root, String urlTemplate, Object owner, int maxSizeInMb) {
+        return open(root, urlTemplate, owner, maxSizeInMb, WORKER);
+    }
+
+    /**
+     * @param loader runs the index load of a newly opened cache
+     */
+    static synchronized TileDiskCache open(File root, String urlTemplate, Object owner, int maxSizeInMb, Executor loader) {
+        final File directory = new File(root, namespaceOf(urlTemplate));
+        final String path = directory.getAbsolutePath();
+        TileDiskCache cache = instances.get(path);
+        if (cache == null) {
+            cache = new TileDiskCache(directory, toBytes(maxSizeInMb));
+            cache.budgets.put(owner, cache.maxBytes);
+            instances.put(path, cache);
+            final TileDiskCache loading = cache;
+            loader.execute(new Runnable() {
+                @Override
+                public void run() {
+                    loading.load();
+                }
+            });
+        } else {
+            cache.setMaxSize(owner, maxSizeInMb);
+        }
+        return cache;
+    }
+
+    static String namespaceOf(String urlTemplate) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(urlTemplate.getBytes(UTF_8));
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                builder.append(String.format("%02x", digest[i] & 0xFF));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(urlTemplate.hashCode());
+        }
+    }
+
+    private static long toBytes(int sizeInMb) {
+        return Math.max(1, sizeInMb) * 1024L * 1024L;
+    }
+
+    private TileDiskCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Change the budget of one owner; shrinking the largest budget evicts once the index is loaded
+     */
+    void setMaxSize(Object owner, int sizeInMb) {
+        synchronized (budgets) {
+            budgets.put(owner, toBytes(sizeInMb));
+            maxBytes = largestBudget();
+        }
+        trimIfReady();
+    }
+
+    /**
+     * The owner stopped using the cache; the remaining owners' budgets apply.
+     * With no owner left the last budget is kept for the files already on disk
+     */
+    void release(Object owner) {
+        synchronized (budgets) {
+            if (budgets.remove(owner) == null || budgets.isEmpty()) {
+                return;
+            }
+            maxBytes = largestBudget();
+        }
+        trimIfReady();
+    }
+
+    private long largestBudget() {
+        long largest = 0;
+        for (Long budget : budgets.values()) {
+            largest = Math.max(largest, budget);
+        }
+        return largest;
+    }
+
+    private void trimIfReady() {
+        // Never wait for the warm load here (called on the main thread); load() trims with the new budget
+        if (ready.getCount() == 0) {
+            synchronized (this) {
+                trimToSize();
+                flushJournal();
+            }
+        }
+    }
+
+    /**
+     * @return cached bytes, or null on miss
+     */
+    byte[] get(String key) {
+        if (!awaitReady()) {
+            return null;
+        }
+        synchronized (this) {
+            if (index.get(key) == null) {
+                return null;
+            }
+            appendJournal("R " + key);
+            if (++pendingReads >= READ_FLUSH_INTERVAL) {
+                flushJournal();
+            }
+        }
+        // Read outside the lock; a concurrent eviction just turns this into a miss
+        try {
+            return readFile(fileOf(key));
+        } catch (IOException e) {
+            synchronized (this) {
+                removeEntry(key);
+            }
+            return null;
+        }
+    }
+
+    void put(String key, byte[] data) {
+        if (!awaitReady() || data == null || data.length == 0) {
+            return;
+        }
+        // Write to a temp file first so readers never see a partial tile
+        final File file = fileOf(key);
+        final File tmp = new File(directory, key.replace('/', '_') + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            final FileOutputStream out = new FileOutputStream(tmp);
+            try {
+                out.write(data);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            LogUtil.e(CLASS_NAME, "put", e);
+            return;
+        }
+        synchronized (this) {
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                return;
+            }
+            final Long previous = index.put(key, (long) data.length);
+            if (previous != null) {
+                size -= previous;
+            }
+            size += data.length;
+            appendJournal("W " + key + " " + data.length);
+            trimToSize();
+            flushJournal();
+            compactIfNeeded();
+        }
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    private boolean awaitReady() {
+        try {
+            ready.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Runs on the worker thread: replay the journal, or rebuild it from the directory
+     */
+    private void load() {
+        try {
+            synchronized (this) {
+                if (!directory.exists()) {
+                    directory.mkdirs();
+                }
+                // Puts wait for the load, so any temp file left here was orphaned by a crash
+                deleteTempFiles();
+                final File journalFile = new File(directory, JOURNAL);
+                if (!journalFile.exists() || !replayJournal(journalFile)) {
+                    rebuildFromDirectory();
+                }
+                trimToSize();
+                rewriteJournal();
+            }
+            LogUtil.i(CLASS_NAME, "load " + directory.getName() + ", entries=" + index.size() + ", bytes=" + size);
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    private boolean replayJournal(File journalFile) {
+        index.clear();
+        size = 0;
+        try {
+            final BufferedReader reader = new BufferedReader(new FileReader(journalFile));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String[] parts = line.split(" ");
+                    if (parts.length == 3 && "W".equals(parts[0])) {
+                        final long length = Long.parseLong(parts[2]);
+                        final Long previous = index.put(parts[1], length);
+                        size += length - (previous != null ? previous : 0);
+                    } else if (parts.length == 2 && "R".equals(parts[0])) {
+                        // Touch for access order
+                        index.get(parts[1]);
+                    } else if (parts.length == 2 && "D".equals(parts[0])) {
+                        final Long previous = index.remove(parts[1]);
+                        if (previous != null) {
+                            size -= previous;
+                        }
+                    }
+                    // Unknown lines are a torn tail from a crash, ignore them
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | NumberFormatException e) {
+            LogUtil.e(CLASS_NAME, "replayJournal", e);
+            return false;
+        }
+        // Drop entries whose files went missing (e.g. cleared by the system)
+        final Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Long> entry = iterator.next();
+            if (!fileOf(entry.getKey()).isFile()) {
+                size -= entry.getValue();
+                iterator.remove();
+            }
+        }
+        return true;
+    }
+
+    private void deleteTempFiles() {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().endsWith(".tmp")) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Without a journal, order existing tiles by modification time
+     */
+    private void rebuildFromDirectory() {
+        index.clear();
+        size = 0;
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        final List<File> tiles = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (file.getName().endsWith(TILE_SUFFIX)) {
+                tiles.add(file);
+            }
+        }
+        final File[] sorted = tiles.toArray(new File[0]);
+        Arrays.sort(sorted, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : sorted) {
+            final String name = file.getName();
+            final String key = name.substring(0, name.length() - TILE_SUFFIX.length()).replace('_', '/');
+            index.put(key, file.length());
+            size += file.length();
+        }
+    }
+
+    private void trimToSize() {
+        final Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (size > maxBytes && iterator.hasNext()) {
+            final Map.Entry<String, Long> eldest = iterator.next();
+            fileOf(eldest.getKey()).delete();
+            size -= eldest.getValue();
+            appendJournal("D " + eldest.getKey());
+            iterator.remove();
+        }
+    }
+
+    private void removeEntry(String key) {
+        final Long previous = index.remove(key);
+        if (previous != null) {
+            size -= previous;
+            appendJournal("D " + key);
+            flushJournal();
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (journalLines > Math.max(MIN_COMPACT_LINES, index.size() * 2)) {
+            rewriteJournal();
+        }
+    }
+
+    /**
+     * Write the live index (eldest first) to a fresh journal and swap it in
+     */
+    private void rewriteJournal() {
+        closeJournal();
+        final File tmp = new File(directory, JOURNAL_TMP);
+        try {
+            final Writer writer = new BufferedWriter(new FileWriter(tmp));
+            try {
+                for (Map.Entry<String, Long> entry : index.entrySet()) {
+                    writer.write("W " + entry.getKey() + " " + entry.getValue() + "\n");
+                }
+            } finally {
+                writer.close();
+            }
+            if (!tmp.renameTo(new File(directory, JOURNAL))) {
+                throw new IOException("rename journal failed");
+            }
+            journalLines = index.size();
+            journal = new BufferedWriter(new FileWriter(new File(directory, JOURNAL), true));
+        } catch (IOException e) {
+            LogUtil.e(CLASS_NAME, "rewriteJournal", e);
+            journal = null;
+        }
+    }
+
+    private void appendJournal(String line) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.write(line);
+            journal.write('\n');
+            journalLines++;
+        } catch (IOException e) {
+            LogUtil.e(CLASS_NAME, "appendJournal", e);
+        }
+    }
+
+    private void flushJournal() {
+        pendingReads = 0;
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            LogUtil.e(CLASS_NAME, "flushJournal", e);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException ignored) {
+        }
+        journal = null;
+    }
+
+    private File fileOf(String key) {
+        return new File(directory, key.replace('/', '_') + TILE_SUFFIX);
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final byte[] data = new byte[(int) file.length()];
+            int offset = 0;
+            while (offset < data.length) {
+                final int read = in.read(data, offset, data.length - offset);
+                if (read == -1) {
+                    throw new IOException("truncated tile " + file.getName());
+                }
+                offset += read;
+            }
+            return data;
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -18,15 +18,38 @@ public class TileOverlayController implements TileOverlayOptionsSink {
     private int memoryCacheSize = 50;
     private int preloadMargin = 1;
     private int maxConcurrentRequests = 4;
+    // -1 follows maxZoom
+    private int maxSourceZoom = -1;
+    private MvtTileProvider mvtTileProvider;
+    private DiskCachedTileProvider diskCachedTileProvider;
 
     public TileOverlayController(TileOverlay tileOverlay) {
         this.tileOverlay = tileOverlay;
     }
 
+    void setMvtTileProvider(MvtTileProvider mvtTileProvider) {
+        this.mvtTileProvider = mvtTileProvider;
+    }
+
+    void setDiskCachedTileProvider(DiskCachedTileProvider diskCachedTileProvider) {
+        this.diskCachedTileProvider = diskCachedTileProvider;
+    }
+
     public void remove() {
         if (tileOverlay != null) {
             tileOverlay.remove();
         }
+        release();
+    }
+
+    /**
+     * Drop this overlay's share of the plugin-owned disk budget
+     */
+    void release() {
+        if (diskCachedTileProvider != null) {
+            diskCachedTileProvider.release();
+            diskCachedTileProvider = null;
+        }
     }
 
     public String getTileOverlayId() {
@@ -84,6 +107,7 @@ public class TileOverlayController implements TileOverlayOptionsSink {
     @Override
     public void setMaxZoom(int maxZoom) {
         this.maxZoom = maxZoom;
+        applyMaxSourceZoom();
     }
 
     @Override
@@ -94,6 +118,10 @@ public class TileOverlayController implements TileOverlayOptionsSink {
     @Override
     public void setDiskCacheSize(int size) {
         this.diskCacheSize = size;
+        // P0: Apply the new budget to the plugin-owned cache, evicting if it shrank
+        if (diskCachedTileProvider != null) {
+            diskCachedTileProvider.setMaxSize(size);
+        }
     }
 
     @Override
@@ -116,6 +144,27 @@ public class TileOverlayController implements TileOverlayOptionsSink {
         this.maxConcurrentRequests = count;
     }
 
+    @Override
+    public void setMvtStyle(MvtStyle style) {
+        // Only vector overlays can restyle in place; the caller clears the SDK tile cache afterwards
+        if (mvtTileProvider != null) {
+            mvtTileProvider.setStyle(style);
+        }
+    }
+
+    @Override
+    public void setMaxSourceZoom(int zoom) {
+        this.maxSourceZoom = zoom;
+        applyMaxSourceZoom();
+    }
+
+    private void applyMaxSourceZoom() {
+        // Vector overlays re-render in place; the caller clears the SDK tile cache afterwards
+        if (mvtTileProvider != null) {
+            mvtTileProvider.setMaxSourceZoom(maxSourceZoom >= 0 ? maxSourceZoom : maxZoom);
+        }
+    }
+
     public String getUrlTemplate() {
         return urlTemplate;
     }
@@ -18,6 +18,10 @@ import java.util.concurrent.Executors;
  * - P1: Preload strategy, Concurrent request control
  */
 public class TileOverlayOptionsBuilder implements TileOverlayOptionsSink {
+    // SDK-managed cache, used when the plugin cannot own the tiles
+    private static final String SDK_CACHE_DIR = "tile_cache";
+    // P0: Kept apart from the SDK directory so neither side deletes the other's files
+    private static final String PLUGIN_CACHE_DIR = "tile_lru_cache";
     private String urlTemplate;
     private int tileWidth = 256;
     private int tileHeight = 256;
@@ -32,6 +36,10 @@ public class TileOverlayOptionsBuilder implements TileOverlayOptionsSink {
     private int memoryCacheSize = 50;  // tiles count
     private int preloadMargin = 1;  // P1: preload surrounding tiles
     private int maxConcurrentRequests = 4;  // P1: concurrent request control
+    private MvtStyle mvtStyle;  // non-null renders urlTemplate as vector tiles
+    private int maxSourceZoom = -1;  // highest zoom with source tiles, -1 follows maxZoom
+    private MvtTileProvider mvtTileProvider;
+    private DiskCachedTileProvider diskCachedTileProvider;
 
     // P0: Memory cache for tile URLs (LRU cache)
     private static LruCache<String, URL> urlCache;
@@ -109,6 +117,16 @@ public class TileOverlayOptionsBuilder implements TileOverlayOptionsSink {
         this.maxConcurrentRequests = count;
     }
 
+    @Override
+    public void setMvtStyle(MvtStyle style) {
+        this.mvtStyle = style;
+    }
+
+    @Override
+    public void setMaxSourceZoom(int zoom) {
+        this.maxSourceZoom = zoom;
+    }
+
     /**
      * Initialize URL cache with specified size
      * P0 Optimization: Memory cache for parsed URLs
@@ -155,8 +173,19 @@ public class TileOverlayOptionsBuilder implements TileOverlayOptionsSink {
         // P1: Initialize executor for parallel loading
         initExecutor();
 
-        // Create URL tile provider with optimizations
-        if (urlTemplate != null && !urlTemplate.isEmpty()) {
+        if (urlTemplate != null && !urlTemplate.isEmpty() && mvtStyle != null) {
+            // Vector tiles are decoded and rasterized on device
+            mvtTileProvider = new MvtTileProvider(context, urlTemplate, tileWidth, tileHeight, mvtStyle,
+                    maxSourceZoom >= 0 ? maxSourceZoom : maxZoom,
+                    memoryCacheEnabled ? (memoryCacheSize > 0 ? memoryCacheSize : 50) : 0);
+            options.tileProvider(mvtTileProvider);
+        } else if (urlTemplate != null && urlTemplate.startsWith("http") && diskCacheEnabled && context != null) {
+            // P0: Plugin-owned disk cache enforcing diskCacheSize, namespaced by URL template
+            diskCachedTileProvider = new DiskCachedTileProvider(getCacheRoot(context, PLUGIN_CACHE_DIR),
+                    urlTemplate, tileWidth, tileHeight, diskCacheSize);
+            options.tileProvider(diskCachedTileProvider);
+        } else if (urlTemplate != null && !urlTemplate.isEmpty()) {
+            // Create URL tile provider with optimizations
             final String template = urlTemplate;
             final boolean useMemoryCache = memoryCacheEnabled && urlCache != null;
 
@@ -196,15 +225,11 @@ public class TileOverlayOptionsBuilder implements TileOverlayOptionsSink {
         options.visible(visible);
         options.zIndex(zIndex);
 
-        // P0: Configure disk cache
-        options.diskCacheEnabled(diskCacheEnabled);
-        if (context != null && diskCacheEnabled) {
+        // P0: Configure disk cache; tiles from the plugin-owned cache must not be stored twice
+        options.diskCacheEnabled(diskCacheEnabled && diskCachedTileProvider == null);
+        if (context != null && diskCacheEnabled && diskCachedTileProvider == null) {
             // Use app-specific cache directory
-            File cacheDir = new File(context.getCacheDir(), "tile_cache");
-            if (!cacheDir.exists()) {
-                cacheDir.mkdirs();
-            }
-            options.diskCacheDir(cacheDir.getAbsolutePath());
+            options.diskCacheDir(getCacheRoot(context, SDK_CACHE_DIR).getAbsolutePath());
         }
 
         // P0: Configure memory cache
@@ -213,6 +238,14 @@ public class TileOverlayOptionsBuilder implements TileOverlayOptionsSink {
         return options;
     }
 
+    private static File getCacheRoot(Context context, String name) {
+        File cacheDir = new File(context.getCacheDir(), name);
+        if (!cacheDir.exists()) {
+            cacheDir.mkdirs();
+        }
+        return cacheDir;
+    }
+
     public String getUrlTemplate() {
         return urlTemplate;
     }
@@ -269,6 +302,18 @@ public class TileOverlayOptionsBuilder implements TileOverlayOptionsSink {
         return maxConcurrentRequests;
     }
 
+    public int getMaxSourceZoom() {
+        return maxSourceZoom;
+    }
+
+    MvtTileProvider getMvtTileProvider() {
+        return mvtTileProvider;
+    }
+
+    DiskCachedTileProvider getDiskCachedTileProvider() {
+        return diskCachedTileProvider;
+    }
+
     /**
      * Clear all caches and shutdown executor
      * Call this when cleaning up resources
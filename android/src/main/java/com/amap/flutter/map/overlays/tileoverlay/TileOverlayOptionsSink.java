@@ -18,4 +18,6 @@ public interface TileOverlayOptionsSink {
     void setMemoryCacheSize(int size);
     void setPreloadMargin(int margin);
     void setMaxConcurrentRequests(int count);
+    void setMvtStyle(MvtStyle style);
+    void setMaxSourceZoom(int zoom);
 }
@@ -44,6 +44,16 @@ public class TileOverlayUtil {
                 if (tileHeight != null) {
                     sink.setTileHeight(ConvertUtil.toInt(tileHeight));
                 }
+
+                // Vector tiles: urlTemplate points at .pbf/.mvt sources rendered on device
+                if ("mvt".equals(tileProvider.get("type"))) {
+                    sink.setMvtStyle(MvtStyle.fromMap(tileProvider.get("style")));
+                }
+
+                Object maxSourceZoom = tileProvider.get("maxSourceZoom");
+                if (maxSourceZoom != null) {
+                    sink.setMaxSourceZoom(ConvertUtil.toInt(maxSourceZoom));
+                }
             }
         }
 
@@ -49,6 +49,15 @@ public class TileOverlaysController
         return contextRef != null ? contextRef.get() : null;
     }
 
+    /**
+     * Called when the map view is disposed: release the disk budgets held by its overlays
+     */
+    public void dispose() {
+        for (TileOverlayController tileOverlayController : controllerMapByDartId.values()) {
+            tileOverlayController.release();
+        }
+    }
+
     @Override
     public String[] getRegisterMethodIdArray() {
         return Const.METHOD_ID_LIST_FOR_TILE_OVERLAY;
@@ -118,6 +127,11 @@ public class TileOverlaysController
                 // P1: Store preload and concurrency settings
                 tileOverlayController.setPreloadMargin(builder.getPreloadMargin());
                 tileOverlayController.setMaxConcurrentRequests(builder.getMaxConcurrentRequests());
+                // Keep the vector provider so style updates can re-render in place
+                tileOverlayController.setMvtTileProvider(builder.getMvtTileProvider());
+                tileOverlayController.setMaxSourceZoom(builder.getMaxSourceZoom());
+                // P0: Disk budget updates go to the plugin-owned cache
+                tileOverlayController.setDiskCachedTileProvider(builder.getDiskCachedTileProvider());
 
                 controllerMapByDartId.put(dartId, tileOverlayController);
                 idMapByOverlyId.put(tileOverlay.getId(), dartId);
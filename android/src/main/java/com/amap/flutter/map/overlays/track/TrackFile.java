@@ -0,0 +1,97 @@
+package com.amap.flutter.map.overlays.track;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 二进制轨迹文件，通过 MappedByteBuffer 按需读取，不整体加载到堆内存
+ * <p>
+ * 文件由定长记录组成，每条 20 字节，时间升序：
+ * <pre>
+ * int64   time     毫秒
+ * int32   lat      纬度 * 1e7
+ * int32   lng      经度 * 1e7
+ * float32 heading  方向，正北顺时针（度）
+ * </pre>
+ * 默认小端字节序。
+ */
+class TrackFile {
+    static final int RECORD_SIZE = 20;
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    private TrackFile(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.count = buffer.capacity() / RECORD_SIZE;
+    }
+
+    /**
+     * 映射文件，会访问磁盘，应在后台线程调用
+     */
+    static TrackFile open(String path, ByteOrder byteOrder) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            //映射建立后关闭文件不影响读取
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(byteOrder);
+            TrackFile trackFile = new TrackFile(buffer);
+            if (trackFile.count < 1) {
+                throw new IOException("Track file has no records: " + path);
+            }
+            return trackFile;
+        } finally {
+            file.close();
+        }
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long time(int index) {
+        return buffer.getLong(index * RECORD_SIZE);
+    }
+
+    double latitude(int index) {
+        return buffer.getInt(index * RECORD_SIZE + 8) / COORDINATE_SCALE;
+    }
+
+    double longitude(int index) {
+        return buffer.getInt(index * RECORD_SIZE + 12) / COORDINATE_SCALE;
+    }
+
+    float heading(int index) {
+        return buffer.getFloat(index * RECORD_SIZE + 16);
+    }
+
+    long getStartTime() {
+        return time(0);
+    }
+
+    long getEndTime() {
+        return time(count - 1);
+    }
+
+    /**
+     * 时间不晚于 time 的最后一条记录，早于第一条时返回 0
+     */
+    int indexAt(long time) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (time(mid) <= time) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
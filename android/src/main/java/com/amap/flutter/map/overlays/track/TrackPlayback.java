@@ -0,0 +1,315 @@
+package com.amap.flutter.map.overlays.track;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.Marker;
+import com.amap.api.maps.model.Polyline;
+import com.amap.flutter.map.overlays.polyline.PolylineLod;
+import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一条轨迹的回放状态
+ * <p>
+ * 回放时间按帧间隔 * 倍速推进，Marker 在相邻两条记录之间按时间插值，每帧移动；
+ * 折线只在经过新的记录时追加顶点，不随插值点每帧重设。
+ * <p>
+ * 走过的部分分成两条折线：尾部折线只保存最近的记录，经过新记录时重设；
+ * 尾部超过 {@link #MAX_TAIL_POINTS} 后并入历史折线。历史折线按当前缩放分桶简化，
+ * 并入时只计算新并入的一段，顶点数超过 {@link #MAX_HISTORY_POINTS} 时放宽容差，
+ * 因此每次重设的顶点数有上限，不随轨迹变长。
+ */
+class TrackPlayback {
+    //尾部折线的记录数上限
+    private static final int MAX_TAIL_POINTS = 256;
+    //历史折线的顶点数上限
+    private static final int MAX_HISTORY_POINTS = 2000;
+    //历史折线的简化容差（dp）
+    private static final float HISTORY_TOLERANCE = 1;
+    //没有比例尺时放宽容差的起点（墨卡托单位，约 4 厘米）
+    private static final double MIN_THRESHOLD = 1e-9;
+
+    final String trackId;
+    private final TrackFile file;
+    private final Marker marker;
+    //尾部折线
+    private final Polyline polyline;
+    //历史折线
+    private final Polyline history;
+
+    private double speed = 1;
+    private boolean loop = false;
+    private boolean playing = true;
+    //当前回放到的轨迹时间（毫秒，与文件中的时间同一基准）
+    private double time;
+    private long lastFrameNanos = -1;
+    //折线上已经显示的记录数
+    private int drawnCount = 0;
+    //已经并入历史折线的记录数，尾部折线从最后一条并入的记录开始
+    private int foldedCount = 0;
+    //历史记录的重要度（墨卡托单位），有效长度为 foldedCount
+    private double[] significance = new double[0];
+    //一个墨卡托单位对应的像素数，按缩放分桶
+    private double pixelsPerUnit = 0;
+    //历史折线当前使用的简化阈值（墨卡托单位）
+    private double threshold = 0;
+    private final ArrayList<LatLng> tailPoints = new ArrayList<>();
+    private final ArrayList<LatLng> historyPoints = new ArrayList<>();
+    private LatLng position;
+    private float heading;
+
+    TrackPlayback(String trackId, TrackFile file, Marker marker, Polyline polyline, Polyline history) {
+        this.trackId = trackId;
+        this.file = file;
+        this.marker = marker;
+        this.polyline = polyline;
+        this.history = history;
+        this.time = file.getStartTime();
+    }
+
+    /**
+     * 缩放分桶变化后按新的比例尺重新简化历史折线
+     */
+    void setPixelsPerUnit(double pixelsPerUnit) {
+        if (pixelsPerUnit == this.pixelsPerUnit) {
+            return;
+        }
+        this.pixelsPerUnit = pixelsPerUnit;
+        threshold = baseThreshold();
+        if (foldedCount > 0) {
+            selectHistory();
+        }
+    }
+
+    void setSpeed(double speed) {
+        this.speed = Math.max(0, speed);
+    }
+
+    void setLoop(boolean loop) {
+        this.loop = loop;
+    }
+
+    boolean isPlaying() {
+        return playing;
+    }
+
+    void pause() {
+        playing = false;
+    }
+
+    void resume() {
+        playing = true;
+        //暂停期间的时间不计入
+        lastFrameNanos = -1;
+    }
+
+    /**
+     * @param offset 相对第一条记录的时间（毫秒）
+     */
+    void seek(long offset) {
+        time = Math.max(file.getStartTime(), Math.min(file.getEndTime(), file.getStartTime() + (double) offset));
+        final int index = file.indexAt((long) time);
+        if (index + 1 < drawnCount) {
+            reset();
+        }
+        render(true);
+    }
+
+    /**
+     * 推进一帧
+     *
+     * @return 是否播放到结尾（循环播放时不会结束）
+     */
+    boolean step(long frameTimeNanos) {
+        if (!playing) {
+            return false;
+        }
+        if (lastFrameNanos >= 0) {
+            time += (frameTimeNanos - lastFrameNanos) / 1e6 * speed;
+        }
+        lastFrameNanos = frameTimeNanos;
+        boolean ended = false;
+        if (time >= file.getEndTime()) {
+            if (loop) {
+                time = file.getStartTime();
+                reset();
+            } else {
+                time = file.getEndTime();
+                playing = false;
+                ended = true;
+            }
+        }
+        render(false);
+        return ended;
+    }
+
+    private void render(boolean force) {
+        final int index = file.indexAt((long) time);
+        //把经过的记录追加到折线
+        if (index + 1 > drawnCount || force) {
+            if (index + 1 - foldedCount > MAX_TAIL_POINTS) {
+                fold(index + 1);
+                tailPoints.clear();
+                tailPoints.add(recordAt(index));
+            } else {
+                for (int i = Math.max(drawnCount, Math.max(0, foldedCount - 1)); i <= index; i++) {
+                    tailPoints.add(recordAt(i));
+                }
+            }
+            drawnCount = index + 1;
+            polyline.setPoints(tailPoints);
+        }
+        final double lat0 = file.latitude(index);
+        final double lng0 = file.longitude(index);
+        if (index + 1 < file.getCount()) {
+            final long t0 = file.time(index);
+            final long t1 = file.time(index + 1);
+            final double fraction = t1 > t0 ? Math.max(0, Math.min(1, (time - t0) / (t1 - t0))) : 0;
+            position = new LatLng(lat0 + (file.latitude(index + 1) - lat0) * fraction,
+                    lng0 + (file.longitude(index + 1) - lng0) * fraction);
+            heading = interpolateHeading(file.heading(index), file.heading(index + 1), fraction);
+        } else {
+            position = new LatLng(lat0, lng0);
+            heading = file.heading(index);
+        }
+        marker.setPosition(position);
+        //Marker 的旋转角度为逆时针
+        marker.setRotateAngle((360 - heading) % 360);
+    }
+
+    private LatLng recordAt(int index) {
+        return new LatLng(file.latitude(index), file.longitude(index));
+    }
+
+    private void reset() {
+        drawnCount = 0;
+        foldedCount = 0;
+        threshold = baseThreshold();
+        tailPoints.clear();
+        historyPoints.clear();
+        history.setPoints(historyPoints);
+    }
+
+    private double baseThreshold() {
+        return pixelsPerUnit > 0 ? HISTORY_TOLERANCE * ConvertUtil.density / pixelsPerUnit : 0;
+    }
+
+    /**
+     * 把记录 [foldedCount, count) 并入历史折线，只对新并入的一段做 Douglas-Peucker
+     */
+    private void fold(int count) {
+        final int from = Math.max(0, foldedCount - 1);
+        final List<LatLng> chunk = new ArrayList<>(count - from);
+        for (int i = from; i < count; i++) {
+            chunk.add(recordAt(i));
+        }
+        final double[] chunkSignificance = PolylineLod.computeSignificance(chunk);
+        if (significance.length < count) {
+            final double[] grown = new double[Math.max(count, significance.length * 2)];
+            System.arraycopy(significance, 0, grown, 0, foldedCount);
+            significance = grown;
+        }
+        System.arraycopy(chunkSignificance, 0, significance, from, chunkSignificance.length);
+        significance[0] = Double.POSITIVE_INFINITY;
+        //接缝记录之前是历史的终点（始终保留），改为它到相邻两点连线的距离
+        final int joint = foldedCount - 1;
+        if (joint > 0) {
+            significance[joint] = Math.sqrt(PolylineLod.segmentDistanceSquared(
+                    mercatorX(joint), mercatorY(joint),
+                    mercatorX(joint - 1), mercatorY(joint - 1),
+                    mercatorX(joint + 1), mercatorY(joint + 1)));
+            if (significance[joint] <= threshold && !historyPoints.isEmpty()) {
+                historyPoints.remove(historyPoints.size() - 1);
+            }
+        }
+        for (int i = foldedCount; i < count; i++) {
+            if (significance[i] > threshold) {
+                historyPoints.add(recordAt(i));
+            }
+        }
+        foldedCount = count;
+        if (historyPoints.size() > MAX_HISTORY_POINTS) {
+            selectHistory();
+        } else {
+            history.setPoints(historyPoints);
+        }
+    }
+
+    /**
+     * 按阈值重新挑选历史折线的顶点，超过上限时逐级放宽阈值
+     */
+    private void selectHistory() {
+        int kept = countAbove(threshold);
+        while (kept > MAX_HISTORY_POINTS) {
+            threshold = threshold > 0 ? threshold * 2 : MIN_THRESHOLD;
+            kept = countAbove(threshold);
+        }
+        historyPoints.clear();
+        historyPoints.ensureCapacity(kept);
+        for (int i = 0; i < foldedCount; i++) {
+            if (significance[i] > threshold) {
+                historyPoints.add(recordAt(i));
+            }
+        }
+        history.setPoints(historyPoints);
+    }
+
+    private int countAbove(double value) {
+        int kept = 0;
+        for (int i = 0; i < foldedCount; i++) {
+            if (significance[i] > value) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    private double mercatorX(int index) {
+        return GeometryUtil.mercatorX(file.longitude(index));
+    }
+
+    private double mercatorY(int index) {
+        return GeometryUtil.mercatorY(file.latitude(index));
+    }
+
+    /**
+     * 沿较短的方向插值角度
+     */
+    private static float interpolateHeading(float from, float to, double fraction) {
+        float delta = ((to - from) % 360 + 540) % 360 - 180;
+        return (float) (((from + delta * fraction) % 360 + 360) % 360);
+    }
+
+    Map<String, Object> toProgressMap() {
+        final Map<String, Object> data = new HashMap<>(8);
+        final long duration = file.getEndTime() - file.getStartTime();
+        final long offset = (long) time - file.getStartTime();
+        data.put("id", trackId);
+        data.put("time", (long) time);
+        data.put("offset", offset);
+        data.put("fraction", duration > 0 ? (double) offset / duration : 1.0);
+        data.put("position", null != position ? ConvertUtil.latLngToList(position) : null);
+        data.put("heading", heading);
+        data.put("playing", playing);
+        return data;
+    }
+
+    Map<String, Object> toInfoMap() {
+        final Map<String, Object> data = new HashMap<>(4);
+        data.put("id", trackId);
+        data.put("count", file.getCount());
+        data.put("startTime", file.getStartTime());
+        data.put("endTime", file.getEndTime());
+        return data;
+    }
+
+    void remove() {
+        marker.remove();
+        polyline.remove();
+        history.remove();
+    }
+}
@@ -0,0 +1,309 @@
+package com.amap.flutter.map.overlays.track;
+
+import android.text.TextUtils;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.CameraPosition;
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.Marker;
+import com.amap.api.maps.model.MarkerOptions;
+import com.amap.api.maps.model.Polyline;
+import com.amap.api.maps.model.PolylineOptions;
+import com.amap.flutter.map.MyMethodCallHandler;
+import com.amap.flutter.map.overlays.AbstractOverlayController;
+import com.amap.flutter.map.utils.Const;
+import com.amap.flutter.map.utils.ConvertUtil;
+import com.amap.flutter.map.utils.GeometryUtil;
+import com.amap.flutter.map.utils.LogUtil;
+import com.amap.flutter.map.utils.ThreadUtil;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * 轨迹回放
+ * <p>
+ * 轨迹从本地二进制文件读取（格式见 {@link TrackFile}），Marker 与折线由原生侧逐帧驱动，
+ * 只按 progressInterval 向 Dart 发送进度，结束时发送 track#onEnd。
+ */
+public class TrackPlaybackController
+        extends AbstractOverlayController<TrackPlayback>
+        implements MyMethodCallHandler,
+        AMap.OnCameraChangeListener,
+        Choreographer.FrameCallback {
+
+    private static final String CLASS_NAME = "TrackPlaybackController";
+    //默认进度回调间隔（毫秒）
+    private static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+
+    private boolean frameScheduled = false;
+    private int progressInterval = DEFAULT_PROGRESS_INTERVAL;
+    private long lastProgressNanos = 0;
+    //正在打开文件的轨迹及其请求序号，期间 stop 或再次 start 时旧请求作废
+    private final Map<String, Integer> startGenerations = new HashMap<>(4);
+    private int startGeneration = 0;
+    //历史折线简化使用的缩放分桶
+    private int zoomBucket = Integer.MIN_VALUE;
+
+    public TrackPlaybackController(MethodChannel methodChannel, AMap amap) {
+        super(methodChannel, amap);
+        amap.addOnCameraChangeListener(this);
+    }
+
+    /**
+     * 地图销毁时调用：停止所有轨迹与逐帧回调，正在打开的文件结果作废
+     */
+    public void dispose() {
+        if (frameScheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            frameScheduled = false;
+        }
+        startGenerations.clear();
+        controllerMapByDartId.clear();
+    }
+
+    @Override
+    public String[] getRegisterMethodIdArray() {
+        return Const.METHOD_ID_LIST_FOR_TRACK;
+    }
+
+    @Override
+    public void doMethodCall(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+        LogUtil.i(CLASS_NAME, "doMethodCall===>" + call.method);
+        String methodStr = call.method;
+        if (Const.METHOD_TRACK_START.equals(methodStr)) {
+            start(call, result);
+            return;
+        }
+        String trackId = call.argument("id");
+        TrackPlayback playback = null != trackId ? controllerMapByDartId.get(trackId) : null;
+        if (null == playback && !Const.METHOD_TRACK_STOP.equals(methodStr)) {
+            LogUtil.w(CLASS_NAME, "doMethodCall==> track not found, id=" + trackId);
+            result.success(null);
+            return;
+        }
+        switch (methodStr) {
+            case Const.METHOD_TRACK_PAUSE:
+                playback.pause();
+                break;
+            case Const.METHOD_TRACK_RESUME:
+                playback.resume();
+                scheduleFrame();
+                break;
+            case Const.METHOD_TRACK_SEEK:
+                Object offset = call.argument("offset");
+                if (null != offset) {
+                    playback.seek(((Number) offset).longValue());
+                }
+                break;
+            case Const.METHOD_TRACK_SET_SPEED:
+                Object speed = call.argument("speed");
+                if (null != speed) {
+                    playback.setSpeed(ConvertUtil.toDouble(speed));
+                }
+                break;
+            case Const.METHOD_TRACK_STOP:
+                startGenerations.remove(trackId);
+                if (null != playback) {
+                    controllerMapByDartId.remove(trackId);
+                    playback.remove();
+                }
+                break;
+        }
+        result.success(null);
+    }
+
+    /**
+     * 在后台线程映射文件，完成后在主线程创建 Marker、折线并开始播放
+     *
+     * @param call id, path: 轨迹文件路径, speed: 倍速, loop: 是否循环, bigEndian: 文件是否为大端,
+     *             progressInterval: 进度回调间隔（毫秒）, icon: Marker 图标, width/color: 折线样式
+     */
+    private void start(MethodCall call, final MethodChannel.Result result) {
+        final String trackId = call.argument("id");
+        final String path = call.argument("path");
+        if (TextUtils.isEmpty(trackId) || TextUtils.isEmpty(path)) {
+            result.error("INVALID_ARGUMENT", "track#start requires id and path", null);
+            return;
+        }
+        final Object speed = call.argument("speed");
+        final Object loop = call.argument("loop");
+        final Object bigEndian = call.argument("bigEndian");
+        final Object interval = call.argument("progressInterval");
+        final Object icon = call.argument("icon");
+        final Object width = call.argument("width");
+        final Object color = call.argument("color");
+        if (null != interval) {
+            progressInterval = Math.max(0, ConvertUtil.toInt(interval));
+        }
+        final int generation = ++startGeneration;
+        startGenerations.put(trackId, generation);
+        final ByteOrder byteOrder = null != bigEndian && ConvertUtil.toBoolean(bigEndian)
+                ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                TrackFile file = null;
+                String error = null;
+                try {
+                    file = TrackFile.open(path, byteOrder);
+                } catch (Exception e) {
+                    error = e.getMessage();
+                    LogUtil.e(CLASS_NAME, "start", e);
+                }
+                final TrackFile trackFile = file;
+                final String message = error;
+                ThreadUtil.postOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Integer current = startGenerations.get(trackId);
+                        if (null == current || current != generation) {
+                            result.success(null);
+                            return;
+                        }
+                        startGenerations.remove(trackId);
+                        if (null == trackFile) {
+                            result.error("TRACK_OPEN_FAILED", message, null);
+                            return;
+                        }
+                        TrackPlayback previous = controllerMapByDartId.remove(trackId);
+                        if (null != previous) {
+                            previous.remove();
+                        }
+                        LatLng first = new LatLng(trackFile.latitude(0), trackFile.longitude(0));
+                        MarkerOptions markerOptions = new MarkerOptions()
+                                .position(first)
+                                .anchor(0.5f, 0.5f)
+                                .setFlat(true)
+                                .infoWindowEnable(false);
+                        if (null != icon) {
+                            markerOptions.icon(ConvertUtil.toBitmapDescriptor(icon));
+                        }
+                        Marker marker = amap.addMarker(markerOptions);
+                        PolylineOptions polylineOptions = new PolylineOptions()
+                                .width(null != width ? ConvertUtil.toFloatPixels(width) : 6 * ConvertUtil.density);
+                        if (null != color) {
+                            polylineOptions.color(ConvertUtil.toInt(color));
+                        }
+                        polylineOptions.setPoints(new ArrayList<LatLng>());
+                        Polyline history = amap.addPolyline(polylineOptions);
+                        Polyline polyline = amap.addPolyline(polylineOptions);
+                        TrackPlayback playback = new TrackPlayback(trackId, trackFile, marker, polyline, history);
+                        playback.setPixelsPerUnit(pixelsPerUnit(amap.getCameraPosition()));
+                        if (null != speed) {
+                            playback.setSpeed(ConvertUtil.toDouble(speed));
+                        }
+                        playback.setLoop(null != loop && ConvertUtil.toBoolean(loop));
+                        controllerMapByDartId.put(trackId, playback);
+                        scheduleFrame();
+                        result.success(playback.toInfoMap());
+                    }
+                });
+            }
+        }, new ThreadUtil.WorkerErrorHandler() {
+            @Override
+            public void onError(Throwable e) {
+                Integer current = startGenerations.get(trackId);
+                if (null != current && current == generation) {
+                    startGenerations.remove(trackId);
+                }
+                result.error("TRACK_OPEN_FAILED", String.valueOf(e.getMessage()), null);
+            }
+        });
+    }
+
+    @Override
+    public void onCameraChange(CameraPosition cameraPosition) {
+
+    }
+
+    @Override
+    public void onCameraChangeFinish(CameraPosition cameraPosition) {
+        if (null == cameraPosition || controllerMapByDartId.isEmpty()) {
+            return;
+        }
+        final int bucket = zoomBucket(cameraPosition.zoom);
+        if (bucket == zoomBucket) {
+            return;
+        }
+        zoomBucket = bucket;
+        final double pixelsPerUnit = pixelsPerUnit(cameraPosition);
+        for (TrackPlayback playback : controllerMapByDartId.values()) {
+            playback.setPixelsPerUnit(pixelsPerUnit);
+        }
+    }
+
+    /**
+     * 与折线简化相同的分桶：当前级别向上取整
+     */
+    private static int zoomBucket(float zoom) {
+        return (int) Math.floor(zoom) + 1;
+    }
+
+    /**
+     * @return 分桶级别下一个墨卡托单位对应的像素数
+     */
+    private double pixelsPerUnit(CameraPosition cameraPosition) {
+        if (null == cameraPosition || null == cameraPosition.target) {
+            return 0;
+        }
+        final double pixelsPerUnit = GeometryUtil.pixelsPerMercatorUnit(amap.getScalePerPixel(), cameraPosition.target.latitude);
+        return pixelsPerUnit * Math.pow(2, zoomBucket(cameraPosition.zoom) - cameraPosition.zoom);
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        final boolean reportProgress = frameTimeNanos - lastProgressNanos >= progressInterval * 1000000L;
+        List<TrackPlayback> ended = null;
+        boolean anyPlaying = false;
+        Iterator<TrackPlayback> iterator = controllerMapByDartId.values().iterator();
+        while (iterator.hasNext()) {
+            TrackPlayback playback = iterator.next();
+            if (!playback.isPlaying()) {
+                continue;
+            }
+            if (playback.step(frameTimeNanos)) {
+                if (null == ended) {
+                    ended = new ArrayList<>(2);
+                }
+                ended.add(playback);
+            } else {
+                anyPlaying = true;
+                if (reportProgress) {
+                    methodChannel.invokeMethod("track#onProgress", playback.toProgressMap());
+                }
+            }
+        }
+        if (reportProgress) {
+            lastProgressNanos = frameTimeNanos;
+        }
+        if (null != ended) {
+            for (TrackPlayback playback : ended) {
+                final Map<String, Object> data = playback.toProgressMap();
+                methodChannel.invokeMethod("track#onEnd", data);
+                LogUtil.i(CLASS_NAME, "onEnd==>" + data);
+            }
+        }
+        if (anyPlaying) {
+            scheduleFrame();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.amap.flutter.map.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数值到颜色的映射
+ * <p>
+ * 参数格式: {stops: [[value, color], ...], steps: int}
+ * <ul>
+ * <li>stops: 按 value 升序排列的色标，相邻色标之间按 ARGB 通道线性插值，超出范围取两端颜色</li>
+ * <li>steps: 可选，大于0时把颜色量化为 steps 级，相邻值更容易得到同一颜色（便于合并、复用）</li>
+ * </ul>
+ */
+public class ColorRamp {
+    private final double[] values;
+    private final int[] colors;
+    private final int steps;
+
+    public ColorRamp(double[] values, int[] colors, int steps) {
+        if (values.length == 0 || values.length != colors.length) {
+            throw new IllegalArgumentException("ColorRamp requires matching, non-empty stops");
+        }
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[i - 1]) {
+                throw new IllegalArgumentException("ColorRamp stops must be sorted by value");
+            }
+        }
+        this.values = values;
+        this.colors = colors;
+        this.steps = Math.max(0, steps);
+    }
+
+    public static ColorRamp fromMap(Object o) {
+        final Map<?, ?> data = ConvertUtil.toMap(o);
+        final Object stopsData = data.get("stops");
+        if (null == stopsData) {
+            throw new IllegalArgumentException("ColorRamp requires 'stops'");
+        }
+        final List<?> stops = ConvertUtil.toList(stopsData);
+        final double[] values = new double[stops.size()];
+        final int[] colors = new int[stops.size()];
+        for (int i = 0; i < stops.size(); i++) {
+            final List<?> stop = ConvertUtil.toList(stops.get(i));
+            values[i] = ConvertUtil.toDouble(stop.get(0));
+            colors[i] = ConvertUtil.toInt(stop.get(1));
+        }
+        final Object steps = data.get("steps");
+        return new ColorRamp(values, colors, null != steps ? ConvertUtil.toInt(steps) : 0);
+    }
+
+    public int colorAt(double value) {
+        final int last = values.length - 1;
+        if (Double.isNaN(value) || value <= values[0]) {
+            return colors[0];
+        }
+        if (value >= values[last]) {
+            return colors[last];
+        }
+        if (steps > 0) {
+            //量化到 steps 级后再插值
+            final double range = values[last] - values[0];
+            final double step = Math.floor((value - values[0]) / range * steps) / steps;
+            value = values[0] + Math.min(1, step + 0.5 / steps) * range;
+        }
+        int upper = 1;
+        while (upper < last && values[upper] < value) {
+            upper++;
+        }
+        final double span = values[upper] - values[upper - 1];
+        final double t = span > 0 ? (value - values[upper - 1]) / span : 1;
+        return lerp(colors[upper - 1], colors[upper], t);
+    }
+
+    /**
+     * 批量映射，结果写入 out
+     */
+    public int[] colorsFor(double[] input, int[] out) {
+        if (null == out || out.length < input.length) {
+            out = new int[input.length];
+        }
+        for (int i = 0; i < input.length; i++) {
+            out[i] = colorAt(input[i]);
+        }
+        return out;
+    }
+
+    /**
+     * 分级设色：values[i] 小于 breaks[0] 取 palette[0]，落在 [breaks[k-1], breaks[k]) 取 palette[k]，
+     * 不小于最后一个分界值取 palette[breaks.length]。palette 不足时取最后一个颜色
+     *
+     * @param breaks 升序的分界值
+     */
+    public static int[] classify(double[] values, double[] breaks, int[] palette) {
+        if (palette.length == 0) {
+            throw new IllegalArgumentException("classify requires a non-empty palette");
+        }
+        final int[] out = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            int k = Arrays.binarySearch(breaks, values[i]);
+            //命中分界值时归入上一级，否则取插入位置
+            k = k >= 0 ? k + 1 : -k - 1;
+            out[i] = palette[Math.min(k, palette.length - 1)];
+        }
+        return out;
+    }
+
+    private static int lerp(int from, int to, double t) {
+        int a = channel(from >>> 24, to >>> 24, t);
+        int r = channel((from >> 16) & 0xff, (to >> 16) & 0xff, t);
+        int g = channel((from >> 8) & 0xff, (to >> 8) & 0xff, t);
+        int b = channel(from & 0xff, to & 0xff, t);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int channel(int from, int to, double t) {
+        return (int) Math.round(from + (to - from) * t);
+    }
+}
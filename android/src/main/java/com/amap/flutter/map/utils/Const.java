@@ -44,23 +44,101 @@ public class Const {
     public static final String METHOD_MARKER_UPDATE = "markers#update";
     public static final String METHOD_MARKER_DESELECT = "marker#deselect";
     public static final String METHOD_MARKER_SELECT = "marker#select";
-    public static final String[] METHOD_ID_LIST_FOR_MARKER = {METHOD_MARKER_UPDATE, METHOD_MARKER_DESELECT, METHOD_MARKER_SELECT};
+    public static final String METHOD_MARKER_SET_DECLUTTER = "markers#setDeclutter";
+    public static final String METHOD_MARKER_SET_DRAG_OPTIONS = "markers#setDragOptions";
+    public static final String METHOD_MARKER_GROUPS_SET_VISIBLE = "markerGroups#setVisible";
+    public static final String METHOD_MARKER_GROUPS_REMOVE = "markerGroups#remove";
+    public static final String METHOD_MARKER_GROUPS_SET_Z_INDEX_OFFSET = "markerGroups#setZIndexOffset";
+    public static final String METHOD_MARKER_REGISTER_INFO_WINDOW_TEMPLATE = "markers#registerInfoWindowTemplate";
+    public static final String METHOD_MARKER_UNREGISTER_INFO_WINDOW_TEMPLATE = "markers#unregisterInfoWindowTemplate";
+    public static final String[] METHOD_ID_LIST_FOR_MARKER = {
+            METHOD_MARKER_UPDATE,
+            METHOD_MARKER_DESELECT,
+            METHOD_MARKER_SELECT,
+            METHOD_MARKER_SET_DECLUTTER,
+            METHOD_MARKER_SET_DRAG_OPTIONS,
+            METHOD_MARKER_GROUPS_SET_VISIBLE,
+            METHOD_MARKER_GROUPS_REMOVE,
+            METHOD_MARKER_GROUPS_SET_Z_INDEX_OFFSET,
+            METHOD_MARKER_REGISTER_INFO_WINDOW_TEMPLATE,
+            METHOD_MARKER_UNREGISTER_INFO_WINDOW_TEMPLATE
+    };
 
     /**
      * polygons
      */
     public static final String METHOD_POLYGON_UPDATE = "polygons#update";
-    public static final String[] METHOD_ID_LIST_FOR_POLYGON = {METHOD_POLYGON_UPDATE};
+    public static final String METHOD_POLYGON_CONTAINS_POINTS = "polygons#containsPoints";
+    public static final String METHOD_POLYGON_SET_FILL_COLORS = "polygons#setFillColors";
+    public static final String METHOD_POLYGON_SET_STROKE_COLORS = "polygons#setStrokeColors";
+    public static final String METHOD_POLYGON_AGGREGATE_POINTS = "polygons#aggregatePoints";
+    public static final String METHOD_POLYGON_DISSOLVE = "polygons#dissolve";
+    public static final String[] METHOD_ID_LIST_FOR_POLYGON = {
+            METHOD_POLYGON_UPDATE,
+            METHOD_POLYGON_CONTAINS_POINTS,
+            METHOD_POLYGON_SET_FILL_COLORS,
+            METHOD_POLYGON_SET_STROKE_COLORS,
+            METHOD_POLYGON_AGGREGATE_POINTS,
+            METHOD_POLYGON_DISSOLVE
+    };
 
     /**
      * polylines
      */
     public static final String METHOD_POLYLINE_UPDATE = "polylines#update";
-    public static final String[] METHOD_ID_LIST_FOR_POLYLINE = {METHOD_POLYLINE_UPDATE};
+    public static final String METHOD_POLYLINE_APPEND_POINTS = "polyline#appendPoints";
+    public static final String METHOD_POLYLINE_NEAREST_POINT = "polyline#nearestPoint";
+    public static final String METHOD_POLYLINE_SNAP = "polyline#snap";
+    public static final String METHOD_POLYLINE_SET_LOCATION_SNAP = "polyline#setLocationSnap";
+    public static final String METHOD_POLYLINE_ANIMATE_REVEAL = "polyline#animateReveal";
+    public static final String METHOD_POLYLINE_SET_TAP_TOLERANCE = "polylines#setTapTolerance";
+    public static final String[] METHOD_ID_LIST_FOR_POLYLINE = {
+            METHOD_POLYLINE_UPDATE,
+            METHOD_POLYLINE_APPEND_POINTS,
+            METHOD_POLYLINE_NEAREST_POINT,
+            METHOD_POLYLINE_SNAP,
+            METHOD_POLYLINE_SET_LOCATION_SNAP,
+            METHOD_POLYLINE_ANIMATE_REVEAL,
+            METHOD_POLYLINE_SET_TAP_TOLERANCE
+    };
 
     /**
      * tileOverlays
      */
     public static final String METHOD_TILE_OVERLAY_UPDATE = "tileOverlays#update";
     public static final String[] METHOD_ID_LIST_FOR_TILE_OVERLAY = {METHOD_TILE_OVERLAY_UPDATE};
+
+    /**
+     * track playback
+     */
+    public static final String METHOD_TRACK_START = "track#start";
+    public static final String METHOD_TRACK_PAUSE = "track#pause";
+    public static final String METHOD_TRACK_RESUME = "track#resume";
+    public static final String METHOD_TRACK_SEEK = "track#seek";
+    public static final String METHOD_TRACK_SET_SPEED = "track#setSpeed";
+    public static final String METHOD_TRACK_STOP = "track#stop";
+    public static final String[] METHOD_ID_LIST_FOR_TRACK = {
+            METHOD_TRACK_START,
+            METHOD_TRACK_PAUSE,
+            METHOD_TRACK_RESUME,
+            METHOD_TRACK_SEEK,
+            METHOD_TRACK_SET_SPEED,
+            METHOD_TRACK_STOP
+    };
+
+    /**
+     * geojson
+     */
+    public static final String METHOD_GEOJSON_LOAD = "geojson#load";
+    public static final String METHOD_GEOJSON_UNLOAD = "geojson#unload";
+    public static final String METHOD_GEOMETRIES_LOAD_WKB = "geometries#loadWkb";
+    public static final String METHOD_FLATGEOBUF_OPEN = "flatgeobuf#open";
+    public static final String METHOD_FLATGEOBUF_CLOSE = "flatgeobuf#close";
+    public static final String[] METHOD_ID_LIST_FOR_GEOJSON = {
+            METHOD_GEOJSON_LOAD,
+            METHOD_GEOJSON_UNLOAD,
+            METHOD_GEOMETRIES_LOAD_WKB,
+            METHOD_FLATGEOBUF_OPEN,
+            METHOD_FLATGEOBUF_CLOSE
+    };
 }
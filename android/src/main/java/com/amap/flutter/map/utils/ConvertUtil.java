@@ -54,6 +54,16 @@ public class ConvertUtil {
         }
     }
 
+    /**
+     * Flutter 资源在 APK assets 中的路径
+     */
+    public static String getLookupKeyForAsset(Context context, String asset) {
+        if (null == flutterLoader) {
+            initialize(context);
+        }
+        return flutterLoader.getLookupKeyForAsset(asset);
+    }
+
     public static void setPrivacyStatement(Context context, Object object) {
         if (null == object) {
             return;
@@ -410,6 +420,12 @@ public class ConvertUtil {
                 }
             case "fromBytes":
                 return getBitmapFromBytes(data);
+            case "fromVector":
+                if (data.size() == 2) {
+                    return VectorIconUtil.toBitmapDescriptor(data.get(1));
+                } else {
+                    throw new IllegalArgumentException("'fromVector' Expected exactly 2 arguments, got: " + data.size());
+                }
             default:
                 throw new IllegalArgumentException("Cannot interpret " + o + " as BitmapDescriptor");
         }
@@ -470,7 +486,18 @@ public class ConvertUtil {
         return new LatLng((Double) data.get(0), (Double) data.get(1));
     }
 
+    /**
+     * @param o [[lat, lng], ...] 或按 [lat0, lng0, lat1, lng1, ...] 排列的 double[]（Dart 端 Float64List）
+     */
     public static List<LatLng> toPoints(Object o) {
+        if (o instanceof double[]) {
+            final double[] packed = (double[]) o;
+            final List<LatLng> points = new ArrayList<>(packed.length / 2);
+            for (int i = 0; i + 1 < packed.length; i += 2) {
+                points.add(new LatLng(packed[i], packed[i + 1]));
+            }
+            return points;
+        }
         final List<?> data = toList(o);
         final List<LatLng> points = new ArrayList<>(data.size());
 
@@ -481,6 +508,23 @@ public class ConvertUtil {
         return points;
     }
 
+    /**
+     * 解码压缩坐标，字符串按 encoded polyline 解码，字节数组（Dart 端 Uint8List）按 zigzag varint 解码
+     *
+     * @param precision 小数位数，为 null 时字符串取 5、字节数组取 6
+     */
+    public static List<LatLng> toEncodedPoints(Object o, Object precision) {
+        if (o instanceof String) {
+            return CoordinateCodec.decodePolyline((String) o,
+                    null != precision ? toInt(precision) : CoordinateCodec.DEFAULT_POLYLINE_PRECISION);
+        }
+        if (o instanceof byte[]) {
+            return CoordinateCodec.decodeVarint((byte[]) o,
+                    null != precision ? toInt(precision) : CoordinateCodec.DEFAULT_VARINT_PRECISION);
+        }
+        throw new IllegalArgumentException("Cannot interpret " + o + " as encoded points");
+    }
+
     public static LatLngBounds toLatLngBounds(Object o) {
         if (o == null) {
             return null;
@@ -517,6 +561,52 @@ public class ConvertUtil {
         return (List<?>) o;
     }
 
+    /**
+     * 兼容 Dart 端传入的 Float64List / Float32List / Int32List 以及普通 List
+     */
+    public static double[] toDoubleArray(Object o) {
+        if (o instanceof double[]) {
+            return (double[]) o;
+        }
+        if (o instanceof float[]) {
+            final float[] floats = (float[]) o;
+            final double[] values = new double[floats.length];
+            for (int i = 0; i < floats.length; i++) {
+                values[i] = floats[i];
+            }
+            return values;
+        }
+        if (o instanceof int[]) {
+            final int[] ints = (int[]) o;
+            final double[] values = new double[ints.length];
+            for (int i = 0; i < ints.length; i++) {
+                values[i] = ints[i];
+            }
+            return values;
+        }
+        final List<?> list = toList(o);
+        final double[] values = new double[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = toDouble(list.get(i));
+        }
+        return values;
+    }
+
+    /**
+     * 兼容 Dart 端传入的 Int32List 以及普通 List
+     */
+    public static int[] toIntArray(Object o) {
+        if (o instanceof int[]) {
+            return (int[]) o;
+        }
+        final List<?> list = toList(o);
+        final int[] values = new int[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = toInt(list.get(i));
+        }
+        return values;
+    }
+
     public static Map<?, ?> toMap(Object o) {
         return (Map<?, ?>) o;
     }
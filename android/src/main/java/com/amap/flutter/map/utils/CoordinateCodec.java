@@ -0,0 +1,104 @@
+package com.amap.flutter.map.utils;
+
+import com.amap.api.maps.model.LatLng;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压缩坐标的解码
+ * <ul>
+ * <li>Google encoded polyline 字符串（polyline5 / polyline6，由 precision 决定）</li>
+ * <li>字节数组：依次为 lat、lng 相对上一个点的差值，zigzag 后按 varint（低位在前，每字节 7 位）编码，
+ * 坐标按 10^precision 取整</li>
+ * </ul>
+ * 两种格式都只扫描一遍，直接生成 LatLng 列表。
+ */
+public class CoordinateCodec {
+    //encoded polyline 默认精度（polyline5）
+    public static final int DEFAULT_POLYLINE_PRECISION = 5;
+    //字节数组默认精度
+    public static final int DEFAULT_VARINT_PRECISION = 6;
+
+    public static List<LatLng> decodePolyline(String encoded, int precision) {
+        final double factor = Math.pow(10, precision);
+        final int length = encoded.length();
+        //每个坐标至少占 2 个字符，按此预估容量
+        final List<LatLng> points = new ArrayList<>(length / 4 + 1);
+        long lat = 0;
+        long lng = 0;
+        final int[] cursor = new int[1];
+        while (cursor[0] < length) {
+            lat += readPolylineValue(encoded, cursor);
+            lng += readPolylineValue(encoded, cursor);
+            points.add(new LatLng(lat / factor, lng / factor));
+        }
+        return points;
+    }
+
+    /**
+     * 读取一个 5 位分块的差值，cursor[0] 为当前位置，读完后指向下一个值
+     */
+    private static long readPolylineValue(String encoded, int[] cursor) {
+        final int length = encoded.length();
+        int index = cursor[0];
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (index >= length) {
+                throw new IllegalArgumentException("Truncated encoded polyline at " + index);
+            }
+            if (shift > 30) {
+                throw new IllegalArgumentException("Encoded polyline value too long at " + index);
+            }
+            b = encoded.charAt(index) - 63;
+            //合法字符为 '?'(63) 到 '~'(126)
+            if (b < 0 || b > 0x3f) {
+                throw new IllegalArgumentException("Invalid encoded polyline character at " + index);
+            }
+            index++;
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        cursor[0] = index;
+        return zigzag(result);
+    }
+
+    public static List<LatLng> decodeVarint(byte[] data, int precision) {
+        final double factor = Math.pow(10, precision);
+        final List<LatLng> points = new ArrayList<>(data.length / 4 + 1);
+        int index = 0;
+        long lat = 0;
+        long lng = 0;
+        boolean isLat = true;
+        while (index < data.length) {
+            long result = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (index >= data.length || shift > 63) {
+                    throw new IllegalArgumentException("Truncated varint coordinates at " + index);
+                }
+                b = data[index++] & 0xff;
+                result |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (isLat) {
+                lat += zigzag(result);
+            } else {
+                lng += zigzag(result);
+                points.add(new LatLng(lat / factor, lng / factor));
+            }
+            isLat = !isLat;
+        }
+        if (!isLat) {
+            throw new IllegalArgumentException("Varint coordinates end with a latitude only");
+        }
+        return points;
+    }
+
+    private static long zigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.amap.flutter.map.utils;
+
+/**
+ * 覆盖物计算用到的基础几何换算
+ * <p>
+ * 墨卡托坐标统一归一化到 [0, 1]，x 向东、y 向南增长，与屏幕坐标方向一致。
+ */
+public class GeometryUtil {
+    /**
+     * 赤道周长（米）
+     */
+    public static final double EARTH_CIRCUMFERENCE = 40075016.686;
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    public static double mercatorX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    public static double mercatorY(double latitude) {
+        double lat = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double sin = Math.sin(Math.toRadians(lat));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    /**
+     * 两点间的大圆距离（米）
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        final double radius = EARTH_CIRCUMFERENCE / (2 * Math.PI);
+        final double dLat = Math.toRadians(latitude2 - latitude1);
+        final double dLng = Math.toRadians(longitude2 - longitude1);
+        final double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * radius * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public static double longitude(double mercatorX) {
+        return mercatorX * 360.0 - 180.0;
+    }
+
+    public static double latitude(double mercatorY) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * mercatorY))));
+    }
+
+    /**
+     * 当前比例尺下，一个归一化墨卡托单位对应的屏幕像素数
+     *
+     * @param metersPerPixel {@link com.amap.api.maps.AMap#getScalePerPixel()} 返回的地面分辨率
+     * @param latitude       分辨率对应的纬度（通常取地图中心）
+     */
+    public static double pixelsPerMercatorUnit(double metersPerPixel, double latitude) {
+        if (metersPerPixel <= 0) {
+            return 0;
+        }
+        return EARTH_CIRCUMFERENCE * Math.cos(Math.toRadians(latitude)) / metersPerPixel;
+    }
+}
@@ -0,0 +1,355 @@
+package com.amap.flutter.map.utils;
+
+import android.graphics.Path;
+
+/**
+ * SVG path 数据（d 属性）解析为 {@link Path}
+ * <p>
+ * 支持 M/L/H/V/C/S/Q/T/A/Z 的绝对与相对形式，圆弧按不超过90度一段转换为三次贝塞尔曲线。
+ * 相对坐标与 S/T 的反射控制点在解析时换算为绝对坐标，输出只包含 moveTo/lineTo/quadTo/cubicTo/close。
+ */
+class SvgPathParser {
+
+    /**
+     * 解析结果的接收方，坐标均为绝对坐标
+     */
+    interface PathSink {
+        void moveTo(float x, float y);
+
+        void lineTo(float x, float y);
+
+        void quadTo(float x1, float y1, float x2, float y2);
+
+        void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3);
+
+        void close();
+    }
+
+    private final String data;
+    private final int length;
+    private int index = 0;
+
+    private SvgPathParser(String data) {
+        this.data = data;
+        this.length = data.length();
+    }
+
+    static Path parse(String pathData) {
+        final Path path = new Path();
+        parse(pathData, new PathSink() {
+            @Override
+            public void moveTo(float x, float y) {
+                path.moveTo(x, y);
+            }
+
+            @Override
+            public void lineTo(float x, float y) {
+                path.lineTo(x, y);
+            }
+
+            @Override
+            public void quadTo(float x1, float y1, float x2, float y2) {
+                path.quadTo(x1, y1, x2, y2);
+            }
+
+            @Override
+            public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+                path.cubicTo(x1, y1, x2, y2, x3, y3);
+            }
+
+            @Override
+            public void close() {
+                path.close();
+            }
+        });
+        return path;
+    }
+
+    static void parse(String pathData, PathSink sink) {
+        if (null == pathData) {
+            return;
+        }
+        new SvgPathParser(pathData).parseInto(sink);
+    }
+
+    private void parseInto(PathSink path) {
+        float currentX = 0, currentY = 0;
+        float startX = 0, startY = 0;
+        //上一段曲线的控制点，用于 S/T 的反射
+        float controlX = 0, controlY = 0;
+        char previous = ' ';
+        char command = ' ';
+
+        while (true) {
+            skipSeparators();
+            if (index >= length) {
+                break;
+            }
+            char c = data.charAt(index);
+            if (isCommand(c)) {
+                command = c;
+                index++;
+            } else if (command == ' ') {
+                throw new IllegalArgumentException("Invalid path data at " + index + ": " + data);
+            } else if (command == 'M') {
+                //M 之后的连续坐标按 L 处理
+                command = 'L';
+            } else if (command == 'm') {
+                command = 'l';
+            } else if (command == 'Z' || command == 'z') {
+                throw new IllegalArgumentException("Unexpected number after close at " + index + ": " + data);
+            }
+
+            final boolean relative = Character.isLowerCase(command);
+            final float baseX = relative ? currentX : 0;
+            final float baseY = relative ? currentY : 0;
+            switch (Character.toUpperCase(command)) {
+                case 'M':
+                    currentX = baseX + nextFloat();
+                    currentY = baseY + nextFloat();
+                    startX = currentX;
+                    startY = currentY;
+                    path.moveTo(currentX, currentY);
+                    break;
+                case 'L':
+                    currentX = baseX + nextFloat();
+                    currentY = baseY + nextFloat();
+                    path.lineTo(currentX, currentY);
+                    break;
+                case 'H':
+                    currentX = baseX + nextFloat();
+                    path.lineTo(currentX, currentY);
+                    break;
+                case 'V':
+                    currentY = baseY + nextFloat();
+                    path.lineTo(currentX, currentY);
+                    break;
+                case 'C': {
+                    float x1 = baseX + nextFloat();
+                    float y1 = baseY + nextFloat();
+                    controlX = baseX + nextFloat();
+                    controlY = baseY + nextFloat();
+                    currentX = baseX + nextFloat();
+                    currentY = baseY + nextFloat();
+                    path.cubicTo(x1, y1, controlX, controlY, currentX, currentY);
+                    break;
+                }
+                case 'S': {
+                    float x1 = currentX;
+                    float y1 = currentY;
+                    char p = Character.toUpperCase(previous);
+                    if (p == 'C' || p == 'S') {
+                        x1 = 2 * currentX - controlX;
+                        y1 = 2 * currentY - controlY;
+                    }
+                    controlX = baseX + nextFloat();
+                    controlY = baseY + nextFloat();
+                    currentX = baseX + nextFloat();
+                    currentY = baseY + nextFloat();
+                    path.cubicTo(x1, y1, controlX, controlY, currentX, currentY);
+                    break;
+                }
+                case 'Q':
+                    controlX = baseX + nextFloat();
+                    controlY = baseY + nextFloat();
+                    currentX = baseX + nextFloat();
+                    currentY = baseY + nextFloat();
+                    path.quadTo(controlX, controlY, currentX, currentY);
+                    break;
+                case 'T': {
+                    char p = Character.toUpperCase(previous);
+                    if (p == 'Q' || p == 'T') {
+                        controlX = 2 * currentX - controlX;
+                        controlY = 2 * currentY - controlY;
+                    } else {
+                        controlX = currentX;
+                        controlY = currentY;
+                    }
+                    currentX = baseX + nextFloat();
+                    currentY = baseY + nextFloat();
+                    path.quadTo(controlX, controlY, currentX, currentY);
+                    break;
+                }
+                case 'A': {
+                    float rx = nextFloat();
+                    float ry = nextFloat();
+                    float rotation = nextFloat();
+                    boolean largeArc = nextFlag();
+                    boolean sweep = nextFlag();
+                    float x = baseX + nextFloat();
+                    float y = baseY + nextFloat();
+                    arcTo(path, currentX, currentY, x, y, rx, ry, rotation, largeArc, sweep);
+                    currentX = x;
+                    currentY = y;
+                    break;
+                }
+                case 'Z':
+                    path.close();
+                    currentX = startX;
+                    currentY = startY;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported path command '" + command + "': " + data);
+            }
+            previous = command;
+        }
+    }
+
+    private static boolean isCommand(char c) {
+        switch (c) {
+            case 'M': case 'm': case 'L': case 'l': case 'H': case 'h': case 'V': case 'v':
+            case 'C': case 'c': case 'S': case 's': case 'Q': case 'q': case 'T': case 't':
+            case 'A': case 'a': case 'Z': case 'z':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void skipSeparators() {
+        while (index < length) {
+            char c = data.charAt(index);
+            if (c == ' ' || c == ',' || c == '\n' || c == '\r' || c == '\t') {
+                index++;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private boolean nextFlag() {
+        skipSeparators();
+        if (index >= length) {
+            throw new IllegalArgumentException("Missing arc flag: " + data);
+        }
+        char c = data.charAt(index++);
+        if (c != '0' && c != '1') {
+            throw new IllegalArgumentException("Invalid arc flag '" + c + "': " + data);
+        }
+        return c == '1';
+    }
+
+    /**
+     * 读取一个数字，兼容 "1.5.5"、"1-2"、"1e-3" 这类紧凑写法
+     */
+    private float nextFloat() {
+        skipSeparators();
+        int start = index;
+        boolean seenDot = false;
+        boolean seenExponent = false;
+        if (index < length && (data.charAt(index) == '-' || data.charAt(index) == '+')) {
+            index++;
+        }
+        while (index < length) {
+            char c = data.charAt(index);
+            if (c >= '0' && c <= '9') {
+                index++;
+            } else if (c == '.' && !seenDot && !seenExponent) {
+                seenDot = true;
+                index++;
+            } else if ((c == 'e' || c == 'E') && !seenExponent) {
+                seenExponent = true;
+                index++;
+                if (index < length && (data.charAt(index) == '-' || data.charAt(index) == '+')) {
+                    index++;
+                }
+            } else {
+                break;
+            }
+        }
+        if (start == index) {
+            throw new IllegalArgumentException("Expected number at " + start + ": " + data);
+        }
+        return Float.parseFloat(data.substring(start, index));
+    }
+
+    /**
+     * SVG 端点参数圆弧转换为中心参数后，用三次贝塞尔曲线逼近
+     */
+    private static void arcTo(PathSink path, float x0, float y0, float x1, float y1,
+                              float rx, float ry, float rotationDegrees,
+                              boolean largeArc, boolean sweep) {
+        if (x0 == x1 && y0 == y1) {
+            return;
+        }
+        rx = Math.abs(rx);
+        ry = Math.abs(ry);
+        if (rx == 0 || ry == 0) {
+            path.lineTo(x1, y1);
+            return;
+        }
+        final double phi = Math.toRadians(rotationDegrees);
+        final double cosPhi = Math.cos(phi);
+        final double sinPhi = Math.sin(phi);
+
+        double dx = (x0 - x1) / 2.0;
+        double dy = (y0 - y1) / 2.0;
+        double x0p = cosPhi * dx + sinPhi * dy;
+        double y0p = -sinPhi * dx + cosPhi * dy;
+
+        //半径不足时按比例放大
+        double lambda = (x0p * x0p) / (rx * rx) + (y0p * y0p) / (ry * ry);
+        if (lambda > 1) {
+            double scale = Math.sqrt(lambda);
+            rx *= scale;
+            ry *= scale;
+        }
+
+        double rx2 = rx * rx;
+        double ry2 = ry * ry;
+        double numerator = rx2 * ry2 - rx2 * y0p * y0p - ry2 * x0p * x0p;
+        double denominator = rx2 * y0p * y0p + ry2 * x0p * x0p;
+        double coefficient = denominator == 0 ? 0 : Math.sqrt(Math.max(0, numerator / denominator));
+        if (largeArc == sweep) {
+            coefficient = -coefficient;
+        }
+        double cxp = coefficient * rx * y0p / ry;
+        double cyp = -coefficient * ry * x0p / rx;
+        double cx = cosPhi * cxp - sinPhi * cyp + (x0 + x1) / 2.0;
+        double cy = sinPhi * cxp + cosPhi * cyp + (y0 + y1) / 2.0;
+
+        double theta1 = angle(1, 0, (x0p - cxp) / rx, (y0p - cyp) / ry);
+        double deltaTheta = angle((x0p - cxp) / rx, (y0p - cyp) / ry, (-x0p - cxp) / rx, (-y0p - cyp) / ry);
+        if (!sweep && deltaTheta > 0) {
+            deltaTheta -= 2 * Math.PI;
+        } else if (sweep && deltaTheta < 0) {
+            deltaTheta += 2 * Math.PI;
+        }
+
+        int segments = (int) Math.ceil(Math.abs(deltaTheta) / (Math.PI / 2));
+        double delta = deltaTheta / segments;
+        double t = 4.0 / 3.0 * Math.tan(delta / 4);
+        double angle = theta1;
+        double startX = x0;
+        double startY = y0;
+        for (int i = 0; i < segments; i++) {
+            double cos1 = Math.cos(angle);
+            double sin1 = Math.sin(angle);
+            double angle2 = angle + delta;
+            double cos2 = Math.cos(angle2);
+            double sin2 = Math.sin(angle2);
+
+            double ex = cx + rx * cosPhi * cos2 - ry * sinPhi * sin2;
+            double ey = cy + rx * sinPhi * cos2 + ry * cosPhi * sin2;
+
+            double d1x = -rx * cosPhi * sin1 - ry * sinPhi * cos1;
+            double d1y = -rx * sinPhi * sin1 + ry * cosPhi * cos1;
+            double d2x = -rx * cosPhi * sin2 - ry * sinPhi * cos2;
+            double d2y = -rx * sinPhi * sin2 + ry * cosPhi * cos2;
+
+            path.cubicTo((float) (startX + t * d1x), (float) (startY + t * d1y),
+                    (float) (ex - t * d2x), (float) (ey - t * d2y),
+                    (float) ex, (float) ey);
+            startX = ex;
+            startY = ey;
+            angle = angle2;
+        }
+    }
+
+    private static double angle(double ux, double uy, double vx, double vy) {
+        double dot = ux * vx + uy * vy;
+        double len = Math.sqrt((ux * ux + uy * uy) * (vx * vx + vy * vy));
+        double value = Math.acos(Math.max(-1, Math.min(1, dot / len)));
+        return (ux * vy - uy * vx) < 0 ? -value : value;
+    }
+}
@@ -0,0 +1,120 @@
+package com.amap.flutter.map.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.flutter.plugin.common.MethodChannel;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 主线程与后台计算线程的切换工具
+ * <p>
+ * 覆盖物的批量计算（投影、空间索引等）放到后台线程执行，
+ * 计算结果再统一切回主线程交给地图SDK。
+ */
+public class ThreadUtil {
+    private static final String CLASS_NAME = "ThreadUtil";
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    private static volatile ExecutorService worker;
+    private static volatile ForkJoinPool computePool;
+
+    public static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    public static void runOnUiThread(Runnable runnable) {
+        if (isMainThread()) {
+            runnable.run();
+        } else {
+            MAIN_HANDLER.post(runnable);
+        }
+    }
+
+    public static void postOnUiThread(Runnable runnable) {
+        MAIN_HANDLER.post(runnable);
+    }
+
+    /**
+     * 后台任务抛出异常时的回调，在主线程执行，用于复位运行状态或回复 {@link MethodChannel.Result}
+     */
+    public interface WorkerErrorHandler {
+        void onError(Throwable e);
+    }
+
+    public static void runOnWorker(final Runnable runnable) {
+        runOnWorker(runnable, null);
+    }
+
+    public static void runOnWorker(final Runnable runnable, final WorkerErrorHandler errorHandler) {
+        getWorker().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runnable.run();
+                } catch (final Throwable e) {
+                    LogUtil.e(CLASS_NAME, "runOnWorker", e);
+                    if (null != errorHandler) {
+                        postOnUiThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                errorHandler.onError(e);
+                            }
+                        });
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 后台任务异常时以 error 回复 Dart，避免 Future 一直等待
+     */
+    public static WorkerErrorHandler replyError(final MethodChannel.Result result, final String code) {
+        return new WorkerErrorHandler() {
+            @Override
+            public void onError(Throwable e) {
+                result.error(code, String.valueOf(e.getMessage()), null);
+            }
+        };
+    }
+
+    /**
+     * 可拆分的大批量计算使用的 fork/join 线程池，只应在后台线程中 invoke
+     */
+    public static ForkJoinPool getComputePool() {
+        if (computePool == null) {
+            synchronized (ThreadUtil.class) {
+                if (computePool == null) {
+                    computePool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+                }
+            }
+        }
+        return computePool;
+    }
+
+    private static ExecutorService getWorker() {
+        if (worker == null) {
+            synchronized (ThreadUtil.class) {
+                if (worker == null) {
+                    int count = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+                    worker = Executors.newFixedThreadPool(count, new ThreadFactory() {
+                        private final AtomicInteger index = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "AMapFlutter-worker-" + index.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return worker;
+    }
+}
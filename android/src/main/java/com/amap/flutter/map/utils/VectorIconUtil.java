@@ -0,0 +1,334 @@
+package com.amap.flutter.map.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.LruCache;
+
+import com.amap.api.maps.model.BitmapDescriptor;
+import com.amap.api.maps.model.BitmapDescriptorFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 矢量图标栅格化
+ * <p>
+ * 按当前屏幕密度把 SVG path 或精简的 SVG 文本绘制成位图，
+ * 结果按（图形, 尺寸, 着色）缓存，同一图标只绘制一次；批量图标可通过 {@link #prepare(List, Runnable)} 在后台线程绘制。
+ * <p>
+ * 参数格式: ["fromVector", {pathData | svg, viewBox, size, tint, evenOdd, strokeColor, strokeWidth}]
+ * <ul>
+ * <li>pathData: SVG path 的 d 属性</li>
+ * <li>svg: 精简 SVG 文本，只解析 viewBox 和 path 元素的 d/fill/fill-rule/stroke/stroke-width</li>
+ * <li>viewBox: [minX, minY, width, height] 或 [width, height]，pathData 默认 24x24</li>
+ * <li>size: [width, height]，单位 dp，默认与 viewBox 尺寸相同</li>
+ * <li>tint: 着色，覆盖所有 path 的填充色</li>
+ * </ul>
+ */
+public class VectorIconUtil {
+    private static final String CLASS_NAME = "VectorIconUtil";
+    //缓存上限 4MB
+    private static final int CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+    private static final float DEFAULT_VIEWPORT = 24;
+
+    private static final Pattern SVG_VIEW_BOX = Pattern.compile("viewBox\\s*=\\s*[\"']([^\"']+)[\"']");
+    private static final Pattern SVG_PATH = Pattern.compile("<path\\b([^>]*)>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SVG_ATTRIBUTE = Pattern.compile("([\\w-]+)\\s*=\\s*[\"']([^\"']*)[\"']");
+
+    private static final LruCache<String, BitmapDescriptor> cache = new LruCache<String, BitmapDescriptor>(CACHE_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(String key, BitmapDescriptor value) {
+            return Math.max(1, value.getWidth() * value.getHeight() * 4);
+        }
+    };
+
+    /**
+     * @return 是否为 ["fromVector", ...] 格式的图标
+     */
+    public static boolean isVectorIcon(Object icon) {
+        if (!(icon instanceof List)) {
+            return false;
+        }
+        final List<?> data = (List<?>) icon;
+        return data.size() == 2 && "fromVector".equals(data.get(0));
+    }
+
+    //栅格化完成前新建 marker 使用的透明占位图标
+    private static BitmapDescriptor placeholder;
+
+    /**
+     * @param icon ["fromVector", {...}] 格式的图标
+     * @return 是否已栅格化，已缓存时 {@link #toBitmapDescriptor(Object)} 不会在调用线程绘制
+     */
+    public static boolean isCached(Object icon) {
+        return null != cache.get(keyOf(ConvertUtil.toMap(((List<?>) icon).get(1))));
+    }
+
+    /**
+     * 1x1 透明图标，矢量图标栅格化完成前占位，避免先显示 SDK 默认图标
+     */
+    public static BitmapDescriptor placeholder() {
+        if (null == placeholder) {
+            placeholder = BitmapDescriptorFactory.fromBitmap(Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888));
+        }
+        return placeholder;
+    }
+
+    /**
+     * 在后台线程栅格化还没有缓存的矢量图标，完成后在主线程回调；全部已缓存时直接回调。
+     * 之后在主线程调用 {@link #toBitmapDescriptor(Object)} 会命中缓存。
+     *
+     * @param icons   ["fromVector", {...}] 格式的图标
+     * @param onReady 主线程回调，栅格化失败时同样回调（失败的图标在应用时按原逻辑报错）
+     */
+    public static void prepare(List<Object> icons, final Runnable onReady) {
+        final List<Object> missing = new ArrayList<>();
+        for (Object icon : icons) {
+            if (!isCached(icon)) {
+                missing.add(((List<?>) icon).get(1));
+            }
+        }
+        if (missing.isEmpty()) {
+            onReady.run();
+            return;
+        }
+        ThreadUtil.runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                for (Object spec : missing) {
+                    try {
+                        toBitmapDescriptor(spec);
+                    } catch (Exception e) {
+                        LogUtil.e(CLASS_NAME, "prepare", e);
+                    }
+                }
+                ThreadUtil.postOnUiThread(onReady);
+            }
+        }, new ThreadUtil.WorkerErrorHandler() {
+            @Override
+            public void onError(Throwable e) {
+                onReady.run();
+            }
+        });
+    }
+
+    /**
+     * 缓存未命中时在调用线程栅格化；主线程上的大批量图标应先调用 {@link #prepare(List, Runnable)}
+     */
+    public static BitmapDescriptor toBitmapDescriptor(Object o) {
+        final Map<?, ?> data = ConvertUtil.toMap(o);
+        final Object pathData = data.get("pathData");
+        final Object svg = data.get("svg");
+        if (null == pathData && null == svg) {
+            throw new IllegalArgumentException("'fromVector' requires 'pathData' or 'svg'");
+        }
+        final String shape = null != svg ? ConvertUtil.toString(svg) : ConvertUtil.toString(pathData);
+
+        float[] viewBox = toViewBox(data.get("viewBox"));
+        float[] size = null;
+        final Object sizeData = data.get("size");
+        if (null != sizeData) {
+            final List<?> sizeList = ConvertUtil.toList(sizeData);
+            size = new float[]{ConvertUtil.toFloat(sizeList.get(0)), ConvertUtil.toFloat(sizeList.get(1))};
+        }
+        final Object tintData = data.get("tint");
+        final Integer tint = null != tintData ? ConvertUtil.toInt(tintData) : null;
+        final Object strokeColor = data.get("strokeColor");
+        final Object strokeWidth = data.get("strokeWidth");
+        final Object evenOdd = data.get("evenOdd");
+
+        final String key = keyOf(data);
+        BitmapDescriptor descriptor = cache.get(key);
+        if (null != descriptor) {
+            return descriptor;
+        }
+
+        final List<VectorPath> paths = new ArrayList<>();
+        if (null != svg) {
+            viewBox = parseSvg(shape, viewBox, paths);
+        } else {
+            VectorPath vectorPath = new VectorPath(SvgPathParser.parse(shape));
+            vectorPath.fillColor = Color.BLACK;
+            if (null != strokeColor) {
+                vectorPath.strokeColor = ConvertUtil.toInt(strokeColor);
+            }
+            if (null != strokeWidth) {
+                vectorPath.strokeWidth = ConvertUtil.toFloat(strokeWidth);
+            }
+            if (null != evenOdd && ConvertUtil.toBoolean(evenOdd)) {
+                vectorPath.path.setFillType(Path.FillType.EVEN_ODD);
+            }
+            paths.add(vectorPath);
+        }
+        if (null == viewBox) {
+            viewBox = new float[]{0, 0, DEFAULT_VIEWPORT, DEFAULT_VIEWPORT};
+        }
+        if (null == size) {
+            size = new float[]{viewBox[2], viewBox[3]};
+        }
+
+        final float density = ConvertUtil.density > 0 ? ConvertUtil.density : 1;
+        final int width = Math.max(1, Math.round(size[0] * density));
+        final int height = Math.max(1, Math.round(size[1] * density));
+        Bitmap bitmap = rasterize(paths, viewBox, width, height, tint);
+        descriptor = BitmapDescriptorFactory.fromBitmap(bitmap);
+        cache.put(key, descriptor);
+        LogUtil.i(CLASS_NAME, "rasterize==> " + width + "x" + height + ", paths=" + paths.size());
+        return descriptor;
+    }
+
+    private static String keyOf(Map<?, ?> data) {
+        final Object svg = data.get("svg");
+        final Object shape = null != svg ? svg : data.get("pathData");
+        return String.valueOf(shape) + '|' + data.get("viewBox") + '|' + data.get("size") + '|' + data.get("tint")
+                + '|' + data.get("strokeColor") + '|' + data.get("strokeWidth") + '|' + data.get("evenOdd")
+                + '|' + ConvertUtil.density;
+    }
+
+    private static Bitmap rasterize(List<VectorPath> paths, float[] viewBox, int width, int height, Integer tint) {
+        final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        final float scaleX = width / viewBox[2];
+        final float scaleY = height / viewBox[3];
+        final Matrix matrix = new Matrix();
+        matrix.setTranslate(-viewBox[0], -viewBox[1]);
+        matrix.postScale(scaleX, scaleY);
+
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        for (VectorPath vectorPath : paths) {
+            vectorPath.path.transform(matrix);
+            Integer fill = null != tint ? tint : vectorPath.fillColor;
+            if (null != fill) {
+                paint.setStyle(Paint.Style.FILL);
+                paint.setColor(fill);
+                canvas.drawPath(vectorPath.path, paint);
+            }
+            if (null != vectorPath.strokeColor && vectorPath.strokeWidth > 0) {
+                paint.setStyle(Paint.Style.STROKE);
+                paint.setStrokeWidth(vectorPath.strokeWidth * Math.min(scaleX, scaleY));
+                paint.setColor(vectorPath.strokeColor);
+                canvas.drawPath(vectorPath.path, paint);
+            }
+        }
+        return bitmap;
+    }
+
+    private static float[] toViewBox(Object o) {
+        if (null == o) {
+            return null;
+        }
+        final List<?> list = ConvertUtil.toList(o);
+        if (list.size() == 2) {
+            return new float[]{0, 0, ConvertUtil.toFloat(list.get(0)), ConvertUtil.toFloat(list.get(1))};
+        }
+        if (list.size() == 4) {
+            return new float[]{ConvertUtil.toFloat(list.get(0)), ConvertUtil.toFloat(list.get(1)),
+                    ConvertUtil.toFloat(list.get(2)), ConvertUtil.toFloat(list.get(3))};
+        }
+        throw new IllegalArgumentException("viewBox expects 2 or 4 numbers, got: " + list.size());
+    }
+
+    /**
+     * 解析精简 SVG，返回 viewBox（参数传入的 viewBox 优先）
+     */
+    private static float[] parseSvg(String svg, float[] viewBox, List<VectorPath> out) {
+        if (null == viewBox) {
+            Matcher viewBoxMatcher = SVG_VIEW_BOX.matcher(svg);
+            if (viewBoxMatcher.find()) {
+                String[] parts = viewBoxMatcher.group(1).trim().split("[\\s,]+");
+                if (parts.length == 4) {
+                    viewBox = new float[]{Float.parseFloat(parts[0]), Float.parseFloat(parts[1]),
+                            Float.parseFloat(parts[2]), Float.parseFloat(parts[3])};
+                }
+            }
+        }
+        Matcher pathMatcher = SVG_PATH.matcher(svg);
+        while (pathMatcher.find()) {
+            Matcher attributes = SVG_ATTRIBUTE.matcher(pathMatcher.group(1));
+            String d = null;
+            Integer fill = Color.BLACK;
+            Integer stroke = null;
+            float strokeWidth = 1;
+            boolean evenOdd = false;
+            while (attributes.find()) {
+                String name = attributes.group(1);
+                String value = attributes.group(2).trim();
+                switch (name) {
+                    case "d":
+                        d = value;
+                        break;
+                    case "fill":
+                        fill = parseSvgColor(value);
+                        break;
+                    case "stroke":
+                        stroke = parseSvgColor(value);
+                        break;
+                    case "stroke-width":
+                        strokeWidth = Float.parseFloat(value);
+                        break;
+                    case "fill-rule":
+                        evenOdd = "evenodd".equals(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (null == d) {
+                continue;
+            }
+            VectorPath vectorPath = new VectorPath(SvgPathParser.parse(d));
+            vectorPath.fillColor = fill;
+            vectorPath.strokeColor = stroke;
+            vectorPath.strokeWidth = strokeWidth;
+            if (evenOdd) {
+                vectorPath.path.setFillType(Path.FillType.EVEN_ODD);
+            }
+            out.add(vectorPath);
+        }
+        return viewBox;
+    }
+
+    /**
+     * 支持 none、#rgb、#rgba、#rrggbb、#rrggbbaa（CSS 顺序，alpha 在最后）
+     */
+    private static Integer parseSvgColor(String value) {
+        if (value.isEmpty() || "none".equals(value)) {
+            return null;
+        }
+        if (value.charAt(0) != '#') {
+            throw new IllegalArgumentException("Unsupported svg color: " + value);
+        }
+        String hex = value.substring(1);
+        if (hex.length() == 3 || hex.length() == 4) {
+            final StringBuilder builder = new StringBuilder(hex.length() * 2);
+            for (int i = 0; i < hex.length(); i++) {
+                builder.append(hex.charAt(i)).append(hex.charAt(i));
+            }
+            hex = builder.toString();
+        }
+        if (hex.length() != 6 && hex.length() != 8) {
+            throw new IllegalArgumentException("Unsupported svg color: " + value);
+        }
+        final int rgb = Integer.parseInt(hex.substring(0, 6), 16);
+        final int alpha = hex.length() == 8 ? Integer.parseInt(hex.substring(6), 16) : 0xFF;
+        return alpha << 24 | rgb;
+    }
+
+    private static class VectorPath {
+        final Path path;
+        Integer fillColor;
+        Integer strokeColor;
+        float strokeWidth;
+
+        VectorPath(Path path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.amap.flutter.map.utils;
+
+import com.amap.api.maps.model.LatLng;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 折线/多边形的矩形裁剪
+ * <p>
+ * 构造时把顶点转换为归一化墨卡托坐标，并按每 {@link #CHUNK_SIZE} 条线段一组建立包围盒索引，
+ * 裁剪时先用分组包围盒排除整段不相交的线段。
+ * <ul>
+ * <li>折线使用 Cohen-Sutherland 逐段裁剪。SDK 的折线只能是连续的一条，
+ * 离开与重新进入裁剪框之间的部分沿裁剪框边界连接，连接线段在结果中单独标记，
+ * 由使用方绘制为透明并排除在点击之外（平移到边距以外、重新裁剪之前连接线会进入屏幕）</li>
+ * <li>多边形使用 Sutherland-Hodgman 裁剪，结果落在裁剪框内，沿边界产生的边同样位于屏幕外</li>
+ * </ul>
+ * 未被裁剪改变的顶点复用原来的 {@link LatLng} 实例。本类构造后只读，可以在后台线程使用。
+ */
+public class ViewportClipper {
+    private static final int CHUNK_SIZE = 32;
+
+    private static final int INSIDE = 0;
+    private static final int LEFT = 1;
+    private static final int RIGHT = 2;
+    private static final int TOP = 4;
+    private static final int BOTTOM = 8;
+
+    private final List<LatLng> points;
+    private final boolean closed;
+    private final double[] xs;
+    private final double[] ys;
+    private final int segmentCount;
+    //每组线段的包围盒 [minX, minY, maxX, maxY]
+    private final double[] chunkBounds;
+    private double minX = Double.POSITIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param closed 是否首尾相连（多边形）
+     */
+    public ViewportClipper(List<LatLng> points, boolean closed) {
+        this.points = points;
+        this.closed = closed;
+        final int count = points.size();
+        xs = new double[count];
+        ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            LatLng latLng = points.get(i);
+            xs[i] = GeometryUtil.mercatorX(latLng.longitude);
+            ys[i] = GeometryUtil.mercatorY(latLng.latitude);
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        segmentCount = count < 2 ? 0 : (closed ? count : count - 1);
+        final int chunkCount = (segmentCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunkBounds = new double[chunkCount * 4];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            double cMinX = Double.POSITIVE_INFINITY;
+            double cMinY = Double.POSITIVE_INFINITY;
+            double cMaxX = Double.NEGATIVE_INFINITY;
+            double cMaxY = Double.NEGATIVE_INFINITY;
+            int end = Math.min(segmentCount, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i <= end; i++) {
+                int index = i % count;
+                cMinX = Math.min(cMinX, xs[index]);
+                cMinY = Math.min(cMinY, ys[index]);
+                cMaxX = Math.max(cMaxX, xs[index]);
+                cMaxY = Math.max(cMaxY, ys[index]);
+            }
+            chunkBounds[chunk * 4] = cMinX;
+            chunkBounds[chunk * 4 + 1] = cMinY;
+            chunkBounds[chunk * 4 + 2] = cMaxX;
+            chunkBounds[chunk * 4 + 3] = cMaxY;
+        }
+    }
+
+    public List<LatLng> getPoints() {
+        return points;
+    }
+
+    /**
+     * 折线裁剪
+     *
+     * @param rect 裁剪框（墨卡托坐标）[minX, minY, maxX, maxY]
+     * @return 裁剪结果，sourceIndices 为每个输出顶点所在的原始线段起点下标，未裁剪时为 null；
+     * connectors 标记以该顶点为起点的线段是否为沿边界的连接线段
+     */
+    public Result clipPolyline(double[] rect) {
+        if (segmentCount == 0 || containsAll(rect)) {
+            return new Result(points, null);
+        }
+        if (!intersects(rect, minX, minY, maxX, maxY)) {
+            return new Result(Collections.<LatLng>emptyList(), new int[0]);
+        }
+        final List<LatLng> result = new ArrayList<>();
+        BitSet connectors = null;
+        int[] sourceIndices = new int[64];
+        int filled = 0;
+        final double[] segment = new double[4];
+        double lastX = 0;
+        double lastY = 0;
+        final int chunkCount = chunkBounds.length / 4;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (!intersects(rect, chunkBounds[chunk * 4], chunkBounds[chunk * 4 + 1],
+                    chunkBounds[chunk * 4 + 2], chunkBounds[chunk * 4 + 3])) {
+                //整组都在框外，上一组结束时一定已经离开裁剪框
+                continue;
+            }
+            final int end = Math.min(segmentCount, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                final int j = (i + 1) % points.size();
+                segment[0] = xs[i];
+                segment[1] = ys[i];
+                segment[2] = xs[j];
+                segment[3] = ys[j];
+                if (!clipSegment(segment, rect)) {
+                    continue;
+                }
+                final boolean startClipped = segment[0] != xs[i] || segment[1] != ys[i];
+                final boolean endClipped = segment[2] != xs[j] || segment[3] != ys[j];
+                if (result.isEmpty()) {
+                    result.add(startClipped ? toLatLng(segment[0], segment[1]) : points.get(i));
+                } else if (startClipped) {
+                    //重新进入裁剪框，沿边界从离开点连接到进入点，离开点到进入点之间的线段都是连接线段
+                    if (null == connectors) {
+                        connectors = new BitSet();
+                    }
+                    final int exit = result.size() - 1;
+                    appendPerimeter(result, rect, lastX, lastY, segment[0], segment[1]);
+                    connectors.set(exit, result.size());
+                    result.add(toLatLng(segment[0], segment[1]));
+                }
+                result.add(endClipped ? toLatLng(segment[2], segment[3]) : points.get(j));
+                //新增的顶点都属于线段 i，末尾顶点未被裁剪时是下一段的起点 j
+                if (sourceIndices.length < result.size()) {
+                    sourceIndices = Arrays.copyOf(sourceIndices, Math.max(result.size(), sourceIndices.length * 2));
+                }
+                for (int k = filled; k < result.size() - 1; k++) {
+                    sourceIndices[k] = i;
+                }
+                sourceIndices[result.size() - 1] = endClipped ? i : j;
+                filled = result.size();
+                lastX = segment[2];
+                lastY = segment[3];
+            }
+        }
+        return new Result(result, Arrays.copyOf(sourceIndices, result.size()), connectors);
+    }
+
+    /**
+     * 多边形裁剪，结果少于3个顶点时返回空列表
+     *
+     * @param rect 裁剪框（墨卡托坐标）[minX, minY, maxX, maxY]
+     */
+    public Result clipPolygon(double[] rect) {
+        final int count = points.size();
+        if (count < 3 || containsAll(rect)) {
+            return new Result(points, null);
+        }
+        if (!intersects(rect, minX, minY, maxX, maxY)) {
+            return new Result(Collections.<LatLng>emptyList(), new int[0]);
+        }
+        Ring ring = new Ring(count);
+        for (int i = 0; i < count; i++) {
+            ring.add(xs[i], ys[i], points.get(i));
+        }
+        ring = clipRing(ring, LEFT, rect[0]);
+        ring = clipRing(ring, RIGHT, rect[2]);
+        ring = clipRing(ring, TOP, rect[1]);
+        ring = clipRing(ring, BOTTOM, rect[3]);
+        if (ring.size < 3) {
+            return new Result(Collections.<LatLng>emptyList(), new int[0]);
+        }
+        final List<LatLng> result = new ArrayList<>(ring.size);
+        for (int i = 0; i < ring.size; i++) {
+            LatLng latLng = ring.latLngs[i];
+            result.add(null != latLng ? latLng : toLatLng(ring.xs[i], ring.ys[i]));
+        }
+        //多边形不需要逐顶点样式，不记录下标
+        return new Result(result, null);
+    }
+
+    private boolean containsAll(double[] rect) {
+        return minX >= rect[0] && minY >= rect[1] && maxX <= rect[2] && maxY <= rect[3];
+    }
+
+    private static boolean intersects(double[] rect, double minX, double minY, double maxX, double maxY) {
+        return minX <= rect[2] && maxX >= rect[0] && minY <= rect[3] && maxY >= rect[1];
+    }
+
+    private static int outCode(double x, double y, double[] rect) {
+        int code = INSIDE;
+        if (x < rect[0]) {
+            code |= LEFT;
+        } else if (x > rect[2]) {
+            code |= RIGHT;
+        }
+        if (y < rect[1]) {
+            code |= TOP;
+        } else if (y > rect[3]) {
+            code |= BOTTOM;
+        }
+        return code;
+    }
+
+    /**
+     * Cohen-Sutherland 线段裁剪，结果写回 segment
+     *
+     * @return 线段是否有位于框内的部分
+     */
+    private static boolean clipSegment(double[] segment, double[] rect) {
+        double x0 = segment[0], y0 = segment[1], x1 = segment[2], y1 = segment[3];
+        int code0 = outCode(x0, y0, rect);
+        int code1 = outCode(x1, y1, rect);
+        while (true) {
+            if ((code0 | code1) == 0) {
+                segment[0] = x0;
+                segment[1] = y0;
+                segment[2] = x1;
+                segment[3] = y1;
+                return true;
+            }
+            if ((code0 & code1) != 0) {
+                return false;
+            }
+            final int code = code0 != 0 ? code0 : code1;
+            double x, y;
+            if ((code & BOTTOM) != 0) {
+                x = x0 + (x1 - x0) * (rect[3] - y0) / (y1 - y0);
+                y = rect[3];
+            } else if ((code & TOP) != 0) {
+                x = x0 + (x1 - x0) * (rect[1] - y0) / (y1 - y0);
+                y = rect[1];
+            } else if ((code & RIGHT) != 0) {
+                y = y0 + (y1 - y0) * (rect[2] - x0) / (x1 - x0);
+                x = rect[2];
+            } else {
+                y = y0 + (y1 - y0) * (rect[0] - x0) / (x1 - x0);
+                x = rect[0];
+            }
+            if (code == code0) {
+                x0 = x;
+                y0 = y;
+                code0 = outCode(x0, y0, rect);
+            } else {
+                x1 = x;
+                y1 = y;
+                code1 = outCode(x1, y1, rect);
+            }
+        }
+    }
+
+    /**
+     * 边界上的点转换为周长参数 [0, 4)，按 左上 -> 右上 -> 右下 -> 左下 的顺序，整数位置是四个角
+     */
+    private static double perimeterParam(double x, double y, double[] rect) {
+        final double width = rect[2] - rect[0];
+        final double height = rect[3] - rect[1];
+        final double top = Math.abs(y - rect[1]);
+        final double right = Math.abs(x - rect[2]);
+        final double bottom = Math.abs(y - rect[3]);
+        final double left = Math.abs(x - rect[0]);
+        final double min = Math.min(Math.min(top, right), Math.min(bottom, left));
+        if (min == top) {
+            return (x - rect[0]) / width;
+        } else if (min == right) {
+            return 1 + (y - rect[1]) / height;
+        } else if (min == bottom) {
+            return 2 + (rect[2] - x) / width;
+        } else {
+            return 3 + (rect[3] - y) / height;
+        }
+    }
+
+    /**
+     * 沿边界较短的方向，把两点之间经过的角点加入结果
+     */
+    private static void appendPerimeter(List<LatLng> out, double[] rect, double x0, double y0, double x1, double y1) {
+        final double from = perimeterParam(x0, y0, rect);
+        final double to = perimeterParam(x1, y1, rect);
+        final double forward = ((to - from) % 4 + 4) % 4;
+        if (forward <= 2) {
+            for (int corner = (int) Math.floor(from) + 1; corner - from < forward; corner++) {
+                out.add(cornerLatLng(corner, rect));
+            }
+        } else {
+            final double backward = 4 - forward;
+            for (int corner = (int) Math.ceil(from) - 1; from - corner < backward; corner--) {
+                out.add(cornerLatLng(corner, rect));
+            }
+        }
+    }
+
+    private static LatLng cornerLatLng(int corner, double[] rect) {
+        switch (((corner % 4) + 4) % 4) {
+            case 0:
+                return toLatLng(rect[0], rect[1]);
+            case 1:
+                return toLatLng(rect[2], rect[1]);
+            case 2:
+                return toLatLng(rect[2], rect[3]);
+            default:
+                return toLatLng(rect[0], rect[3]);
+        }
+    }
+
+    /**
+     * Sutherland-Hodgman 单条边界裁剪
+     */
+    private static Ring clipRing(Ring input, int edge, double value) {
+        final Ring output = new Ring(input.size + 4);
+        if (input.size == 0) {
+            return output;
+        }
+        int previous = input.size - 1;
+        boolean previousInside = isInside(input.xs[previous], input.ys[previous], edge, value);
+        for (int i = 0; i < input.size; i++) {
+            final boolean inside = isInside(input.xs[i], input.ys[i], edge, value);
+            if (inside != previousInside) {
+                double x0 = input.xs[previous], y0 = input.ys[previous];
+                double x1 = input.xs[i], y1 = input.ys[i];
+                if (edge == LEFT || edge == RIGHT) {
+                    output.add(value, y0 + (y1 - y0) * (value - x0) / (x1 - x0), null);
+                } else {
+                    output.add(x0 + (x1 - x0) * (value - y0) / (y1 - y0), value, null);
+                }
+            }
+            if (inside) {
+                output.add(input.xs[i], input.ys[i], input.latLngs[i]);
+            }
+            previous = i;
+            previousInside = inside;
+        }
+        return output;
+    }
+
+    private static boolean isInside(double x, double y, int edge, double value) {
+        switch (edge) {
+            case LEFT:
+                return x >= value;
+            case RIGHT:
+                return x <= value;
+            case TOP:
+                return y >= value;
+            default:
+                return y <= value;
+        }
+    }
+
+    private static LatLng toLatLng(double x, double y) {
+        return new LatLng(GeometryUtil.latitude(y), GeometryUtil.longitude(x));
+    }
+
+    private static class Ring {
+        double[] xs;
+        double[] ys;
+        LatLng[] latLngs;
+        int size = 0;
+
+        Ring(int capacity) {
+            xs = new double[capacity];
+            ys = new double[capacity];
+            latLngs = new LatLng[capacity];
+        }
+
+        void add(double x, double y, LatLng latLng) {
+            if (size == xs.length) {
+                int capacity = size * 2 + 4;
+                double[] newXs = new double[capacity];
+                double[] newYs = new double[capacity];
+                LatLng[] newLatLngs = new LatLng[capacity];
+                System.arraycopy(xs, 0, newXs, 0, size);
+                System.arraycopy(ys, 0, newYs, 0, size);
+                System.arraycopy(latLngs, 0, newLatLngs, 0, size);
+                xs = newXs;
+                ys = newYs;
+                latLngs = newLatLngs;
+            }
+            xs[size] = x;
+            ys[size] = y;
+            latLngs[size] = latLng;
+            size++;
+        }
+    }
+
+    public static class Result {
+        public final List<LatLng> points;
+        //每个输出顶点对应的输入顶点下标，与输入一一对应时为 null
+        public final int[] sourceIndices;
+        //以该顶点为起点的线段是沿裁剪框边界的连接线段，没有连接线段时为 null
+        public final BitSet connectors;
+
+        Result(List<LatLng> points, int[] sourceIndices) {
+            this(points, sourceIndices, null);
+        }
+
+        Result(List<LatLng> points, int[] sourceIndices, BitSet connectors) {
+            this.points = points;
+            this.sourceIndices = sourceIndices;
+            this.connectors = connectors;
+        }
+    }
+}
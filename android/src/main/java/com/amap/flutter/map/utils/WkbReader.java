@@ -0,0 +1,202 @@
+package com.amap.flutter.map.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WKB（Well-Known Binary）几何解码
+ * <p>
+ * 直接在传入的字节数组上用 {@link ByteBuffer} 读取，坐标写入 [lat0, lng0, lat1, lng1, ...] 数组，
+ * 不经过中间对象。支持 OGC/ISO WKB 以及 PostGIS 的 EWKB（带 SRID 与 Z/M 标志位），高程与 M 值会被忽略；
+ * WKB 中坐标顺序为 x(lng), y(lat)。
+ */
+public class WkbReader {
+    private static final int POINT = 1;
+    private static final int LINE_STRING = 2;
+    private static final int POLYGON = 3;
+    private static final int MULTI_POINT = 4;
+    private static final int MULTI_LINE_STRING = 5;
+    private static final int MULTI_POLYGON = 6;
+    private static final int GEOMETRY_COLLECTION = 7;
+
+    //EWKB 标志位
+    private static final int EWKB_Z = 0x80000000;
+    private static final int EWKB_M = 0x40000000;
+    private static final int EWKB_SRID = 0x20000000;
+    //每个环至少有 4 字节的点数，每个子几何至少有 1 字节字节序与 4 字节类型
+    private static final int MIN_RING_BYTES = 4;
+    private static final int MIN_PART_BYTES = 5;
+
+    public static class Geometry {
+        //与 GeoJSON 的 type 一致
+        public final String type;
+        //Point: {lat, lng}；LineString: 点序列
+        public double[] coordinates;
+        //Polygon: 第一个为外轮廓，其余为洞
+        public List<double[]> rings;
+        //Multi* 与 GeometryCollection 的成员
+        public List<Geometry> parts;
+
+        Geometry(String type) {
+            this.type = type;
+        }
+    }
+
+    private final ByteBuffer buffer;
+
+    private WkbReader(byte[] data) {
+        this.buffer = ByteBuffer.wrap(data);
+    }
+
+    public static Geometry read(byte[] data) {
+        try {
+            return new WkbReader(data).readGeometry();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid WKB: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 折线使用：LineString，或只取 MultiLineString 的第一段
+     */
+    public static double[] readLine(byte[] data) {
+        final Geometry geometry = read(data);
+        if ("LineString".equals(geometry.type)) {
+            return geometry.coordinates;
+        }
+        if ("MultiLineString".equals(geometry.type) && !geometry.parts.isEmpty()) {
+            return geometry.parts.get(0).coordinates;
+        }
+        throw new IllegalArgumentException("Expected WKB LineString, got " + geometry.type);
+    }
+
+    /**
+     * 多边形使用：Polygon，或只取 MultiPolygon 的第一个
+     *
+     * @return 至少包含外轮廓，POLYGON EMPTY 按格式错误处理
+     */
+    public static List<double[]> readPolygon(byte[] data) {
+        final Geometry geometry = read(data);
+        List<double[]> rings = null;
+        if ("Polygon".equals(geometry.type)) {
+            rings = geometry.rings;
+        } else if ("MultiPolygon".equals(geometry.type) && !geometry.parts.isEmpty()) {
+            rings = geometry.parts.get(0).rings;
+        } else {
+            throw new IllegalArgumentException("Expected WKB Polygon, got " + geometry.type);
+        }
+        if (null == rings || rings.isEmpty()) {
+            throw new IllegalArgumentException("Empty WKB Polygon");
+        }
+        return rings;
+    }
+
+    /**
+     * Marker 使用：Point，返回 {lat, lng}
+     */
+    public static double[] readPoint(byte[] data) {
+        final Geometry geometry = read(data);
+        if ("Point".equals(geometry.type) && null != geometry.coordinates) {
+            return geometry.coordinates;
+        }
+        throw new IllegalArgumentException("Expected WKB Point, got " + geometry.type);
+    }
+
+    private Geometry readGeometry() {
+        //每个（子）几何都有自己的字节序
+        buffer.order(buffer.get() == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        int typeCode = buffer.getInt();
+        int dimensions = 2;
+        if ((typeCode & EWKB_Z) != 0) {
+            dimensions++;
+        }
+        if ((typeCode & EWKB_M) != 0) {
+            dimensions++;
+        }
+        if ((typeCode & EWKB_SRID) != 0) {
+            buffer.getInt();
+        }
+        typeCode &= 0x0fffffff;
+        //ISO WKB：1000 Z，2000 M，3000 ZM
+        final int iso = typeCode / 1000;
+        if (iso == 1 || iso == 2) {
+            dimensions = 3;
+        } else if (iso == 3) {
+            dimensions = 4;
+        }
+        switch (typeCode % 1000) {
+            case POINT: {
+                final Geometry point = new Geometry("Point");
+                final double[] coordinates = readPositions(1, dimensions);
+                //空点以 NaN 表示
+                point.coordinates = Double.isNaN(coordinates[0]) ? null : coordinates;
+                return point;
+            }
+            case LINE_STRING: {
+                final Geometry line = new Geometry("LineString");
+                line.coordinates = readPositions(buffer.getInt(), dimensions);
+                return line;
+            }
+            case POLYGON: {
+                final Geometry polygon = new Geometry("Polygon");
+                final int ringCount = readCount(MIN_RING_BYTES);
+                polygon.rings = new ArrayList<>(ringCount);
+                for (int i = 0; i < ringCount; i++) {
+                    polygon.rings.add(readPositions(buffer.getInt(), dimensions));
+                }
+                return polygon;
+            }
+            case MULTI_POINT:
+                return readParts("MultiPoint");
+            case MULTI_LINE_STRING:
+                return readParts("MultiLineString");
+            case MULTI_POLYGON:
+                return readParts("MultiPolygon");
+            case GEOMETRY_COLLECTION:
+                return readParts("GeometryCollection");
+            default:
+                throw new IllegalArgumentException("Unsupported WKB geometry type " + typeCode);
+        }
+    }
+
+    private Geometry readParts(String type) {
+        final Geometry geometry = new Geometry(type);
+        final int count = readCount(MIN_PART_BYTES);
+        geometry.parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            geometry.parts.add(readGeometry());
+        }
+        return geometry;
+    }
+
+    /**
+     * 读取元素个数，并按每个元素的最小字节数检查剩余长度，避免按损坏的个数预分配
+     */
+    private int readCount(int minBytesPerElement) {
+        final int position = buffer.position();
+        final int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / minBytesPerElement) {
+            throw new IllegalArgumentException("Invalid WKB element count " + count + " at " + position);
+        }
+        return count;
+    }
+
+    private double[] readPositions(int count, int dimensions) {
+        if (count < 0 || (long) count * dimensions * 8 > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated WKB at " + buffer.position());
+        }
+        final double[] packed = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            final double x = buffer.getDouble();
+            final double y = buffer.getDouble();
+            packed[i * 2] = y;
+            packed[i * 2 + 1] = x;
+            for (int d = 2; d < dimensions; d++) {
+                buffer.getDouble();
+            }
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,378 @@
+package com.amap.flutter.map.overlays.geojson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlatGeobufFileTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int NODE_SIZE = 2;
+
+    private File file;
+
+    // ---- 生成测试文件用的 FlatBuffers 写入，子对象写在引用它的表之后 ----
+
+    private interface Node {
+        /**
+         * @return 对象在 buffer 中的位置
+         */
+        int write(ByteBuffer buffer);
+    }
+
+    private static class Table implements Node {
+        private final TreeMap<Integer, Object> fields = new TreeMap<>();
+
+        Table ubyte(int index, int value) {
+            fields.put(index, (byte) value);
+            return this;
+        }
+
+        Table ushort(int index, int value) {
+            fields.put(index, (short) value);
+            return this;
+        }
+
+        Table ulong(int index, long value) {
+            fields.put(index, value);
+            return this;
+        }
+
+        Table ref(int index, Node value) {
+            fields.put(index, value);
+            return this;
+        }
+
+        @Override
+        public int write(ByteBuffer buffer) {
+            final int fieldCount = fields.isEmpty() ? 0 : fields.lastKey() + 1;
+            final int vtable = buffer.position();
+            buffer.putShort((short) (4 + fieldCount * 2));
+            for (int i = 0; i <= fieldCount; i++) {
+                buffer.putShort((short) 0);
+            }
+            final int table = buffer.position();
+            buffer.putInt(table - vtable);
+            final Map<Integer, Node> refs = new HashMap<>();
+            for (Map.Entry<Integer, Object> entry : fields.entrySet()) {
+                buffer.putShort(vtable + 4 + entry.getKey() * 2, (short) (buffer.position() - table));
+                final Object value = entry.getValue();
+                if (value instanceof Byte) {
+                    buffer.put((Byte) value);
+                } else if (value instanceof Short) {
+                    buffer.putShort((Short) value);
+                } else if (value instanceof Long) {
+                    buffer.putLong((Long) value);
+                } else {
+                    refs.put(buffer.position(), (Node) value);
+                    buffer.putInt(0);
+                }
+            }
+            buffer.putShort(vtable + 2, (short) (buffer.position() - table));
+            for (Map.Entry<Integer, Node> ref : refs.entrySet()) {
+                final int target = ref.getValue().write(buffer);
+                buffer.putInt(ref.getKey(), target - ref.getKey());
+            }
+            return table;
+        }
+    }
+
+    private static Node bytes(final byte[] values) {
+        return new Node() {
+            @Override
+            public int write(ByteBuffer buffer) {
+                final int start = buffer.position();
+                buffer.putInt(values.length);
+                buffer.put(values);
+                return start;
+            }
+        };
+    }
+
+    private static Node string(String value) {
+        final byte[] utf8 = value.getBytes(UTF_8);
+        return new Node() {
+            @Override
+            public int write(ByteBuffer buffer) {
+                final int start = buffer.position();
+                //长度不含结尾的 0
+                buffer.putInt(utf8.length);
+                buffer.put(utf8);
+                buffer.put((byte) 0);
+                return start;
+            }
+        };
+    }
+
+    private static Node doubles(final double... values) {
+        return new Node() {
+            @Override
+            public int write(ByteBuffer buffer) {
+                final int start = buffer.position();
+                buffer.putInt(values.length);
+                for (double value : values) {
+                    buffer.putDouble(value);
+                }
+                return start;
+            }
+        };
+    }
+
+    private static Node uints(final int... values) {
+        return new Node() {
+            @Override
+            public int write(ByteBuffer buffer) {
+                final int start = buffer.position();
+                buffer.putInt(values.length);
+                for (int value : values) {
+                    buffer.putInt(value);
+                }
+                return start;
+            }
+        };
+    }
+
+    private static Node tables(final Node... values) {
+        return new Node() {
+            @Override
+            public int write(ByteBuffer buffer) {
+                final int start = buffer.position();
+                buffer.putInt(values.length);
+                final int elements = buffer.position();
+                for (int i = 0; i < values.length; i++) {
+                    buffer.putInt(0);
+                }
+                for (int i = 0; i < values.length; i++) {
+                    final int element = elements + i * 4;
+                    buffer.putInt(element, values[i].write(buffer) - element);
+                }
+                return start;
+            }
+        };
+    }
+
+    /**
+     * name 为 String 列，pop 为 Int 列
+     */
+    private static byte[] properties(String name, Integer pop) {
+        final ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+        if (null != name) {
+            final byte[] utf8 = name.getBytes(UTF_8);
+            buffer.putShort((short) 0).putInt(utf8.length).put(utf8);
+        }
+        if (null != pop) {
+            buffer.putShort((short) 1).putInt(pop);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static Table feature(Table geometry, byte[] properties) {
+        return new Table().ref(0, geometry).ref(1, bytes(properties));
+    }
+
+    /**
+     * 4 个要素，节点容量 2：根节点 0，中间层 1-2，叶子 3-6
+     */
+    private static byte[] buildFile() {
+        final Table[] features = {
+                feature(new Table().ubyte(6, 1).ref(1, doubles(120.5, 30.5)), properties("a", 10)),
+                feature(new Table().ubyte(6, 3).ref(0, uints(5, 9))
+                                .ref(1, doubles(121, 31, 122, 31, 122, 32, 121, 32, 121, 31,
+                                        121.2, 31.2, 121.2, 31.4, 121.4, 31.4, 121.2, 31.2)),
+                        properties("b", null)),
+                feature(new Table().ubyte(6, 2).ref(1, doubles(125, 35, 126, 36)), properties(null, 7)),
+                feature(new Table().ubyte(6, 6).ref(7, tables(
+                        new Table().ref(1, doubles(130, 40, 131, 40, 131, 41, 130, 40)),
+                        new Table().ref(1, doubles(132, 40, 133, 40, 133, 41, 132, 40)))), properties("d", 4)),
+        };
+        final double[][] boxes = {
+                {120.5, 30.5, 120.5, 30.5},
+                {121, 31, 122, 32},
+                {125, 35, 126, 36},
+                {130, 40, 133, 41},
+        };
+        final ByteBuffer featureBuffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        final long[] offsets = new long[features.length];
+        for (int i = 0; i < features.length; i++) {
+            final int start = featureBuffer.position();
+            offsets[i] = start;
+            featureBuffer.putInt(0);
+            featureBuffer.putInt(0);
+            featureBuffer.putInt(start + 4, features[i].write(featureBuffer) - (start + 4));
+            featureBuffer.putInt(start, featureBuffer.position() - start - 4);
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[]{'f', 'g', 'b', 3, 'f', 'g', 'b', 0});
+        buffer.putInt(0);
+        buffer.putInt(0);
+        final Table header = new Table()
+                .ubyte(2, 0)
+                .ref(7, tables(
+                        new Table().ref(0, string("name")).ubyte(1, 11),
+                        new Table().ref(0, string("pop")).ubyte(1, 5)))
+                .ulong(8, features.length)
+                .ushort(9, NODE_SIZE);
+        buffer.putInt(12, header.write(buffer) - 12);
+        buffer.putInt(8, buffer.position() - 12);
+
+        final double[] left = union(boxes[0], boxes[1]);
+        final double[] right = union(boxes[2], boxes[3]);
+        putNode(buffer, union(left, right), 1);
+        putNode(buffer, left, 3);
+        putNode(buffer, right, 5);
+        for (int i = 0; i < boxes.length; i++) {
+            putNode(buffer, boxes[i], offsets[i]);
+        }
+        buffer.put(featureBuffer.array(), 0, featureBuffer.position());
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static double[] union(double[] a, double[] b) {
+        return new double[]{Math.min(a[0], b[0]), Math.min(a[1], b[1]), Math.max(a[2], b[2]), Math.max(a[3], b[3])};
+    }
+
+    private static void putNode(ByteBuffer buffer, double[] box, long offset) {
+        for (double value : box) {
+            buffer.putDouble(value);
+        }
+        buffer.putLong(offset);
+    }
+
+    private void writeFile(byte[] data) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("flatgeobuf", ".fgb");
+        writeFile(buildFile());
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void readHeader() throws IOException {
+        final FlatGeobufFile fgb = FlatGeobufFile.open(file.getPath());
+        assertEquals(4, fgb.getFeatureCount());
+        assertEquals(Arrays.asList("name", "pop"), fgb.getColumnNames());
+    }
+
+    @Test
+    public void searchUsesIndex() throws IOException {
+        final FlatGeobufFile fgb = FlatGeobufFile.open(file.getPath());
+        assertEquals(4, fgb.search(-180, -90, 180, 90, 100).size());
+        assertEquals(1, fgb.search(121.5, 31.5, 121.6, 31.6, 100).size());
+        assertEquals(2, fgb.search(120, 30, 121.5, 31.5, 100).size());
+        assertTrue(fgb.search(0, 0, 1, 1, 100).isEmpty());
+    }
+
+    @Test
+    public void searchStopsAfterLimit() throws IOException {
+        final FlatGeobufFile fgb = FlatGeobufFile.open(file.getPath());
+        assertEquals(2, fgb.search(-180, -90, 180, 90, 1).size());
+    }
+
+    @Test
+    public void readPointWithProperties() throws IOException {
+        final FlatGeobufFile fgb = FlatGeobufFile.open(file.getPath());
+        final List<Long> offsets = fgb.search(120.4, 30.4, 120.6, 30.6, 100);
+        assertEquals(1, offsets.size());
+        final Map<String, Object> properties = new HashMap<>();
+        final GeoJsonReader.Geometry geometry = fgb.readFeature(offsets.get(0),
+                new HashSet<>(Arrays.asList("name", "pop")), properties);
+        assertEquals("Point", geometry.type);
+        assertArrayEquals(new double[]{30.5, 120.5}, (double[]) geometry.coordinates, 0);
+        assertEquals("a", properties.get("name"));
+        assertEquals(10L, properties.get("pop"));
+    }
+
+    @Test
+    public void readOnlyRequestedProperties() throws IOException {
+        final FlatGeobufFile fgb = FlatGeobufFile.open(file.getPath());
+        final Map<String, Object> properties = new HashMap<>();
+        fgb.readFeature(fgb.search(130.5, 40.5, 130.6, 40.6, 100).get(0),
+                Collections.singleton("pop"), properties);
+        assertEquals(Collections.<String, Object>singletonMap("pop", 4L), properties);
+    }
+
+    @Test
+    public void readPolygonWithHole() throws IOException {
+        final FlatGeobufFile fgb = FlatGeobufFile.open(file.getPath());
+        final GeoJsonReader.Geometry geometry = fgb.readFeature(fgb.search(121.5, 31.5, 121.6, 31.6, 100).get(0),
+                Collections.<String>emptySet(), new HashMap<String, Object>());
+        assertEquals("Polygon", geometry.type);
+        final List<?> rings = (List<?>) geometry.coordinates;
+        assertEquals(2, rings.size());
+        final GeoJsonReader.Positions outer = (GeoJsonReader.Positions) rings.get(0);
+        assertEquals(5, outer.count);
+        assertEquals(31, outer.packed[0], 0);
+        assertEquals(121, outer.packed[1], 0);
+        assertEquals(4, ((GeoJsonReader.Positions) rings.get(1)).count);
+    }
+
+    @Test
+    public void readLineString() throws IOException {
+        final FlatGeobufFile fgb = FlatGeobufFile.open(file.getPath());
+        final Set<String> names = new HashSet<>(Arrays.asList("name", "pop"));
+        final Map<String, Object> properties = new HashMap<>();
+        final GeoJsonReader.Geometry geometry = fgb.readFeature(fgb.search(125, 35, 125.1, 35.1, 100).get(0),
+                names, properties);
+        assertEquals("LineString", geometry.type);
+        assertArrayEquals(new double[]{35, 125, 36, 126}, ((GeoJsonReader.Positions) geometry.coordinates).packed, 0);
+        assertNull(properties.get("name"));
+        assertEquals(7L, properties.get("pop"));
+    }
+
+    @Test
+    public void readMultiPolygon() throws IOException {
+        final FlatGeobufFile fgb = FlatGeobufFile.open(file.getPath());
+        final GeoJsonReader.Geometry geometry = fgb.readFeature(fgb.search(132.5, 40.1, 132.6, 40.2, 100).get(0),
+                Collections.<String>emptySet(), new HashMap<String, Object>());
+        assertEquals("MultiPolygon", geometry.type);
+        assertEquals(2, geometry.geometries.size());
+        assertEquals("Polygon", geometry.geometries.get(1).type);
+        final List<?> rings = (List<?>) geometry.geometries.get(1).coordinates;
+        assertEquals(132, ((GeoJsonReader.Positions) rings.get(0)).packed[1], 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void notFlatGeobufThrows() throws IOException {
+        writeFile("{\"type\":\"FeatureCollection\"}".getBytes(UTF_8));
+        FlatGeobufFile.open(file.getPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedIndexThrows() throws IOException {
+        final byte[] data = buildFile();
+        writeFile(Arrays.copyOf(data, 200));
+        FlatGeobufFile.open(file.getPath());
+    }
+}
@@ -0,0 +1,153 @@
+package com.amap.flutter.map.overlays.geojson;
+
+import android.util.JsonReader;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * android.util.JsonReader 只在 Android 运行时可用，由 Robolectric 提供
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class GeoJsonReaderTest {
+
+    private static class Feature {
+        final Object id;
+        final Map<String, Object> properties;
+        final GeoJsonReader.Geometry geometry;
+
+        Feature(Object id, Map<String, Object> properties, GeoJsonReader.Geometry geometry) {
+            this.id = id;
+            this.properties = properties;
+            this.geometry = geometry;
+        }
+    }
+
+    private static List<Feature> read(String json, final List<Feature> features, String... propertyNames) throws IOException {
+        final JsonReader reader = new JsonReader(new StringReader(json));
+        try {
+            new GeoJsonReader(reader, new HashSet<>(Arrays.asList(propertyNames))).read(new GeoJsonReader.Listener() {
+                @Override
+                public void onFeature(Object id, Map<String, Object> properties, GeoJsonReader.Geometry geometry) {
+                    features.add(new Feature(id, properties, geometry));
+                }
+            });
+        } finally {
+            reader.close();
+        }
+        return features;
+    }
+
+    private static List<Feature> read(String json, String... propertyNames) throws IOException {
+        return read(json, new ArrayList<Feature>(), propertyNames);
+    }
+
+    private static double[] positions(Object coordinates) {
+        return ((GeoJsonReader.Positions) coordinates).toArray();
+    }
+
+    @Test
+    public void featureCollection() throws IOException {
+        final List<Feature> features = read("{\"type\":\"FeatureCollection\",\"features\":["
+                + "{\"type\":\"Feature\",\"id\":7,\"properties\":{\"name\":\"a\",\"pop\":1.5,\"skip\":1},"
+                + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[116.4,39.9,50]}},"
+                + "{\"type\":\"Feature\",\"id\":\"b\",\"geometry\":{\"type\":\"LineString\","
+                + "\"coordinates\":[[116.4,39.9],[116.5,40.0]]}}]}", "name", "pop");
+        assertEquals(2, features.size());
+        //整数 id 保持为整数
+        assertEquals(7L, features.get(0).id);
+        assertEquals("a", features.get(0).properties.get("name"));
+        assertEquals(1.5, features.get(0).properties.get("pop"));
+        assertEquals(2, features.get(0).properties.size());
+        //坐标转换为 [lat, lng]，忽略高程
+        assertArrayEquals(new double[]{39.9, 116.4}, (double[]) features.get(0).geometry.coordinates, 0);
+
+        assertEquals("b", features.get(1).id);
+        assertTrue(features.get(1).properties.isEmpty());
+        assertArrayEquals(new double[]{39.9, 116.4, 40.0, 116.5}, positions(features.get(1).geometry.coordinates), 0);
+    }
+
+    @Test
+    public void nestedCoordinates() throws IOException {
+        final List<Feature> features = read("{\"type\":\"Feature\",\"geometry\":{\"type\":\"MultiPolygon\",\"coordinates\":"
+                + "[[[[0,0],[1,0],[1,1],[0,0]],[[0.2,0.2],[0.4,0.2],[0.4,0.4],[0.2,0.2]]]]}}");
+        assertEquals(1, features.size());
+        final List<?> polygons = (List<?>) features.get(0).geometry.coordinates;
+        assertEquals(1, polygons.size());
+        final List<?> rings = (List<?>) polygons.get(0);
+        assertEquals(2, rings.size());
+        assertArrayEquals(new double[]{0, 0, 0, 1, 1, 1, 0, 0}, positions(rings.get(0)), 0);
+    }
+
+    @Test
+    public void bareGeometryAndCollection() throws IOException {
+        final List<Feature> features = read("{\"type\":\"GeometryCollection\",\"geometries\":["
+                + "{\"type\":\"Point\",\"coordinates\":[1,2]},{\"coordinates\":[3,4]}]}");
+        assertEquals(1, features.size());
+        assertNull(features.get(0).id);
+        final GeoJsonReader.Geometry collection = features.get(0).geometry;
+        assertEquals("GeometryCollection", collection.type);
+        //没有 type 的几何被丢弃
+        assertEquals(1, collection.geometries.size());
+        assertArrayEquals(new double[]{2, 1}, (double[]) collection.geometries.get(0).coordinates, 0);
+    }
+
+    @Test
+    public void invalidMembersAreSkipped() throws IOException {
+        final List<Feature> features = read("{\"type\":\"FeatureCollection\",\"features\":["
+                + "null, 3, \"x\","
+                + "{\"type\":\"Feature\",\"geometry\":null},"
+                + "{\"type\":\"Feature\",\"geometry\":{\"coordinates\":[1,2]}},"
+                + "{\"type\":\"Feature\",\"properties\":null,\"geometry\":{\"type\":\"Point\",\"coordinates\":\"bad\"}},"
+                + "{\"type\":\"Feature\",\"id\":[1],\"properties\":{\"name\":{\"nested\":true}},"
+                + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]}}]}", "name");
+        //非对象的 Feature、没有几何或几何没有 type 的 Feature 被跳过
+        assertEquals(2, features.size());
+        assertTrue(features.get(0).properties.isEmpty());
+        assertNull(features.get(0).geometry.coordinates);
+        //非基本类型的 id 与属性值读为 null
+        assertNull(features.get(1).id);
+        assertTrue(features.get(1).properties.containsKey("name"));
+        assertNull(features.get(1).properties.get("name"));
+    }
+
+    @Test
+    public void truncatedFileFailsAfterCompleteFeatures() throws IOException {
+        final List<Feature> features = new ArrayList<>();
+        try {
+            read("{\"type\":\"FeatureCollection\",\"features\":["
+                    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]}},"
+                    + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordi", features);
+            throw new AssertionError("expected IOException");
+        } catch (IOException e) {
+            //截断之前完整的 Feature 已经交给 Listener
+            assertEquals(1, features.size());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidSyntaxIsRejected() throws IOException {
+        read("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1 2]}}");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void topLevelArrayIsRejected() throws IOException {
+        read("[{\"type\":\"Point\",\"coordinates\":[1,2]}]");
+    }
+}
@@ -0,0 +1,112 @@
+package com.amap.flutter.map.overlays.marker;
+
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MarkerDeclutterTest {
+    //缩放级别 10 时一个墨卡托单位对应的像素数
+    private static final double PIXELS_PER_UNIT = 256 * 1024;
+    private static final double CELL = 48;
+
+    private final double[] latitudes = new double[8];
+    private final double[] longitudes = new double[8];
+    private final float[] priorities = new float[8];
+    private final float[] boxes = new float[32];
+    private int count = 0;
+
+    /**
+     * 在赤道附近按像素偏移放置 marker，外框为 width x height，锚点为 (u, v)
+     */
+    private void add(double x, double y, float width, float height, float u, float v, float priority) {
+        longitudes[count] = GeometryUtil.longitude(0.5 + x / PIXELS_PER_UNIT);
+        latitudes[count] = GeometryUtil.latitude(0.5 + y / PIXELS_PER_UNIT);
+        priorities[count] = priority;
+        boxes[count * 4] = -u * width;
+        boxes[count * 4 + 1] = -v * height;
+        boxes[count * 4 + 2] = (1 - u) * width;
+        boxes[count * 4 + 3] = (1 - v) * height;
+        count++;
+    }
+
+    private boolean[] compute() {
+        return MarkerDeclutter.compute(latitudes, longitudes, priorities, boxes, count, CELL, PIXELS_PER_UNIT);
+    }
+
+    private static void assertHidden(boolean[] expected, boolean[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("marker " + i, expected[i], actual[i]);
+        }
+    }
+
+    @Test
+    public void wideLabelsInNeighbouringCellsCollide() {
+        //锚点相距 60 像素，落在不同网格，但 200 像素宽的外框相交
+        add(10, 10, 200, 20, 0.5f, 0.5f, 1);
+        add(70, 10, 200, 20, 0.5f, 0.5f, 2);
+        assertHidden(new boolean[]{true, false}, compute());
+    }
+
+    @Test
+    public void smallIconsInSameCellDoNotCollide() {
+        add(5, 5, 10, 10, 0.5f, 0.5f, 1);
+        add(25, 25, 10, 10, 0.5f, 0.5f, 2);
+        assertHidden(new boolean[]{false, false}, compute());
+    }
+
+    @Test
+    public void highestPriorityWins() {
+        add(0, 0, 40, 40, 0.5f, 0.5f, 1);
+        add(10, 0, 40, 40, 0.5f, 0.5f, 3);
+        add(20, 0, 40, 40, 0.5f, 0.5f, 2);
+        assertHidden(new boolean[]{true, false, true}, compute());
+    }
+
+    @Test
+    public void equalPrioritiesKeepEarlierMarker() {
+        add(0, 0, 40, 40, 0.5f, 0.5f, 0);
+        add(10, 0, 40, 40, 0.5f, 0.5f, 0);
+        assertHidden(new boolean[]{false, true}, compute());
+    }
+
+    @Test
+    public void hiddenMarkersDoNotBlockOthers() {
+        //B 与 A、C 都相交并被 A 挡住，C 只与 B 相交，仍然显示
+        add(0, 0, 40, 40, 0.5f, 0.5f, 3);
+        add(30, 0, 40, 40, 0.5f, 0.5f, 2);
+        add(60, 0, 40, 40, 0.5f, 0.5f, 1);
+        assertHidden(new boolean[]{false, true, false}, compute());
+    }
+
+    @Test
+    public void anchorShiftsTheBox() {
+        //底部锚点的图标向上延伸，与正上方 30 像素处的图标相交
+        add(0, 0, 20, 40, 0.5f, 1f, 1);
+        add(0, -30, 20, 20, 0.5f, 0.5f, 2);
+        //顶部锚点的图标向下延伸，与上方的图标不相交
+        add(200, 0, 20, 40, 0.5f, 0f, 1);
+        add(200, -30, 20, 20, 0.5f, 0.5f, 2);
+        assertHidden(new boolean[]{true, false, false, false}, compute());
+    }
+
+    @Test
+    public void boxesLargerThanCellsAreFound() {
+        add(0, 0, 300, 300, 0.5f, 0.5f, 2);
+        add(140, 140, 10, 10, 0.5f, 0.5f, 1);
+        add(160, 160, 10, 10, 0.5f, 0.5f, 1);
+        assertHidden(new boolean[]{false, true, false}, compute());
+    }
+
+    @Test
+    public void invalidScaleHidesNothing() {
+        add(0, 0, 40, 40, 0.5f, 0.5f, 1);
+        add(0, 0, 40, 40, 0.5f, 0.5f, 2);
+        assertArrayEquals(new boolean[]{false, false},
+                MarkerDeclutter.compute(latitudes, longitudes, priorities, boxes, count, CELL, 0));
+        assertEquals(0, MarkerDeclutter.compute(latitudes, longitudes, priorities, boxes, 0, CELL, PIXELS_PER_UNIT).length);
+    }
+}
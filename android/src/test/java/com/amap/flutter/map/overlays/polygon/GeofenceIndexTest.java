@@ -0,0 +1,106 @@
+package com.amap.flutter.map.overlays.polygon;
+
+import com.amap.api.maps.model.LatLng;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeofenceIndexTest {
+
+    private static List<LatLng> square(double lat, double lng, double size) {
+        return Arrays.asList(
+                new LatLng(lat, lng),
+                new LatLng(lat, lng + size),
+                new LatLng(lat + size, lng + size),
+                new LatLng(lat + size, lng));
+    }
+
+    /**
+     * size x size 的网格，id 为 "行-列"，多于一个 R 树节点的容量
+     */
+    private static List<GeofenceIndex.Shape> grid(int size) {
+        final List<GeofenceIndex.Shape> shapes = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                shapes.add(new GeofenceIndex.Shape(row + "-" + col, square(row, col, 1), null));
+            }
+        }
+        return shapes;
+    }
+
+    @Test
+    public void ringContainsDoesNotNeedClosedRing() {
+        final double[] triangle = {0, 0, 10, 0, 0, 10};
+        assertTrue(GeofenceIndex.ringContains(triangle, 2, 2));
+        assertFalse(GeofenceIndex.ringContains(triangle, 8, 8));
+        assertFalse(GeofenceIndex.ringContains(new double[]{0, 0, 10, 0}, 2, 0));
+    }
+
+    @Test
+    public void holeIsNotContained() {
+        final GeofenceIndex.Shape shape = new GeofenceIndex.Shape("a", square(0, 0, 10),
+                Collections.singletonList(square(4, 4, 2)));
+        //x 为经度，y 为纬度
+        assertTrue(shape.contains(1, 1));
+        assertFalse(shape.contains(5, 5));
+        assertFalse(shape.contains(11, 5));
+    }
+
+    @Test
+    public void emptyIndexReturnsNothing() {
+        final GeofenceIndex index = new GeofenceIndex(new ArrayList<GeofenceIndex.Shape>());
+        assertEquals(0, index.size());
+        assertTrue(index.query(0, 0).isEmpty());
+        index.accumulate(0, 0, 1, new double[0]);
+    }
+
+    @Test
+    public void queryFindsEveryCell() {
+        final GeofenceIndex index = new GeofenceIndex(grid(20));
+        assertEquals(400, index.size());
+        for (int row = 0; row < 20; row++) {
+            for (int col = 0; col < 20; col++) {
+                assertEquals(Collections.singletonList(row + "-" + col), index.query(row + 0.5, col + 0.5));
+            }
+        }
+        assertTrue(index.query(-0.5, 3.5).isEmpty());
+        assertTrue(index.query(3.5, 20.5).isEmpty());
+    }
+
+    @Test
+    public void queryReturnsOverlappingShapes() {
+        final List<GeofenceIndex.Shape> shapes = grid(5);
+        shapes.add(new GeofenceIndex.Shape("big", square(0, 0, 5), null));
+        final List<String> ids = new GeofenceIndex(shapes).query(2.5, 1.5);
+        Collections.sort(ids);
+        assertEquals(Arrays.asList("2-1", "big"), ids);
+    }
+
+    @Test
+    public void accumulateUsesInternalOrder() {
+        final GeofenceIndex index = new GeofenceIndex(grid(20));
+        final double[] totals = new double[index.size()];
+        index.accumulate(3.5, 7.5, 2, totals);
+        index.accumulate(3.25, 7.75, 1.5, totals);
+        index.accumulate(10.5, 0.5, 1, totals);
+        index.accumulate(-1, -1, 100, totals);
+        double sum = 0;
+        for (int i = 0; i < totals.length; i++) {
+            sum += totals[i];
+            if ("3-7".equals(index.idAt(i))) {
+                assertEquals(3.5, totals[i], 1e-9);
+            } else if ("10-0".equals(index.idAt(i))) {
+                assertEquals(1, totals[i], 1e-9);
+            }
+        }
+        assertEquals(4.5, sum, 1e-9);
+    }
+}
@@ -0,0 +1,149 @@
+package com.amap.flutter.map.overlays.polygon;
+
+import com.amap.api.maps.model.LatLng;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PolygonDissolveTest {
+    private static final double LAT = 30;
+    private static final double LNG = 120;
+    private static final double CELL = 0.01;
+
+    /**
+     * 以网格单位给出的矩形，逆时针
+     */
+    private static List<LatLng> rect(int row, int col, int rows, int cols) {
+        return Arrays.asList(
+                point(row, col),
+                point(row, col + cols),
+                point(row + rows, col + cols),
+                point(row + rows, col));
+    }
+
+    private static LatLng point(double row, double col) {
+        return new LatLng(LAT + row * CELL, LNG + col * CELL);
+    }
+
+    private static void assertRing(List<LatLng> ring, int minRow, int minCol, int maxRow, int maxCol) {
+        double minLat = Double.POSITIVE_INFINITY, minLng = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        for (LatLng latLng : ring) {
+            minLat = Math.min(minLat, latLng.latitude);
+            minLng = Math.min(minLng, latLng.longitude);
+            maxLat = Math.max(maxLat, latLng.latitude);
+            maxLng = Math.max(maxLng, latLng.longitude);
+        }
+        assertEquals(LAT + minRow * CELL, minLat, 1e-9);
+        assertEquals(LNG + minCol * CELL, minLng, 1e-9);
+        assertEquals(LAT + maxRow * CELL, maxLat, 1e-9);
+        assertEquals(LNG + maxCol * CELL, maxLng, 1e-9);
+    }
+
+    private static double signedArea(List<LatLng> ring) {
+        double area = 0;
+        for (int i = 0, j = ring.size() - 1; i < ring.size(); j = i++) {
+            area += ring.get(j).longitude * ring.get(i).latitude - ring.get(i).longitude * ring.get(j).latitude;
+        }
+        return area / 2;
+    }
+
+    @Test
+    public void adjacentSquaresMergeIntoRectangle() {
+        final PolygonDissolve dissolve = new PolygonDissolve(PolygonDissolve.DEFAULT_SNAP);
+        dissolve.add(rect(0, 0, 1, 1), null);
+        //顺时针输入也会统一方向
+        final List<LatLng> clockwise = new ArrayList<>(rect(0, 1, 1, 1));
+        Collections.reverse(clockwise);
+        dissolve.add(clockwise, null);
+        final List<PolygonDissolve.Ring> rings = dissolve.build();
+        assertEquals(1, rings.size());
+        assertEquals(4, rings.get(0).outer.size());
+        assertTrue(rings.get(0).holes.isEmpty());
+        assertTrue(signedArea(rings.get(0).outer) > 0);
+        assertRing(rings.get(0).outer, 0, 0, 1, 2);
+    }
+
+    @Test
+    public void tJunctionIsMerged() {
+        final PolygonDissolve dissolve = new PolygonDissolve(PolygonDissolve.DEFAULT_SNAP);
+        //下方一条长边，上方两条短边
+        dissolve.add(rect(0, 0, 1, 2), null);
+        dissolve.add(rect(1, 0, 1, 1), null);
+        dissolve.add(rect(1, 1, 1, 1), null);
+        final List<PolygonDissolve.Ring> rings = dissolve.build();
+        assertEquals(1, rings.size());
+        assertEquals(4, rings.get(0).outer.size());
+        assertRing(rings.get(0).outer, 0, 0, 2, 2);
+    }
+
+    @Test
+    public void enclosedGapBecomesHole() {
+        final PolygonDissolve dissolve = new PolygonDissolve(PolygonDissolve.DEFAULT_SNAP);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (row != 1 || col != 1) {
+                    dissolve.add(rect(row, col, 1, 1), null);
+                }
+            }
+        }
+        final List<PolygonDissolve.Ring> rings = dissolve.build();
+        assertEquals(1, rings.size());
+        assertEquals(4, rings.get(0).outer.size());
+        assertRing(rings.get(0).outer, 0, 0, 3, 3);
+        assertEquals(1, rings.get(0).holes.size());
+        final List<LatLng> hole = rings.get(0).holes.get(0);
+        assertEquals(4, hole.size());
+        assertTrue(signedArea(hole) < 0);
+        assertRing(hole, 1, 1, 2, 2);
+    }
+
+    @Test
+    public void inputHoleIsKept() {
+        final PolygonDissolve dissolve = new PolygonDissolve(PolygonDissolve.DEFAULT_SNAP);
+        dissolve.add(rect(0, 0, 4, 4), Collections.singletonList(rect(1, 1, 1, 1)));
+        dissolve.add(rect(0, 4, 4, 1), null);
+        final List<PolygonDissolve.Ring> rings = dissolve.build();
+        assertEquals(1, rings.size());
+        assertRing(rings.get(0).outer, 0, 0, 4, 5);
+        assertEquals(1, rings.get(0).holes.size());
+        assertRing(rings.get(0).holes.get(0), 1, 1, 2, 2);
+    }
+
+    @Test
+    public void separatePolygonsStaySeparate() {
+        final PolygonDissolve dissolve = new PolygonDissolve(PolygonDissolve.DEFAULT_SNAP);
+        dissolve.add(rect(0, 0, 1, 1), null);
+        dissolve.add(rect(0, 2, 1, 1), null);
+        assertEquals(2, dissolve.build().size());
+    }
+
+    @Test
+    public void nearbyVerticesAreSnapped() {
+        final PolygonDissolve dissolve = new PolygonDissolve(1e-5);
+        dissolve.add(rect(0, 0, 1, 1), null);
+        dissolve.add(Arrays.asList(
+                new LatLng(LAT + 1e-6, LNG + CELL - 1e-6),
+                point(0, 2),
+                point(1, 2),
+                new LatLng(LAT + CELL - 1e-6, LNG + CELL + 1e-6)), null);
+        final List<PolygonDissolve.Ring> rings = dissolve.build();
+        assertEquals(1, rings.size());
+        assertEquals(4, rings.get(0).outer.size());
+    }
+
+    @Test
+    public void degenerateRingsAreIgnored() {
+        final PolygonDissolve dissolve = new PolygonDissolve(PolygonDissolve.DEFAULT_SNAP);
+        dissolve.add(Arrays.asList(point(0, 0), point(0, 1)), null);
+        dissolve.add(null, null);
+        assertTrue(dissolve.build().isEmpty());
+    }
+}
@@ -0,0 +1,77 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PolylineDecorationTest {
+    //测试坐标的单位长度（墨卡托单位）
+    private static final double UNIT = 1e-7;
+    private static final double EPSILON = UNIT * 1e-3;
+
+    /**
+     * 以墨卡托坐标 (0.5, 0.5) 为原点，按 {@link #UNIT} 放置顶点，x 向东、y 向南
+     */
+    private static LatLng point(double x, double y) {
+        return new LatLng(GeometryUtil.latitude(0.5 + y * UNIT), GeometryUtil.longitude(0.5 + x * UNIT));
+    }
+
+    private static void assertPlacement(double[] placements, int index, double x, double y, double heading) {
+        assertEquals("x " + index, 0.5 + x * UNIT, placements[index * 3], EPSILON);
+        assertEquals("y " + index, 0.5 + y * UNIT, placements[index * 3 + 1], EPSILON);
+        assertEquals("heading " + index, heading, placements[index * 3 + 2], 1e-6);
+    }
+
+    @Test
+    public void degenerateInputHasNoPlacements() {
+        assertEquals(0, PolylineDecoration.place(Collections.<LatLng>emptyList(), UNIT).length);
+        assertEquals(0, PolylineDecoration.place(Arrays.asList(point(0, 0)), UNIT).length);
+        assertEquals(0, PolylineDecoration.place(Arrays.asList(point(0, 0), point(10, 0)), 0).length);
+    }
+
+    @Test
+    public void firstIconAtHalfSpacing() {
+        final double[] placements = PolylineDecoration.place(Arrays.asList(point(0, 0), point(9, 0)), 4 * UNIT);
+        assertEquals(2 * 3, placements.length);
+        //向东为 90 度
+        assertPlacement(placements, 0, 2, 0, 90);
+        assertPlacement(placements, 1, 6, 0, 90);
+    }
+
+    @Test
+    public void spacingContinuesAcrossVertices() {
+        //先向东 3 个单位，再向北 10 个单位
+        final List<LatLng> points = Arrays.asList(point(0, 0), point(3, 0), point(3, -10));
+        final double[] placements = PolylineDecoration.place(points, 4 * UNIT);
+        //总长 13，位置依次为 2、6、10
+        assertEquals(3 * 3, placements.length);
+        assertPlacement(placements, 0, 2, 0, 90);
+        assertPlacement(placements, 1, 3, -3, 0);
+        assertPlacement(placements, 2, 3, -7, 0);
+    }
+
+    @Test
+    public void headingFollowsSegmentDirection() {
+        final List<LatLng> points = Arrays.asList(point(0, 0), point(0, 10), point(-10, 10));
+        final double[] placements = PolylineDecoration.place(points, 10 * UNIT);
+        assertEquals(2 * 3, placements.length);
+        //向南为 180 度，向西为 270 度
+        assertPlacement(placements, 0, 0, 5, 180);
+        assertPlacement(placements, 1, -5, 10, 270);
+    }
+
+    @Test
+    public void repeatedVerticesAreSkipped() {
+        final List<LatLng> points = Arrays.asList(point(0, 0), point(0, 0), point(9, 0), point(9, 0));
+        final double[] placements = PolylineDecoration.place(points, 4 * UNIT);
+        assertEquals(2 * 3, placements.length);
+        assertPlacement(placements, 0, 2, 0, 90);
+    }
+}
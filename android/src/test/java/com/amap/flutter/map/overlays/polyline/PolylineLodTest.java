@@ -0,0 +1,191 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PolylineLodTest {
+    //测试坐标的单位长度（墨卡托单位），约 4 米
+    private static final double UNIT = 1e-7;
+
+    /**
+     * 以墨卡托坐标 (0.5, 0.5) 为原点，按 {@link #UNIT} 放置顶点，x 向东、y 向南
+     */
+    private static LatLng point(double x, double y) {
+        return new LatLng(GeometryUtil.latitude(0.5 + y * UNIT), GeometryUtil.longitude(0.5 + x * UNIT));
+    }
+
+    private static List<LatLng> randomWalk(long seed, int count) {
+        final Random random = new Random(seed);
+        final List<LatLng> points = new ArrayList<>(count);
+        double x = 0;
+        double y = 0;
+        for (int i = 0; i < count; i++) {
+            points.add(point(x, y));
+            x += 1 + random.nextDouble() * 10;
+            y += random.nextGaussian() * 8;
+        }
+        return points;
+    }
+
+    /**
+     * 直接按容差递归的 Douglas-Peucker，作为对照
+     */
+    private static int[] douglasPeucker(List<LatLng> points, double tolerance) {
+        final boolean[] keep = new boolean[points.size()];
+        keep[0] = true;
+        keep[points.size() - 1] = true;
+        split(points, 0, points.size() - 1, tolerance, keep);
+        int kept = 0;
+        for (boolean k : keep) {
+            kept += k ? 1 : 0;
+        }
+        final int[] indices = new int[kept];
+        int j = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                indices[j++] = i;
+            }
+        }
+        return indices;
+    }
+
+    private static void split(List<LatLng> points, int start, int end, double tolerance, boolean[] keep) {
+        if (end - start < 2) {
+            return;
+        }
+        int farthest = -1;
+        double maxDistance = -1;
+        for (int i = start + 1; i < end; i++) {
+            double distance = distance(points.get(i), points.get(start), points.get(end));
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                farthest = i;
+            }
+        }
+        if (maxDistance > tolerance) {
+            keep[farthest] = true;
+            split(points, start, farthest, tolerance, keep);
+            split(points, farthest, end, tolerance, keep);
+        }
+    }
+
+    private static double distance(LatLng p, LatLng a, LatLng b) {
+        return Math.sqrt(PolylineLod.segmentDistanceSquared(
+                GeometryUtil.mercatorX(p.longitude), GeometryUtil.mercatorY(p.latitude),
+                GeometryUtil.mercatorX(a.longitude), GeometryUtil.mercatorY(a.latitude),
+                GeometryUtil.mercatorX(b.longitude), GeometryUtil.mercatorY(b.latitude)));
+    }
+
+    @Test
+    public void emptyAndShortLines() {
+        assertEquals(0, PolylineLod.computeSignificance(new ArrayList<LatLng>()).length);
+        final double[] single = PolylineLod.computeSignificance(Arrays.asList(point(0, 0)));
+        assertEquals(Double.POSITIVE_INFINITY, single[0], 0);
+        final double[] pair = PolylineLod.computeSignificance(Arrays.asList(point(0, 0), point(1, 1)));
+        assertArrayEquals(new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY}, pair, 0);
+    }
+
+    @Test
+    public void straightLineKeepsOnlyEndpoints() {
+        final List<LatLng> points = Arrays.asList(point(0, 0), point(1, 0), point(2, 0), point(3, 0), point(4, 0));
+        final double[] significance = PolylineLod.computeSignificance(points);
+        assertArrayEquals(new int[]{0, 4}, PolylineLod.selectIndices(significance, UNIT * 1e-3));
+    }
+
+    @Test
+    public void childNeverExceedsParent() {
+        //中间的尖角先被选中，两侧更远的偏差也不能超过它
+        final List<LatLng> points = Arrays.asList(point(0, 0), point(1, 3), point(2, 10), point(3, 3), point(4, 0));
+        final double[] significance = PolylineLod.computeSignificance(points);
+        assertEquals(10 * UNIT, significance[2], UNIT * 1e-3);
+        assertTrue(significance[1] <= significance[2]);
+        assertTrue(significance[3] <= significance[2]);
+    }
+
+    @Test
+    public void thresholdFilterMatchesDouglasPeucker() {
+        final List<LatLng> points = randomWalk(42, 300);
+        final double[] significance = PolylineLod.computeSignificance(points);
+        for (double tolerance : new double[]{0.5, 2, 5, 20, 80}) {
+            assertArrayEquals("tolerance " + tolerance,
+                    douglasPeucker(points, tolerance * UNIT),
+                    PolylineLod.selectIndices(significance, tolerance * UNIT));
+        }
+    }
+
+    @Test
+    public void pickKeepsSelectedPoints() {
+        final List<LatLng> points = randomWalk(7, 10);
+        final List<LatLng> picked = PolylineLod.pick(points, new int[]{0, 4, 9});
+        assertEquals(Arrays.asList(points.get(0), points.get(4), points.get(9)), picked);
+    }
+
+    @Test
+    public void tailAppendKeepsPrefixAndSplitsTail() {
+        final List<LatLng> points = randomWalk(3, 80);
+        final double[] base = PolylineLod.computeSignificance(points.subList(0, 50));
+        final double[] appended = PolylineLod.appendSignificance(base, points);
+        assertEquals(80, appended.length);
+        assertEquals(Double.POSITIVE_INFINITY, appended[0], 0);
+        assertEquals(Double.POSITIVE_INFINITY, appended[79], 0);
+        for (int i = 1; i < 49; i++) {
+            assertEquals("prefix " + i, base[i], appended[i], 0);
+        }
+        //接缝顶点按到相邻两点连线的距离计算，不再始终保留
+        assertEquals(distance(points.get(49), points.get(48), points.get(50)), appended[49], 1e-15);
+        //尾部单独拆分，与对尾部直接计算一致
+        final double[] tail = PolylineLod.computeSignificance(points.subList(49, 80));
+        for (int i = 1; i < tail.length; i++) {
+            assertEquals("tail " + i, tail[i], appended[49 + i], 0);
+        }
+    }
+
+    @Test
+    public void straightAppendDoesNotKeepJoint() {
+        final List<LatLng> points = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            points.add(point(i, 0));
+        }
+        double[] significance = PolylineLod.computeSignificance(points);
+        for (int i = 10; i < 20; i++) {
+            points.add(point(i, 0));
+            significance = PolylineLod.appendSignificance(significance, points);
+        }
+        assertArrayEquals(new int[]{0, 19}, PolylineLod.selectIndices(significance, UNIT * 1e-3));
+    }
+
+    @Test
+    public void appendWithoutUsablePrefixRecomputes() {
+        final List<LatLng> points = randomWalk(5, 20);
+        final double[] expected = PolylineLod.computeSignificance(points);
+        assertArrayEquals(expected, PolylineLod.appendSignificance(new double[]{Double.POSITIVE_INFINITY}, points), 0);
+        //前缀比当前顶点还多（如窗口已经裁掉头部）
+        assertArrayEquals(expected, PolylineLod.appendSignificance(new double[30], points), 0);
+    }
+
+    @Test
+    public void headDropKeepsNewFirstPoint() {
+        final List<LatLng> points = randomWalk(11, 12);
+        final double[] significance = PolylineLod.computeSignificance(points);
+        final double[] dropped = PolylineLod.dropHead(significance, 3);
+        assertEquals(9, dropped.length);
+        assertEquals(Double.POSITIVE_INFINITY, dropped[0], 0);
+        for (int i = 1; i < dropped.length; i++) {
+            assertEquals(significance[i + 3], dropped[i], 0);
+        }
+        assertNull(PolylineLod.dropHead(significance, 11));
+        assertNull(PolylineLod.dropHead(null, 0));
+    }
+}
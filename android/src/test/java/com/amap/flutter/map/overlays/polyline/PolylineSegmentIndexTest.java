@@ -0,0 +1,134 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.flutter.map.utils.GeometryUtil;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PolylineSegmentIndexTest {
+
+    private static List<LatLng> randomWalk(long seed, int count) {
+        final Random random = new Random(seed);
+        final List<LatLng> points = new ArrayList<>(count);
+        double latitude = 39.9;
+        double longitude = 116.4;
+        for (int i = 0; i < count; i++) {
+            points.add(new LatLng(latitude, longitude));
+            latitude += (random.nextDouble() - 0.5) * 0.002;
+            longitude += (random.nextDouble() - 0.5) * 0.002;
+        }
+        return points;
+    }
+
+    private static double distanceSquared(List<LatLng> points, int segment, double latitude, double longitude) {
+        LatLng a = points.get(segment);
+        LatLng b = points.get(segment + 1);
+        return PolylineLod.segmentDistanceSquared(GeometryUtil.mercatorX(longitude), GeometryUtil.mercatorY(latitude),
+                GeometryUtil.mercatorX(a.longitude), GeometryUtil.mercatorY(a.latitude),
+                GeometryUtil.mercatorX(b.longitude), GeometryUtil.mercatorY(b.latitude));
+    }
+
+    /**
+     * 逐段计算最近线段，作为对照
+     */
+    private static int bruteForceNearest(List<LatLng> points, double latitude, double longitude) {
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i + 1 < points.size(); i++) {
+            double distance = distanceSquared(points, i, latitude, longitude);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void emptyAndSinglePointHaveNoResult() {
+        assertNull(new PolylineSegmentIndex(Collections.<LatLng>emptyList()).nearest(39.9, 116.4, 0));
+        final PolylineSegmentIndex single = new PolylineSegmentIndex(Arrays.asList(new LatLng(39.9, 116.4)));
+        assertEquals(0, single.getSegmentCount());
+        assertNull(single.nearest(39.9, 116.4, 0));
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        final List<LatLng> points = randomWalk(17, 500);
+        final PolylineSegmentIndex index = new PolylineSegmentIndex(points);
+        final Random random = new Random(23);
+        for (int i = 0; i < 200; i++) {
+            //查询点覆盖折线范围内外
+            final double latitude = 39.9 + (random.nextDouble() - 0.5) * 0.1;
+            final double longitude = 116.4 + (random.nextDouble() - 0.5) * 0.1;
+            final PolylineSegmentIndex.Result result = index.nearest(latitude, longitude, 0);
+            assertNotNull(result);
+            //最近点是相邻线段的公共顶点时两段都正确，比较距离而不是下标
+            final int expected = bruteForceNearest(points, latitude, longitude);
+            assertEquals("query " + i, distanceSquared(points, expected, latitude, longitude),
+                    distanceSquared(points, result.segmentIndex, latitude, longitude), 0);
+        }
+    }
+
+    @Test
+    public void projectionOnSegment() {
+        //沿赤道的直线，每段约 1113 米
+        final List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(0, 0.01), new LatLng(0, 0.02));
+        final PolylineSegmentIndex index = new PolylineSegmentIndex(points);
+        final double segmentLength = GeometryUtil.distance(0, 0, 0, 0.01);
+        assertEquals(2 * segmentLength, index.getLength(), 1e-6);
+        assertEquals(segmentLength, index.distanceAt(1), 1e-6);
+
+        final PolylineSegmentIndex.Result result = index.nearest(0.0001, 0.015, 0);
+        assertEquals(1, result.segmentIndex);
+        assertEquals(0.5, result.fraction, 1e-6);
+        assertEquals(1.5 * segmentLength, result.distanceAlong, 0.01);
+        assertEquals(GeometryUtil.distance(0, 0, 0.0001, 0), result.crossTrack, 0.01);
+        assertEquals(0.015, result.position.longitude, 1e-9);
+    }
+
+    @Test
+    public void projectionBeyondEndSnapsToVertex() {
+        final List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(0, 0.01));
+        final PolylineSegmentIndex.Result result = new PolylineSegmentIndex(points).nearest(0, 0.02, 0);
+        assertEquals(1, result.fraction, 0);
+        assertSame(points.get(1), result.position);
+    }
+
+    @Test
+    public void maxDistanceLimitsResult() {
+        final List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(0, 0.01));
+        final PolylineSegmentIndex index = new PolylineSegmentIndex(points);
+        //约 111 米
+        assertNull(index.nearest(0.001, 0.005, 100));
+        assertNotNull(index.nearest(0.001, 0.005, 120));
+        //查询点远在网格之外
+        assertNull(index.nearest(10, 10, 1000));
+    }
+
+    @Test
+    public void gapSegmentsAreSkipped() {
+        //中间一段是合并折线之间的连接线，不能被命中
+        final List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(0, 0.01),
+                new LatLng(0.01, 0.01), new LatLng(0.01, 0.02));
+        final BitSet gaps = new BitSet();
+        gaps.set(1);
+        final PolylineSegmentIndex index = new PolylineSegmentIndex(points, gaps);
+        final PolylineSegmentIndex.Result result = index.nearest(0.004, 0.0101, 0);
+        assertNotNull(result);
+        assertEquals(0, result.segmentIndex);
+        assertEquals(1, bruteForceNearest(points, 0.004, 0.0101));
+    }
+}
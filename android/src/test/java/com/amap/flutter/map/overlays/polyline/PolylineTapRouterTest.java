@@ -0,0 +1,141 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import com.amap.api.maps.model.LatLng;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PolylineTapRouterTest {
+
+    private static final LatLng TAP = new LatLng(39.9, 116.4);
+    private static final Runnable ON_MISS = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    /**
+     * 按调用顺序记录为 "tap:id" / "hitTest:id"
+     */
+    private static class RecordingTarget implements PolylineTapRouter.Target {
+        final List<String> calls = new ArrayList<>();
+        final Set<String> withConnectors = new HashSet<>();
+        LatLng lastTap;
+        Runnable lastOnMiss;
+
+        @Override
+        public boolean needsHitTest(String dartId) {
+            return withConnectors.contains(dartId);
+        }
+
+        @Override
+        public void notifyTap(String dartId, LatLng tap) {
+            calls.add("tap:" + dartId);
+            lastTap = tap;
+        }
+
+        @Override
+        public void hitTest(LatLng tap, String sdkDartId, Runnable onMiss) {
+            calls.add("hitTest:" + sdkDartId);
+            lastTap = tap;
+            lastOnMiss = onMiss;
+        }
+    }
+
+    private final RecordingTarget target = new RecordingTarget();
+    private final PolylineTapRouter router = new PolylineTapRouter(target);
+
+    @Test
+    public void withoutToleranceSdkClickIsSentSynchronously() {
+        router.onTouchDown();
+        router.onPolylineClick("a", TAP);
+        assertEquals("[tap:a]", target.calls.toString());
+        assertSame(TAP, target.lastTap);
+        //同一次触摸随后的地图点击被消费
+        assertTrue(router.interceptMapTap(TAP, ON_MISS));
+        assertEquals(1, target.calls.size());
+    }
+
+    @Test
+    public void withoutToleranceConnectorClickIsVerified() {
+        target.withConnectors.add("a");
+        router.onTouchDown();
+        router.onPolylineClick("a", TAP);
+        assertEquals("[hitTest:a]", target.calls.toString());
+        assertTrue(router.interceptMapTap(TAP, ON_MISS));
+    }
+
+    @Test
+    public void withoutToleranceMapTapsPassThrough() {
+        router.onTouchDown();
+        assertFalse(router.interceptMapTap(TAP, ON_MISS));
+        //合并折线没有换算出具体折线时，不发送折线点击，地图点击照常发送
+        router.onTouchDown();
+        router.onPolylineClick(null, TAP);
+        assertFalse(router.interceptMapTap(TAP, ON_MISS));
+        assertTrue(target.calls.isEmpty());
+    }
+
+    @Test
+    public void clickWithoutPositionIsSentDirectly() {
+        router.setTolerance(10);
+        router.onTouchDown();
+        router.onPolylineClick("a", null);
+        assertEquals("[tap:a]", target.calls.toString());
+        assertNull(target.lastTap);
+    }
+
+    @Test
+    public void withToleranceClicksAreHitTested() {
+        assertTrue(router.setTolerance(10));
+        assertFalse(router.setTolerance(10));
+        router.onTouchDown();
+        router.onPolylineClick("a", TAP);
+        assertEquals("[hitTest:a]", target.calls.toString());
+        assertNull(target.lastOnMiss);
+        assertTrue(router.interceptMapTap(TAP, ON_MISS));
+        assertEquals(1, target.calls.size());
+    }
+
+    @Test
+    public void withToleranceMapTapsAreHitTested() {
+        router.setTolerance(10);
+        router.onTouchDown();
+        assertTrue(router.interceptMapTap(TAP, ON_MISS));
+        assertEquals("[hitTest:null]", target.calls.toString());
+        assertSame(ON_MISS, target.lastOnMiss);
+    }
+
+    @Test
+    public void handledTouchIsResetAfterMapTap() {
+        router.onTouchDown();
+        router.onPolylineClick("a", TAP);
+        assertTrue(router.interceptMapTap(TAP, ON_MISS));
+        //没有新的按下事件（如无障碍点击）时，下一次地图点击不能被当作已处理
+        assertFalse(router.interceptMapTap(TAP, ON_MISS));
+
+        router.setTolerance(10);
+        router.onTouchDown();
+        router.onPolylineClick("a", TAP);
+        assertTrue(router.interceptMapTap(TAP, ON_MISS));
+        assertTrue(router.interceptMapTap(TAP, ON_MISS));
+        assertEquals("[tap:a, hitTest:a, hitTest:null]", target.calls.toString());
+    }
+
+    @Test
+    public void nullMapTapIsIgnored() {
+        router.setTolerance(10);
+        assertFalse(router.interceptMapTap(null, ON_MISS));
+        assertTrue(target.calls.isEmpty());
+    }
+}
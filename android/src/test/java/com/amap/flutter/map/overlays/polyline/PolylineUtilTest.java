@@ -0,0 +1,37 @@
+package com.amap.flutter.map.overlays.polyline;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class PolylineUtilTest {
+
+    @Test
+    public void spansCoverHalfOpenRanges() {
+        assertArrayEquals(new int[]{1, 1, 2, 2, 2},
+                PolylineUtil.expandSpans(new int[]{0, 2, 1, 2, 5, 2}));
+    }
+
+    @Test
+    public void gapsTakePreviousValue() {
+        //[3, 4) 没有被覆盖，沿用前一个区间；第一个区间之前使用第一个区间的值
+        assertArrayEquals(new int[]{7, 7, 7, 7, 9, 9},
+                PolylineUtil.expandSpans(new int[]{1, 3, 7, 4, 6, 9}));
+    }
+
+    @Test
+    public void nestedAndFlatListsAreEquivalent() {
+        final int[] nested = PolylineUtil.expandSpans(Arrays.asList(Arrays.asList(0, 2, 5), Arrays.asList(2, 3, 6)));
+        final int[] flat = PolylineUtil.expandSpans(Arrays.asList(0, 2, 5, 2, 3, 6));
+        assertArrayEquals(new int[]{5, 5, 6}, nested);
+        assertArrayEquals(nested, flat);
+    }
+
+    @Test
+    public void emptySpans() {
+        assertArrayEquals(new int[0], PolylineUtil.expandSpans(Collections.emptyList()));
+    }
+}
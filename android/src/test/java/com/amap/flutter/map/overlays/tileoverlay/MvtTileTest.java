@@ -0,0 +1,208 @@
+package com.amap.flutter.map.overlays.tileoverlay;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MvtTileTest {
+
+    /**
+     * Just enough of a protobuf encoder to build test tiles
+     */
+    private static class Message {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private void writeFixed(long value, int bytes) {
+            for (int i = 0; i < bytes; i++) {
+                out.write((int) (value >>> (i * 8)) & 0xFF);
+            }
+        }
+
+        Message varint(int field, long value) {
+            writeVarint(field << 3);
+            writeVarint(value);
+            return this;
+        }
+
+        Message fixed32(int field, int value) {
+            writeVarint(field << 3 | 5);
+            writeFixed(value, 4);
+            return this;
+        }
+
+        Message fixed64(int field, long value) {
+            writeVarint(field << 3 | 1);
+            writeFixed(value, 8);
+            return this;
+        }
+
+        Message bytes(int field, byte[] value) {
+            writeVarint(field << 3 | 2);
+            writeVarint(value.length);
+            out.write(value, 0, value.length);
+            return this;
+        }
+
+        Message string(int field, String value) {
+            return bytes(field, value.getBytes(Charset.forName("UTF-8")));
+        }
+
+        Message message(int field, Message value) {
+            return bytes(field, value.toByteArray());
+        }
+
+        Message packed(int field, int... values) {
+            final Message packed = new Message();
+            for (int value : values) {
+                packed.writeVarint(value & 0xFFFFFFFFL);
+            }
+            return message(field, packed);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static int command(int id, int count) {
+        return id | count << 3;
+    }
+
+    private static int zigZagEncode(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static byte[] buildTile() {
+        final Message water = new Message()
+                .varint(15, 2)
+                .string(1, "water")
+                .message(2, new Message()
+                        .varint(1, 7)
+                        .packed(2, 0, 0, 1, 1)
+                        .varint(3, MvtTile.GEOM_POLYGON)
+                        .packed(4, command(MvtTile.CMD_MOVE_TO, 1), zigZagEncode(0), zigZagEncode(0),
+                                command(MvtTile.CMD_LINE_TO, 2), zigZagEncode(20), zigZagEncode(0),
+                                zigZagEncode(0), zigZagEncode(20),
+                                command(MvtTile.CMD_CLOSE_PATH, 1)))
+                .string(3, "class")
+                .string(3, "depth")
+                .message(4, new Message().string(1, "lake"))
+                .message(4, new Message().varint(6, zigZagEncode(-3)))
+                .varint(5, 512);
+        final Message road = new Message()
+                .string(1, "road")
+                .message(2, new Message()
+                        .varint(1, 8)
+                        .packed(2, 0, 0)
+                        .varint(3, MvtTile.GEOM_LINESTRING)
+                        .packed(4, command(MvtTile.CMD_MOVE_TO, 1), 2, 2, command(MvtTile.CMD_LINE_TO, 1), 10, 10))
+                .string(3, "oneway")
+                .message(4, new Message().varint(7, 1));
+        return new Message()
+                .message(3, water)
+                .message(3, road)
+                //unknown fields are skipped
+                .fixed32(9, 42)
+                .toByteArray();
+    }
+
+    @Test
+    public void decodeAllLayers() {
+        final MvtTile tile = MvtTile.decode(buildTile(), null);
+        assertEquals(2, tile.layers.size());
+
+        final MvtTile.Layer water = tile.layers.get("water");
+        assertEquals(512, water.extent);
+        assertEquals(Arrays.asList("class", "depth"), water.keys);
+        assertEquals(1, water.features.size());
+        final MvtTile.Feature lake = water.features.get(0);
+        assertEquals(7, lake.id);
+        assertEquals(MvtTile.GEOM_POLYGON, lake.type);
+        assertEquals(9, lake.geometry.length);
+        assertEquals("lake", water.get(lake, "class"));
+        assertEquals(-3L, water.get(lake, "depth"));
+        assertNull(water.get(lake, "missing"));
+
+        final MvtTile.Layer road = tile.layers.get("road");
+        assertEquals(4096, road.extent);
+        final MvtTile.Feature street = road.features.get(0);
+        assertEquals(MvtTile.GEOM_LINESTRING, street.type);
+        assertArrayEquals(new int[]{9, 2, 2, 10, 10, 10}, street.geometry);
+        assertEquals(Boolean.TRUE, road.get(street, "oneway"));
+    }
+
+    @Test
+    public void decodeOnlyWantedLayers() {
+        final MvtTile tile = MvtTile.decode(buildTile(), Collections.singleton("road"));
+        assertEquals(Collections.singleton("road"), tile.layers.keySet());
+    }
+
+    @Test
+    public void decodeValueTypes() {
+        final Message layer = new Message()
+                .string(1, "values")
+                .message(2, new Message().packed(2, 0, 0, 1, 1, 2, 2, 3, 3))
+                .string(3, "float")
+                .string(3, "double")
+                .string(3, "int")
+                .string(3, "uint")
+                .message(4, new Message().fixed32(2, Float.floatToIntBits(1.5f)))
+                .message(4, new Message().fixed64(3, Double.doubleToLongBits(-2.25)))
+                .message(4, new Message().varint(4, 1L << 40))
+                .message(4, new Message().varint(5, 12));
+        final MvtTile.Layer decoded = MvtTile.decode(new Message().message(3, layer).toByteArray(), null)
+                .layers.get("values");
+        final MvtTile.Feature feature = decoded.features.get(0);
+        assertEquals(1.5, decoded.get(feature, "float"));
+        assertEquals(-2.25, decoded.get(feature, "double"));
+        assertEquals(1L << 40, decoded.get(feature, "int"));
+        assertEquals(12L, decoded.get(feature, "uint"));
+    }
+
+    @Test
+    public void tagsOutOfRangeAreIgnored() {
+        final Message layer = new Message()
+                .string(1, "broken")
+                .message(2, new Message().packed(2, 0, 5))
+                .string(3, "class");
+        final MvtTile.Layer decoded = MvtTile.decode(new Message().message(3, layer).toByteArray(), null)
+                .layers.get("broken");
+        assertNull(decoded.get(decoded.features.get(0), "class"));
+    }
+
+    @Test
+    public void emptyTileHasNoLayers() {
+        assertTrue(MvtTile.decode(new byte[0], null).layers.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedTileThrows() {
+        final byte[] data = buildTile();
+        MvtTile.decode(Arrays.copyOf(data, data.length / 2), null);
+    }
+
+    @Test
+    public void zigZagDecodesSignedValues() {
+        assertEquals(0, MvtTile.zigZag(0));
+        assertEquals(-1, MvtTile.zigZag(1));
+        assertEquals(1, MvtTile.zigZag(2));
+        assertEquals(-3, MvtTile.zigZag(5));
+        assertEquals(Integer.MIN_VALUE, MvtTile.zigZag(-1));
+    }
+}
@@ -0,0 +1,193 @@
+package com.amap.flutter.map.overlays.tileoverlay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TileDiskCacheTest {
+    private static final String TEMPLATE = "https://tiles.example.com/{z}/{x}/{y}.png";
+    private static final int TILE_SIZE = 400 * 1024;
+    // Load the index on the calling thread so every test starts from a loaded cache
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    // Instances are shared per directory for the whole process, so every test gets its own root
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("tile_cache").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+    }
+
+    private static void delete(File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static byte[] tile(int value, int length) {
+        final byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+
+    private static void write(File file, byte[] data) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void putThenGet() {
+        final TileDiskCache cache = TileDiskCache.open(root, TEMPLATE, new Object(), 10, DIRECT);
+        assertNull(cache.get("3/1/2"));
+        cache.put("3/1/2", tile(7, 100));
+        assertArrayEquals(tile(7, 100), cache.get("3/1/2"));
+        assertEquals(100, cache.getSize());
+        assertTrue(new File(new File(root, TileDiskCache.namespaceOf(TEMPLATE)), "3_1_2.tile").isFile());
+
+        // Overwriting replaces the accounted size
+        cache.put("3/1/2", tile(8, 60));
+        assertArrayEquals(tile(8, 60), cache.get("3/1/2"));
+        assertEquals(60, cache.getSize());
+    }
+
+    @Test
+    public void emptyTilesAreNotStored() {
+        final TileDiskCache cache = TileDiskCache.open(root, TEMPLATE, new Object(), 10, DIRECT);
+        cache.put("1/0/0", new byte[0]);
+        cache.put("1/0/1", null);
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get("1/0/0"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final TileDiskCache cache = TileDiskCache.open(root, TEMPLATE, new Object(), 1, DIRECT);
+        cache.put("a", tile(1, TILE_SIZE));
+        cache.put("b", tile(2, TILE_SIZE));
+        assertNotNull(cache.get("a"));
+        cache.put("c", tile(3, TILE_SIZE));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(2 * TILE_SIZE, cache.getSize());
+    }
+
+    @Test
+    public void largestBudgetApplies() {
+        final Object small = new Object();
+        final Object large = new Object();
+        final TileDiskCache cache = TileDiskCache.open(root, TEMPLATE, small, 1, DIRECT);
+        assertSame(cache, TileDiskCache.open(root, TEMPLATE, large, 2, DIRECT));
+        for (int i = 0; i < 4; i++) {
+            cache.put("t" + i, tile(i, TILE_SIZE));
+        }
+        assertEquals(4 * TILE_SIZE, cache.getSize());
+
+        // Only the small budget is left
+        cache.release(large);
+        assertEquals(2 * TILE_SIZE, cache.getSize());
+        assertNull(cache.get("t0"));
+        assertNull(cache.get("t1"));
+        assertNotNull(cache.get("t3"));
+
+        // The last owner's budget stays in force
+        cache.release(small);
+        cache.put("t4", tile(4, TILE_SIZE));
+        assertEquals(2 * TILE_SIZE, cache.getSize());
+    }
+
+    @Test
+    public void shrinkingBudgetEvicts() {
+        final Object owner = new Object();
+        final TileDiskCache cache = TileDiskCache.open(root, TEMPLATE, owner, 2, DIRECT);
+        for (int i = 0; i < 4; i++) {
+            cache.put("t" + i, tile(i, TILE_SIZE));
+        }
+        cache.setMaxSize(owner, 1);
+        assertEquals(2 * TILE_SIZE, cache.getSize());
+        assertNull(cache.get("t1"));
+        assertNotNull(cache.get("t2"));
+    }
+
+    @Test
+    public void replaysJournalOnOpen() throws IOException {
+        final File directory = new File(root, TileDiskCache.namespaceOf(TEMPLATE));
+        assertTrue(directory.mkdirs());
+        write(new File(directory, "5_1_1.tile"), tile(1, 100));
+        write(new File(directory, "5_1_2.tile"), tile(2, 200));
+        write(new File(directory, "5_1_3.tile"), tile(3, 300));
+        write(new File(directory, "5_1_1.42.tmp"), tile(9, 10));
+        write(new File(directory, "journal"), ("W 5/1/1 100\n"
+                + "W 5/1/2 200\n"
+                + "W 5/1/3 300\n"
+                + "D 5/1/3\n"
+                // The file of this entry is missing
+                + "W 5/9/9 50\n"
+                + "R 5/1/1\n"
+                + "W 5/1").getBytes(Charset.forName("UTF-8")));
+
+        final TileDiskCache cache = TileDiskCache.open(root, TEMPLATE, new Object(), 10, DIRECT);
+        assertArrayEquals(tile(1, 100), cache.get("5/1/1"));
+        assertArrayEquals(tile(2, 200), cache.get("5/1/2"));
+        assertNull(cache.get("5/1/3"));
+        assertNull(cache.get("5/9/9"));
+        assertEquals(300, cache.getSize());
+        assertFalse(new File(directory, "5_1_1.42.tmp").exists());
+    }
+
+    @Test
+    public void rebuildsIndexWithoutJournal() throws IOException {
+        final File directory = new File(root, TileDiskCache.namespaceOf(TEMPLATE));
+        assertTrue(directory.mkdirs());
+        write(new File(directory, "2_0_1.tile"), tile(1, 100));
+        write(new File(directory, "2_1_1.tile"), tile(2, 150));
+        write(new File(directory, "notes.txt"), tile(0, 1000));
+
+        final TileDiskCache cache = TileDiskCache.open(root, TEMPLATE, new Object(), 10, DIRECT);
+        assertEquals(250, cache.getSize());
+        assertArrayEquals(tile(2, 150), cache.get("2/1/1"));
+        assertTrue(new File(directory, "journal").isFile());
+    }
+
+    @Test
+    public void namespacePerTemplate() {
+        final String namespace = TileDiskCache.namespaceOf(TEMPLATE);
+        assertTrue(namespace.matches("[0-9a-f]{16}"));
+        assertEquals(namespace, TileDiskCache.namespaceOf(TEMPLATE));
+        assertFalse(namespace.equals(TileDiskCache.namespaceOf(TEMPLATE + "?style=dark")));
+    }
+}
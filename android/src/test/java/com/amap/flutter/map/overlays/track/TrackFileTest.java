@@ -0,0 +1,100 @@
+package com.amap.flutter.map.overlays.track;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+
+public class TrackFileTest {
+    private File file;
+
+    /**
+     * 记录的时间依次为 1000、2000、2000、4000
+     */
+    private static byte[] buildRecords(ByteOrder order) {
+        final long[] times = new long[]{1000, 2000, 2000, 4000};
+        final ByteBuffer buffer = ByteBuffer.allocate(times.length * TrackFile.RECORD_SIZE).order(order);
+        for (int i = 0; i < times.length; i++) {
+            buffer.putLong(times[i]);
+            buffer.putInt((int) Math.round((39.9 + i * 0.001) * 1e7));
+            buffer.putInt((int) Math.round((116.4 - i * 0.001) * 1e7));
+            buffer.putFloat(i * 90f);
+        }
+        return buffer.array();
+    }
+
+    private void writeFile(byte[] data) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("track", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void readRecords() throws IOException {
+        writeFile(buildRecords(ByteOrder.LITTLE_ENDIAN));
+        final TrackFile track = TrackFile.open(file.getPath(), ByteOrder.LITTLE_ENDIAN);
+        assertEquals(4, track.getCount());
+        assertEquals(1000, track.getStartTime());
+        assertEquals(4000, track.getEndTime());
+        assertEquals(39.902, track.latitude(2), 1e-7);
+        assertEquals(116.397, track.longitude(3), 1e-7);
+        assertEquals(180f, track.heading(2), 0);
+    }
+
+    @Test
+    public void bigEndianFile() throws IOException {
+        writeFile(buildRecords(ByteOrder.BIG_ENDIAN));
+        final TrackFile track = TrackFile.open(file.getPath(), ByteOrder.BIG_ENDIAN);
+        assertEquals(2000, track.time(1));
+        assertEquals(116.4, track.longitude(0), 1e-7);
+    }
+
+    @Test
+    public void indexAtFindsLastRecordNotAfterTime() throws IOException {
+        writeFile(buildRecords(ByteOrder.LITTLE_ENDIAN));
+        final TrackFile track = TrackFile.open(file.getPath(), ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0, track.indexAt(0));
+        assertEquals(0, track.indexAt(1000));
+        assertEquals(0, track.indexAt(1999));
+        //时间相同的记录取最后一条
+        assertEquals(2, track.indexAt(2000));
+        assertEquals(2, track.indexAt(3999));
+        assertEquals(3, track.indexAt(4000));
+        assertEquals(3, track.indexAt(10000));
+    }
+
+    @Test
+    public void trailingPartialRecordIsIgnored() throws IOException {
+        final byte[] records = buildRecords(ByteOrder.LITTLE_ENDIAN);
+        final byte[] data = new byte[records.length + 7];
+        System.arraycopy(records, 0, data, 0, records.length);
+        writeFile(data);
+        assertEquals(4, TrackFile.open(file.getPath(), ByteOrder.LITTLE_ENDIAN).getCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void emptyFileIsRejected() throws IOException {
+        writeFile(new byte[TrackFile.RECORD_SIZE - 1]);
+        TrackFile.open(file.getPath(), ByteOrder.LITTLE_ENDIAN);
+    }
+}
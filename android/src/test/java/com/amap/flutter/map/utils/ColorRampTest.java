@@ -0,0 +1,97 @@
+package com.amap.flutter.map.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ColorRampTest {
+    private static final int RED = 0xffff0000;
+    private static final int BLUE = 0xff0000ff;
+    private static final int TRANSPARENT_GREEN = 0x0000ff00;
+
+    private final ColorRamp ramp = new ColorRamp(new double[]{0, 10}, new int[]{RED, BLUE}, 0);
+
+    @Test
+    public void valuesOutsideStopsTakeEndColors() {
+        assertEquals(RED, ramp.colorAt(-5));
+        assertEquals(RED, ramp.colorAt(0));
+        assertEquals(BLUE, ramp.colorAt(10));
+        assertEquals(BLUE, ramp.colorAt(100));
+        assertEquals(RED, ramp.colorAt(Double.NaN));
+    }
+
+    @Test
+    public void channelsAreInterpolated() {
+        assertEquals(0xff800080, ramp.colorAt(5));
+        assertEquals(0xffbf0040, ramp.colorAt(2.5));
+        //透明度同样插值
+        final ColorRamp fade = new ColorRamp(new double[]{0, 1}, new int[]{TRANSPARENT_GREEN, 0xff00ff00}, 0);
+        assertEquals(0x8000ff00, fade.colorAt(0.5));
+    }
+
+    @Test
+    public void multipleStopsPickEnclosingPair() {
+        final ColorRamp three = new ColorRamp(new double[]{0, 10, 20}, new int[]{RED, BLUE, RED}, 0);
+        assertEquals(BLUE, three.colorAt(10));
+        assertEquals(0xff800080, three.colorAt(15));
+    }
+
+    @Test
+    public void stepsQuantizeNearbyValues() {
+        final ColorRamp stepped = new ColorRamp(new double[]{0, 10}, new int[]{RED, BLUE}, 2);
+        //两级分别取各自区间中点的颜色
+        assertEquals(stepped.colorAt(1), stepped.colorAt(4.9));
+        assertEquals(ramp.colorAt(2.5), stepped.colorAt(1));
+        assertEquals(ramp.colorAt(7.5), stepped.colorAt(6));
+    }
+
+    @Test
+    public void colorsForReusesBuffer() {
+        final int[] buffer = new int[4];
+        final int[] out = ramp.colorsFor(new double[]{0, 10}, buffer);
+        assertSame(buffer, out);
+        assertEquals(RED, out[0]);
+        assertEquals(BLUE, out[1]);
+        assertEquals(3, ramp.colorsFor(new double[]{0, 5, 10}, new int[1]).length);
+    }
+
+    @Test
+    public void classifyUsesHalfOpenBreaks() {
+        final int[] palette = new int[]{1, 2, 3};
+        assertArrayEquals(new int[]{1, 2, 2, 3, 3},
+                ColorRamp.classify(new double[]{-1, 0, 5, 10, 20}, new double[]{0, 10}, palette));
+        //调色板不足时取最后一个颜色
+        assertArrayEquals(new int[]{7, 7}, ColorRamp.classify(new double[]{5, 50}, new double[]{0, 10}, new int[]{7}));
+    }
+
+    @Test
+    public void fromMapParsesStopsAndSteps() {
+        final Map<String, Object> data = new HashMap<>();
+        data.put("stops", Arrays.asList(Arrays.asList(0, RED), Arrays.asList(10.0, BLUE)));
+        data.put("steps", 2);
+        final ColorRamp parsed = ColorRamp.fromMap(data);
+        assertEquals(RED, parsed.colorAt(0));
+        assertEquals(ramp.colorAt(7.5), parsed.colorAt(6));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsortedStopsAreRejected() {
+        new ColorRamp(new double[]{10, 0}, new int[]{RED, BLUE}, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedStopsAreRejected() {
+        new ColorRamp(new double[]{0, 10}, new int[]{RED}, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingStopsAreRejected() {
+        ColorRamp.fromMap(new HashMap<String, Object>());
+    }
+}
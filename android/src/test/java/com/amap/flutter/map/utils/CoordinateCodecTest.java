@@ -0,0 +1,116 @@
+package com.amap.flutter.map.utils;
+
+import com.amap.api.maps.model.LatLng;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CoordinateCodecTest {
+
+    private static void assertLatLng(double latitude, double longitude, LatLng actual) {
+        assertEquals(latitude, actual.latitude, 1e-9);
+        assertEquals(longitude, actual.longitude, 1e-9);
+    }
+
+    /**
+     * 按 decodeVarint 的格式编码，坐标为 [lat0, lng0, lat1, lng1, ...]
+     */
+    private static byte[] encodeVarint(double[] coordinates, int precision) {
+        final double factor = Math.pow(10, precision);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < coordinates.length; i += 2) {
+            final long lat = Math.round(coordinates[i] * factor);
+            final long lng = Math.round(coordinates[i + 1] * factor);
+            writeVarint(out, lat - previousLat);
+            writeVarint(out, lng - previousLng);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long delta) {
+        long value = (delta << 1) ^ (delta >> 63);
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    @Test
+    public void decodePolyline5() {
+        final List<LatLng> points = CoordinateCodec.decodePolyline("_p~iF~ps|U_ulLnnqC_mqNvxq`@",
+                CoordinateCodec.DEFAULT_POLYLINE_PRECISION);
+        assertEquals(3, points.size());
+        assertLatLng(38.5, -120.2, points.get(0));
+        assertLatLng(40.7, -120.95, points.get(1));
+        assertLatLng(43.252, -126.453, points.get(2));
+    }
+
+    @Test
+    public void decodePolylineWithPrecision() {
+        //同一字符串按 polyline6 解码，数值缩小 10 倍
+        final List<LatLng> points = CoordinateCodec.decodePolyline("_p~iF~ps|U", 6);
+        assertEquals(1, points.size());
+        assertLatLng(3.85, -12.02, points.get(0));
+    }
+
+    @Test
+    public void decodeEmptyPolyline() {
+        assertTrue(CoordinateCodec.decodePolyline("", CoordinateCodec.DEFAULT_POLYLINE_PRECISION).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedPolylineThrows() {
+        //只有纬度
+        CoordinateCodec.decodePolyline("_p~iF", CoordinateCodec.DEFAULT_POLYLINE_PRECISION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unfinishedPolylineValueThrows() {
+        CoordinateCodec.decodePolyline("_p~iF~ps|", CoordinateCodec.DEFAULT_POLYLINE_PRECISION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPolylineCharacterThrows() {
+        CoordinateCodec.decodePolyline("_p~iF ps|U", CoordinateCodec.DEFAULT_POLYLINE_PRECISION);
+    }
+
+    @Test
+    public void decodeVarint() {
+        final double[] coordinates = {39.908692, 116.397477, 39.9087, 116.3974, -33.86882, 151.209296};
+        final List<LatLng> points = CoordinateCodec.decodeVarint(
+                encodeVarint(coordinates, CoordinateCodec.DEFAULT_VARINT_PRECISION),
+                CoordinateCodec.DEFAULT_VARINT_PRECISION);
+        assertEquals(3, points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertLatLng(coordinates[i * 2], coordinates[i * 2 + 1], points.get(i));
+        }
+    }
+
+    @Test
+    public void decodeVarintWithPrecision() {
+        final List<LatLng> points = CoordinateCodec.decodeVarint(encodeVarint(new double[]{39.90869, -116.39748}, 5), 5);
+        assertEquals(1, points.size());
+        assertLatLng(39.90869, -116.39748, points.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedVarintThrows() {
+        //最后一个字节仍带有后续标记
+        CoordinateCodec.decodeVarint(new byte[]{2, 4, (byte) 0x80}, CoordinateCodec.DEFAULT_VARINT_PRECISION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void varintWithLatitudeOnlyThrows() {
+        CoordinateCodec.decodeVarint(new byte[]{2, 4, 6}, CoordinateCodec.DEFAULT_VARINT_PRECISION);
+    }
+}
@@ -0,0 +1,153 @@
+package com.amap.flutter.map.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SvgPathParserTest {
+
+    /**
+     * 把解析结果记录为 "M1,2"、"Q1,1 2,0" 这样的字符串，坐标保留两位小数
+     */
+    private static class RecordingSink implements SvgPathParser.PathSink {
+        final List<String> commands = new ArrayList<>();
+
+        @Override
+        public void moveTo(float x, float y) {
+            commands.add("M" + format(x, y));
+        }
+
+        @Override
+        public void lineTo(float x, float y) {
+            commands.add("L" + format(x, y));
+        }
+
+        @Override
+        public void quadTo(float x1, float y1, float x2, float y2) {
+            commands.add("Q" + format(x1, y1, x2, y2));
+        }
+
+        @Override
+        public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            commands.add("C" + format(x1, y1, x2, y2, x3, y3));
+        }
+
+        @Override
+        public void close() {
+            commands.add("Z");
+        }
+
+        private static String format(float... values) {
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    //点与点之间用空格，x 与 y 之间用逗号
+                    builder.append(i % 2 == 0 ? ' ' : ',');
+                }
+                final float value = Math.round(values[i] * 100) / 100f;
+                //-0 与 0 视为相同
+                builder.append(value == (int) value ? String.valueOf((int) value) : String.valueOf(value));
+            }
+            return builder.toString();
+        }
+    }
+
+    private static String parse(String pathData) {
+        final RecordingSink sink = new RecordingSink();
+        SvgPathParser.parse(pathData, sink);
+        return String.join(" ", sink.commands);
+    }
+
+    @Test
+    public void nullPathDataProducesNothing() {
+        assertEquals("", parse(null));
+    }
+
+    @Test
+    public void absoluteAndRelativeCommands() {
+        //z 之后当前点回到子路径起点，再按相对坐标移动
+        assertEquals("M1,2 L4,6 L9,6 L9,0 Z M2,3", parse("M1 2 l3 4 h5 v-6 z m1 1"));
+        assertEquals("M0,0 L10,0 L10,10 L0,10 Z", parse("M0,0 H10 V10 H0 Z"));
+    }
+
+    @Test
+    public void coordinatesAfterMoveAreLines() {
+        assertEquals("M0,0 L10,0 L10,10", parse("M0 0 10 0 10 10"));
+        assertEquals("M1,1 L3,3 L6,6", parse("m1 1 2 2 3 3"));
+    }
+
+    @Test
+    public void compactNumbers() {
+        assertEquals("M1.5,0.5 L-1,-20", parse("M1.5.5L-1-2e1"));
+        assertEquals("M0,0 L0.01,100", parse("M0,0\nL1e-2,\t1E2"));
+    }
+
+    @Test
+    public void smoothCubicReflectsPreviousControlPoint() {
+        assertEquals("M0,0 C1,1 2,1 3,0 C4,-1 5,-1 6,0", parse("M0 0 C1 1 2 1 3 0 S5 -1 6 0"));
+        //前一段不是曲线时，第一个控制点取当前点
+        assertEquals("M0,0 L3,0 C3,0 5,-1 6,0", parse("M0 0 L3 0 S5 -1 6 0"));
+        assertEquals("M0,0 C1,1 2,1 3,0 C4,-1 5,-1 6,0", parse("M0 0 c1 1 2 1 3 0 s2 -1 3 0"));
+    }
+
+    @Test
+    public void smoothQuadReflectsPreviousControlPoint() {
+        assertEquals("M0,0 Q1,1 2,0 Q3,-1 4,0", parse("M0 0 Q1 1 2 0 T4 0"));
+        assertEquals("M0,0 Q0,0 4,0", parse("M0 0 T4 0"));
+    }
+
+    @Test
+    public void halfCircleArcIsTwoCubicSegments() {
+        final RecordingSink sink = new RecordingSink();
+        SvgPathParser.parse("M0 0 A5 5 0 0 1 10 0", sink);
+        assertEquals(3, sink.commands.size());
+        //y 轴向下，sweep=1 顺时针经过圆心上方
+        assertTrue(sink.commands.get(1), sink.commands.get(1).endsWith(" 5,-5"));
+        assertTrue(sink.commands.get(2), sink.commands.get(2).endsWith(" 10,0"));
+
+        final RecordingSink other = new RecordingSink();
+        SvgPathParser.parse("M0 0 A5 5 0 0 0 10 0", other);
+        assertTrue(other.commands.get(1), other.commands.get(1).endsWith(" 5,5"));
+    }
+
+    @Test
+    public void arcWithTooSmallRadiusIsScaledUp() {
+        final RecordingSink sink = new RecordingSink();
+        SvgPathParser.parse("M0 0 A1 1 0 0 1 10 0", sink);
+        assertEquals(3, sink.commands.size());
+        assertTrue(sink.commands.get(2), sink.commands.get(2).endsWith(" 10,0"));
+    }
+
+    @Test
+    public void degenerateArcs() {
+        //半径为 0 时退化为直线，起止点相同时忽略
+        assertEquals("M0,0 L10,0", parse("M0 0 A0 5 0 0 1 10 0"));
+        assertEquals("M0,0", parse("M0 0 A5 5 0 0 1 0 0"));
+        //标志位可以与后面的数字连写
+        assertEquals("M0,0 L10,0", parse("M0 0 A0 0 0 0110 0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void numberBeforeCommandIsRejected() {
+        parse("1 2 L3 4");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void numberAfterCloseIsRejected() {
+        parse("M0 0 L1 1 Z 2 2");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingCoordinateIsRejected() {
+        parse("M0 0 L1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidArcFlagIsRejected() {
+        parse("M0 0 A1 1 0 2 0 1 1");
+    }
+}
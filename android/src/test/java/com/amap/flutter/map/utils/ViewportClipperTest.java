@@ -0,0 +1,154 @@
+package com.amap.flutter.map.utils;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.flutter.map.overlays.ViewportClip;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ViewportClipperTest {
+    private static final double EPSILON = 1e-9;
+    //裁剪框（墨卡托坐标）
+    private static final double[] RECT = new double[]{0.4, 0.4, 0.6, 0.6};
+
+    /**
+     * 按墨卡托坐标构造顶点，x 向东、y 向南
+     */
+    private static LatLng point(double x, double y) {
+        return new LatLng(GeometryUtil.latitude(y), GeometryUtil.longitude(x));
+    }
+
+    private static void assertPoint(double x, double y, LatLng actual) {
+        assertEquals(x, GeometryUtil.mercatorX(actual.longitude), EPSILON);
+        assertEquals(y, GeometryUtil.mercatorY(actual.latitude), EPSILON);
+    }
+
+    @Test
+    public void lineInsideIsReturnedAsIs() {
+        final List<LatLng> points = Arrays.asList(point(0.45, 0.45), point(0.5, 0.55), point(0.55, 0.45));
+        final ViewportClipper.Result result = new ViewportClipper(points, false).clipPolyline(RECT);
+        assertSame(points, result.points);
+        assertNull(result.sourceIndices);
+        assertNull(result.connectors);
+    }
+
+    @Test
+    public void lineOutsideIsEmpty() {
+        final List<LatLng> points = Arrays.asList(point(0.1, 0.1), point(0.2, 0.3), point(0.3, 0.1));
+        final ViewportClipper.Result result = new ViewportClipper(points, false).clipPolyline(RECT);
+        assertTrue(result.points.isEmpty());
+        assertEquals(0, result.sourceIndices.length);
+    }
+
+    @Test
+    public void lineCrossingEdgeEndsOnEdge() {
+        final List<LatLng> points = Arrays.asList(point(0.3, 0.5), point(0.5, 0.5), point(0.7, 0.5));
+        final ViewportClipper.Result result = new ViewportClipper(points, false).clipPolyline(RECT);
+        assertEquals(3, result.points.size());
+        assertPoint(0.4, 0.5, result.points.get(0));
+        //未被裁剪的顶点沿用原来的对象
+        assertSame(points.get(1), result.points.get(1));
+        assertPoint(0.6, 0.5, result.points.get(2));
+        assertArrayEquals(new int[]{0, 1, 1}, result.sourceIndices);
+        assertNull(result.connectors);
+    }
+
+    @Test
+    public void reenteringLineIsConnectedAlongEdge() {
+        //从右边离开，在框外绕行后从右边回来
+        final List<LatLng> points = Arrays.asList(point(0.45, 0.5), point(0.7, 0.5), point(0.7, 0.55), point(0.45, 0.55));
+        final ViewportClipper.Result result = new ViewportClipper(points, false).clipPolyline(RECT);
+        assertEquals(4, result.points.size());
+        assertSame(points.get(0), result.points.get(0));
+        assertPoint(0.6, 0.5, result.points.get(1));
+        assertPoint(0.6, 0.55, result.points.get(2));
+        assertSame(points.get(3), result.points.get(3));
+        assertArrayEquals(new int[]{0, 0, 2, 3}, result.sourceIndices);
+        assertEquals("{1}", result.connectors.toString());
+    }
+
+    @Test
+    public void reenteringOnOtherEdgePassesCorner() {
+        //从右边离开，从上边回来，连接线段经过右上角
+        final List<LatLng> points = Arrays.asList(point(0.5, 0.5), point(0.7, 0.5), point(0.7, 0.3),
+                point(0.5, 0.3), point(0.5, 0.45));
+        final ViewportClipper.Result result = new ViewportClipper(points, false).clipPolyline(RECT);
+        assertEquals(5, result.points.size());
+        assertPoint(0.6, 0.5, result.points.get(1));
+        assertPoint(0.6, 0.4, result.points.get(2));
+        assertPoint(0.5, 0.4, result.points.get(3));
+        assertSame(points.get(4), result.points.get(4));
+        assertEquals("{1, 2}", result.connectors.toString());
+        assertEquals(result.points.size(), result.sourceIndices.length);
+    }
+
+    @Test
+    public void polygonCoveringRectIsClippedToRect() {
+        final List<LatLng> points = Arrays.asList(point(0.3, 0.3), point(0.7, 0.3), point(0.7, 0.7), point(0.3, 0.7));
+        final ViewportClipper.Result result = new ViewportClipper(points, true).clipPolygon(RECT);
+        assertEquals(4, result.points.size());
+        //起始顶点取决于裁剪顺序，只检查四个角都在结果中
+        final Set<String> corners = new HashSet<>();
+        for (LatLng latLng : result.points) {
+            corners.add(Math.round(GeometryUtil.mercatorX(latLng.longitude) * 10) + ","
+                    + Math.round(GeometryUtil.mercatorY(latLng.latitude) * 10));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("4,4", "6,4", "6,6", "4,6")), corners);
+        assertNull(result.sourceIndices);
+    }
+
+    @Test
+    public void polygonKeepsInsideVertices() {
+        final List<LatLng> points = Arrays.asList(point(0.5, 0.5), point(0.7, 0.5), point(0.5, 0.55));
+        final ViewportClipper.Result result = new ViewportClipper(points, true).clipPolygon(RECT);
+        assertEquals(4, result.points.size());
+        assertTrue(result.points.contains(points.get(0)));
+        assertTrue(result.points.contains(points.get(2)));
+        for (LatLng latLng : result.points) {
+            assertTrue(GeometryUtil.mercatorX(latLng.longitude) <= 0.6 + EPSILON);
+        }
+    }
+
+    @Test
+    public void polygonInsideOrOutside() {
+        final List<LatLng> inside = Arrays.asList(point(0.45, 0.45), point(0.55, 0.45), point(0.5, 0.55));
+        assertSame(inside, new ViewportClipper(inside, true).clipPolygon(RECT).points);
+        final List<LatLng> outside = Arrays.asList(point(0.1, 0.1), point(0.2, 0.1), point(0.15, 0.2));
+        assertTrue(new ViewportClipper(outside, true).clipPolygon(RECT).points.isEmpty());
+    }
+
+    @Test
+    public void antimeridianViewportClipsOnlyVertically() {
+        final double[] viewport = ViewportClip.viewportOf(new LatLng(10, 170), new LatLng(20, -170));
+        assertEquals(0, viewport[0], 0);
+        assertEquals(1, viewport[2], 0);
+        assertEquals(GeometryUtil.mercatorY(20), viewport[1], EPSILON);
+        assertEquals(GeometryUtil.mercatorY(10), viewport[3], EPSILON);
+
+        //跨越180度经线的线段不被横向裁掉，只在纬度方向裁剪
+        final List<LatLng> points = Arrays.asList(new LatLng(15, 175), new LatLng(15, -175), new LatLng(30, -175));
+        final ViewportClipper.Result result = new ViewportClipper(points, false).clipPolyline(viewport);
+        assertEquals(3, result.points.size());
+        assertSame(points.get(0), result.points.get(0));
+        assertSame(points.get(1), result.points.get(1));
+        assertEquals(20, result.points.get(2).latitude, 1e-6);
+        assertEquals(-175, result.points.get(2).longitude, 1e-6);
+    }
+
+    @Test
+    public void regularViewportKeepsLongitudeRange() {
+        final double[] viewport = ViewportClip.viewportOf(new LatLng(10, 100), new LatLng(20, 110));
+        assertEquals(GeometryUtil.mercatorX(100), viewport[0], EPSILON);
+        assertEquals(GeometryUtil.mercatorX(110), viewport[2], EPSILON);
+    }
+}
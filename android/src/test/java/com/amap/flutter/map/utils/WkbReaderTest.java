@@ -0,0 +1,153 @@
+package com.amap.flutter.map.utils;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WkbReaderTest {
+
+    /**
+     * 按 WKB 格式拼接字节，每个几何头可以使用不同的字节序
+     */
+    private static class Writer {
+        private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        Writer header(ByteOrder order, int type) {
+            buffer.order(order);
+            buffer.put((byte) (order == ByteOrder.BIG_ENDIAN ? 0 : 1));
+            buffer.putInt(type);
+            return this;
+        }
+
+        Writer putInt(int value) {
+            buffer.putInt(value);
+            return this;
+        }
+
+        Writer putDoubles(double... values) {
+            for (double value : values) {
+                buffer.putDouble(value);
+            }
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+
+    @Test
+    public void readLittleEndianPoint() {
+        final byte[] data = new Writer().header(ByteOrder.LITTLE_ENDIAN, 1).putDoubles(116.4, 39.9).toByteArray();
+        final WkbReader.Geometry geometry = WkbReader.read(data);
+        assertEquals("Point", geometry.type);
+        //输出为 lat, lng
+        assertArrayEquals(new double[]{39.9, 116.4}, geometry.coordinates, 0);
+        assertArrayEquals(new double[]{39.9, 116.4}, WkbReader.readPoint(data), 0);
+    }
+
+    @Test
+    public void emptyPointHasNoCoordinates() {
+        final byte[] data = new Writer().header(ByteOrder.BIG_ENDIAN, 1).putDoubles(Double.NaN, Double.NaN).toByteArray();
+        assertNull(WkbReader.read(data).coordinates);
+        try {
+            WkbReader.readPoint(data);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void readBigEndianLineString() {
+        final byte[] data = new Writer().header(ByteOrder.BIG_ENDIAN, 2).putInt(3)
+                .putDoubles(120, 30, 121, 31, 122, 32).toByteArray();
+        assertArrayEquals(new double[]{30, 120, 31, 121, 32, 122}, WkbReader.readLine(data), 0);
+    }
+
+    @Test
+    public void readEwkbWithSridAndZ() {
+        final byte[] data = new Writer().header(ByteOrder.LITTLE_ENDIAN, 2 | 0x80000000 | 0x20000000).putInt(4326)
+                .putInt(2).putDoubles(120, 30, 5, 121, 31, 6).toByteArray();
+        assertArrayEquals(new double[]{30, 120, 31, 121}, WkbReader.readLine(data), 0);
+    }
+
+    @Test
+    public void readIsoZmPolygon() {
+        final byte[] data = new Writer().header(ByteOrder.LITTLE_ENDIAN, 3003).putInt(2)
+                .putInt(4).putDoubles(0, 0, 1, 1, 10, 0, 1, 1, 10, 10, 1, 1, 0, 0, 1, 1)
+                .putInt(4).putDoubles(2, 2, 1, 1, 3, 2, 1, 1, 3, 3, 1, 1, 2, 2, 1, 1)
+                .toByteArray();
+        final List<double[]> rings = WkbReader.readPolygon(data);
+        assertEquals(2, rings.size());
+        assertArrayEquals(new double[]{0, 0, 0, 10, 10, 10, 0, 0}, rings.get(0), 0);
+        assertArrayEquals(new double[]{2, 2, 2, 3, 3, 3, 2, 2}, rings.get(1), 0);
+    }
+
+    @Test
+    public void readMultiPolygonWithMixedByteOrder() {
+        final byte[] data = new Writer().header(ByteOrder.BIG_ENDIAN, 6).putInt(2)
+                .header(ByteOrder.LITTLE_ENDIAN, 3).putInt(1).putInt(3).putDoubles(0, 0, 1, 0, 1, 1)
+                .header(ByteOrder.BIG_ENDIAN, 3).putInt(1).putInt(3).putDoubles(5, 5, 6, 5, 6, 6)
+                .toByteArray();
+        final WkbReader.Geometry geometry = WkbReader.read(data);
+        assertEquals("MultiPolygon", geometry.type);
+        assertEquals(2, geometry.parts.size());
+        assertArrayEquals(new double[]{5, 5, 5, 6, 6, 6}, geometry.parts.get(1).rings.get(0), 0);
+        //多边形只取第一个
+        assertArrayEquals(new double[]{0, 0, 0, 1, 1, 1}, WkbReader.readPolygon(data).get(0), 0);
+    }
+
+    @Test
+    public void readGeometryCollection() {
+        final byte[] data = new Writer().header(ByteOrder.LITTLE_ENDIAN, 7).putInt(2)
+                .header(ByteOrder.LITTLE_ENDIAN, 1).putDoubles(1, 2)
+                .header(ByteOrder.LITTLE_ENDIAN, 5).putInt(1)
+                .header(ByteOrder.LITTLE_ENDIAN, 2).putInt(2).putDoubles(0, 0, 1, 1)
+                .toByteArray();
+        final WkbReader.Geometry geometry = WkbReader.read(data);
+        assertEquals("GeometryCollection", geometry.type);
+        assertEquals("Point", geometry.parts.get(0).type);
+        assertEquals("MultiLineString", geometry.parts.get(1).type);
+        assertEquals("LineString", geometry.parts.get(1).parts.get(0).type);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPolygonThrows() {
+        WkbReader.readPolygon(new Writer().header(ByteOrder.LITTLE_ENDIAN, 3).putInt(0).toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongTypeThrows() {
+        WkbReader.readLine(new Writer().header(ByteOrder.LITTLE_ENDIAN, 1).putDoubles(1, 2).toByteArray());
+    }
+
+    @Test
+    public void corruptCountThrows() {
+        final byte[] data = new Writer().header(ByteOrder.LITTLE_ENDIAN, 3).putInt(1000000000).toByteArray();
+        try {
+            WkbReader.read(data);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Invalid WKB"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedDataThrows() {
+        WkbReader.read(new Writer().header(ByteOrder.LITTLE_ENDIAN, 2).putInt(3).putDoubles(1, 2, 3).toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedTypeThrows() {
+        WkbReader.read(new Writer().header(ByteOrder.LITTLE_ENDIAN, 17).toByteArray());
+    }
+}
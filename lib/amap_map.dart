@@ -14,6 +14,7 @@
 library;
 
 import 'dart:async';
+import 'dart:typed_data';
 
 import 'package:x_amap_base/x_amap_base.dart';
 import 'package:amap_map/src/core/amap_flutter_platform.dart';
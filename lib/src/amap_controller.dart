@@ -77,12 +77,22 @@ class AMapController {
       _mapState.onMarkerTap(e.value);
     });
 
+    _methodChannel
+        .onMarkerDragStart(mapId: mapId)
+        .listen((MarkerDragStartEvent e) {
+      _mapState.onMarkerDragStart(e.value, e.position);
+    });
+
+    _methodChannel.onMarkerDrag(mapId: mapId).listen((MarkerDragEvent e) {
+      _mapState.onMarkerDrag(e.value, e.position);
+    });
+
     _methodChannel.onMarkerDragEnd(mapId: mapId).listen((MarkerDragEndEvent e) {
       _mapState.onMarkerDragEnd(e.value, e.position);
     });
 
     _methodChannel.onPolylineTap(mapId: mapId).listen((PolylineTapEvent e) {
-      _mapState.onPolylineTap(e.value);
+      _mapState.onPolylineTap(e.value, e.tapPosition, e.snap);
     });
   }
 
@@ -162,4 +172,332 @@ class AMapController {
   Future<void> selectMarker(String markerId) {
     return _methodChannel.selectMarker(mapId: mapId, markerId: markerId);
   }
+
+  /// 开启/关闭 Marker 避让
+  ///
+  /// 开启后按当前比例尺把每个 Marker 图标的外框（由图标尺寸与[Marker.anchor]决定）投影到屏幕，
+  /// 按[Marker.priority]从高到低放置，与已显示的外框重叠的 Marker 被隐藏，缩放结束后重新计算。
+  /// 地图的旋转与倾斜不参与计算。[cellSize]为查找碰撞用的网格边长（dp），
+  /// 同时作为图标尺寸未知时的外框边长，默认48。
+  ///
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> setMarkerDeclutter(bool enabled, {double? cellSize}) {
+    return _methodChannel.setMarkerDeclutter(
+        mapId: mapId, enabled: enabled, cellSize: cellSize);
+  }
+
+  /// 批量显示/隐藏[groups]分组内的 Marker，对之后加入这些分组的 Marker 同样生效，
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> setMarkerGroupsVisible(List<String> groups, bool visible) {
+    return _methodChannel.setMarkerGroupsVisible(groups, visible, mapId: mapId);
+  }
+
+  /// 删除[groups]分组内的全部 Marker，返回被删除的 Marker id
+  ///
+  /// 被删除的 Marker 同时从地图持有的集合中移除，调用方需要把它们从[AMapWidget.markers]中去掉，
+  /// 否则下次更新时会重新添加。目前仅支持Android，iOS端不删除并返回空列表
+  Future<List<String>> removeMarkerGroups(List<String> groups) async {
+    final List<String> removedIds =
+        await _methodChannel.removeMarkerGroups(groups, mapId: mapId);
+    _mapState.onMarkersRemoved(removedIds);
+    return removedIds;
+  }
+
+  /// 给[groups]分组内的 Marker 统一叠加 zIndex 偏移，Marker 自身的[Marker.zIndex]保持不变，
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> setMarkerGroupsZIndexOffset(List<String> groups, double offset) {
+    return _methodChannel.setMarkerGroupsZIndexOffset(groups, offset,
+        mapId: mapId);
+  }
+
+  /// 注册原生 InfoWindow 模板，同一个[id]重复注册时覆盖旧模板
+  ///
+  /// [Marker.infoWindowTemplate]引用该 id 的 Marker 弹出 InfoWindow 时由原生按模板绘制，
+  /// 数据来自[Marker.infoWindowData]。目前仅支持Android，iOS端调用无效果
+  Future<void> registerInfoWindowTemplate(
+      String id, InfoWindowTemplate template) {
+    return _methodChannel.registerInfoWindowTemplate(id, template,
+        mapId: mapId);
+  }
+
+  /// 注销原生 InfoWindow 模板，目前仅支持Android
+  Future<void> unregisterInfoWindowTemplate(String id) {
+    return _methodChannel.unregisterInfoWindowTemplate(id, mapId: mapId);
+  }
+
+  /// 向[polylineId]对应的折线末尾追加顶点，同一帧内的多次追加在原生合并为一次绘制
+  ///
+  /// [maxPoints]为滑动窗口大小，超出时丢弃最早的顶点。追加的顶点只保存在原生，
+  /// [Polyline.points]不会变化；该折线的属性更新时会重新发送[Polyline.points]，覆盖已追加的顶点。
+  ///
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> appendPolylinePoints(String polylineId, List<LatLng> points,
+      {int? maxPoints}) {
+    return _methodChannel.appendPolylinePoints(polylineId, points,
+        mapId: mapId, maxPoints: maxPoints);
+  }
+
+  /// 同[appendPolylinePoints]，顶点为压缩格式，见[Polyline.encodedPoints]。
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> appendEncodedPolylinePoints(
+      String polylineId, Object encodedPoints,
+      {int? encodedPrecision, int? maxPoints}) {
+    return _methodChannel.appendEncodedPolylinePoints(polylineId, encodedPoints,
+        mapId: mapId, encodedPrecision: encodedPrecision, maxPoints: maxPoints);
+  }
+
+  /// 查询[polylineId]对应折线上离[point]最近的位置，不限距离；折线不存在时返回空。
+  /// 目前仅支持Android，iOS端始终返回空
+  Future<PolylineSnap?> nearestPointOnPolyline(String polylineId, LatLng point) {
+    return _methodChannel.nearestPointOnPolyline(polylineId, point,
+        mapId: mapId);
+  }
+
+  /// 把[point]吸附到[polylineId]对应的折线上，距离超过[maxDistance]（米，默认50）时返回空。
+  /// 目前仅支持Android，iOS端始终返回空
+  Future<PolylineSnap?> snapToPolyline(String polylineId, LatLng point,
+      {double? maxDistance}) {
+    return _methodChannel.snapToPolyline(polylineId, point,
+        mapId: mapId, maxDistance: maxDistance);
+  }
+
+  /// 把之后的每次定位吸附到[polylineId]对应的折线上，结果通过[onPolylineLocationSnap]回调；
+  /// [polylineId]为空时关闭。[maxDistance]为最大吸附距离（米），默认50。
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> setPolylineLocationSnap(String? polylineId,
+      {double? maxDistance}) {
+    return _methodChannel.setPolylineLocationSnap(polylineId,
+        mapId: mapId, maxDistance: maxDistance);
+  }
+
+  /// 定位点吸附结果，见[setPolylineLocationSnap]，目前仅支持Android
+  Stream<PolylineLocationSnap> get onPolylineLocationSnap => _methodChannel
+      .onPolylineLocationSnap(mapId: mapId)
+      .map((PolylineLocationSnapEvent e) => e.value);
+
+  /// 从起点逐步绘制[polylineId]对应的折线，动画在原生帧时钟上执行，结束时通过[onPolylineRevealEnd]回调
+  ///
+  /// [followerMarkerId]为跟随线头移动的 Marker，[followerRotate]为该 Marker 是否随线段方向旋转。
+  /// [polylineId]对应的折线不存在时抛出[PlatformException]。
+  ///
+  /// 目前仅支持Android，iOS端调用无效果，也不会回调[onPolylineRevealEnd]
+  Future<void> animatePolylineReveal(
+    String polylineId, {
+    Duration duration = const Duration(seconds: 1),
+    RevealEasing easing = RevealEasing.linear,
+    String? followerMarkerId,
+    bool followerRotate = false,
+  }) {
+    return _methodChannel.animatePolylineReveal(polylineId,
+        mapId: mapId,
+        duration: duration,
+        easing: easing,
+        followerMarkerId: followerMarkerId,
+        followerRotate: followerRotate);
+  }
+
+  /// 折线逐步绘制动画结束，见[animatePolylineReveal]，目前仅支持Android
+  Stream<PolylineRevealEnd> get onPolylineRevealEnd => _methodChannel
+      .onPolylineRevealEnd(mapId: mapId)
+      .map((PolylineRevealEndEvent e) => e.value);
+
+  /// 批量查询[points]中每个点落在哪些多边形内，结果与[points]顺序一致
+  ///
+  /// 在原生后台线程按空间索引计算，多边形不变时索引会被复用，适合大量点的地理围栏判断。
+  /// 目前仅支持Android，iOS端返回空列表
+  Future<List<List<String>>> polygonsContaining(List<LatLng> points) {
+    return _methodChannel.polygonsContaining(points, mapId: mapId);
+  }
+
+  /// 批量设置[polygonIds]对应多边形的填充色，只修改颜色，适合按数据着色的大量多边形
+  ///
+  /// 这里设置的颜色不会同步到[Polygon.fillColor]，该多边形的属性更新时会被覆盖。
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> setPolygonFillColors(
+      List<String> polygonIds, PolygonColors colors) {
+    return _methodChannel.setPolygonFillColors(polygonIds, colors,
+        mapId: mapId);
+  }
+
+  /// 批量设置[polygonIds]对应多边形的边框颜色，同[setPolygonFillColors]
+  Future<void> setPolygonStrokeColors(
+      List<String> polygonIds, PolygonColors colors) {
+    return _methodChannel.setPolygonStrokeColors(polygonIds, colors,
+        mapId: mapId);
+  }
+
+  /// 统计落入每个多边形的点数，给出[weights]（与[points]一一对应）时统计权重和，
+  /// 返回多边形 id 到统计值的映射，不含任何点的多边形值为0
+  ///
+  /// 给出[ramp]时由原生直接按统计值设置填充色，同[setPolygonFillColors]。
+  /// 目前仅支持Android，iOS端返回空映射
+  Future<Map<String, double>> aggregatePolygonPoints(List<LatLng> points,
+      {List<double>? weights, ColorRamp? ramp}) {
+    return _methodChannel.aggregatePolygonPoints(points,
+        mapId: mapId, weights: weights, ramp: ramp);
+  }
+
+  /// 把每组相邻的多边形合并成少量外轮廓，缩放级别低于[maxZoom]时用合并结果替换组内成员，
+  /// [maxZoom]为空时始终显示合并结果；合并在原生后台线程计算
+  ///
+  /// [snap]为顶点量化精度（度），默认1e-7；[removeKeys]为要取消合并的分组，成员恢复显示。
+  /// 返回每组合并后的多边形个数。目前仅支持Android，iOS端返回空映射
+  Future<Map<String, int>> dissolvePolygons(List<PolygonDissolveGroup> groups,
+      {double? maxZoom, double? snap, List<String>? removeKeys}) {
+    return _methodChannel.dissolvePolygons(groups,
+        mapId: mapId, maxZoom: maxZoom, snap: snap, removeKeys: removeKeys);
+  }
+
+  /// 在原生侧流式解析 GeoJSON 文件并分批创建覆盖物，[asset]为 Flutter 资源名，[path]为文件路径，二选一
+  ///
+  /// 覆盖物按[style]生成，每批[batchSize]个（默认500），每批完成后通过[onGeoJsonProgress]回调。
+  /// 以同一[layerId]再次导入会替换之前的图层；导入期间图层被卸载或替换时返回空，
+  /// 解析失败时抛出[PlatformException]，已创建的覆盖物保留，可通过[unloadGeoJson]删除。
+  ///
+  /// GeoJSON 导入目前仅支持Android，iOS端返回空且不会回调[onGeoJsonProgress]
+  Future<GeoJsonLoadResult?> loadGeoJson(String layerId,
+      {String? asset, String? path, GeoJsonStyle? style, int? batchSize}) {
+    assert(asset != null || path != null, 'asset和path需要设置一个');
+    return _methodChannel.loadGeoJson(layerId,
+        mapId: mapId,
+        asset: asset,
+        path: path,
+        style: style,
+        batchSize: batchSize);
+  }
+
+  /// 批量导入 WKB 几何，Multi* 几何拆成多个覆盖物，样式、结果与[loadGeoJson]相同，
+  /// 同样通过[unloadGeoJson]删除
+  ///
+  /// [ids]、[properties]与[geometries]一一对应，分别作为 featureId 和用于样式规则的属性；
+  /// 无法解析的几何被跳过。目前仅支持Android，iOS端返回空
+  Future<GeoJsonLoadResult?> loadWkbGeometries(
+      String layerId, List<Uint8List> geometries,
+      {List<Object?>? ids,
+      List<Map<String, Object?>?>? properties,
+      GeoJsonStyle? style,
+      int? batchSize}) {
+    return _methodChannel.loadWkbGeometries(layerId, geometries,
+        mapId: mapId,
+        ids: ids,
+        properties: properties,
+        style: style,
+        batchSize: batchSize);
+  }
+
+  /// 停止正在进行的导入并删除[layerId]图层的全部覆盖物
+  Future<void> unloadGeoJson(String layerId) {
+    return _methodChannel.unloadGeoJson(layerId, mapId: mapId);
+  }
+
+  /// GeoJSON 导入进度，见[loadGeoJson]
+  Stream<GeoJsonProgress> get onGeoJsonProgress => _methodChannel
+      .onGeoJsonProgress(mapId: mapId)
+      .map((GeoJsonProgressEvent e) => e.value);
+
+  /// 打开[path]对应的 FlatGeobuf 文件，只为视口内的要素创建覆盖物，相机停止时按空间索引更新，
+  /// 每次更新通过[onFlatGeobufUpdate]回调
+  ///
+  /// 最多同时显示[maxFeatures]个要素（默认2000），缩放级别低于[minZoom]时不显示；
+  /// 样式同[loadGeoJson]。[layerId]不能与导入中的 GeoJSON 图层相同，
+  /// 以同一[layerId]再次打开会替换之前的图层；打开失败时抛出[PlatformException]。
+  ///
+  /// 目前仅支持Android，iOS端返回空且不会回调[onFlatGeobufUpdate]
+  Future<FlatGeobufInfo?> openFlatGeobuf(String layerId, String path,
+      {GeoJsonStyle? style, int? maxFeatures, double? minZoom}) {
+    return _methodChannel.openFlatGeobuf(layerId, path,
+        mapId: mapId, style: style, maxFeatures: maxFeatures, minZoom: minZoom);
+  }
+
+  /// 关闭[layerId]对应的 FlatGeobuf 图层并删除其覆盖物
+  Future<void> closeFlatGeobuf(String layerId) {
+    return _methodChannel.closeFlatGeobuf(layerId, mapId: mapId);
+  }
+
+  /// FlatGeobuf 图层更新，见[openFlatGeobuf]
+  Stream<FlatGeobufUpdate> get onFlatGeobufUpdate => _methodChannel
+      .onFlatGeobufUpdate(mapId: mapId)
+      .map((FlatGeobufUpdateEvent e) => e.value);
+
+  /// 回放[path]对应的本地轨迹文件，Marker 与折线由原生逐帧驱动
+  ///
+  /// 文件由定长记录组成，每条20字节，时间升序：int64 时间（毫秒）、int32 纬度*1e7、
+  /// int32 经度*1e7、float32 方向，默认小端，大端文件设置[bigEndian]。
+  /// 以同一[trackId]再次调用会替换之前的回放；文件打开失败时抛出[PlatformException]。
+  /// 进度按[progressInterval]（默认1秒）通过[onTrackProgress]回调，结束时通过[onTrackEnd]回调。
+  ///
+  /// 轨迹回放的各接口目前仅支持Android，iOS端返回空且不会回调
+  Future<TrackInfo?> startTrack(
+    String trackId,
+    String path, {
+    double? speed,
+    bool? loop,
+    bool? bigEndian,
+    Duration? progressInterval,
+    BitmapDescriptor? icon,
+    double? width,
+    Color? color,
+  }) {
+    return _methodChannel.startTrack(trackId, path,
+        mapId: mapId,
+        speed: speed,
+        loop: loop,
+        bigEndian: bigEndian,
+        progressInterval: progressInterval,
+        icon: icon,
+        width: width,
+        color: color);
+  }
+
+  /// 暂停[trackId]对应的轨迹回放
+  Future<void> pauseTrack(String trackId) {
+    return _methodChannel.pauseTrack(trackId, mapId: mapId);
+  }
+
+  /// 继续[trackId]对应的轨迹回放
+  Future<void> resumeTrack(String trackId) {
+    return _methodChannel.resumeTrack(trackId, mapId: mapId);
+  }
+
+  /// 跳转到相对轨迹起点的[offset]
+  Future<void> seekTrack(String trackId, Duration offset) {
+    return _methodChannel.seekTrack(trackId, offset, mapId: mapId);
+  }
+
+  /// 设置轨迹回放倍速
+  Future<void> setTrackSpeed(String trackId, double speed) {
+    return _methodChannel.setTrackSpeed(trackId, speed, mapId: mapId);
+  }
+
+  /// 停止[trackId]对应的轨迹回放并移除其 Marker 与折线
+  Future<void> stopTrack(String trackId) {
+    return _methodChannel.stopTrack(trackId, mapId: mapId);
+  }
+
+  /// 轨迹回放进度，见[startTrack]
+  Stream<TrackProgress> get onTrackProgress => _methodChannel
+      .onTrackProgress(mapId: mapId)
+      .map((TrackProgressEvent e) => e.value);
+
+  /// 轨迹回放结束，见[startTrack]
+  Stream<TrackProgress> get onTrackEnd =>
+      _methodChannel.onTrackEnd(mapId: mapId).map((TrackEndEvent e) => e.value);
+
+  /// 设置折线的点击容差（dp），大于0时由原生按距离判断点中的折线，
+  /// 多条折线都在容差内时取 zIndex 最高、距离最近的一条；默认0，使用地图 SDK 的判断。
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> setPolylineTapTolerance(double tolerance) {
+    return _methodChannel.setPolylineTapTolerance(tolerance, mapId: mapId);
+  }
+
+  /// 设置[Marker.onDrag]的回调频率
+  ///
+  /// [hz]每秒最多回调的次数，默认10，小于等于0表示每帧回调；
+  /// [minPixelDelta]两次回调之间的最小屏幕位移（dp），默认2。
+  ///
+  /// 目前仅支持Android，iOS端调用无效果
+  Future<void> setMarkerDragOptions({double? hz, double? minPixelDelta}) {
+    return _methodChannel.setMarkerDragOptions(
+        mapId: mapId, hz: hz, minPixelDelta: minPixelDelta);
+  }
 }
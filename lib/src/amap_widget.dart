@@ -268,6 +268,26 @@ class _MapState extends State<AMapWidget> {
     }
   }
 
+  void onMarkerDragStart(String markerId, LatLng position) {
+    final Marker? marker = _markers[markerId];
+    if (marker != null) {
+      final MarkerDragCallback? onDragStart = marker.onDragStart;
+      if (onDragStart != null) {
+        onDragStart(markerId, position);
+      }
+    }
+  }
+
+  void onMarkerDrag(String markerId, LatLng position) {
+    final Marker? marker = _markers[markerId];
+    if (marker != null) {
+      final MarkerDragCallback? onDrag = marker.onDrag;
+      if (onDrag != null) {
+        onDrag(markerId, position);
+      }
+    }
+  }
+
   void onMarkerDragEnd(String markerId, LatLng position) {
     final Marker? marker = _markers[markerId];
     if (marker != null) {
@@ -278,13 +298,18 @@ class _MapState extends State<AMapWidget> {
     }
   }
 
-  void onPolylineTap(String polylineId) {
+  void onPolylineTap(
+      String polylineId, LatLng? tapPosition, PolylineSnap? snap) {
     final Polyline? polyline = _polylines[polylineId];
     if (polyline != null) {
       final ArgumentCallback<String>? onTap = polyline.onTap;
       if (onTap != null) {
         onTap(polylineId);
       }
+      final PolylineTapDetailCallback? onTapDetail = polyline.onTapDetail;
+      if (onTapDetail != null) {
+        onTapDetail(polylineId, tapPosition, snap);
+      }
     }
   }
 
@@ -350,6 +375,19 @@ class _MapState extends State<AMapWidget> {
     }
   }
 
+  /// 原生侧已经删除的 Marker（如按分组删除），同步移出当前持有的集合
+  void onMarkersRemoved(List<String> markerIds) {
+    if (markerIds.isEmpty || !mounted) {
+      return;
+    }
+    setState(() {
+      for (final String markerId in markerIds) {
+        _markers.remove(markerId);
+        _infoWindows.remove(markerId);
+      }
+    });
+  }
+
   void _removeInfoWindow(String markerId) {
     setState(() {
       _infoWindows.remove(markerId);
@@ -58,6 +58,16 @@ class MarkerTapEvent extends MapEvent<String> {
   MarkerTapEvent(super.mapId, super.markerId);
 }
 
+/// [Marker] 的拖拽开始事件，附带开始时的位置信息[LatLng].
+class MarkerDragStartEvent extends _PositionedMapEvent<String> {
+  MarkerDragStartEvent(super.mapId, super.position, super.markerId);
+}
+
+/// [Marker] 的拖拽过程事件，附带当前的位置信息[LatLng].
+class MarkerDragEvent extends _PositionedMapEvent<String> {
+  MarkerDragEvent(super.mapId, super.position, super.markerId);
+}
+
 /// [Marker] 的拖拽结束事件，附带拖拽结束时的位置信息[LatLng].
 class MarkerDragEndEvent extends _PositionedMapEvent<String> {
   MarkerDragEndEvent(super.mapId, super.position, super.markerId);
@@ -65,7 +75,43 @@ class MarkerDragEndEvent extends _PositionedMapEvent<String> {
 
 /// [Polyline] 的点击事件
 class PolylineTapEvent extends MapEvent<String> {
-  PolylineTapEvent(super.mapId, super.polylineId);
+  PolylineTapEvent(super.mapId, super.polylineId, {this.tapPosition, this.snap});
+
+  /// 点击的位置
+  final LatLng? tapPosition;
+
+  /// 点击位置在折线上对应的位置
+  final PolylineSnap? snap;
+}
+
+/// [Polyline] 定位点吸附事件
+class PolylineLocationSnapEvent extends MapEvent<PolylineLocationSnap> {
+  PolylineLocationSnapEvent(super.mapId, super.snap);
+}
+
+/// [Polyline] 逐步绘制动画结束事件
+class PolylineRevealEndEvent extends MapEvent<PolylineRevealEnd> {
+  PolylineRevealEndEvent(super.mapId, super.revealEnd);
+}
+
+/// 轨迹回放进度事件
+class TrackProgressEvent extends MapEvent<TrackProgress> {
+  TrackProgressEvent(super.mapId, super.progress);
+}
+
+/// 轨迹回放结束事件
+class TrackEndEvent extends MapEvent<TrackProgress> {
+  TrackEndEvent(super.mapId, super.progress);
+}
+
+/// GeoJSON 导入进度事件
+class GeoJsonProgressEvent extends MapEvent<GeoJsonProgress> {
+  GeoJsonProgressEvent(super.mapId, super.progress);
+}
+
+/// FlatGeobuf 图层更新事件
+class FlatGeobufUpdateEvent extends MapEvent<FlatGeobufUpdate> {
+  FlatGeobufUpdateEvent(super.mapId, super.update);
 }
 
 /// Poi点击事件
@@ -11,8 +11,10 @@
 // distributed under the License is distributed on an "AS IS" BASIS,
 
 import 'dart:async';
+import 'dart:typed_data';
 
 import 'package:x_amap_base/x_amap_base.dart';
+import 'package:amap_map/src/compatibility/color_extensions.dart';
 import 'package:amap_map/src/core/amap_flutter_platform.dart';
 import 'package:amap_map/src/types/types.dart';
 import 'package:flutter/cupertino.dart';
@@ -87,6 +89,90 @@ class MethodChannelAMapFlutterMap implements AMapFlutterPlatform {
     });
   }
 
+  /// 开启/关闭 Marker 避让
+  Future<void> setMarkerDeclutter({
+    required int mapId,
+    required bool enabled,
+    double? cellSize,
+  }) {
+    return channel(mapId).invokeMethod<void>('markers#setDeclutter', {
+      'enabled': enabled,
+      if (cellSize != null) 'cellSize': cellSize,
+    });
+  }
+
+  /// 设置 Marker 拖拽过程回调的频率
+  Future<void> setMarkerDragOptions({
+    required int mapId,
+    double? hz,
+    double? minPixelDelta,
+  }) {
+    return channel(mapId).invokeMethod<void>('markers#setDragOptions', {
+      if (hz != null) 'hz': hz,
+      if (minPixelDelta != null) 'minPixelDelta': minPixelDelta,
+    });
+  }
+
+  /// 批量显示/隐藏分组内的 Marker
+  Future<void> setMarkerGroupsVisible(
+    List<String> groups,
+    bool visible, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('markerGroups#setVisible', {
+      'groups': groups,
+      'visible': visible,
+    });
+  }
+
+  /// 删除分组内的全部 Marker，返回被删除的 Marker id
+  Future<List<String>> removeMarkerGroups(
+    List<String> groups, {
+    required int mapId,
+  }) async {
+    final List<String>? removedIds = await channel(mapId)
+        .invokeListMethod<String>('markerGroups#remove', {
+      'groups': groups,
+    });
+    return removedIds ?? <String>[];
+  }
+
+  /// 给分组内的 Marker 统一叠加 zIndex 偏移
+  Future<void> setMarkerGroupsZIndexOffset(
+    List<String> groups,
+    double offset, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('markerGroups#setZIndexOffset', {
+      'groups': groups,
+      'offset': offset,
+    });
+  }
+
+  /// 注册原生 InfoWindow 模板
+  Future<void> registerInfoWindowTemplate(
+    String id,
+    InfoWindowTemplate template, {
+    required int mapId,
+  }) {
+    return channel(mapId)
+        .invokeMethod<void>('markers#registerInfoWindowTemplate', {
+      'id': id,
+      'template': template.toMap(),
+    });
+  }
+
+  /// 注销原生 InfoWindow 模板
+  Future<void> unregisterInfoWindowTemplate(
+    String id, {
+    required int mapId,
+  }) {
+    return channel(mapId)
+        .invokeMethod<void>('markers#unregisterInfoWindowTemplate', {
+      'id': id,
+    });
+  }
+
   /// 更新polyline的数据
   Future<void> updatePolylines(
     PolylineUpdates polylineUpdates, {
@@ -98,6 +184,174 @@ class MethodChannelAMapFlutterMap implements AMapFlutterPlatform {
     );
   }
 
+  /// 向折线末尾追加顶点
+  Future<void> appendPolylinePoints(
+    String polylineId,
+    List<LatLng> points, {
+    required int mapId,
+    int? maxPoints,
+  }) {
+    return channel(mapId).invokeMethod<void>('polyline#appendPoints', {
+      'id': polylineId,
+      'points': points.map((LatLng point) => point.toJson()).toList(),
+      if (maxPoints != null) 'maxPoints': maxPoints,
+    });
+  }
+
+  /// 给折线追加压缩的顶点，格式同[Polyline.encodedPoints]
+  Future<void> appendEncodedPolylinePoints(
+    String polylineId,
+    Object encodedPoints, {
+    required int mapId,
+    int? encodedPrecision,
+    int? maxPoints,
+  }) {
+    return channel(mapId).invokeMethod<void>('polyline#appendPoints', {
+      'id': polylineId,
+      'encodedPoints': encodedPoints,
+      if (encodedPrecision != null) 'encodedPrecision': encodedPrecision,
+      if (maxPoints != null) 'maxPoints': maxPoints,
+    });
+  }
+
+  /// 查询折线上离[point]最近的位置，不限距离
+  Future<PolylineSnap?> nearestPointOnPolyline(
+    String polylineId,
+    LatLng point, {
+    required int mapId,
+  }) async {
+    final dynamic result =
+        await channel(mapId).invokeMethod<dynamic>('polyline#nearestPoint', {
+      'id': polylineId,
+      'point': point.toJson(),
+    });
+    return PolylineSnap.fromMap(result);
+  }
+
+  /// 把[point]吸附到折线上，超过[maxDistance]时返回空
+  Future<PolylineSnap?> snapToPolyline(
+    String polylineId,
+    LatLng point, {
+    required int mapId,
+    double? maxDistance,
+  }) async {
+    final dynamic result =
+        await channel(mapId).invokeMethod<dynamic>('polyline#snap', {
+      'id': polylineId,
+      'point': point.toJson(),
+      if (maxDistance != null) 'maxDistance': maxDistance,
+    });
+    return PolylineSnap.fromMap(result);
+  }
+
+  /// 开启/关闭定位点自动吸附
+  Future<void> setPolylineLocationSnap(
+    String? polylineId, {
+    required int mapId,
+    double? maxDistance,
+  }) {
+    return channel(mapId).invokeMethod<void>('polyline#setLocationSnap', {
+      'id': polylineId,
+      if (maxDistance != null) 'maxDistance': maxDistance,
+    });
+  }
+
+  /// 在原生帧时钟上逐步绘制已有的折线
+  Future<void> animatePolylineReveal(
+    String polylineId, {
+    required int mapId,
+    required Duration duration,
+    required RevealEasing easing,
+    String? followerMarkerId,
+    bool followerRotate = false,
+  }) {
+    return channel(mapId).invokeMethod<void>('polyline#animateReveal', {
+      'id': polylineId,
+      'duration': duration.inMilliseconds,
+      'easing': easing.name,
+      if (followerMarkerId != null) 'followerMarkerId': followerMarkerId,
+      'followerRotate': followerRotate,
+    });
+  }
+
+  /// 开始回放本地轨迹文件
+  Future<TrackInfo?> startTrack(
+    String trackId,
+    String path, {
+    required int mapId,
+    double? speed,
+    bool? loop,
+    bool? bigEndian,
+    Duration? progressInterval,
+    BitmapDescriptor? icon,
+    double? width,
+    Color? color,
+  }) async {
+    final dynamic result =
+        await channel(mapId).invokeMethod<dynamic>('track#start', {
+      'id': trackId,
+      'path': path,
+      if (speed != null) 'speed': speed,
+      if (loop != null) 'loop': loop,
+      if (bigEndian != null) 'bigEndian': bigEndian,
+      if (progressInterval != null)
+        'progressInterval': progressInterval.inMilliseconds,
+      if (icon != null) 'icon': icon.toMap(),
+      if (width != null) 'width': width,
+      if (color != null) 'color': color.argbValue,
+    });
+    return TrackInfo.fromMap(result);
+  }
+
+  /// 暂停轨迹回放
+  Future<void> pauseTrack(String trackId, {required int mapId}) {
+    return channel(mapId).invokeMethod<void>('track#pause', {'id': trackId});
+  }
+
+  /// 继续轨迹回放
+  Future<void> resumeTrack(String trackId, {required int mapId}) {
+    return channel(mapId).invokeMethod<void>('track#resume', {'id': trackId});
+  }
+
+  /// 跳转到相对轨迹起点的[offset]
+  Future<void> seekTrack(
+    String trackId,
+    Duration offset, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('track#seek', {
+      'id': trackId,
+      'offset': offset.inMilliseconds,
+    });
+  }
+
+  /// 设置轨迹回放倍速
+  Future<void> setTrackSpeed(
+    String trackId,
+    double speed, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('track#setSpeed', {
+      'id': trackId,
+      'speed': speed,
+    });
+  }
+
+  /// 停止轨迹回放并移除其 Marker 与折线
+  Future<void> stopTrack(String trackId, {required int mapId}) {
+    return channel(mapId).invokeMethod<void>('track#stop', {'id': trackId});
+  }
+
+  /// 设置折线点击容差
+  Future<void> setPolylineTapTolerance(
+    double tolerance, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('polylines#setTapTolerance', {
+      'tolerance': tolerance,
+    });
+  }
+
   /// 更新polygon的数据
   Future<void> updatePolygons(
     PolygonUpdates polygonUpdates, {
@@ -109,6 +363,174 @@ class MethodChannelAMapFlutterMap implements AMapFlutterPlatform {
     );
   }
 
+  /// 批量查询每个点落在哪些多边形内
+  Future<List<List<String>>> polygonsContaining(
+    List<LatLng> points, {
+    required int mapId,
+  }) async {
+    final List<dynamic>? result = await channel(mapId)
+        .invokeListMethod<dynamic>('polygons#containsPoints', {
+      'points': _packLatLngs(points),
+    });
+    if (result == null) {
+      return <List<String>>[];
+    }
+    return result
+        .map((dynamic ids) => (ids as List<dynamic>).cast<String>())
+        .toList();
+  }
+
+  /// 按 [lat0, lng0, lat1, lng1, ...] 平铺
+  static Float64List _packLatLngs(List<LatLng> points) {
+    final Float64List packed = Float64List(points.length * 2);
+    for (int i = 0; i < points.length; i++) {
+      packed[i * 2] = points[i].latitude;
+      packed[i * 2 + 1] = points[i].longitude;
+    }
+    return packed;
+  }
+
+  /// 批量设置多边形填充色
+  Future<void> setPolygonFillColors(
+    List<String> polygonIds,
+    PolygonColors colors, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('polygons#setFillColors', {
+      'ids': polygonIds,
+      ...colors.toMap(),
+    });
+  }
+
+  /// 批量设置多边形边框颜色
+  Future<void> setPolygonStrokeColors(
+    List<String> polygonIds,
+    PolygonColors colors, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('polygons#setStrokeColors', {
+      'ids': polygonIds,
+      ...colors.toMap(),
+    });
+  }
+
+  /// 统计落入每个多边形的点数或权重和
+  Future<Map<String, double>> aggregatePolygonPoints(
+    List<LatLng> points, {
+    required int mapId,
+    List<double>? weights,
+    ColorRamp? ramp,
+  }) async {
+    final Map<dynamic, dynamic>? result = await channel(mapId)
+        .invokeMapMethod<dynamic, dynamic>('polygons#aggregatePoints', {
+      'points': _packLatLngs(points),
+      if (weights != null) 'weights': Float64List.fromList(weights),
+      if (ramp != null) 'ramp': ramp.toMap(),
+    });
+    if (result == null) {
+      return <String, double>{};
+    }
+    final List<dynamic> ids = result['ids'] as List<dynamic>;
+    final List<double> values =
+        (result['values'] as List<dynamic>).cast<double>();
+    return <String, double>{
+      for (int i = 0; i < ids.length; i++) ids[i] as String: values[i],
+    };
+  }
+
+  /// 合并相邻的多边形
+  Future<Map<String, int>> dissolvePolygons(
+    List<PolygonDissolveGroup> groups, {
+    required int mapId,
+    double? maxZoom,
+    double? snap,
+    List<String>? removeKeys,
+  }) async {
+    final Map<String, int>? result = await channel(mapId)
+        .invokeMapMethod<String, int>('polygons#dissolve', {
+      'groups':
+          groups.map((PolygonDissolveGroup group) => group.toMap()).toList(),
+      if (maxZoom != null) 'maxZoom': maxZoom,
+      if (snap != null) 'snap': snap,
+      if (removeKeys != null) 'removeKeys': removeKeys,
+    });
+    return result ?? <String, int>{};
+  }
+
+  /// 在原生侧流式导入 GeoJSON 文件
+  Future<GeoJsonLoadResult?> loadGeoJson(
+    String layerId, {
+    required int mapId,
+    String? asset,
+    String? path,
+    GeoJsonStyle? style,
+    int? batchSize,
+  }) async {
+    final dynamic result =
+        await channel(mapId).invokeMethod<dynamic>('geojson#load', {
+      ...?style?.toMap(),
+      'layerId': layerId,
+      if (asset != null) 'asset': asset,
+      if (path != null) 'path': path,
+      if (batchSize != null) 'batchSize': batchSize,
+    });
+    return GeoJsonLoadResult.fromMap(result);
+  }
+
+  /// 批量导入 WKB 几何
+  Future<GeoJsonLoadResult?> loadWkbGeometries(
+    String layerId,
+    List<Uint8List> geometries, {
+    required int mapId,
+    List<Object?>? ids,
+    List<Map<String, Object?>?>? properties,
+    GeoJsonStyle? style,
+    int? batchSize,
+  }) async {
+    final dynamic result =
+        await channel(mapId).invokeMethod<dynamic>('geometries#loadWkb', {
+      ...?style?.toMap(),
+      'layerId': layerId,
+      'geometries': geometries,
+      if (ids != null) 'ids': ids,
+      if (properties != null) 'properties': properties,
+      if (batchSize != null) 'batchSize': batchSize,
+    });
+    return GeoJsonLoadResult.fromMap(result);
+  }
+
+  /// 卸载导入的图层
+  Future<void> unloadGeoJson(String layerId, {required int mapId}) {
+    return channel(mapId)
+        .invokeMethod<void>('geojson#unload', {'layerId': layerId});
+  }
+
+  /// 打开 FlatGeobuf 图层
+  Future<FlatGeobufInfo?> openFlatGeobuf(
+    String layerId,
+    String path, {
+    required int mapId,
+    GeoJsonStyle? style,
+    int? maxFeatures,
+    double? minZoom,
+  }) async {
+    final dynamic result =
+        await channel(mapId).invokeMethod<dynamic>('flatgeobuf#open', {
+      ...?style?.toMap(),
+      'layerId': layerId,
+      'path': path,
+      if (maxFeatures != null) 'maxFeatures': maxFeatures,
+      if (minZoom != null) 'minZoom': minZoom,
+    });
+    return FlatGeobufInfo.fromMap(result);
+  }
+
+  /// 关闭 FlatGeobuf 图层
+  Future<void> closeFlatGeobuf(String layerId, {required int mapId}) {
+    return channel(mapId)
+        .invokeMethod<void>('flatgeobuf#close', {'layerId': layerId});
+  }
+
   /// 更新 TileOverlay 的数据
   Future<void> updateTileOverlays(
     TileOverlayUpdates tileOverlayUpdates, {
@@ -197,6 +619,16 @@ class MethodChannelAMapFlutterMap implements AMapFlutterPlatform {
     return _events(mapId).whereType<MarkerTapEvent>();
   }
 
+  /// 地图锚点拖拽开始回调
+  Stream<MarkerDragStartEvent> onMarkerDragStart({required int mapId}) {
+    return _events(mapId).whereType<MarkerDragStartEvent>();
+  }
+
+  /// 地图锚点拖拽过程回调
+  Stream<MarkerDragEvent> onMarkerDrag({required int mapId}) {
+    return _events(mapId).whereType<MarkerDragEvent>();
+  }
+
   /// Camera 地图锚点拖拽结束回调
   Stream<MarkerDragEndEvent> onMarkerDragEnd({required int mapId}) {
     return _events(mapId).whereType<MarkerDragEndEvent>();
@@ -206,6 +638,37 @@ class MethodChannelAMapFlutterMap implements AMapFlutterPlatform {
     return _events(mapId).whereType<PolylineTapEvent>();
   }
 
+  /// 定位点吸附到折线的回调
+  Stream<PolylineLocationSnapEvent> onPolylineLocationSnap(
+      {required int mapId}) {
+    return _events(mapId).whereType<PolylineLocationSnapEvent>();
+  }
+
+  /// 折线逐步绘制动画结束回调
+  Stream<PolylineRevealEndEvent> onPolylineRevealEnd({required int mapId}) {
+    return _events(mapId).whereType<PolylineRevealEndEvent>();
+  }
+
+  /// 轨迹回放进度回调
+  Stream<TrackProgressEvent> onTrackProgress({required int mapId}) {
+    return _events(mapId).whereType<TrackProgressEvent>();
+  }
+
+  /// 轨迹回放结束回调
+  Stream<TrackEndEvent> onTrackEnd({required int mapId}) {
+    return _events(mapId).whereType<TrackEndEvent>();
+  }
+
+  /// GeoJSON 导入进度回调
+  Stream<GeoJsonProgressEvent> onGeoJsonProgress({required int mapId}) {
+    return _events(mapId).whereType<GeoJsonProgressEvent>();
+  }
+
+  /// FlatGeobuf 图层更新回调
+  Stream<FlatGeobufUpdateEvent> onFlatGeobufUpdate({required int mapId}) {
+    return _events(mapId).whereType<FlatGeobufUpdateEvent>();
+  }
+
   Future<dynamic> _handleMethodCall(MethodCall call, int mapId) async {
     switch (call.method) {
       case 'location#changed':
@@ -248,6 +711,18 @@ class MethodChannelAMapFlutterMap implements AMapFlutterPlatform {
           call.arguments['markerId'],
         ));
         break;
+      case 'marker#onDragStart':
+        _mapEventStreamController.add(MarkerDragStartEvent(
+            mapId,
+            LatLng.fromJson(call.arguments['position'])!,
+            call.arguments['markerId']));
+        break;
+      case 'marker#onDrag':
+        _mapEventStreamController.add(MarkerDragEvent(
+            mapId,
+            LatLng.fromJson(call.arguments['position'])!,
+            call.arguments['markerId']));
+        break;
       case 'marker#onDragEnd':
         _mapEventStreamController.add(MarkerDragEndEvent(
             mapId,
@@ -255,8 +730,42 @@ class MethodChannelAMapFlutterMap implements AMapFlutterPlatform {
             call.arguments['markerId']));
         break;
       case 'polyline#onTap':
+        _mapEventStreamController.add(PolylineTapEvent(
+            mapId, call.arguments['polylineId'],
+            tapPosition: LatLng.fromJson(call.arguments['tapPosition']),
+            snap: call.arguments['position'] != null
+                ? PolylineSnap.fromMap(call.arguments)
+                : null));
+        break;
+      case 'polyline#onRevealEnd':
+        _mapEventStreamController.add(PolylineRevealEndEvent(
+            mapId,
+            PolylineRevealEnd(
+                call.arguments['polylineId'], call.arguments['finished'])));
+        break;
+      case 'polyline#onLocationSnap':
+        _mapEventStreamController.add(PolylineLocationSnapEvent(
+            mapId,
+            PolylineLocationSnap(
+                call.arguments['polylineId'],
+                LatLng.fromJson(call.arguments['location'])!,
+                PolylineSnap.fromMap(call.arguments['snap']))));
+        break;
+      case 'track#onProgress':
+        _mapEventStreamController.add(
+            TrackProgressEvent(mapId, TrackProgress.fromMap(call.arguments)));
+        break;
+      case 'track#onEnd':
         _mapEventStreamController
-            .add(PolylineTapEvent(mapId, call.arguments['polylineId']));
+            .add(TrackEndEvent(mapId, TrackProgress.fromMap(call.arguments)));
+        break;
+      case 'geojson#onProgress':
+        _mapEventStreamController.add(GeoJsonProgressEvent(
+            mapId, GeoJsonProgress.fromMap(call.arguments)));
+        break;
+      case 'flatgeobuf#onUpdate':
+        _mapEventStreamController.add(FlatGeobufUpdateEvent(
+            mapId, FlatGeobufUpdate.fromMap(call.arguments)));
         break;
       case 'map#onPoiTouched':
         try {
@@ -7,6 +7,7 @@ import 'dart:typed_data' show Uint8List;
 import 'dart:ui';
 
 import 'package:x_amap_base/x_amap_base.dart';
+import 'package:amap_map/src/compatibility/color_extensions.dart';
 import 'package:flutter/material.dart'
     show ImageConfiguration, AssetImage, AssetBundleImageKey;
 import 'package:flutter/services.dart' show AssetBundle;
@@ -134,6 +135,41 @@ class BitmapDescriptor {
     return BitmapDescriptor._(<dynamic>['fromBytes', byteData]);
   }
 
+  /// 根据矢量图形创建[BitmapDescriptor]，原生侧按屏幕密度栅格化并缓存，同一图标只绘制一次
+  ///
+  /// [pathData]为 SVG path 的 d 属性，[svg]为精简的 SVG 文本（只解析 viewBox 和 path 元素的
+  /// d/fill/fill-rule/stroke/stroke-width），二者只能传一个；
+  /// [viewBox]为[minX, minY, width, height]或[width, height]，使用[pathData]时默认24x24；
+  /// [size]为图标尺寸（dp），默认与 viewBox 尺寸相同；[tint]覆盖所有 path 的填充色。
+  /// [evenOdd]、[strokeColor]、[strokeWidth]只对[pathData]生效，描边宽度为 viewBox 坐标。
+  ///
+  /// 目前仅支持Android，iOS端无法识别该图标，按未设置图标处理
+  static BitmapDescriptor fromVector({
+    String? pathData,
+    String? svg,
+    List<double>? viewBox,
+    Size? size,
+    Color? tint,
+    bool? evenOdd,
+    Color? strokeColor,
+    double? strokeWidth,
+  }) {
+    assert((pathData == null) != (svg == null), 'pathData和svg必须且只能设置一个');
+    return BitmapDescriptor._(<dynamic>[
+      'fromVector',
+      <String, dynamic>{
+        if (pathData != null) 'pathData': pathData,
+        if (svg != null) 'svg': svg,
+        if (viewBox != null) 'viewBox': viewBox,
+        if (size != null) 'size': <double>[size.width, size.height],
+        if (tint != null) 'tint': tint.argbValue,
+        if (evenOdd != null) 'evenOdd': evenOdd,
+        if (strokeColor != null) 'strokeColor': strokeColor.argbValue,
+        if (strokeWidth != null) 'strokeWidth': strokeWidth,
+      },
+    ]);
+  }
+
   final dynamic _json;
 
   dynamic toMap() => _json;
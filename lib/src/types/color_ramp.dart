@@ -0,0 +1,102 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+import 'dart:typed_data';
+
+import 'package:amap_map/src/compatibility/color_extensions.dart';
+import 'package:flutter/foundation.dart' show listEquals;
+import 'package:flutter/material.dart' show Color;
+
+/// [ColorRamp] 的色标
+class ColorStop {
+  const ColorStop(this.value, this.color);
+
+  /// 数值
+  final double value;
+
+  /// 数值对应的颜色
+  final Color color;
+
+  dynamic toJson() => <dynamic>[value, color.argbValue];
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is ColorStop && value == other.value && color == other.color;
+  }
+
+  @override
+  int get hashCode => Object.hash(value, color);
+}
+
+/// 数值到颜色的映射，由原生侧插值
+///
+/// 相邻色标之间按 ARGB 通道线性插值，超出范围取两端颜色。目前仅支持Android
+class ColorRamp {
+  const ColorRamp({required this.stops, this.steps});
+
+  /// 按[ColorStop.value]升序排列的色标，不能为空
+  final List<ColorStop> stops;
+
+  /// 大于0时把颜色量化为[steps]级，相邻的数值更容易得到同一颜色
+  final int? steps;
+
+  Map<String, dynamic> toMap() => <String, dynamic>{
+        'stops': stops.map((ColorStop stop) => stop.toJson()).toList(),
+        if (steps != null) 'steps': steps,
+      };
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is ColorRamp &&
+        listEquals(stops, other.stops) &&
+        steps == other.steps;
+  }
+
+  @override
+  int get hashCode => Object.hash(Object.hashAll(stops), steps);
+}
+
+/// 批量设置多边形颜色时的颜色来源，与多边形 id 一一对应，见[AMapController.setPolygonFillColors]
+class PolygonColors {
+  /// 直接给出每个多边形的颜色
+  PolygonColors.list(List<Color> colors)
+      : _json = <String, dynamic>{
+          'colors': Int32List.fromList(
+              colors.map((Color color) => color.argbValue).toList()),
+        };
+
+  /// 每个多边形的数值按[ramp]插值取色
+  PolygonColors.ramp(List<double> values, ColorRamp ramp)
+      : _json = <String, dynamic>{
+          'values': Float64List.fromList(values),
+          'ramp': ramp.toMap(),
+        };
+
+  /// 每个多边形的数值按分级取色：小于 breaks[0] 取 palette[0]，
+  /// 落在 [breaks[k-1], breaks[k]) 取 palette[k]，不小于最后一个分界值取 palette[breaks.length]；
+  /// [palette]不足时取最后一个颜色
+  PolygonColors.classify(
+    List<double> values, {
+    required List<double> breaks,
+    required List<Color> palette,
+  }) : _json = <String, dynamic>{
+          'values': Float64List.fromList(values),
+          'breaks': Float64List.fromList(breaks),
+          'palette': Int32List.fromList(
+              palette.map((Color color) => color.argbValue).toList()),
+        };
+
+  final Map<String, dynamic> _json;
+
+  Map<String, dynamic> toMap() => _json;
+}
@@ -0,0 +1,424 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+import 'package:amap_map/src/compatibility/color_extensions.dart';
+import 'package:amap_map/src/types/bitmap.dart';
+import 'package:flutter/material.dart' show Color, Offset;
+
+import 'polyline.dart';
+import 'viewport_clip.dart';
+
+/// GeoJSON 等数据导入后生成的多边形样式
+class GeoJsonPolygonStyle {
+  const GeoJsonPolygonStyle({
+    this.fillColor,
+    this.strokeColor,
+    this.strokeWidth,
+    this.visible,
+    this.clip,
+  });
+
+  /// 填充颜色
+  final Color? fillColor;
+
+  /// 边框颜色
+  final Color? strokeColor;
+
+  /// 边框宽度（dp）
+  final double? strokeWidth;
+
+  /// 是否可见
+  final bool? visible;
+
+  /// 按视口裁剪
+  final ViewportClip? clip;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('fillColor', fillColor?.argbValue);
+    addIfPresent('strokeColor', strokeColor?.argbValue);
+    addIfPresent('strokeWidth', strokeWidth);
+    addIfPresent('visible', visible);
+    addIfPresent('clip', clip?.toMap());
+    return json;
+  }
+}
+
+/// GeoJSON 等数据导入后生成的折线样式
+class GeoJsonPolylineStyle {
+  const GeoJsonPolylineStyle({
+    this.color,
+    this.width,
+    this.dashLineType,
+    this.capType,
+    this.joinType,
+    this.zIndex,
+    this.visible,
+    this.lod,
+    this.clip,
+    this.batched,
+  });
+
+  /// 颜色
+  final Color? color;
+
+  /// 线宽（dp）
+  final double? width;
+
+  /// 虚线类型
+  final DashLineType? dashLineType;
+
+  /// 线头类型
+  final CapType? capType;
+
+  /// 连接点类型
+  final JoinType? joinType;
+
+  /// 层级
+  final double? zIndex;
+
+  /// 是否可见
+  final bool? visible;
+
+  /// 按缩放级别简化
+  final PolylineLod? lod;
+
+  /// 按视口裁剪
+  final ViewportClip? clip;
+
+  /// 是否合并绘制，见[Polyline.batched]
+  final bool? batched;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('color', color?.argbValue);
+    addIfPresent('width', width);
+    addIfPresent('dashLineType', dashLineType?.index);
+    addIfPresent('capType', capType?.index);
+    addIfPresent('joinType', joinType?.index);
+    addIfPresent('zIndex', zIndex);
+    addIfPresent('visible', visible);
+    addIfPresent('lod', lod?.toMap());
+    addIfPresent('clip', clip?.toMap());
+    addIfPresent('batched', batched);
+    return json;
+  }
+}
+
+/// GeoJSON 等数据导入后生成的 Marker 样式
+class GeoJsonMarkerStyle {
+  const GeoJsonMarkerStyle({
+    this.icon,
+    this.anchor,
+    this.zIndex,
+    this.visible,
+    this.priority,
+    this.group,
+    this.infoWindowEnable,
+  });
+
+  /// 图标
+  final BitmapDescriptor? icon;
+
+  /// 锚点
+  final Offset? anchor;
+
+  /// 层级
+  final double? zIndex;
+
+  /// 是否可见
+  final bool? visible;
+
+  /// 避让优先级，见[Marker.priority]
+  final double? priority;
+
+  /// 分组，见[Marker.group]
+  final String? group;
+
+  /// 是否显示 InfoWindow
+  final bool? infoWindowEnable;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('icon', icon?.toMap());
+    addIfPresent(
+        'anchor', anchor == null ? null : <double>[anchor!.dx, anchor!.dy]);
+    addIfPresent('zIndex', zIndex);
+    addIfPresent('visible', visible);
+    addIfPresent('priority', priority);
+    addIfPresent('group', group);
+    addIfPresent('infoWindowEnable', infoWindowEnable);
+    return json;
+  }
+}
+
+/// 按属性匹配的样式规则，匹配时覆盖[GeoJsonStyle]中的默认样式
+class GeoJsonRule {
+  const GeoJsonRule({
+    required this.property,
+    this.equals,
+    this.values,
+    this.polygon,
+    this.polyline,
+    this.marker,
+  });
+
+  /// 属性名
+  final String property;
+
+  /// 属性值等于[equals]时匹配，按字符串比较
+  final Object? equals;
+
+  /// 属性值在[values]中时匹配，按字符串比较
+  final List<Object>? values;
+
+  /// 匹配时多边形的样式
+  final GeoJsonPolygonStyle? polygon;
+
+  /// 匹配时折线的样式
+  final GeoJsonPolylineStyle? polyline;
+
+  /// 匹配时 Marker 的样式
+  final GeoJsonMarkerStyle? marker;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('property', property);
+    addIfPresent('equals', equals);
+    addIfPresent('in', values);
+    addIfPresent('polygon', polygon?.toMap());
+    addIfPresent('polyline', polyline?.toMap());
+    addIfPresent('marker', marker?.toMap());
+    return json;
+  }
+}
+
+/// 导入数据生成覆盖物时使用的样式
+///
+/// 覆盖物 id 为 "layerId:featureId"，Multi* 几何的第 k 个（k > 0）部分追加 "#k"；
+/// 生成的覆盖物只存在于原生侧，不会出现在[AMapWidget]的覆盖物集合中。目前仅支持Android
+class GeoJsonStyle {
+  const GeoJsonStyle({
+    this.idProperty,
+    this.polygon,
+    this.polyline,
+    this.marker,
+    this.rules,
+  });
+
+  /// 作为 featureId 的属性名，为空时使用 Feature 的 id，都没有时使用序号
+  final String? idProperty;
+
+  /// 多边形的默认样式
+  final GeoJsonPolygonStyle? polygon;
+
+  /// 折线的默认样式
+  final GeoJsonPolylineStyle? polyline;
+
+  /// Marker 的默认样式
+  final GeoJsonMarkerStyle? marker;
+
+  /// 按顺序匹配，后匹配的覆盖先匹配的
+  final List<GeoJsonRule>? rules;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('idProperty', idProperty);
+    addIfPresent('polygon', polygon?.toMap());
+    addIfPresent('polyline', polyline?.toMap());
+    addIfPresent('marker', marker?.toMap());
+    addIfPresent(
+        'rules', rules?.map((GeoJsonRule rule) => rule.toMap()).toList());
+    return json;
+  }
+}
+
+/// 导入完成的结果
+class GeoJsonLoadResult {
+  const GeoJsonLoadResult({
+    required this.layerId,
+    required this.features,
+    required this.polygons,
+    required this.polylines,
+    required this.markers,
+    required this.duplicates,
+  });
+
+  /// 图层 id
+  final String layerId;
+
+  /// 读取的要素个数
+  final int features;
+
+  /// 生成的多边形个数
+  final int polygons;
+
+  /// 生成的折线个数
+  final int polylines;
+
+  /// 生成的 Marker 个数
+  final int markers;
+
+  /// id 与之前重复而被丢弃的覆盖物个数
+  final int duplicates;
+
+  static GeoJsonLoadResult? fromMap(dynamic json) {
+    if (json == null) {
+      return null;
+    }
+    return GeoJsonLoadResult(
+      layerId: json['layerId'] as String,
+      features: json['features'] as int,
+      polygons: json['polygons'] as int,
+      polylines: json['polylines'] as int,
+      markers: json['markers'] as int,
+      duplicates: json['duplicates'] as int,
+    );
+  }
+
+  @override
+  String toString() {
+    return 'GeoJsonLoadResult{layerId: $layerId, features: $features, '
+        'polygons: $polygons, polylines: $polylines, markers: $markers, '
+        'duplicates: $duplicates}';
+  }
+}
+
+/// GeoJSON 导入进度，每批覆盖物创建完成后回调
+class GeoJsonProgress {
+  const GeoJsonProgress({
+    required this.layerId,
+    required this.bytesRead,
+    required this.totalBytes,
+    required this.features,
+  });
+
+  /// 图层 id
+  final String layerId;
+
+  /// 已读取的字节数
+  final int bytesRead;
+
+  /// 文件总字节数，未知时不大于0
+  final int totalBytes;
+
+  /// 已读取的要素个数
+  final int features;
+
+  static GeoJsonProgress fromMap(dynamic json) {
+    return GeoJsonProgress(
+      layerId: json['layerId'] as String,
+      bytesRead: json['bytesRead'] as int,
+      totalBytes: json['totalBytes'] as int,
+      features: json['features'] as int,
+    );
+  }
+}
+
+/// FlatGeobuf 图层的信息，由[AMapController.openFlatGeobuf]返回
+class FlatGeobufInfo {
+  const FlatGeobufInfo({
+    required this.layerId,
+    required this.featureCount,
+    required this.columns,
+  });
+
+  /// 图层 id
+  final String layerId;
+
+  /// 文件中的要素个数
+  final int featureCount;
+
+  /// 属性列名
+  final List<String> columns;
+
+  static FlatGeobufInfo? fromMap(dynamic json) {
+    if (json == null) {
+      return null;
+    }
+    return FlatGeobufInfo(
+      layerId: json['layerId'] as String,
+      featureCount: json['featureCount'] as int,
+      columns: (json['columns'] as List<dynamic>).cast<String>(),
+    );
+  }
+}
+
+/// FlatGeobuf 图层按视口更新后的回调内容
+class FlatGeobufUpdate {
+  const FlatGeobufUpdate({
+    required this.layerId,
+    required this.count,
+    required this.added,
+    required this.removed,
+    required this.truncated,
+  });
+
+  /// 图层 id
+  final String layerId;
+
+  /// 当前显示的要素个数
+  final int count;
+
+  /// 本次新增的要素个数
+  final int added;
+
+  /// 本次移除的要素个数
+  final int removed;
+
+  /// 视口内的要素超过 maxFeatures 而没有全部显示
+  final bool truncated;
+
+  static FlatGeobufUpdate fromMap(dynamic json) {
+    return FlatGeobufUpdate(
+      layerId: json['layerId'] as String,
+      count: json['count'] as int,
+      added: json['added'] as int,
+      removed: json['removed'] as int,
+      truncated: json['truncated'] as bool,
+    );
+  }
+}
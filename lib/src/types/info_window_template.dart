@@ -0,0 +1,160 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+import 'dart:ui' show Color;
+
+import 'package:amap_map/src/compatibility/color_extensions.dart';
+
+/// 原生绘制的 InfoWindow 模板
+///
+/// 通过[AMapController.registerInfoWindowTemplate]注册后，[Marker.infoWindowTemplate]
+/// 引用模板 id，[Marker.infoWindowData]提供各元素的数据。InfoWindow 的 View 在原生侧
+/// 按模板复用，不经过 Flutter 渲染。目前仅支持Android，iOS端仍显示默认 InfoWindow。
+class InfoWindowTemplate {
+  const InfoWindowTemplate({
+    required this.elements,
+    this.backgroundColor,
+    this.cornerRadius,
+    this.padding,
+    this.spacing,
+    this.horizontal = false,
+    this.maxWidth,
+  });
+
+  /// 依次排列的元素
+  final List<InfoWindowTemplateElement> elements;
+
+  /// 背景色，默认白色
+  final Color? backgroundColor;
+
+  /// 圆角（dp），默认6
+  final double? cornerRadius;
+
+  /// 内边距（dp），默认8
+  final double? padding;
+
+  /// 元素间距（dp），默认4
+  final double? spacing;
+
+  /// 是否横向排列，默认纵向
+  final bool horizontal;
+
+  /// 最大宽度（dp），为空时不限制
+  final double? maxWidth;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('backgroundColor', backgroundColor?.argbValue);
+    addIfPresent('cornerRadius', cornerRadius);
+    addIfPresent('padding', padding);
+    addIfPresent('spacing', spacing);
+    addIfPresent('orientation', horizontal ? 'horizontal' : 'vertical');
+    addIfPresent('maxWidth', maxWidth);
+    json['elements'] = elements
+        .map((InfoWindowTemplateElement element) => element.toMap())
+        .toList();
+    return json;
+  }
+}
+
+/// [InfoWindowTemplate] 中的一个元素
+class InfoWindowTemplateElement {
+  const InfoWindowTemplateElement._({
+    required this.type,
+    required this.field,
+    this.textSize,
+    this.textColor,
+    this.bold,
+    this.maxLines,
+    this.width,
+    this.height,
+  });
+
+  /// 文本元素，[field]为[Marker.infoWindowData]中的字段名；
+  /// 字段为 title/snippet 且没有数据时，使用[Marker.infoWindow]的 title/snippet
+  const InfoWindowTemplateElement.text(
+    String field, {
+    double? textSize,
+    Color? textColor,
+    bool? bold,
+    int? maxLines,
+  }) : this._(
+          type: 'text',
+          field: field,
+          textSize: textSize,
+          textColor: textColor,
+          bold: bold,
+          maxLines: maxLines,
+        );
+
+  /// 图片元素，[field]对应的数据为[BitmapDescriptor]，尺寸单位为 dp
+  const InfoWindowTemplateElement.image(
+    String field, {
+    double? width,
+    double? height,
+  }) : this._(
+          type: 'image',
+          field: field,
+          width: width,
+          height: height,
+        );
+
+  /// text 或 image
+  final String type;
+
+  /// 数据字段名
+  final String field;
+
+  /// 文字大小（sp）
+  final double? textSize;
+
+  /// 文字颜色
+  final Color? textColor;
+
+  /// 是否加粗
+  final bool? bold;
+
+  /// 最大行数
+  final int? maxLines;
+
+  /// 图片宽度（dp）
+  final double? width;
+
+  /// 图片高度（dp）
+  final double? height;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('type', type);
+    addIfPresent('field', field);
+    addIfPresent('textSize', textSize);
+    addIfPresent('textColor', textColor?.argbValue);
+    addIfPresent('bold', bold);
+    addIfPresent('maxLines', maxLines);
+    addIfPresent('width', width);
+    addIfPresent('height', height);
+    return json;
+  }
+}
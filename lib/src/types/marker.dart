@@ -2,7 +2,9 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:typed_data';
 import 'dart:ui' show Offset;
+import 'package:flutter/foundation.dart' show listEquals, mapEquals;
 import 'package:amap_map/src/types/base_overlay.dart';
 import 'package:x_amap_base/x_amap_base.dart';
 import 'bitmap.dart';
@@ -10,6 +12,9 @@ import 'bitmap.dart';
 /// Marker拖动回调
 typedef MarkerDragEndCallback = void Function(String id, LatLng endPosition);
 
+/// Marker拖动开始及拖动过程中的回调
+typedef MarkerDragCallback = void Function(String id, LatLng position);
+
 ///Marker的气泡
 ///
 ///Android和iOS的实现机制有差异，仅在接口层面拉齐，效果一致
@@ -89,7 +94,14 @@ class Marker extends BaseOverlay {
     this.rotation = 0.0,
     this.visible = true,
     this.zIndex = 0.0,
+    this.priority,
+    this.group,
+    this.infoWindowTemplate,
+    this.infoWindowData,
+    this.wkb,
     this.onTap,
+    this.onDragStart,
+    this.onDrag,
     this.onDragEnd,
   })  : alpha =
             // ignore: unnecessary_null_comparison
@@ -142,9 +154,33 @@ class Marker extends BaseOverlay {
   /// 值越小，图层越靠下，iOS该值不支持动态修改,仅能在初始化时指定
   final double zIndex;
 
+  /// 避让优先级，开启避让（[AMapController.setMarkerDeclutter]）后重叠时保留值大的，
+  /// 为空时使用[zIndex]。目前仅支持Android，iOS端忽略该字段
+  final double? priority;
+
+  /// 所属分组，用于[AMapController.setMarkerGroupsVisible]等分组批量操作，目前仅支持Android
+  final String? group;
+
+  /// 原生 InfoWindow 模板 id，见[AMapController.registerInfoWindowTemplate]，目前仅支持Android
+  final String? infoWindowTemplate;
+
+  /// 模板元素的数据，key 为元素的 field；图片字段的值为[BitmapDescriptor]
+  final Map<String, dynamic>? infoWindowData;
+
+  /// WKB 编码的 Point，设置后原生以其中的坐标为准，不再使用[position]。
+  /// 目前仅支持Android，iOS端忽略该字段，仍显示在[position]
+  final Uint8List? wkb;
+
   /// 回调的参数是对应的id
   final ArgumentCallback<String>? onTap;
 
+  /// Marker开始拖拽的回调，目前仅支持Android，iOS端不会回调
+  final MarkerDragCallback? onDragStart;
+
+  /// Marker拖拽过程中的回调，按[AMapController.setMarkerDragOptions]限流，
+  /// 目前仅支持Android，iOS端不会回调
+  final MarkerDragCallback? onDrag;
+
   /// Marker被拖拽结束的回调
   final MarkerDragEndCallback? onDragEnd;
 
@@ -160,7 +196,14 @@ class Marker extends BaseOverlay {
     LatLng? positionParam,
     double? rotationParam,
     bool? visibleParam,
+    double? priorityParam,
+    String? groupParam,
+    String? infoWindowTemplateParam,
+    Map<String, dynamic>? infoWindowDataParam,
+    Uint8List? wkbParam,
     ArgumentCallback<String?>? onTapParam,
+    MarkerDragCallback? onDragStartParam,
+    MarkerDragCallback? onDragParam,
     MarkerDragEndCallback? onDragEndParam,
   }) {
     Marker copyMark = Marker(
@@ -175,7 +218,14 @@ class Marker extends BaseOverlay {
       rotation: rotationParam ?? rotation,
       visible: visibleParam ?? visible,
       zIndex: zIndex,
+      priority: priorityParam ?? priority,
+      group: groupParam ?? group,
+      infoWindowTemplate: infoWindowTemplateParam ?? infoWindowTemplate,
+      infoWindowData: infoWindowDataParam ?? infoWindowData,
+      wkb: wkbParam ?? wkb,
       onTap: onTapParam ?? onTap,
+      onDragStart: onDragStartParam ?? onDragStart,
+      onDrag: onDragParam ?? onDrag,
       onDragEnd: onDragEndParam ?? onDragEnd,
     );
     copyMark.setIdForCopy(id);
@@ -204,9 +254,18 @@ class Marker extends BaseOverlay {
     addIfPresent('infoWindowEnable', infoWindowEnable);
     addIfPresent('infoWindow', infoWindow._toMap());
     addIfPresent('position', position.toJson());
+    addIfPresent('wkb', wkb);
     addIfPresent('rotation', rotation);
     addIfPresent('visible', visible);
     addIfPresent('zIndex', zIndex);
+    addIfPresent('priority', priority);
+    addIfPresent('group', group);
+    addIfPresent('infoWindowTemplate', infoWindowTemplate);
+    addIfPresent(
+        'infoWindowData',
+        infoWindowData?.map((String key, dynamic value) =>
+            MapEntry<String, dynamic>(
+                key, value is BitmapDescriptor ? value.toMap() : value)));
     return json;
   }
 
@@ -231,7 +290,12 @@ class Marker extends BaseOverlay {
         position == typedOther.position &&
         rotation == typedOther.rotation &&
         visible == typedOther.visible &&
-        zIndex == typedOther.zIndex;
+        zIndex == typedOther.zIndex &&
+        priority == typedOther.priority &&
+        group == typedOther.group &&
+        infoWindowTemplate == typedOther.infoWindowTemplate &&
+        mapEquals(infoWindowData, typedOther.infoWindowData) &&
+        listEquals(wkb, typedOther.wkb);
   }
 
   @override
@@ -239,7 +303,7 @@ class Marker extends BaseOverlay {
     return 'Marker{id: $id, alpha: $alpha, anchor: $anchor, '
         'clickable: $clickable, draggable: $draggable,'
         'icon: $icon, infoWindowEnable: $infoWindowEnable, infoWindow: $infoWindow, position: $position, rotation: $rotation, '
-        'visible: $visible, zIndex: $zIndex, onTap: $onTap}';
+        'visible: $visible, zIndex: $zIndex, priority: $priority, group: $group, onTap: $onTap}';
   }
 
   @override
@@ -255,7 +319,11 @@ class Marker extends BaseOverlay {
         position,
         rotation,
         visible,
-        zIndex
+        zIndex,
+        priority,
+        group,
+        infoWindowTemplate,
+        wkb == null ? null : Object.hashAll(wkb!),
       ]);
 }
 
@@ -2,30 +2,60 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:typed_data';
+
 import 'package:amap_map/src/compatibility/color_extensions.dart';
 import 'package:flutter/foundation.dart' show listEquals;
 import 'package:flutter/material.dart' show Color;
 import 'package:x_amap_base/x_amap_base.dart';
 import 'base_overlay.dart';
 import 'polyline.dart';
+import 'viewport_clip.dart';
 
 /// 线相关的覆盖物类，内部的属性，描述了覆盖物的纹理、颜色、线宽等特征
 class Polygon extends BaseOverlay {
   /// 默认构造函数
   Polygon(
-      {required this.points,
+      {this.points = const <LatLng>[],
       double strokeWidth = 10,
       this.strokeColor = const Color(0xCC00BFFF),
       this.fillColor = const Color(0xC487CEFA),
       this.visible = true,
-      this.joinType = JoinType.bevel})
-      : assert(points.isNotEmpty),
+      this.joinType = JoinType.bevel,
+      this.clip,
+      this.encodedPoints,
+      this.encodedPrecision,
+      this.holes,
+      this.encodedHoles,
+      this.wkb})
+      : assert(points.isNotEmpty || encodedPoints != null || wkb != null),
+        assert(encodedPoints == null ||
+            encodedPoints is String ||
+            encodedPoints is Uint8List),
         strokeWidth = (strokeWidth <= 0 ? 10 : strokeWidth),
         super();
 
-  /// 覆盖物的坐标点数组,不能为空
+  /// 覆盖物的坐标点数组，没有设置[encodedPoints]时不能为空
   final List<LatLng> points;
 
+  /// 压缩的外环坐标点，设置后忽略[points]，格式同[Polyline.encodedPoints]。
+  /// 目前仅支持Android，设置后不再发送[points]，iOS端不会显示该多边形
+  final Object? encodedPoints;
+
+  /// [encodedPoints]和[encodedHoles]的小数位数
+  final int? encodedPrecision;
+
+  /// 洞（内环），目前仅支持Android，iOS端忽略该字段
+  final List<List<LatLng>>? holes;
+
+  /// 压缩的洞，元素为 String 或 Uint8List，排在[holes]之后，目前仅支持Android
+  final List<Object>? encodedHoles;
+
+  /// WKB 编码的 Polygon，优先于[encodedPoints]和[points]；
+  /// 没有设置[holes]和[encodedHoles]时使用其中的内环作为洞。
+  /// 目前仅支持Android，设置后不再发送[points]，iOS端不会显示该多边形
+  final Uint8List? wkb;
+
   /// 边框宽度,单位为逻辑像素，同Android中的dp，iOS中的point
   final double strokeWidth;
 
@@ -41,6 +71,9 @@ class Polygon extends BaseOverlay {
   /// 连接点类型,该参数不支持copy时修改，仅能在初始化时设置一次
   final JoinType joinType;
 
+  /// 按视口裁剪，为空时不裁剪，目前仅支持Android
+  final ViewportClip? clip;
+
   /// 实际copy函数
   Polygon copyWith({
     List<LatLng>? pointsParam,
@@ -48,6 +81,12 @@ class Polygon extends BaseOverlay {
     Color? strokeColorParam,
     Color? fillColorParam,
     bool? visibleParam,
+    ViewportClip? clipParam,
+    Object? encodedPointsParam,
+    int? encodedPrecisionParam,
+    List<List<LatLng>>? holesParam,
+    List<Object>? encodedHolesParam,
+    Uint8List? wkbParam,
   }) {
     Polygon copyPolyline = Polygon(
       points: pointsParam ?? points,
@@ -56,6 +95,12 @@ class Polygon extends BaseOverlay {
       fillColor: fillColorParam ?? fillColor,
       visible: visibleParam ?? visible,
       joinType: joinType,
+      clip: clipParam ?? clip,
+      encodedPoints: encodedPointsParam ?? encodedPoints,
+      encodedPrecision: encodedPrecisionParam ?? encodedPrecision,
+      holes: holesParam ?? holes,
+      encodedHoles: encodedHolesParam ?? encodedHoles,
+      wkb: wkbParam ?? wkb,
     );
     copyPolyline.setIdForCopy(id);
     return copyPolyline;
@@ -76,12 +121,28 @@ class Polygon extends BaseOverlay {
     }
 
     addIfPresent('id', id);
-    json['points'] = _pointsToJson();
+    if (wkb != null) {
+      json['wkb'] = wkb;
+    } else if (encodedPoints != null) {
+      json['encodedPoints'] = encodedPoints;
+    } else {
+      json['points'] = _pointsToJson();
+    }
+    addIfPresent('encodedPrecision', encodedPrecision);
+    if (holes != null || encodedHoles != null) {
+      json['holes'] = <dynamic>[
+        ...?holes?.map((List<LatLng> hole) =>
+            hole.map((LatLng point) => point.toJson()).toList()),
+        ...?encodedHoles,
+      ];
+    }
     addIfPresent('strokeWidth', strokeWidth);
     addIfPresent('strokeColor', strokeColor.argbValue);
     addIfPresent('fillColor', fillColor.argbValue);
     addIfPresent('visible', visible);
     addIfPresent('joinType', joinType.index);
+    // 置空时显式发送关闭，否则原生沿用之前的设置
+    json['clip'] = clip?.toMap() ?? const <String, dynamic>{'enabled': false};
     return json;
   }
 
@@ -93,24 +154,66 @@ class Polygon extends BaseOverlay {
     final Polygon typedOther = other;
     return id == typedOther.id &&
         listEquals(points, typedOther.points) &&
+        _encodedPointsEqual(encodedPoints, typedOther.encodedPoints) &&
+        encodedPrecision == typedOther.encodedPrecision &&
+        _holesEqual(holes, typedOther.holes) &&
+        _encodedHolesEqual(encodedHoles, typedOther.encodedHoles) &&
+        listEquals(wkb, typedOther.wkb) &&
         strokeWidth == typedOther.strokeWidth &&
         strokeColor == typedOther.strokeColor &&
         fillColor == typedOther.fillColor &&
         visible == typedOther.visible &&
-        joinType == typedOther.joinType;
+        joinType == typedOther.joinType &&
+        clip == typedOther.clip;
   }
 
   @override
   int get hashCode => Object.hashAll(<Object?>[
         id,
         points,
+        _bytesHash(encodedPoints),
+        encodedPrecision,
+        holes,
+        encodedHoles == null
+            ? null
+            : Object.hashAll(encodedHoles!.map(_bytesHash)),
+        _bytesHash(wkb),
         strokeWidth,
         strokeColor,
         fillColor,
         visible,
-        joinType
+        joinType,
+        clip
       ]);
 
+  /// [encodedPoints]和[encodedHoles]的元素为 Uint8List 时按内容比较
+  static bool _encodedPointsEqual(Object? a, Object? b) {
+    if (a is Uint8List && b is Uint8List) return listEquals(a, b);
+    return a == b;
+  }
+
+  static bool _encodedHolesEqual(List<Object>? a, List<Object>? b) {
+    if (a == null || b == null) return a == b;
+    if (a.length != b.length) return false;
+    for (int i = 0; i < a.length; i++) {
+      if (!_encodedPointsEqual(a[i], b[i])) return false;
+    }
+    return true;
+  }
+
+  /// 与[operator ==]一致，Uint8List 按内容计算哈希
+  static Object? _bytesHash(Object? value) =>
+      value is Uint8List ? Object.hashAll(value) : value;
+
+  static bool _holesEqual(List<List<LatLng>>? a, List<List<LatLng>>? b) {
+    if (a == null || b == null) return a == b;
+    if (a.length != b.length) return false;
+    for (int i = 0; i < a.length; i++) {
+      if (!listEquals(a[i], b[i])) return false;
+    }
+    return true;
+  }
+
   dynamic _pointsToJson() {
     final List<dynamic> result = <dynamic>[];
     for (final LatLng point in points) {
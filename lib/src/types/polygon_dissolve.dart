@@ -0,0 +1,61 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+import 'package:amap_map/src/compatibility/color_extensions.dart';
+import 'package:flutter/material.dart' show Color;
+
+/// 需要合并的一组相邻多边形，见[AMapController.dissolvePolygons]
+class PolygonDissolveGroup {
+  const PolygonDissolveGroup({
+    required this.key,
+    required this.polygonIds,
+    this.fillColor,
+    this.strokeColor,
+    this.strokeWidth,
+    this.zIndex,
+  });
+
+  /// 分组标识，同 key 再次合并时替换旧结果
+  final String key;
+
+  /// 组内多边形 id
+  final List<String> polygonIds;
+
+  /// 合并结果的填充色，为空时取第一个成员的颜色
+  final Color? fillColor;
+
+  /// 合并结果的边框颜色，为空时取第一个成员的颜色
+  final Color? strokeColor;
+
+  /// 合并结果的边框宽度（dp），为空时取第一个成员的宽度
+  final double? strokeWidth;
+
+  /// 合并结果的层级，为空时取第一个成员的层级
+  final double? zIndex;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('key', key);
+    addIfPresent('ids', polygonIds);
+    addIfPresent('fillColor', fillColor?.argbValue);
+    addIfPresent('strokeColor', strokeColor?.argbValue);
+    addIfPresent('strokeWidth', strokeWidth);
+    addIfPresent('zIndex', zIndex);
+    return json;
+  }
+}
@@ -2,12 +2,21 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:typed_data';
+
 import 'package:amap_map/src/compatibility/color_extensions.dart';
 import 'package:amap_map/src/types/bitmap.dart';
 import 'package:flutter/foundation.dart' show listEquals;
 import 'package:flutter/material.dart' show Color;
 import 'package:x_amap_base/x_amap_base.dart';
 import 'base_overlay.dart';
+import 'color_ramp.dart';
+import 'polyline_snap.dart';
+import 'viewport_clip.dart';
+
+/// 折线点击回调，[snap]为点击位置在折线上对应的位置，没有按容差命中时为空
+typedef PolylineTapDetailCallback = void Function(
+    String id, LatLng? tapPosition, PolylineSnap? snap);
 
 /// 虚线类型
 enum DashLineType {
@@ -48,11 +57,136 @@ enum JoinType {
   round,
 }
 
+/// 顶点区间的颜色，覆盖顶点下标 [start, end)
+///
+/// 区间之间的空隙沿用前一个区间的值，最后一个区间之后（包括之后追加的顶点）沿用最后的值。
+/// 目前仅支持Android
+class ColorSpan {
+  const ColorSpan(this.start, this.end, this.color);
+
+  final int start;
+  final int end;
+  final Color color;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is ColorSpan &&
+        start == other.start &&
+        end == other.end &&
+        color == other.color;
+  }
+
+  @override
+  int get hashCode => Object.hash(start, end, color);
+}
+
+/// 顶点区间的纹理，[textureIndex]为[Polyline.customTextureList]中的下标，区间规则同[ColorSpan]。
+/// 目前仅支持Android
+class TextureSpan {
+  const TextureSpan(this.start, this.end, this.textureIndex);
+
+  final int start;
+  final int end;
+  final int textureIndex;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is TextureSpan &&
+        start == other.start &&
+        end == other.end &&
+        textureIndex == other.textureIndex;
+  }
+
+  @override
+  int get hashCode => Object.hash(start, end, textureIndex);
+}
+
+/// 按缩放级别简化折线（LOD）
+///
+/// 原生侧按 Douglas-Peucker 预先计算每个顶点的重要度，缩放级别变化时只显示在当前级别下
+/// 偏差超过[tolerance]的顶点，适合点数很多的轨迹。目前仅支持Android，iOS端始终绘制全部顶点
+class PolylineLod {
+  const PolylineLod({this.enabled = true, this.tolerance = 1});
+
+  /// 是否开启
+  final bool enabled;
+
+  /// 简化容差（dp），越大显示的顶点越少
+  final double tolerance;
+
+  dynamic toMap() => <String, dynamic>{
+        'enabled': enabled,
+        'tolerance': tolerance,
+      };
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is PolylineLod &&
+        enabled == other.enabled &&
+        tolerance == other.tolerance;
+  }
+
+  @override
+  int get hashCode => Object.hash(enabled, tolerance);
+}
+
+/// 沿折线按固定屏幕间距摆放的图标，如方向箭头
+///
+/// 图标位置由原生在后台线程计算，只为视口内的位置创建 Marker。目前仅支持Android
+class PolylineDecoration {
+  const PolylineDecoration({
+    this.enabled = true,
+    this.icon,
+    this.spacing = 80,
+    this.rotate = true,
+  });
+
+  /// 是否开启
+  final bool enabled;
+
+  /// 图标，为空时使用默认箭头
+  final BitmapDescriptor? icon;
+
+  /// 图标间距（dp）
+  final double spacing;
+
+  /// 图标是否随折线方向旋转
+  final bool rotate;
+
+  dynamic toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{
+      'enabled': enabled,
+      'spacing': spacing,
+      'rotate': rotate,
+    };
+    if (icon != null) {
+      json['icon'] = icon!.toMap();
+    }
+    return json;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is PolylineDecoration &&
+        enabled == other.enabled &&
+        icon == other.icon &&
+        spacing == other.spacing &&
+        rotate == other.rotate;
+  }
+
+  @override
+  int get hashCode => Object.hash(enabled, icon, spacing, rotate);
+}
+
 /// 线相关的覆盖物类，内部的属性，描述了覆盖物的纹理、颜色、线宽等特征
 class Polyline extends BaseOverlay {
   /// 默认构造函数
   Polyline({
-    required this.points,
+    this.points = const <LatLng>[],
     double width = 10,
     this.visible = true,
     this.geodesic = false,
@@ -62,19 +196,52 @@ class Polyline extends BaseOverlay {
     this.joinType = JoinType.bevel,
     this.customTexture,
     this.onTap,
+    this.onTapDetail,
     this.color = const Color(0xCCC4E0F0),
     this.colorList,
     this.gradient = false,
     this.zIndex = 10.0,
-  })  : assert(points.isNotEmpty),
+    this.lod,
+    this.clip,
+    this.customTextureList,
+    this.colorSpans,
+    this.textureSpans,
+    this.colorRamp,
+    this.colorRampValues,
+    this.batched = false,
+    this.decoration,
+    this.encodedPoints,
+    this.encodedPrecision,
+    this.wkb,
+  })  : assert(points.isNotEmpty || encodedPoints != null || wkb != null),
+        assert(encodedPoints == null ||
+            encodedPoints is String ||
+            encodedPoints is Uint8List),
+        assert((colorRamp == null) == (colorRampValues == null),
+            'colorRamp和colorRampValues需要同时设置'),
         assert(colorList == null || colorList.isNotEmpty, 'colorList不能为空'),
         width = (width <= 0 ? 10 : width),
         alpha = (alpha < 0 ? 0 : (alpha > 1 ? 1 : alpha)),
         super();
 
-  /// 覆盖物的坐标点数组,points不能为空
+  /// 覆盖物的坐标点数组，没有设置[encodedPoints]时不能为空
   final List<LatLng> points;
 
+  /// 压缩的坐标点，设置后忽略[points]，由原生解码
+  ///
+  /// String 为 encoded polyline（精度默认5）；Uint8List 为依次的 lat、lng 差值，
+  /// zigzag 后按 varint 编码（精度默认6）。
+  ///
+  /// 目前仅支持Android。设置后不再发送[points]，iOS端只读取[points]，不会显示该折线
+  final Object? encodedPoints;
+
+  /// [encodedPoints]的小数位数
+  final int? encodedPrecision;
+
+  /// WKB 编码的 LineString，优先于[encodedPoints]和[points]。
+  /// 目前仅支持Android，设置后不再发送[points]，iOS端不会显示该折线
+  final Uint8List? wkb;
+
   /// 线宽,单位为逻辑像素，同Android中的dp，iOS中的point
   final double width;
 
@@ -112,9 +279,43 @@ class Polyline extends BaseOverlay {
   /// 点击回调（回调参数为id)
   final ArgumentCallback<String>? onTap;
 
+  /// 带点击位置的点击回调，点击容差见[AMapController.setPolylineTapTolerance]。
+  /// 点击位置目前仅支持Android，iOS端回调时点击位置与吸附结果为空
+  final PolylineTapDetailCallback? onTapDetail;
+
   /// 层级，数值越大越靠上，默认为10，确保在TileOverlay之上
   final double zIndex;
 
+  /// 按缩放级别简化，为空时不简化，目前仅支持Android
+  final PolylineLod? lod;
+
+  /// 按视口裁剪，为空时不裁剪，目前仅支持Android
+  final ViewportClip? clip;
+
+  /// 分段纹理列表，配合[textureSpans]使用，目前仅支持Android，iOS端只使用[customTexture]
+  final List<BitmapDescriptor>? customTextureList;
+
+  /// 按顶点区间设置颜色，与[colorRamp]同时设置时以[colorRamp]为准，目前仅支持Android
+  final List<ColorSpan>? colorSpans;
+
+  /// 按顶点区间设置纹理，目前仅支持Android
+  final List<TextureSpan>? textureSpans;
+
+  /// 按顶点数值着色的色带，数值由[colorRampValues]提供，目前仅支持Android
+  final ColorRamp? colorRamp;
+
+  /// 每个顶点的数值（如速度），由原生按[colorRamp]映射为颜色
+  final List<double>? colorRampValues;
+
+  /// 是否与样式相同的其他折线合并为一条原生折线绘制，适合大量样式相同的短线，只在创建时生效
+  ///
+  /// 使用纹理、颜色列表、渐变、分段样式、[lod]、[clip]或不可见的折线不会合并；
+  /// 合并后的折线不支持追加顶点、吸附和逐步绘制。目前仅支持Android，iOS端忽略该字段
+  final bool batched;
+
+  /// 沿线摆放的图标，为空时不摆放（已摆放的图标被移除），目前仅支持Android
+  final PolylineDecoration? decoration;
+
   /// 实际copy函数
   Polyline copyWith({
     List<LatLng>? pointsParam,
@@ -127,9 +328,22 @@ class Polyline extends BaseOverlay {
     JoinType? joinTypeParam,
     BitmapDescriptor? customTextureParam,
     ArgumentCallback<String>? onTapParam,
+    PolylineTapDetailCallback? onTapDetailParam,
     Color? colorParam,
     List<int>? colorListParam,
     bool? gradientParam,
+    PolylineLod? lodParam,
+    ViewportClip? clipParam,
+    List<BitmapDescriptor>? customTextureListParam,
+    List<ColorSpan>? colorSpansParam,
+    List<TextureSpan>? textureSpansParam,
+    ColorRamp? colorRampParam,
+    List<double>? colorRampValuesParam,
+    bool? batchedParam,
+    PolylineDecoration? decorationParam,
+    Object? encodedPointsParam,
+    int? encodedPrecisionParam,
+    Uint8List? wkbParam,
   }) {
     Polyline copyPolyline = Polyline(
       points: pointsParam ?? points,
@@ -142,10 +356,23 @@ class Polyline extends BaseOverlay {
       joinType: joinTypeParam ?? joinType,
       customTexture: customTextureParam ?? customTexture,
       onTap: onTapParam ?? onTap,
+      onTapDetail: onTapDetailParam ?? onTapDetail,
       color: colorParam ?? color,
       colorList: colorListParam ?? colorList,
       gradient: gradientParam ?? gradient,
       zIndex: zIndexParam ?? zIndex,
+      lod: lodParam ?? lod,
+      clip: clipParam ?? clip,
+      customTextureList: customTextureListParam ?? customTextureList,
+      colorSpans: colorSpansParam ?? colorSpans,
+      textureSpans: textureSpansParam ?? textureSpans,
+      colorRamp: colorRampParam ?? colorRamp,
+      colorRampValues: colorRampValuesParam ?? colorRampValues,
+      batched: batchedParam ?? batched,
+      decoration: decorationParam ?? decoration,
+      encodedPoints: encodedPointsParam ?? encodedPoints,
+      encodedPrecision: encodedPrecisionParam ?? encodedPrecision,
+      wkb: wkbParam ?? wkb,
     );
     copyPolyline.setIdForCopy(id);
     return copyPolyline;
@@ -166,7 +393,14 @@ class Polyline extends BaseOverlay {
     }
 
     addIfPresent('id', id);
-    json['points'] = _pointsToJson();
+    if (wkb != null) {
+      json['wkb'] = wkb;
+    } else if (encodedPoints != null) {
+      json['encodedPoints'] = encodedPoints;
+      addIfPresent('encodedPrecision', encodedPrecision);
+    } else {
+      json['points'] = _pointsToJson();
+    }
     addIfPresent('width', width);
     addIfPresent('visible', visible);
     addIfPresent('geodesic', geodesic);
@@ -179,6 +413,36 @@ class Polyline extends BaseOverlay {
     addIfPresent('colorList', colorList);
     addIfPresent('gradient', gradient);
     addIfPresent('zIndex', zIndex);
+    // 置空时显式发送关闭，否则原生沿用之前的设置
+    json['lod'] = lod?.toMap() ?? _disabledOption;
+    json['clip'] = clip?.toMap() ?? _disabledOption;
+    addIfPresent(
+        'customTextureList',
+        customTextureList
+            ?.map((BitmapDescriptor texture) => texture.toMap())
+            .toList());
+    addIfPresent(
+        'colorSpans',
+        colorSpans == null
+            ? null
+            : _spansToJson(colorSpans!.map((ColorSpan span) =>
+                <int>[span.start, span.end, span.color.argbValue])));
+    addIfPresent(
+        'textureSpans',
+        textureSpans == null
+            ? null
+            : _spansToJson(textureSpans!.map((TextureSpan span) =>
+                <int>[span.start, span.end, span.textureIndex])));
+    json['decoration'] = decoration?.toMap() ?? _disabledOption;
+    if (batched) {
+      json['batched'] = true;
+    }
+    if (colorRamp != null && colorRampValues != null) {
+      json['colorRamp'] = <String, dynamic>{
+        ...colorRamp!.toMap(),
+        'values': Float64List.fromList(colorRampValues!),
+      };
+    }
     return json;
   }
 
@@ -190,6 +454,9 @@ class Polyline extends BaseOverlay {
     final Polyline typedOther = other;
     return id == typedOther.id &&
         listEquals(points, typedOther.points) &&
+        _encodedPointsEqual(encodedPoints, typedOther.encodedPoints) &&
+        encodedPrecision == typedOther.encodedPrecision &&
+        listEquals(wkb, typedOther.wkb) &&
         width == typedOther.width &&
         visible == typedOther.visible &&
         geodesic == typedOther.geodesic &&
@@ -200,7 +467,37 @@ class Polyline extends BaseOverlay {
         color == typedOther.color &&
         listEquals(colorList, typedOther.colorList) &&
         gradient == typedOther.gradient &&
-        zIndex == typedOther.zIndex;
+        zIndex == typedOther.zIndex &&
+        lod == typedOther.lod &&
+        clip == typedOther.clip &&
+        listEquals(customTextureList, typedOther.customTextureList) &&
+        listEquals(colorSpans, typedOther.colorSpans) &&
+        listEquals(textureSpans, typedOther.textureSpans) &&
+        colorRamp == typedOther.colorRamp &&
+        listEquals(colorRampValues, typedOther.colorRampValues) &&
+        batched == typedOther.batched &&
+        decoration == typedOther.decoration;
+  }
+
+  /// [encodedPoints]为 Uint8List 时按内容比较
+  static bool _encodedPointsEqual(Object? a, Object? b) {
+    if (a is Uint8List && b is Uint8List) return listEquals(a, b);
+    return a == b;
+  }
+
+  /// 与[operator ==]一致，Uint8List 按内容计算哈希
+  static Object? _bytesHash(Object? value) =>
+      value is Uint8List ? Object.hashAll(value) : value;
+
+  /// lod/clip/decoration 为空时发送的关闭选项
+  static const Map<String, dynamic> _disabledOption = <String, dynamic>{
+    'enabled': false,
+  };
+
+  /// 按 [start, end, value] 三元组平铺
+  static Int32List _spansToJson(Iterable<List<int>> spans) {
+    return Int32List.fromList(
+        spans.expand((List<int> triple) => triple).toList());
   }
 
   dynamic _pointsToJson() {
@@ -215,6 +512,9 @@ class Polyline extends BaseOverlay {
   int get hashCode => Object.hashAll(<Object?>[
         id,
         points,
+        _bytesHash(encodedPoints),
+        encodedPrecision,
+        _bytesHash(wkb),
         width,
         visible,
         geodesic,
@@ -226,6 +526,15 @@ class Polyline extends BaseOverlay {
         colorList,
         gradient,
         zIndex,
+        lod,
+        clip,
+        customTextureList,
+        colorSpans,
+        textureSpans,
+        colorRamp,
+        colorRampValues,
+        batched,
+        decoration,
       ]);
 }
 
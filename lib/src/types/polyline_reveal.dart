@@ -0,0 +1,29 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+/// 折线逐步绘制动画的缓动曲线
+enum RevealEasing {
+  linear,
+  easeIn,
+  easeOut,
+  easeInOut,
+}
+
+/// 折线逐步绘制动画结束回调的内容
+class PolylineRevealEnd {
+  const PolylineRevealEnd(this.polylineId, this.finished);
+
+  /// 折线 id
+  final String polylineId;
+
+  /// 是否完整播放，被新的动画、删除折线等打断时为false
+  final bool finished;
+}
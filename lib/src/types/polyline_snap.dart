@@ -0,0 +1,72 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+import 'package:x_amap_base/x_amap_base.dart';
+
+/// 点吸附到折线上的结果，距离单位为米
+class PolylineSnap {
+  const PolylineSnap({
+    required this.position,
+    required this.segmentIndex,
+    required this.distanceAlong,
+    required this.distanceRemaining,
+    required this.crossTrack,
+  });
+
+  /// 折线上离输入点最近的位置
+  final LatLng position;
+
+  /// 所在线段的起点下标
+  final int segmentIndex;
+
+  /// 从折线起点沿线到[position]的距离
+  final double distanceAlong;
+
+  /// 从[position]沿线到折线终点的距离
+  final double distanceRemaining;
+
+  /// 输入点到[position]的距离
+  final double crossTrack;
+
+  static PolylineSnap? fromMap(dynamic json) {
+    if (json == null) {
+      return null;
+    }
+    return PolylineSnap(
+      position: LatLng.fromJson(json['position'])!,
+      segmentIndex: json['segmentIndex'] as int,
+      distanceAlong: (json['distanceAlong'] as num).toDouble(),
+      distanceRemaining: (json['distanceRemaining'] as num).toDouble(),
+      crossTrack: (json['crossTrack'] as num).toDouble(),
+    );
+  }
+
+  @override
+  String toString() {
+    return 'PolylineSnap{position: $position, segmentIndex: $segmentIndex, '
+        'distanceAlong: $distanceAlong, distanceRemaining: $distanceRemaining, '
+        'crossTrack: $crossTrack}';
+  }
+}
+
+/// 定位点吸附回调的内容
+class PolylineLocationSnap {
+  const PolylineLocationSnap(this.polylineId, this.location, this.snap);
+
+  /// 吸附的折线 id
+  final String polylineId;
+
+  /// 原始定位点
+  final LatLng location;
+
+  /// 吸附结果，超出最大吸附距离时为空
+  final PolylineSnap? snap;
+}
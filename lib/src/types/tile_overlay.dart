@@ -1,6 +1,10 @@
 // Copyright 2024
 // TileOverlay support for amap_map plugin
 
+import 'package:amap_map/src/compatibility/color_extensions.dart';
+import 'package:flutter/foundation.dart' show listEquals;
+import 'package:flutter/material.dart' show Color;
+
 import 'base_overlay.dart';
 
 /// 瓦片提供者抽象类
@@ -79,6 +83,205 @@ class UrlTileProvider extends TileProvider {
   int get hashCode => Object.hash(urlTemplate, tileWidth, tileHeight);
 }
 
+/// 矢量瓦片（Mapbox Vector Tile）提供者
+///
+/// 按 URL 模板加载 .pbf/.mvt 瓦片，在原生侧按[style]渲染为图片，
+/// 占位符同[UrlTileProvider]。目前仅支持Android，iOS端无法渲染矢量瓦片
+class MvtTileProvider extends TileProvider {
+  /// URL 模板
+  final String urlTemplate;
+
+  /// 渲染样式
+  final MvtStyle style;
+
+  /// 源瓦片的最大缩放级别，更高级别由该级别的瓦片放大渲染；为空时取[TileOverlay.maxZoom]
+  final int? maxSourceZoom;
+
+  /// 瓦片宽度，默认 256
+  final int tileWidth;
+
+  /// 瓦片高度，默认 256
+  final int tileHeight;
+
+  MvtTileProvider({
+    required this.urlTemplate,
+    required this.style,
+    this.maxSourceZoom,
+    this.tileWidth = 256,
+    this.tileHeight = 256,
+  });
+
+  @override
+  String getTileUrl(int x, int y, int zoom) {
+    return urlTemplate
+        .replaceAll('{x}', x.toString())
+        .replaceAll('{y}', y.toString())
+        .replaceAll('{z}', zoom.toString());
+  }
+
+  @override
+  Map<String, dynamic> toMap() {
+    return {
+      'type': 'mvt',
+      'urlTemplate': urlTemplate,
+      'tileWidth': tileWidth,
+      'tileHeight': tileHeight,
+      'style': style.toMap(),
+      if (maxSourceZoom != null) 'maxSourceZoom': maxSourceZoom,
+    };
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (other.runtimeType != runtimeType) return false;
+    if (other is! MvtTileProvider) return false;
+    return urlTemplate == other.urlTemplate &&
+        style == other.style &&
+        maxSourceZoom == other.maxSourceZoom &&
+        tileWidth == other.tileWidth &&
+        tileHeight == other.tileHeight;
+  }
+
+  @override
+  int get hashCode =>
+      Object.hash(urlTemplate, style, maxSourceZoom, tileWidth, tileHeight);
+}
+
+/// 矢量瓦片的渲染样式，[layers]按顺序绘制，后面的规则画在上层
+class MvtStyle {
+  const MvtStyle({this.background, this.layers = const <MvtStyleLayer>[]});
+
+  /// 背景色，为空时透明
+  final Color? background;
+
+  /// 绘制规则
+  final List<MvtStyleLayer> layers;
+
+  Map<String, dynamic> toMap() {
+    return {
+      if (background != null) 'background': background!.argbValue,
+      'layers': layers.map((MvtStyleLayer layer) => layer.toMap()).toList(),
+    };
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is MvtStyle &&
+        background == other.background &&
+        listEquals(layers, other.layers);
+  }
+
+  @override
+  int get hashCode => Object.hash(background, Object.hashAll(layers));
+}
+
+/// 矢量瓦片要素的绘制方式
+enum MvtLayerType {
+  /// 填充面
+  fill,
+
+  /// 线
+  line,
+
+  /// 圆点
+  circle,
+}
+
+/// 矢量瓦片的一条绘制规则，宽度和半径单位为瓦片像素
+class MvtStyleLayer {
+  const MvtStyleLayer({
+    required this.layer,
+    this.type = MvtLayerType.fill,
+    this.color,
+    this.outlineColor,
+    this.width,
+    this.radius,
+    this.minZoom,
+    this.maxZoom,
+    this.filterKey,
+    this.filterValues,
+  }) : assert(filterKey == null || filterValues != null,
+            'filterKey和filterValues需要同时设置');
+
+  /// 源瓦片中的图层名
+  final String layer;
+
+  /// 绘制方式
+  final MvtLayerType type;
+
+  /// 填充或线的颜色
+  final Color? color;
+
+  /// 填充面的边线颜色
+  final Color? outlineColor;
+
+  /// 线宽
+  final double? width;
+
+  /// 圆点半径
+  final double? radius;
+
+  /// 生效的最小缩放级别
+  final double? minZoom;
+
+  /// 生效的最大缩放级别
+  final double? maxZoom;
+
+  /// 过滤的属性名，为空时不过滤
+  final String? filterKey;
+
+  /// 属性值在[filterValues]中的要素才绘制
+  final List<Object>? filterValues;
+
+  Map<String, dynamic> toMap() {
+    final Map<String, dynamic> json = <String, dynamic>{};
+
+    void addIfPresent(String fieldName, dynamic value) {
+      if (value != null) {
+        json[fieldName] = value;
+      }
+    }
+
+    addIfPresent('layer', layer);
+    addIfPresent('type', type.name);
+    addIfPresent('color', color?.argbValue);
+    addIfPresent('outlineColor', outlineColor?.argbValue);
+    addIfPresent('width', width);
+    addIfPresent('radius', radius);
+    addIfPresent('minZoom', minZoom);
+    addIfPresent('maxZoom', maxZoom);
+    if (filterKey != null) {
+      json['filter'] = <String, dynamic>{
+        'key': filterKey,
+        'in': filterValues ?? <Object>[],
+      };
+    }
+    return json;
+  }
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is MvtStyleLayer &&
+        layer == other.layer &&
+        type == other.type &&
+        color == other.color &&
+        outlineColor == other.outlineColor &&
+        width == other.width &&
+        radius == other.radius &&
+        minZoom == other.minZoom &&
+        maxZoom == other.maxZoom &&
+        filterKey == other.filterKey &&
+        listEquals(filterValues, other.filterValues);
+  }
+
+  @override
+  int get hashCode => Object.hash(layer, type, color, outlineColor, width,
+      radius, minZoom, maxZoom, filterKey, Object.hashAll(filterValues ?? []));
+}
+
 /// 瓦片图层覆盖物
 ///
 /// 用于在地图上显示在线瓦片图层，如 OSM、天地图等
@@ -105,6 +308,10 @@ class TileOverlay extends BaseOverlay {
   final bool diskCacheEnabled;
 
   /// 磁盘缓存大小（MB）
+  ///
+  /// http(s) 的[UrlTileProvider]由插件缓存瓦片，超出后按最近最少使用淘汰；
+  /// 同一 URL 模板的图层共用一个缓存目录，取其中最大的值。修改后立即生效。
+  /// 以上为Android的行为，iOS端仍按原有方式缓存
   final int diskCacheSize;
 
   /// 是否启用内存缓存
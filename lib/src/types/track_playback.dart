@@ -0,0 +1,105 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+import 'package:x_amap_base/x_amap_base.dart';
+
+/// 轨迹文件的信息，由[AMapController.startTrack]返回
+class TrackInfo {
+  const TrackInfo({
+    required this.id,
+    required this.count,
+    required this.startTime,
+    required this.endTime,
+  });
+
+  /// 轨迹 id
+  final String id;
+
+  /// 点数
+  final int count;
+
+  /// 第一个点的时间（毫秒）
+  final int startTime;
+
+  /// 最后一个点的时间（毫秒）
+  final int endTime;
+
+  static TrackInfo? fromMap(dynamic json) {
+    if (json == null) {
+      return null;
+    }
+    return TrackInfo(
+      id: json['id'] as String,
+      count: json['count'] as int,
+      startTime: json['startTime'] as int,
+      endTime: json['endTime'] as int,
+    );
+  }
+
+  @override
+  String toString() {
+    return 'TrackInfo{id: $id, count: $count, startTime: $startTime, '
+        'endTime: $endTime}';
+  }
+}
+
+/// 轨迹回放的进度
+class TrackProgress {
+  const TrackProgress({
+    required this.id,
+    required this.time,
+    required this.offset,
+    required this.fraction,
+    required this.position,
+    required this.heading,
+    required this.playing,
+  });
+
+  /// 轨迹 id
+  final String id;
+
+  /// 当前回放到的时间（毫秒），与文件中的时间一致
+  final int time;
+
+  /// 相对轨迹起点的时间
+  final Duration offset;
+
+  /// 已回放的比例，0~1
+  final double fraction;
+
+  /// 当前位置
+  final LatLng? position;
+
+  /// 当前方向，正北顺时针（度）
+  final double heading;
+
+  /// 是否正在播放
+  final bool playing;
+
+  static TrackProgress fromMap(dynamic json) {
+    return TrackProgress(
+      id: json['id'] as String,
+      time: json['time'] as int,
+      offset: Duration(milliseconds: json['offset'] as int),
+      fraction: (json['fraction'] as num).toDouble(),
+      position: LatLng.fromJson(json['position']),
+      heading: (json['heading'] as num).toDouble(),
+      playing: json['playing'] as bool,
+    );
+  }
+
+  @override
+  String toString() {
+    return 'TrackProgress{id: $id, time: $time, offset: $offset, '
+        'fraction: $fraction, position: $position, heading: $heading, '
+        'playing: $playing}';
+  }
+}
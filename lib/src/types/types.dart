@@ -24,3 +24,11 @@ export 'tile_overlay_updates.dart';
 export 'bitmap.dart';
 export 'screen_coordinate.dart';
 export 'info_window_adapter.dart';
+export 'info_window_template.dart';
+export 'viewport_clip.dart';
+export 'polyline_snap.dart';
+export 'color_ramp.dart';
+export 'polyline_reveal.dart';
+export 'track_playback.dart';
+export 'polygon_dissolve.dart';
+export 'geojson.dart';
@@ -0,0 +1,41 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+/// 按视口裁剪大型折线/多边形
+///
+/// 完整的几何只保存在原生，只把视口（含[margin]外扩）内的部分交给地图绘制，
+/// 相机停止移动后重新裁剪。洞、大地曲线和跨越180度经线的几何不裁剪。
+/// 目前仅支持Android，iOS端始终绘制完整几何
+class ViewportClip {
+  const ViewportClip({this.enabled = true, this.margin = 0.5});
+
+  /// 是否开启
+  final bool enabled;
+
+  /// 裁剪框在视口之外的外扩，占视口宽高的比例
+  final double margin;
+
+  dynamic toMap() => <String, dynamic>{
+        'enabled': enabled,
+        'margin': margin,
+      };
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    return other is ViewportClip &&
+        enabled == other.enabled &&
+        margin == other.margin;
+  }
+
+  @override
+  int get hashCode => Object.hash(enabled, margin);
+}
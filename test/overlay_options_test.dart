@@ -0,0 +1,69 @@
+// Copyright 2023-2024 kuloud
+
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+
+//     http://www.apache.org/licenses/LICENSE-2.0
+
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+
+import 'package:amap_map/amap_map.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:x_amap_base/x_amap_base.dart';
+
+const List<LatLng> _points = <LatLng>[
+  LatLng(39.909, 116.397),
+  LatLng(39.919, 116.407),
+];
+
+void main() {
+  group('Polyline.toMap', () {
+    test('sends lod options when set', () {
+      final Polyline polyline =
+          Polyline(points: _points, lod: const PolylineLod(tolerance: 2));
+      expect(polyline.toMap()['lod'],
+          <String, dynamic>{'enabled': true, 'tolerance': 2.0});
+    });
+
+    test('sends disabled lod when cleared', () {
+      final Polyline enabled =
+          Polyline(points: _points, lod: const PolylineLod());
+      // copyWith 无法把字段置空，用同一 id 重新构建，与 widget 重建时一致
+      final Polyline cleared = Polyline(points: enabled.points);
+      cleared.setIdForCopy(enabled.id);
+      expect(cleared == enabled, isFalse);
+      expect(cleared.toMap()['lod'], <String, dynamic>{'enabled': false});
+    });
+
+    test('sends disabled clip when cleared', () {
+      final Polyline clipped = Polyline(
+          points: _points, clip: const ViewportClip(margin: 0.25));
+      expect(clipped.toMap()['clip'],
+          <String, dynamic>{'enabled': true, 'margin': 0.25});
+      expect(Polyline(points: _points).toMap()['clip'],
+          <String, dynamic>{'enabled': false});
+    });
+
+    test('sends disabled decoration when cleared', () {
+      final Polyline decorated = Polyline(
+          points: _points, decoration: const PolylineDecoration(spacing: 40));
+      expect(decorated.toMap()['decoration'],
+          <String, dynamic>{'enabled': true, 'spacing': 40.0, 'rotate': true});
+      expect(Polyline(points: _points).toMap()['decoration'],
+          <String, dynamic>{'enabled': false});
+    });
+  });
+
+  group('Polygon.toMap', () {
+    test('sends disabled clip when cleared', () {
+      final Polygon clipped =
+          Polygon(points: _points, clip: const ViewportClip());
+      expect(clipped.toMap()['clip'],
+          <String, dynamic>{'enabled': true, 'margin': 0.5});
+      expect(Polygon(points: _points).toMap()['clip'],
+          <String, dynamic>{'enabled': false});
+    });
+  });
+}